@@ -20,6 +20,7 @@ import android.app.AlertDialog;
 import android.os.AsyncTask;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -45,8 +46,11 @@ import nz.bradcampbell.benchmarkdemo.widget.BarChart;
 public class MainActivity extends AppCompatActivity {
   private static final int ITERATIONS = 100;
   private static final int RESPONSES = 4;
+  private static final String TAG = "BenchmarkDemo";
 
   private BarChart barChart;
+  private String[] columnTitles;
+  private int[][] parcelSizes;
 
   private Gson gson;
 
@@ -76,7 +80,8 @@ public class MainActivity extends AppCompatActivity {
     }
 
     barChart = (BarChart)findViewById(R.id.bar_chart);
-    barChart.setColumnTitles(new String[] { "Serializable", "AutoValue Parcel", "Parceler", "PaperParcel" });
+    columnTitles = new String[] { "Serializable", "AutoValue Parcel", "Parceler", "PaperParcel" };
+    barChart.setColumnTitles(columnTitles);
 
     findViewById(R.id.btn_start).setOnClickListener(new View.OnClickListener() {
       @Override
@@ -88,6 +93,7 @@ public class MainActivity extends AppCompatActivity {
 
   private void performTests() {
     barChart.clear();
+    parcelSizes = new int[RESPONSES][columnTitles.length];
     barChart.setSections(new String[] {
         "Parcel 2 items", "Parcel 7 items", "Parcel 20 items", "Parcel 60 items" });
 
@@ -126,14 +132,26 @@ public class MainActivity extends AppCompatActivity {
         break;
     }
 
+    int column;
     if (parcelTask instanceof PaperParcelTask) {
-      barChart.addTiming(section, 3, parcelResult.runDuration / 1000f);
+      column = 3;
     } else if (parcelTask instanceof ParcelerTask) {
-      barChart.addTiming(section, 2, parcelResult.runDuration / 1000f);
+      column = 2;
     } else if (parcelTask instanceof AutoValueParcelTask) {
-      barChart.addTiming(section, 1, parcelResult.runDuration / 1000f);
+      column = 1;
     } else if (parcelTask instanceof SerializableTask) {
-      barChart.addTiming(section, 0, parcelResult.runDuration / 1000f);
+      column = 0;
+    } else {
+      return;
+    }
+
+    barChart.addTiming(section, column, parcelResult.runDuration / 1000f);
+
+    // Parcel sizes don't vary between iterations, so only log each of them once.
+    if (section >= 0 && parcelSizes[section][column] == 0) {
+      parcelSizes[section][column] = parcelResult.parcelSize;
+      Log.i(TAG, columnTitles[column] + ": " + parcelResult.objectsParcelled
+          + " items parcelled in " + parcelResult.parcelSize + " bytes");
     }
   }
 
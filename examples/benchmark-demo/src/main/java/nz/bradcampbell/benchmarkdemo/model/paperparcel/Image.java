@@ -21,6 +21,7 @@ import android.os.Parcelable;
 import paperparcel.PaperParcel;
 
 @PaperParcel
+@PaperParcel.Options(poolStrings = true)
 public final class Image implements Parcelable {
   public static final Creator<Image> CREATOR = PaperParcelImage.CREATOR;
 
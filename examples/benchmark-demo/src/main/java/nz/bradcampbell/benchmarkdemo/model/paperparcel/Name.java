@@ -21,6 +21,7 @@ import android.os.Parcelable;
 import paperparcel.PaperParcel;
 
 @PaperParcel
+@PaperParcel.Options(poolStrings = true)
 public final class Name implements Parcelable {
   public static final Parcelable.Creator<Name> CREATOR = PaperParcelName.CREATOR;
 
@@ -24,6 +24,7 @@ import java.util.List;
 import paperparcel.PaperParcel;
 
 @PaperParcel
+@PaperParcel.Options(poolStrings = true)
 public final class PaperParcelResponse implements Parcelable {
   public static final Creator<PaperParcelResponse> CREATOR = PaperParcelPaperParcelResponse.CREATOR;
 
@@ -24,6 +24,7 @@ import java.util.List;
 import paperparcel.PaperParcel;
 
 @PaperParcel
+@PaperParcel.Options(poolStrings = true)
 public final class User implements Parcelable {
   public static final Parcelable.Creator<User> CREATOR = PaperParcelUser.CREATOR;
 
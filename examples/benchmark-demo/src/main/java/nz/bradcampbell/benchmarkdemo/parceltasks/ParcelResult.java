@@ -19,9 +19,11 @@ package nz.bradcampbell.benchmarkdemo.parceltasks;
 public class ParcelResult {
   public long runDuration;
   public int objectsParcelled;
+  public int parcelSize;
 
-  public ParcelResult(long runDuration, int objectsParsed) {
+  public ParcelResult(long runDuration, int objectsParsed, int parcelSize) {
     this.runDuration = runDuration;
     this.objectsParcelled = objectsParsed;
+    this.parcelSize = parcelSize;
   }
 }
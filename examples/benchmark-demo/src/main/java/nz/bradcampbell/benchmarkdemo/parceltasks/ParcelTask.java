@@ -41,8 +41,9 @@ public abstract class ParcelTask<T> extends AsyncTask<Void, Void, ParcelResult>
     int objectCount = writeThenRead(response, parcel);
     long endTime = System.nanoTime();
     long duration = TimeUnit.NANOSECONDS.toMicros(endTime - startTime);
+    int parcelSize = parcel.dataSize();
     parcel.recycle();
-    return new ParcelResult(duration, objectCount);
+    return new ParcelResult(duration, objectCount, parcelSize);
   }
 
   @Override
@@ -16,6 +16,7 @@
 
 package paperparcel;
 
+import android.os.Parcelable;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
@@ -25,6 +26,7 @@ import java.lang.reflect.Modifier;
 
 import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
 import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.lang.annotation.RetentionPolicy.SOURCE;
 
@@ -171,6 +173,166 @@ public @interface PaperParcel {
      */
     boolean allowSerializable() default true;
 
+    /**
+     * <p>Configures PaperParcel to write enums using their ordinal instead of their name. This is
+     * faster and produces smaller parcels, but the parcelled values are only valid for as long as
+     * the order of the enum constants stays the same. PaperParcel records the number of enum
+     * constants at compile time and fails fast at runtime if constants have been added or
+     * removed since. Reordering the constants is not detected, so only use this option for
+     * parcels that are read by the same build of the app that wrote them.</p>
+     *
+     * <p>The names of the enum constants aren't checked, so they may be obfuscated.</p>
+     *
+     * <p>By default enums are written using their name.</p>
+     */
+    boolean useEnumOrdinals() default false;
+
+    /**
+     * <p>Configures PaperParcel to pack the null flags of nullable fields and the values of
+     * {@code boolean} fields into one or more leading {@code int} bitfields, rather than writing
+     * a separate {@code int} for each of them. Null values are then omitted from the parcel
+     * entirely. This produces considerably smaller parcels for classes with many optional or
+     * {@code boolean} fields.</p>
+     *
+     * <p>By default each flag is written as its own {@code int}.</p>
+     */
+    boolean packFlags() default false;
+
+    /**
+     * <p>Configures PaperParcel to write each distinct {@code String} only once per parcel. Later
+     * occurrences of the same value are written as an index into a table that is rebuilt as the
+     * parcel is read. This applies to {@code String} fields and to {@code String} elements of
+     * collections, maps and arrays, and is shared with any nested {@code PaperParcel} classes
+     * that also enable this option. This produces considerably smaller parcels for models that
+     * repeat the same values many times.</p>
+     *
+     * <p>By default every {@code String} is written in full.</p>
+     */
+    boolean poolStrings() default false;
+
+    /**
+     * <p>Configures PaperParcel to write an instance only once per parcel when it is reachable
+     * more than once, for example when the same object is shared by many items in a list. Later
+     * occurrences are written as a reference to the first, and all of them are read back as the
+     * same instance. This applies to any nested {@code PaperParcel} classes that also enable this
+     * option.</p>
+     *
+     * <p>Cycles are not supported as each instance can only be created once all of its fields
+     * have been read. Writing an instance that is reachable from its own fields fails with an
+     * {@code IllegalArgumentException}.</p>
+     *
+     * <p>By default every occurrence of an instance is written in full.</p>
+     */
+    boolean trackReferences() default false;
+
+    /**
+     * <p>Configures PaperParcel to generate a static {@code sizeOf} method next to
+     * {@code writeToParcel}, which returns the number of bytes that {@code writeToParcel} will
+     * write for a given instance. {@code writeToParcel} also uses it to grow the {@code Parcel}
+     * to the required capacity once up front, rather than repeatedly as values are written.</p>
+     *
+     * <p>Sizes are computed without writing anything for fields whose {@link TypeAdapter}s
+     * implement {@link SizedTypeAdapter}, which includes all of the built-in adapters except those
+     * for {@code Bundle}, {@code PersistableBundle}, {@code CharSequence}, {@code IBinder} and
+     * {@code Serializable} types, and for nested {@code Parcelable}s that don't enable this option
+     * themselves. If a field holds any other value, its size is unknown: {@code sizeOf} returns
+     * a negative value and the {@code Parcel} isn't grown up front, rather than the value being
+     * written twice. When {@link #poolStrings()} is also enabled, the size assumes that no string
+     * is repeated and so may be larger than the bytes written.</p>
+     *
+     * <p>Sizing doesn't track shared instances, so this option has no effect on classes that also
+     * enable {@link #trackReferences()}. Their values are written without being sized first.</p>
+     *
+     * <p>By default no {@code sizeOf} method is generated.</p>
+     */
+    boolean presize() default false;
+
+    /**
+     * <p>Configures PaperParcel to write and read {@code List}, {@code Set}, {@code Collection}
+     * and {@code Map} fields using loops in the generated class, rather than through the
+     * built-in {@link TypeAdapter}s for these types. Nested containers, such as
+     * {@code Map<String, List<Image>>}, are expanded into nested loops, so that each element
+     * only goes through a single call to the {@link TypeAdapter} of its own type. Custom
+     * {@link TypeAdapter}s are still called as usual.</p>
+     *
+     * <p>The parcelled data is identical either way, so this option can be changed without
+     * breaking compatibility with existing parcels.</p>
+     *
+     * <p>By default containers are written using their {@link TypeAdapter}s.</p>
+     */
+    boolean inlineContainers() default false;
+
+    /**
+     * <p>Configures PaperParcel to generate a compact table describing the layout of each field,
+     * rather than a read and a write statement for every field. A shared interpreter in the
+     * runtime library reads and writes the fields using this table. This generates considerably
+     * fewer methods and classes for each model, which reduces dex size and the time spent loading
+     * classes, at the cost of boxing primitive values and somewhat slower parcelling.</p>
+     *
+     * <p>The parcelled data is identical either way. This option has no effect on classes that
+     * also enable {@link #packFlags()}, {@link #presize()} or {@link #inlineContainers()}. It is
+     * most useful when applied to a whole module via {@link ProcessorConfig#options()}.</p>
+     *
+     * <p>By default a read and a write statement is generated for every field.</p>
+     */
+    boolean tableDriven() default false;
+
+    /**
+     * <p>Configures PaperParcel to read and write fields whose type is a final, non-generic
+     * {@link PaperParcel} class in the same package by calling the class generated for that type
+     * directly, rather than through its {@code CREATOR} and {@code writeToParcel} methods. This
+     * skips a {@link TypeAdapter} and two virtual calls for each nested value.</p>
+     *
+     * <p>Only enable this when those classes delegate to their generated class unchanged. Any
+     * other logic in their {@code writeToParcel} method or {@code CREATOR} is bypassed. The
+     * parcelled data is otherwise identical either way. This option has no effect on classes
+     * that also enable {@link #presize()}, or that are parcelled using {@link #tableDriven()}
+     * tables.</p>
+     *
+     * <p>By default nested classes are parcelled through their own {@code writeToParcel} method
+     * and {@code CREATOR}.</p>
+     */
+    boolean linkNested() default false;
+
+    /**
+     * <p>Marks classes that are parcelled often enough for slow paths to matter. PaperParcel
+     * then warns about every field of the class that is written using
+     * {@code Parcel#writeSerializable} or accessed using reflection, and when the class itself
+     * has to be created using reflection. Passing {@code -Apaperparcel.strict=true} to the
+     * processor turns these warnings into errors.</p>
+     *
+     * <p>By default classes are not checked.</p>
+     */
+    boolean hot() default false;
+
     boolean isLombokEnabled() default false;
   }
+
+  /**
+   * <p>Lists the concrete subtypes of an abstract or non-final {@code Parcelable} type so that
+   * fields of that type can be parcelled without {@code Parcel#writeParcelable}, which writes the
+   * full class name of every value and looks up its {@code CREATOR} using reflection. Instead, a
+   * small tag is written to identify the subtype and the subtype's {@code CREATOR} is called
+   * directly.</p>
+   *
+   * <p>For example: <pre><code>
+   * {@literal @}PaperParcel.Subtypes({ Circle.class, Square.class })
+   *  public abstract class Shape implements Parcelable {
+   *    // ...
+   *  }
+   * </code></pre></p>
+   *
+   * <p>This annotation is not required for classes whose constructors are all {@code private},
+   * as these can only be extended by classes nested in the same top-level class. PaperParcel finds
+   * the subtypes of these classes automatically.</p>
+   *
+   * <p>Each subtype must declare its own {@code CREATOR}. Values of any other type are still
+   * written using {@code Parcel#writeParcelable}.</p>
+   */
+  @Documented
+  @Retention(CLASS)
+  @Target(TYPE)
+  @interface Subtypes {
+    Class<? extends Parcelable>[] value();
+  }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import android.os.Parcel;
+
+/**
+ * <p>A {@link TypeAdapter} that can compute the number of bytes it writes for a value without
+ * writing it.</p>
+ *
+ * <p>PaperParcel uses this to implement the {@code sizeOf} method generated for classes that
+ * enable {@link PaperParcel.Options#presize()}. Adapters that don't implement this interface are
+ * still supported, but models holding their values aren't presized.</p>
+ *
+ * @param <T> The Type that this adapter reads and writes
+ */
+public interface SizedTypeAdapter<T> extends TypeAdapter<T> {
+
+  /**
+   * Returns the exact number of bytes that {@link #writeToParcel(Object, Parcel, int)} writes
+   * for {@code value}, including any padding added by {@link Parcel}. Adapters that delegate to
+   * other adapters return a negative value if the size of a nested value is unknown.
+   *
+   * @param value The object that would be written to the {@link Parcel}
+   * @return      The number of bytes written for {@code value}, or a negative value if unknown
+   */
+  int sizeOf(T value);
+}
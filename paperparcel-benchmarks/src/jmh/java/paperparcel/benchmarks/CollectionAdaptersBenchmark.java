@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import android.os.Parcel;
+import android.util.SparseArray;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import paperparcel.TypeAdapter;
+import paperparcel.internal.ArrayAdapter;
+import paperparcel.internal.ListAdapter;
+import paperparcel.internal.MapAdapter;
+import paperparcel.internal.SetAdapter;
+import paperparcel.internal.SparseArrayAdapter;
+import paperparcel.internal.StaticAdapters;
+import paperparcel.internal.Utils;
+
+/**
+ * Measures reading and writing collections of {@code String}s with each of the collection
+ * adapters. Items are wrapped with {@link Utils#nullSafeClone(TypeAdapter)} exactly as they are in
+ * generated code.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CollectionAdaptersBenchmark {
+  @Param({ "ListAdapter", "MapAdapter", "SetAdapter", "SparseArrayAdapter", "ArrayAdapter" })
+  public String adapter;
+
+  @Param({ "10", "1000" })
+  public int size;
+
+  private TypeAdapter<Object> typeAdapter;
+  private Object value;
+  private Parcel parcel;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    TypeAdapter<String> itemAdapter = Utils.nullSafeClone(StaticAdapters.STRING_ADAPTER);
+    List<String> items = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      items.add("item " + i);
+    }
+    switch (adapter) {
+      case "ListAdapter":
+        typeAdapter = (TypeAdapter) new ListAdapter<>(itemAdapter);
+        value = items;
+        break;
+      case "MapAdapter":
+        Map<String, String> map = new LinkedHashMap<>(size);
+        for (String item : items) {
+          map.put(item, item);
+        }
+        typeAdapter = (TypeAdapter) new MapAdapter<>(itemAdapter, itemAdapter);
+        value = map;
+        break;
+      case "SetAdapter":
+        Set<String> set = new LinkedHashSet<>(items);
+        typeAdapter = (TypeAdapter) new SetAdapter<>(itemAdapter);
+        value = set;
+        break;
+      case "SparseArrayAdapter":
+        SparseArray<String> sparseArray = new SparseArray<>(size);
+        for (int i = 0; i < size; i++) {
+          sparseArray.put(i, items.get(i));
+        }
+        typeAdapter = (TypeAdapter) new SparseArrayAdapter<>(itemAdapter);
+        value = sparseArray;
+        break;
+      case "ArrayAdapter":
+        typeAdapter = (TypeAdapter) new ArrayAdapter<>(String.class, itemAdapter);
+        value = items.toArray(new String[size]);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown adapter " + adapter);
+    }
+    parcel = Parcel.obtain();
+    typeAdapter.writeToParcel(value, parcel, 0);
+  }
+
+  @TearDown public void tearDown() {
+    parcel.recycle();
+  }
+
+  @Benchmark public void write() {
+    parcel.setDataPosition(0);
+    typeAdapter.writeToParcel(value, parcel, 0);
+  }
+
+  @Benchmark public Object read() {
+    parcel.setDataPosition(0);
+    return typeAdapter.readFromParcel(parcel);
+  }
+}
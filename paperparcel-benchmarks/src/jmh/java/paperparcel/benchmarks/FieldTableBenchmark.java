@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import paperparcel.PaperParcel;
+
+/**
+ * Compares the throughput of the code generated for {@code PaperParcel.Options#tableDriven()}
+ * with the default unrolled code, for two models with identical fields.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FieldTableBenchmark {
+  @Param({ "unrolled", "table" })
+  public String codec;
+
+  private Parcelable value;
+  private Parcelable.Creator<?> creator;
+  private Parcel parcel;
+
+  @Setup public void setUp() {
+    Unrolled model;
+    if ("table".equals(codec)) {
+      model = new Table();
+      creator = Table.CREATOR;
+    } else {
+      model = new Unrolled();
+      creator = Unrolled.CREATOR;
+    }
+    model.id = 42L;
+    model.name = "Jane Citizen";
+    model.email = "jane@example.com";
+    model.age = 37;
+    model.score = 0.75;
+    model.active = true;
+    model.verified = false;
+    model.tags = Arrays.asList("one", "two", "three");
+    value = model;
+
+    parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+  }
+
+  @TearDown public void tearDown() {
+    parcel.recycle();
+  }
+
+  @Benchmark public void write() {
+    parcel.setDataPosition(0);
+    value.writeToParcel(parcel, 0);
+  }
+
+  @Benchmark public Object read() {
+    parcel.setDataPosition(0);
+    return creator.createFromParcel(parcel);
+  }
+
+  @PaperParcel
+  static class Unrolled implements Parcelable {
+    static final Parcelable.Creator<Unrolled> CREATOR =
+        PaperParcelFieldTableBenchmark_Unrolled.CREATOR;
+
+    long id;
+    String name;
+    String email;
+    int age;
+    double score;
+    boolean active;
+    boolean verified;
+    List<String> tags;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelFieldTableBenchmark_Unrolled.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(tableDriven = true)
+  static final class Table extends Unrolled {
+    static final Parcelable.Creator<Table> CREATOR =
+        PaperParcelFieldTableBenchmark_Table.CREATOR;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelFieldTableBenchmark_Table.writeToParcel(this, dest, flags);
+    }
+  }
+}
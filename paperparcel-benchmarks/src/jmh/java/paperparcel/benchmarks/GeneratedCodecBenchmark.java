@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import android.os.Parcel;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import nz.bradcampbell.benchmarkdemo.model.paperparcel.Friend;
+import nz.bradcampbell.benchmarkdemo.model.paperparcel.Image;
+import nz.bradcampbell.benchmarkdemo.model.paperparcel.PaperParcelResponse;
+import nz.bradcampbell.benchmarkdemo.model.paperparcel.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the code generated for the benchmark-demo models, using the same sample responses as
+ * the on-device benchmark.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GeneratedCodecBenchmark {
+  @Param({ "tinysample", "smallsample", "mediumsample", "largesample" })
+  public String sample;
+
+  private PaperParcelResponse response;
+  private User user;
+  private Friend friend;
+  private Image image;
+
+  private Parcel responseParcel;
+  private Parcel userParcel;
+  private Parcel friendParcel;
+  private Parcel imageParcel;
+
+  @Setup public void setUp() throws IOException {
+    InputStream json = GeneratedCodecBenchmark.class.getResourceAsStream("/" + sample + ".json");
+    try (Reader reader = new InputStreamReader(json, "UTF-8")) {
+      response = new Gson().fromJson(reader, PaperParcelResponse.class);
+    }
+    user = response.getUsers().get(0);
+    friend = user.getFriends().get(0);
+    image = user.getImages().get(0);
+
+    responseParcel = Parcel.obtain();
+    response.writeToParcel(responseParcel, 0);
+    userParcel = Parcel.obtain();
+    user.writeToParcel(userParcel, 0);
+    friendParcel = Parcel.obtain();
+    friend.writeToParcel(friendParcel, 0);
+    imageParcel = Parcel.obtain();
+    image.writeToParcel(imageParcel, 0);
+  }
+
+  @TearDown public void tearDown() {
+    responseParcel.recycle();
+    userParcel.recycle();
+    friendParcel.recycle();
+    imageParcel.recycle();
+  }
+
+  @Benchmark public void writeResponse() {
+    responseParcel.setDataPosition(0);
+    response.writeToParcel(responseParcel, 0);
+  }
+
+  @Benchmark public PaperParcelResponse readResponse() {
+    responseParcel.setDataPosition(0);
+    return PaperParcelResponse.CREATOR.createFromParcel(responseParcel);
+  }
+
+  @Benchmark public void writeUser() {
+    userParcel.setDataPosition(0);
+    user.writeToParcel(userParcel, 0);
+  }
+
+  @Benchmark public User readUser() {
+    userParcel.setDataPosition(0);
+    return User.CREATOR.createFromParcel(userParcel);
+  }
+
+  @Benchmark public void writeFriend() {
+    friendParcel.setDataPosition(0);
+    friend.writeToParcel(friendParcel, 0);
+  }
+
+  @Benchmark public Friend readFriend() {
+    friendParcel.setDataPosition(0);
+    return Friend.CREATOR.createFromParcel(friendParcel);
+  }
+
+  @Benchmark public void writeImage() {
+    imageParcel.setDataPosition(0);
+    image.writeToParcel(imageParcel, 0);
+  }
+
+  @Benchmark public Image readImage() {
+    imageParcel.setDataPosition(0);
+    return Image.CREATOR.createFromParcel(imageParcel);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import paperparcel.PaperParcelProcessor;
+
+/**
+ * Measures running {@link PaperParcelProcessor} over a synthetic module in which every
+ * {@code @PaperParcel} class extends the same deep hierarchy of base classes, each with its own
+ * fields, accessors and unrelated methods.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ProcessorBenchmark {
+  private static final int FIELDS_PER_CLASS = 4;
+  private static final int OTHER_METHODS_PER_CLASS = 10;
+
+  @Param({ "2000" })
+  public int classes;
+
+  @Param({ "8" })
+  public int depth;
+
+  /** Whether the processor caches the members of shared supertypes. */
+  @Param({ "true", "false" })
+  public boolean hierarchyCache;
+
+  private JavaCompiler compiler;
+  private List<JavaFileObject> sources;
+  private File outputDirectory;
+
+  @Setup public void setUp() throws IOException {
+    compiler = ToolProvider.getSystemJavaCompiler();
+    sources = new ArrayList<>(depth + classes);
+    for (int i = 0; i < depth; i++) {
+      sources.add(baseClass(i));
+    }
+    for (int i = 0; i < classes; i++) {
+      sources.add(modelClass(i));
+    }
+    outputDirectory = File.createTempFile("paperparcel", "benchmark");
+    if (!outputDirectory.delete() || !outputDirectory.mkdir()) {
+      throw new IOException("Unable to create " + outputDirectory);
+    }
+  }
+
+  @TearDown public void tearDown() {
+    delete(outputDirectory);
+  }
+
+  @Benchmark public boolean process() {
+    List<String> options = Arrays.asList(
+        "-proc:only",
+        "-classpath", System.getProperty("java.class.path"),
+        "-s", outputDirectory.getPath(),
+        "-Apaperparcel.hierarchyCache=" + hierarchyCache);
+    JavaCompiler.CompilationTask task =
+        compiler.getTask(null, null, null, options, null, sources);
+    task.setProcessors(Collections.singletonList(new PaperParcelProcessor()));
+    if (!task.call()) {
+      throw new IllegalStateException("Processing failed");
+    }
+    return true;
+  }
+
+  private JavaFileObject baseClass(int level) {
+    String name = "Base" + level;
+    StringBuilder source = new StringBuilder()
+        .append("package test;\n")
+        .append("public abstract class ").append(name);
+    if (level == 0) {
+      source.append(" implements android.os.Parcelable {\n");
+    } else {
+      source.append(" extends Base").append(level - 1).append(" {\n");
+    }
+    for (int i = 0; i < FIELDS_PER_CLASS; i++) {
+      String field = "field" + level + "_" + i;
+      String accessor = "Field" + level + "_" + i;
+      source.append("  private String ").append(field).append(";\n")
+          .append("  public String get").append(accessor).append("() { return ")
+          .append(field).append("; }\n")
+          .append("  public void set").append(accessor).append("(String value) { ")
+          .append(field).append(" = value; }\n");
+    }
+    for (int i = 0; i < OTHER_METHODS_PER_CLASS; i++) {
+      // Each level overrides the methods of the level above.
+      source.append("  public int compute").append(i).append("(int value) { return value + ")
+          .append(level).append("; }\n");
+    }
+    return new Source(name, source.append("}\n").toString());
+  }
+
+  private JavaFileObject modelClass(int index) {
+    String name = "Model" + index;
+    String source = "package test;\n"
+        + "@paperparcel.PaperParcel\n"
+        + "public final class " + name + " extends Base" + (depth - 1) + " {\n"
+        + "  public static final android.os.Parcelable.Creator<" + name + "> CREATOR =\n"
+        + "      PaperParcel" + name + ".CREATOR;\n"
+        + "  public long id;\n"
+        + "  @Override public int describeContents() { return 0; }\n"
+        + "  @Override public void writeToParcel(android.os.Parcel dest, int flags) {\n"
+        + "    PaperParcel" + name + ".writeToParcel(this, dest, flags);\n"
+        + "  }\n"
+        + "}\n";
+    return new Source(name, source);
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  private static final class Source extends SimpleJavaFileObject {
+    private final String content;
+
+    Source(String name, String content) {
+      super(URI.create("string:///test/" + name + ".java"), Kind.SOURCE);
+      this.content = content;
+    }
+
+    @Override public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return content;
+    }
+  }
+}
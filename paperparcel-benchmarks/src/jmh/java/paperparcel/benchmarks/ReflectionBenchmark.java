@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import paperparcel.internal.Utils;
+
+/**
+ * Measures the reflective field reads and constructor calls made by generated code for private
+ * members. {@code direct} accesses the members directly, as generated code does when they are
+ * visible, and is the baseline for the other two. {@code cached} goes through {@link Utils},
+ * {@code uncached} looks each member up and makes it accessible on every call, as {@link Utils}
+ * used to.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ReflectionBenchmark {
+  private static final Class<?>[] NO_ARGS = {};
+  private static final Class<?>[] INT_ARG = { int.class };
+
+  public enum Access {
+    DIRECT, CACHED, UNCACHED
+  }
+
+  @Param({ "DIRECT", "CACHED", "UNCACHED" })
+  public Access access;
+
+  private Model model;
+
+  @Setup public void setUp() {
+    model = new Model(42);
+  }
+
+  @Benchmark public int readField() throws ReflectiveOperationException {
+    switch (access) {
+      case DIRECT:
+        return model.value;
+      case CACHED:
+        return Utils.readField(int.class, Model.class, model, "value");
+      default:
+        Field field = Model.class.getDeclaredField("value");
+        field.setAccessible(true);
+        return (Integer) field.get(model);
+    }
+  }
+
+  @Benchmark public Model init() throws ReflectiveOperationException {
+    if (access == Access.DIRECT) {
+      return new Model(42);
+    }
+    return construct(INT_ARG, 42);
+  }
+
+  /**
+   * Alternates between two constructors of the same class, each of which is cached separately by
+   * its argument classes.
+   */
+  @Benchmark public Model constructorLookup() throws ReflectiveOperationException {
+    if (access == Access.DIRECT) {
+      new Model();
+      return new Model(42);
+    }
+    construct(NO_ARGS);
+    return construct(INT_ARG, 42);
+  }
+
+  private Model construct(Class<?>[] argClasses, Object... args)
+      throws ReflectiveOperationException {
+    if (access == Access.CACHED) {
+      return Utils.init(Model.class, argClasses, args);
+    }
+    Constructor<Model> constructor = Model.class.getDeclaredConstructor(argClasses);
+    constructor.setAccessible(true);
+    return constructor.newInstance(args);
+  }
+
+  public static final class Model {
+    private final int value;
+
+    private Model() {
+      this(0);
+    }
+
+    private Model(int value) {
+      this.value = value;
+    }
+  }
+}
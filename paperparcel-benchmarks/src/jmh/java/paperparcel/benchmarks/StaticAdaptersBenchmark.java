@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.benchmarks;
+
+import android.os.Bundle;
+import android.os.IBinder;
+import android.os.Parcel;
+import android.os.PersistableBundle;
+import android.util.Size;
+import android.util.SizeF;
+import android.util.SparseBooleanArray;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import paperparcel.TypeAdapter;
+import paperparcel.internal.StaticAdapters;
+
+/** Measures reading and writing a typical value with each of the {@link StaticAdapters}. */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class StaticAdaptersBenchmark {
+  @Param({
+      "INTEGER_ADAPTER",
+      "BOOLEAN_ADAPTER",
+      "DOUBLE_ADAPTER",
+      "FLOAT_ADAPTER",
+      "LONG_ADAPTER",
+      "BYTE_ADAPTER",
+      "CHARACTER_ADAPTER",
+      "SHORT_ADAPTER",
+      "BOOLEAN_ARRAY_ADAPTER",
+      "BUNDLE_ADAPTER",
+      "BYTE_ARRAY_ADAPTER",
+      "CHAR_ARRAY_ADAPTER",
+      "CHAR_SEQUENCE_ADAPTER",
+      "DOUBLE_ARRAY_ADAPTER",
+      "FLOAT_ARRAY_ADAPTER",
+      "IBINDER_ADAPTER",
+      "INT_ARRAY_ADAPTER",
+      "LONG_ARRAY_ADAPTER",
+      "PERSISTABLE_BUNDLE_ADAPTER",
+      "SHORT_ARRAY_ADAPTER",
+      "SIZE_ADAPTER",
+      "SIZE_F_ADAPTER",
+      "SPARSE_BOOLEAN_ARRAY_ADAPTER",
+      "STRING_ADAPTER"
+  })
+  public String adapter;
+
+  private TypeAdapter<Object> typeAdapter;
+  private Object value;
+  private Parcel parcel;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws ReflectiveOperationException {
+    typeAdapter = (TypeAdapter<Object>) StaticAdapters.class.getField(adapter).get(null);
+    value = sampleValue(adapter);
+    parcel = Parcel.obtain();
+    typeAdapter.writeToParcel(value, parcel, 0);
+  }
+
+  @TearDown public void tearDown() {
+    parcel.recycle();
+  }
+
+  @Benchmark public void write() {
+    parcel.setDataPosition(0);
+    typeAdapter.writeToParcel(value, parcel, 0);
+  }
+
+  @Benchmark public Object read() {
+    parcel.setDataPosition(0);
+    return typeAdapter.readFromParcel(parcel);
+  }
+
+  private static Object sampleValue(String adapter) {
+    switch (adapter) {
+      case "INTEGER_ADAPTER":
+        return 42;
+      case "BOOLEAN_ADAPTER":
+        return true;
+      case "DOUBLE_ADAPTER":
+        return 42.0;
+      case "FLOAT_ADAPTER":
+        return 42.0f;
+      case "LONG_ADAPTER":
+        return 42L;
+      case "BYTE_ADAPTER":
+        return (byte) 42;
+      case "CHARACTER_ADAPTER":
+        return 'x';
+      case "SHORT_ADAPTER":
+        return (short) 42;
+      case "BOOLEAN_ARRAY_ADAPTER":
+        return new boolean[] { true, false, true, false, true, false, true, false };
+      case "BUNDLE_ADAPTER":
+        Bundle bundle = new Bundle();
+        bundle.putString("name", "hello world");
+        bundle.putInt("count", 42);
+        return bundle;
+      case "BYTE_ARRAY_ADAPTER":
+        return new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+      case "CHAR_ARRAY_ADAPTER":
+        return "hello world".toCharArray();
+      case "CHAR_SEQUENCE_ADAPTER":
+        return new StringBuilder("hello world");
+      case "DOUBLE_ARRAY_ADAPTER":
+        return new double[] { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0 };
+      case "FLOAT_ARRAY_ADAPTER":
+        return new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f };
+      case "IBINDER_ADAPTER":
+        return new SampleBinder();
+      case "INT_ARRAY_ADAPTER":
+        return new int[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+      case "LONG_ARRAY_ADAPTER":
+        return new long[] { 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L };
+      case "PERSISTABLE_BUNDLE_ADAPTER":
+        PersistableBundle persistableBundle = new PersistableBundle();
+        persistableBundle.putString("name", "hello world");
+        persistableBundle.putInt("count", 42);
+        return persistableBundle;
+      case "SHORT_ARRAY_ADAPTER":
+        return new short[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+      case "SIZE_ADAPTER":
+        return new Size(640, 480);
+      case "SIZE_F_ADAPTER":
+        return new SizeF(640.0f, 480.0f);
+      case "SPARSE_BOOLEAN_ARRAY_ADAPTER":
+        SparseBooleanArray sparseBooleanArray = new SparseBooleanArray();
+        for (int i = 0; i < 8; i++) {
+          sparseBooleanArray.put(i * 10, i % 2 == 0);
+        }
+        return sparseBooleanArray;
+      case "STRING_ADAPTER":
+        return "hello world";
+      default:
+        throw new IllegalArgumentException("No sample value for " + adapter);
+    }
+  }
+
+  private static final class SampleBinder implements IBinder {
+    @Override public String getInterfaceDescriptor() {
+      return "paperparcel.benchmarks.SampleBinder";
+    }
+
+    @Override public boolean pingBinder() {
+      return true;
+    }
+
+    @Override public boolean isBinderAlive() {
+      return true;
+    }
+  }
+}
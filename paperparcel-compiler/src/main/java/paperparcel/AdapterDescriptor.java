@@ -35,6 +35,7 @@ import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
@@ -99,6 +100,30 @@ abstract class AdapterDescriptor {
       }
     }
 
+    static class ConstantCountParam extends Param {
+      final int constantCount;
+
+      ConstantCountParam(int constantCount) {
+        this.constantCount = constantCount;
+      }
+    }
+
+    static class SubtypeClassesParam extends Param {
+      final ImmutableList<ClassName> subtypes;
+
+      SubtypeClassesParam(ImmutableList<ClassName> subtypes) {
+        this.subtypes = subtypes;
+      }
+    }
+
+    static class SubtypeCreatorsParam extends Param {
+      final ImmutableList<ClassName> subtypes;
+
+      SubtypeCreatorsParam(ImmutableList<ClassName> subtypes) {
+        this.subtypes = subtypes;
+      }
+    }
+
     /** The ordered parameters of the primary constructor. */
     abstract ImmutableList<Param> constructorParameters();
 
@@ -127,20 +152,21 @@ abstract class AdapterDescriptor {
      * this method returns {@code null}.
      */
     @SuppressWarnings("ConstantConditions") // Already validated
-    @Nullable AdapterDescriptor create(TypeMirror fieldType, boolean allowSerializable) {
+    @Nullable AdapterDescriptor create(TypeMirror fieldType, OptionsDescriptor options) {
       if (fieldType.getKind().isPrimitive()) {
         throw new IllegalArgumentException("Primitive types do not need a TypeAdapter.");
       }
 
       TypeName fieldTypeName = TypeName.get(fieldType);
-      final Optional<AdapterDescriptor> cached = adapterRegistry.getAdapterFor(fieldTypeName);
+      final Optional<AdapterDescriptor> cached = adapterRegistry.getAdapterFor(fieldTypeName, options);
       if (cached.isPresent()) {
         return cached.get();
       }
 
-      List<AdapterRegistry.Entry> adapterEntries = adapterRegistry.getEntries(allowSerializable);
+      List<AdapterRegistry.Entry> adapterEntries =
+          adapterRegistry.getCandidates(fieldType, options);
       for (AdapterRegistry.Entry entry : adapterEntries) {
-        if (entry.typeKey().isMatch(types, fieldType)) {
+        if (adapterRegistry.isMatch(entry.typeKey(), fieldType, fieldTypeName)) {
 
           Optional<ConstructorInfo> constructorInfo;
           TypeName typeName;
@@ -161,6 +187,8 @@ abstract class AdapterDescriptor {
 
           } else if (entry instanceof AdapterRegistry.ClassEntry) {
             AdapterRegistry.ClassEntry classEntry = (AdapterRegistry.ClassEntry) entry;
+            if (classEntry.qualifiedName().equals(AdapterRegistry.PARCELABLE_LIST_ADAPTER)
+                && !hasPolymorphicItems(fieldType, options)) continue;
             TypeElement adapterElement = elements.getTypeElement(classEntry.qualifiedName());
             TypeMirror adapterType = adapterElement.asType();
             TypeMirror adaptedType =
@@ -176,7 +204,7 @@ abstract class AdapterDescriptor {
                 : Optional.<String>absent();
             constructorInfo = singletonInstance.isPresent()
                 ? Optional.<ConstructorInfo>absent()
-                : getConstructorInfo(adapterElement, resolvedAdapterType, allowSerializable);
+                : getConstructorInfo(adapterElement, resolvedAdapterType, options);
             // Ensure we can construct this adapter. If not, continue the search.
             if (!singletonInstance.isPresent()
                 && !constructorInfo.isPresent()) continue;
@@ -190,7 +218,7 @@ abstract class AdapterDescriptor {
           // Create and cache the adapter
           AdapterDescriptor adapter = new AutoValue_AdapterDescriptor(
               constructorInfo, singletonInstance, typeName, adaptedTypeName, entry.nullSafe());
-          adapterRegistry.registerAdapterFor(fieldTypeName, adapter);
+          adapterRegistry.registerAdapterFor(fieldTypeName, options, adapter);
 
           return adapter;
         }
@@ -201,7 +229,7 @@ abstract class AdapterDescriptor {
 
     @SuppressWarnings("ConstantConditions") // Already validated
     private Optional<ConstructorInfo> getConstructorInfo(
-        TypeElement adapterElement, DeclaredType resolvedAdapterType, boolean allowSerializable) {
+        TypeElement adapterElement, DeclaredType resolvedAdapterType, OptionsDescriptor options) {
 
       ExecutableElement mainConstructor = Utils.findLargestPublicConstructor(adapterElement);
       if (mainConstructor == null) return Optional.absent();
@@ -220,7 +248,7 @@ abstract class AdapterDescriptor {
         if (Utils.isAdapterType(dependencyElement, elements, types)) {
           TypeMirror dependencyAdaptedType =
               Utils.getAdaptedType(elements, types, MoreTypes.asDeclared(resolvedDependencyType));
-          AdapterDescriptor adapterDependency = create(dependencyAdaptedType, allowSerializable);
+          AdapterDescriptor adapterDependency = create(dependencyAdaptedType, options);
           if (adapterDependency == null) {
             return Optional.absent();
           }
@@ -251,6 +279,32 @@ abstract class AdapterDescriptor {
           }
           parameterBuilder.add(new ConstructorInfo.CreatorParam(creatorOwner, requiresCast));
 
+        } else if (resolvedDependencyType.getKind() == TypeKind.ARRAY) {
+          // Only built-in adapters have array parameters: the subtypes of the adapted type, and
+          // their CREATORs.
+          TypeMirror adaptedType = Utils.getAdaptedType(elements, types, resolvedAdapterType);
+          ImmutableList<ClassName> subtypes = getSubtypeNames(adaptedType);
+          if (subtypes.isEmpty()) {
+            return Optional.absent();
+          }
+          TypeMirror componentType = MoreTypes.asArray(resolvedDependencyType).getComponentType();
+          if (Utils.isCreatorType(types.asElement(componentType), elements, types)) {
+            parameterBuilder.add(new ConstructorInfo.SubtypeCreatorsParam(subtypes));
+          } else {
+            parameterBuilder.add(new ConstructorInfo.SubtypeClassesParam(subtypes));
+          }
+
+        } else if (resolvedDependencyType.getKind() == TypeKind.INT) {
+          // Only OrdinalEnumAdapter has an int parameter: the number of constants of the adapted
+          // enum. There is nothing to pass to any other adapter's int parameter.
+          if (!adapterElement.getQualifiedName()
+              .contentEquals(AdapterRegistry.ORDINAL_ENUM_ADAPTER)) {
+            return Optional.absent();
+          }
+          TypeMirror enumType = Utils.getAdaptedType(elements, types, resolvedAdapterType);
+          int constantCount = Utils.getEnumConstantCount(MoreTypes.asTypeElement(enumType));
+          parameterBuilder.add(new ConstructorInfo.ConstantCountParam(constantCount));
+
         } else {
           TypeMirror classArg =
               Utils.getClassArg(elements, types, MoreTypes.asDeclared(resolvedDependencyType));
@@ -262,6 +316,42 @@ abstract class AdapterDescriptor {
       return Optional.of(ConstructorInfo.create(parameterBuilder.build()));
     }
 
+    /**
+     * Returns true if the items of the {@code List<T extends Parcelable>} type {@code fieldType}
+     * would be written using {@code Parcel#writeParcelable}, i.e. they resolve to a
+     * {@code ParcelableAdapter} without a {@code CREATOR}.
+     */
+    private boolean hasPolymorphicItems(TypeMirror fieldType, OptionsDescriptor options) {
+      TypeMirror itemType = MoreTypes.asDeclared(fieldType).getTypeArguments().get(0);
+      AdapterDescriptor itemAdapter = create(itemType, options);
+      if (itemAdapter == null || !itemAdapter.constructorInfo().isPresent()) {
+        return false;
+      }
+      TypeName itemAdapterType = itemAdapter.typeName();
+      if (itemAdapterType instanceof ParameterizedTypeName) {
+        itemAdapterType = ((ParameterizedTypeName) itemAdapterType).rawType;
+      }
+      if (!itemAdapterType.toString().equals(AdapterRegistry.PARCELABLE_ADAPTER)) {
+        return false;
+      }
+      ConstructorInfo constructorInfo = itemAdapter.constructorInfo().get();
+      for (ConstructorInfo.Param param : constructorInfo.constructorParameters()) {
+        if (param instanceof ConstructorInfo.CreatorParam
+            && ((ConstructorInfo.CreatorParam) param).creatorOwner != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private ImmutableList<ClassName> getSubtypeNames(TypeMirror type) {
+      ImmutableList.Builder<ClassName> result = ImmutableList.builder();
+      for (TypeElement subtype : Utils.getSubtypes(elements, types, type)) {
+        result.add(ClassName.get(subtype));
+      }
+      return result.build();
+    }
+
     private TypeMirror[] argumentsAsArray(
         Map<String, TypeMirror> parametersToArguments, TypeElement adapterElement) {
       List<? extends TypeParameterElement> adapterParameters = adapterElement.getTypeParameters();
@@ -16,16 +16,24 @@
 
 package paperparcel;
 
+import android.support.annotation.Nullable;
 import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 import java.util.List;
 import java.util.Map;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import paperparcel.TypeKey.*;
@@ -76,10 +84,57 @@ final class AdapterRegistry {
   private static final TypeKey ENUM =
       BoundedKey.get("T", asList(
           ParameterizedKey.get(ClassKey.get("java.lang.Enum"), asList(AnyKey.get("T")))));
+  private static final TypeKey INTEGER_LIST =
+      ParameterizedKey.get(ClassKey.get("java.util.List"), asList(INTEGER));
+  private static final TypeKey LONG_LIST =
+      ParameterizedKey.get(ClassKey.get("java.util.List"), asList(LONG));
+  private static final TypeKey FLOAT_LIST =
+      ParameterizedKey.get(ClassKey.get("java.util.List"), asList(FLOAT));
+  private static final TypeKey DOUBLE_LIST =
+      ParameterizedKey.get(ClassKey.get("java.util.List"), asList(DOUBLE));
+  private static final TypeKey INTEGER_SET =
+      ParameterizedKey.get(ClassKey.get("java.util.Set"), asList(INTEGER));
+  private static final TypeKey LONG_SET =
+      ParameterizedKey.get(ClassKey.get("java.util.Set"), asList(LONG));
+  private static final TypeKey FLOAT_SET =
+      ParameterizedKey.get(ClassKey.get("java.util.Set"), asList(FLOAT));
+  private static final TypeKey DOUBLE_SET =
+      ParameterizedKey.get(ClassKey.get("java.util.Set"), asList(DOUBLE));
+  private static final TypeKey BOXED_INTEGER_ARRAY = ArrayKey.of(INTEGER);
+  private static final TypeKey BOXED_LONG_ARRAY = ArrayKey.of(LONG);
+  private static final TypeKey BOXED_FLOAT_ARRAY = ArrayKey.of(FLOAT);
+  private static final TypeKey BOXED_DOUBLE_ARRAY = ArrayKey.of(DOUBLE);
+  private static final TypeKey PARCELABLE_LIST =
+      ParameterizedKey.get(ClassKey.get("java.util.List"), asList(PARCELABLE));
+  private static final TypeKey DATE = ClassKey.get("java.util.Date");
+  private static final TypeKey UUID = ClassKey.get("java.util.UUID");
+  private static final TypeKey BIG_INTEGER = ClassKey.get("java.math.BigInteger");
+  private static final TypeKey BIG_DECIMAL = ClassKey.get("java.math.BigDecimal");
+  private static final TypeKey URI = ClassKey.get("java.net.URI");
+  private static final TypeKey CURRENCY = ClassKey.get("java.util.Currency");
+  private static final TypeKey LOCALE = ClassKey.get("java.util.Locale");
+  private static final TypeKey BIT_SET = ClassKey.get("java.util.BitSet");
+  private static final TypeKey INSTANT = ClassKey.get("java.time.Instant");
+  private static final TypeKey DURATION = ClassKey.get("java.time.Duration");
+  private static final TypeKey PERIOD = ClassKey.get("java.time.Period");
+  private static final TypeKey LOCAL_DATE = ClassKey.get("java.time.LocalDate");
+  private static final TypeKey LOCAL_TIME = ClassKey.get("java.time.LocalTime");
+  private static final TypeKey LOCAL_DATE_TIME = ClassKey.get("java.time.LocalDateTime");
+  private static final TypeKey OFFSET_DATE_TIME = ClassKey.get("java.time.OffsetDateTime");
+  private static final TypeKey ZONED_DATE_TIME = ClassKey.get("java.time.ZonedDateTime");
+  private static final TypeKey ZONE_ID = ClassKey.get("java.time.ZoneId");
   private static final TypeKey SERIALIZABLE =
       BoundedKey.get("T", asList(ClassKey.get("java.io.Serializable")));
 
+  static final String PARCELABLE_ADAPTER = "paperparcel.internal.ParcelableAdapter";
+  static final String PARCELABLE_LIST_ADAPTER = "paperparcel.internal.ParcelableListAdapter";
+  static final String SERIALIZABLE_ADAPTER = "paperparcel.internal.SerializableAdapter";
+  static final String ORDINAL_ENUM_ADAPTER = "paperparcel.internal.OrdinalEnumAdapter";
+
   private static final String STATIC_ADAPTERS = "paperparcel.internal.StaticAdapters";
+  private static final String BOXED_PRIMITIVE_ADAPTERS =
+      "paperparcel.internal.BoxedPrimitiveAdapters";
+  private static final String JAVA_TIME_ADAPTERS = "paperparcel.internal.JavaTimeAdapters";
 
   private static ImmutableList<TypeKey> asList(TypeKey... keys) {
     ImmutableList.Builder<TypeKey> builder = ImmutableList.builder();
@@ -115,19 +170,46 @@ final class AdapterRegistry {
     }
   }
 
+  private static final Entry ENUM_ENTRY =
+      ClassEntry.create("paperparcel.internal.EnumAdapter", ENUM, false);
+  private static final Entry ORDINAL_ENUM_ENTRY =
+      ClassEntry.create(ORDINAL_ENUM_ADAPTER, ENUM, true);
+  private static final Entry STRING_ENTRY =
+      FieldEntry.create(STATIC_ADAPTERS, "STRING_ADAPTER", STRING, true);
+  private static final Entry POOLED_STRING_ENTRY =
+      FieldEntry.create("paperparcel.internal.ParcelScope", "STRING_ADAPTER", STRING, true);
+
   private static final ImmutableList<Entry> BUILT_IN_ADAPTER_ENTRIES = ImmutableList.of(
-      FieldEntry.create(STATIC_ADAPTERS, "STRING_ADAPTER", STRING, true),
+      STRING_ENTRY,
       FieldEntry.create(STATIC_ADAPTERS, "INTEGER_ADAPTER", INTEGER, false),
       ClassEntry.create("paperparcel.internal.MapAdapter", MAP, false),
       FieldEntry.create(STATIC_ADAPTERS, "BUNDLE_ADAPTER", BUNDLE, true),
       FieldEntry.create(STATIC_ADAPTERS, "PERSISTABLE_BUNDLE_ADAPTER", PERSISTABLE_BUNDLE, true),
-      ClassEntry.create("paperparcel.internal.ParcelableAdapter", PARCELABLE, true),
+      // Only used if the Parcelable has known subtypes. Otherwise falls through to the next entry.
+      ClassEntry.create("paperparcel.internal.SubtypeAdapter", PARCELABLE, true),
+      ClassEntry.create(PARCELABLE_ADAPTER, PARCELABLE, true),
       FieldEntry.create(STATIC_ADAPTERS, "SHORT_ADAPTER", SHORT, false),
       FieldEntry.create(STATIC_ADAPTERS, "LONG_ADAPTER", LONG, false),
       FieldEntry.create(STATIC_ADAPTERS, "FLOAT_ADAPTER", FLOAT, false),
       FieldEntry.create(STATIC_ADAPTERS, "DOUBLE_ADAPTER", DOUBLE, false),
       FieldEntry.create(STATIC_ADAPTERS, "BOOLEAN_ADAPTER", BOOLEAN, false),
       FieldEntry.create(STATIC_ADAPTERS, "CHAR_SEQUENCE_ADAPTER", CHAR_SEQUENCE, true),
+      // Collections of boxed primitives must come before the generic collection adapters.
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "INTEGER_LIST_ADAPTER", INTEGER_LIST, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "LONG_LIST_ADAPTER", LONG_LIST, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "FLOAT_LIST_ADAPTER", FLOAT_LIST, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "DOUBLE_LIST_ADAPTER", DOUBLE_LIST, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "INTEGER_SET_ADAPTER", INTEGER_SET, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "LONG_SET_ADAPTER", LONG_SET, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "FLOAT_SET_ADAPTER", FLOAT_SET, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "DOUBLE_SET_ADAPTER", DOUBLE_SET, false),
+      FieldEntry.create(
+          BOXED_PRIMITIVE_ADAPTERS, "INTEGER_ARRAY_ADAPTER", BOXED_INTEGER_ARRAY, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "LONG_ARRAY_ADAPTER", BOXED_LONG_ARRAY, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "FLOAT_ARRAY_ADAPTER", BOXED_FLOAT_ARRAY, false),
+      FieldEntry.create(BOXED_PRIMITIVE_ADAPTERS, "DOUBLE_ARRAY_ADAPTER", BOXED_DOUBLE_ARRAY, false),
+      // Only used if the items would otherwise be written using Parcel#writeParcelable.
+      ClassEntry.create(PARCELABLE_LIST_ADAPTER, PARCELABLE_LIST, false),
       ClassEntry.create("paperparcel.internal.ListAdapter", LIST, false),
       ClassEntry.create("paperparcel.internal.SparseArrayAdapter", SPARSE_ARRAY, false),
       FieldEntry.create(STATIC_ADAPTERS, "BOOLEAN_ARRAY_ADAPTER", BOOLEAN_ARRAY, true),
@@ -146,22 +228,87 @@ final class AdapterRegistry {
       FieldEntry.create(STATIC_ADAPTERS, "FLOAT_ARRAY_ADAPTER", FLOAT_ARRAY, true),
       FieldEntry.create(STATIC_ADAPTERS, "SHORT_ARRAY_ADAPTER", SHORT_ARRAY, false),
       FieldEntry.create(STATIC_ADAPTERS, "CHARACTER_ADAPTER", CHARACTER, false),
-      ClassEntry.create("paperparcel.internal.EnumAdapter", ENUM, false),
+      ENUM_ENTRY,
       ClassEntry.create("paperparcel.internal.ArrayAdapter", OBJECT_ARRAY, false),
+      // Serializable value types that can be written much more compactly.
+      FieldEntry.create(STATIC_ADAPTERS, "DATE_ADAPTER", DATE, false),
+      FieldEntry.create(STATIC_ADAPTERS, "UUID_ADAPTER", UUID, false),
+      FieldEntry.create(STATIC_ADAPTERS, "BIG_INTEGER_ADAPTER", BIG_INTEGER, false),
+      FieldEntry.create(STATIC_ADAPTERS, "BIG_DECIMAL_ADAPTER", BIG_DECIMAL, false),
+      FieldEntry.create(STATIC_ADAPTERS, "URI_ADAPTER", URI, false),
+      FieldEntry.create(STATIC_ADAPTERS, "CURRENCY_ADAPTER", CURRENCY, false),
+      FieldEntry.create(STATIC_ADAPTERS, "LOCALE_ADAPTER", LOCALE, false),
+      FieldEntry.create(STATIC_ADAPTERS, "BIT_SET_ADAPTER", BIT_SET, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "INSTANT_ADAPTER", INSTANT, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "DURATION_ADAPTER", DURATION, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "PERIOD_ADAPTER", PERIOD, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "LOCAL_DATE_ADAPTER", LOCAL_DATE, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "LOCAL_TIME_ADAPTER", LOCAL_TIME, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "LOCAL_DATE_TIME_ADAPTER", LOCAL_DATE_TIME, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "OFFSET_DATE_TIME_ADAPTER", OFFSET_DATE_TIME, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "ZONED_DATE_TIME_ADAPTER", ZONED_DATE_TIME, false),
+      FieldEntry.create(JAVA_TIME_ADAPTERS, "ZONE_ID_ADAPTER", ZONE_ID, false),
       // Serializable must be last.
-      ClassEntry.create("paperparcel.internal.SerializableAdapter", SERIALIZABLE, false));
+      ClassEntry.create(SERIALIZABLE_ADAPTER, SERIALIZABLE, false));
 
   private final List<Entry> entries = Lists.newArrayList(BUILT_IN_ADAPTER_ENTRIES);
-  private final Map<TypeName, AdapterDescriptor> adapters = Maps.newLinkedHashMap();
+  /**
+   * Adapters are cached per combination of the options that affect which entries are available,
+   * as the same field type can resolve to a different adapter for each.
+   */
+  @AutoValue
+  static abstract class AdapterKey {
+    abstract TypeName fieldType();
+    abstract boolean allowSerializable();
+    abstract boolean useEnumOrdinals();
+    abstract boolean poolStrings();
+
+    static AdapterKey create(TypeName fieldType, OptionsDescriptor options) {
+      return new AutoValue_AdapterRegistry_AdapterKey(fieldType, options.allowSerializable(),
+          options.useEnumOrdinals(), options.poolStrings());
+    }
+  }
+
+  private final Map<AdapterKey, AdapterDescriptor> adapters = Maps.newLinkedHashMap();
+
+  /** The entries available for a combination of options. */
+  @AutoValue
+  static abstract class EntriesKey {
+    abstract boolean allowSerializable();
+    abstract boolean useEnumOrdinals();
+    abstract boolean poolStrings();
+
+    static EntriesKey create(OptionsDescriptor options) {
+      return new AutoValue_AdapterRegistry_EntriesKey(options.allowSerializable(),
+          options.useEnumOrdinals(), options.poolStrings());
+    }
+  }
+
+  private final Map<EntriesKey, EntryIndex> indexes = Maps.newHashMap();
+
+  @AutoValue
+  static abstract class MatchKey {
+    abstract TypeKey typeKey();
+    abstract TypeName type();
+
+    static MatchKey create(TypeKey typeKey, TypeName type) {
+      return new AutoValue_AdapterRegistry_MatchKey(typeKey, type);
+    }
+  }
+
+  private final Map<MatchKey, Boolean> matches = Maps.newHashMap();
 
   private final Elements elements;
   private final Types types;
+  private final ProcessingProfile profile;
 
   AdapterRegistry(
       Elements elements,
-      Types types) {
+      Types types,
+      ProcessingProfile profile) {
     this.elements = elements;
     this.types = types;
+    this.profile = profile;
   }
 
   void addClassEntry(TypeElement element, boolean nullSafe) {
@@ -170,6 +317,7 @@ final class AdapterRegistry {
         Utils.getAdaptedType(elements, types, MoreTypes.asDeclared(element.asType())));
     Entry entry = ClassEntry.create(qualifiedName, key, nullSafe);
     entries.add(0, entry);
+    indexes.clear();
   }
 
   boolean contains(TypeElement element) {
@@ -183,19 +331,153 @@ final class AdapterRegistry {
     return false;
   }
 
-  List<Entry> getEntries(boolean allowSerializable) {
-    if (allowSerializable) {
-      return entries;
-    } else {
-      return entries.subList(0, entries.size() - 1);
+  List<Entry> getEntries(OptionsDescriptor options) {
+    List<Entry> result = options.allowSerializable()
+        ? entries
+        : entries.subList(0, entries.size() - 1);
+    if (options.useEnumOrdinals() || options.poolStrings()) {
+      result = Lists.newArrayList(result);
+    }
+    if (options.useEnumOrdinals()) {
+      result.set(result.indexOf(ENUM_ENTRY), ORDINAL_ENUM_ENTRY);
+    }
+    if (options.poolStrings()) {
+      result.set(result.indexOf(STRING_ENTRY), POOLED_STRING_ENTRY);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the entries from {@link #getEntries(OptionsDescriptor)} that could match {@code type},
+   * in the same order. Entries for a specific class or for arrays are only returned for types of
+   * that class or for arrays, so only entries for type variables are returned for every type.
+   */
+  List<Entry> getCandidates(TypeMirror type, OptionsDescriptor options) {
+    EntriesKey key = EntriesKey.create(options);
+    EntryIndex index = indexes.get(key);
+    if (index == null) {
+      index = EntryIndex.create(getEntries(options));
+      indexes.put(key, index);
+    }
+    return index.candidates(type);
+  }
+
+  /**
+   * Returns {@link TypeKey#isMatch(Types, TypeMirror)}, memoized by {@code typeName} across
+   * rounds. Types with type variables are not memoized as their names do not identify them.
+   */
+  boolean isMatch(TypeKey typeKey, TypeMirror type, TypeName typeName) {
+    if (containsTypeVariables(typeName)) {
+      return typeKey.isMatch(types, type);
+    }
+    MatchKey key = MatchKey.create(typeKey, typeName);
+    Boolean match = matches.get(key);
+    if (match == null) {
+      match = typeKey.isMatch(types, type);
+      matches.put(key, match);
+    }
+    return match;
+  }
+
+  private static boolean containsTypeVariables(TypeName typeName) {
+    if (typeName instanceof TypeVariableName) {
+      return true;
+    } else if (typeName instanceof ArrayTypeName) {
+      return containsTypeVariables(((ArrayTypeName) typeName).componentType);
+    } else if (typeName instanceof ParameterizedTypeName) {
+      for (TypeName argument : ((ParameterizedTypeName) typeName).typeArguments) {
+        if (containsTypeVariables(argument)) return true;
+      }
+    } else if (typeName instanceof WildcardTypeName) {
+      WildcardTypeName wildcard = (WildcardTypeName) typeName;
+      for (TypeName bound : wildcard.upperBounds) {
+        if (containsTypeVariables(bound)) return true;
+      }
+      for (TypeName bound : wildcard.lowerBounds) {
+        if (containsTypeVariables(bound)) return true;
+      }
+    }
+    return false;
+  }
+
+  /** Groups entries by the raw type that they match so that lookups skip unrelated entries. */
+  static final class EntryIndex {
+    private static final String ARRAY = "[]";
+
+    private final ImmutableMap<String, ImmutableList<Entry>> byRawType;
+    private final ImmutableList<Entry> anyType;
+
+    private EntryIndex(
+        ImmutableMap<String, ImmutableList<Entry>> byRawType, ImmutableList<Entry> anyType) {
+      this.byRawType = byRawType;
+      this.anyType = anyType;
+    }
+
+    static EntryIndex create(List<Entry> entries) {
+      Map<String, ImmutableList.Builder<Entry>> builders = Maps.newLinkedHashMap();
+      for (Entry entry : entries) {
+        String rawType = rawType(entry.typeKey());
+        if (rawType != null && !builders.containsKey(rawType)) {
+          builders.put(rawType, ImmutableList.<Entry>builder());
+        }
+      }
+      // Entries that can match any type are added to every group to keep the original order.
+      ImmutableList.Builder<Entry> anyType = ImmutableList.builder();
+      for (Entry entry : entries) {
+        String rawType = rawType(entry.typeKey());
+        if (rawType != null) {
+          builders.get(rawType).add(entry);
+        } else {
+          anyType.add(entry);
+          for (ImmutableList.Builder<Entry> builder : builders.values()) {
+            builder.add(entry);
+          }
+        }
+      }
+      ImmutableMap.Builder<String, ImmutableList<Entry>> byRawType = ImmutableMap.builder();
+      for (Map.Entry<String, ImmutableList.Builder<Entry>> group : builders.entrySet()) {
+        byRawType.put(group.getKey(), group.getValue().build());
+      }
+      return new EntryIndex(byRawType.build(), anyType.build());
+    }
+
+    ImmutableList<Entry> candidates(TypeMirror type) {
+      String rawType = rawType(type);
+      ImmutableList<Entry> candidates = rawType != null ? byRawType.get(rawType) : null;
+      return candidates != null ? candidates : anyType;
+    }
+
+    /** Returns the raw type that {@code key} is limited to, or {@code null} if it has none. */
+    @Nullable private static String rawType(TypeKey key) {
+      if (key instanceof ClassKey) {
+        return ((ClassKey) key).name();
+      } else if (key instanceof ParameterizedKey) {
+        return ((ParameterizedKey) key).rawType().name();
+      } else if (key instanceof ArrayKey || key instanceof PrimitiveArrayKey) {
+        return ARRAY;
+      }
+      return null;
+    }
+
+    @Nullable private static String rawType(TypeMirror type) {
+      if (type.getKind() == TypeKind.DECLARED) {
+        return MoreTypes.asTypeElement(type).getQualifiedName().toString();
+      } else if (type.getKind() == TypeKind.ARRAY) {
+        return ARRAY;
+      }
+      return null;
     }
   }
 
-  void registerAdapterFor(TypeName fieldType, AdapterDescriptor adapter) {
-    adapters.put(fieldType, adapter);
+  void registerAdapterFor(TypeName fieldType, OptionsDescriptor options, AdapterDescriptor adapter) {
+    adapters.put(AdapterKey.create(fieldType, options), adapter);
   }
 
-  Optional<AdapterDescriptor> getAdapterFor(TypeName fieldType) {
-    return Optional.fromNullable(adapters.get(fieldType));
+  Optional<AdapterDescriptor> getAdapterFor(TypeName fieldType, OptionsDescriptor options) {
+    AdapterDescriptor adapter = adapters.get(AdapterKey.create(fieldType, options));
+    profile.increment(adapter != null
+        ? ProcessingProfile.Counter.ADAPTER_CACHE_HITS
+        : ProcessingProfile.Counter.ADAPTER_CACHE_MISSES);
+    return Optional.fromNullable(adapter);
   }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import android.support.annotation.Nullable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import paperparcel.AdapterDescriptor.ConstructorInfo;
+
+import static paperparcel.JsonReports.string;
+
+/**
+ * Describes how each field of a {@code @PaperParcel} class is parcelled and how expensive that
+ * is. When the {@code paperparcel.manifest} option is set, the descriptions of every class in
+ * the module are written as JSON to the path given by the option once processing is over. The
+ * descriptions of classes that enable {@link OptionsDescriptor#hot()} are also checked by
+ * {@link PaperParcelProcessingStep}, whether or not the option is set.
+ *
+ * <p>When the option is not set, {@link #add} and {@link #write} do nothing.</p>
+ */
+final class CostManifest {
+  static final String OPTION = "paperparcel.manifest";
+
+  /** The cost classes of a field or class, from the cheapest to the most expensive. */
+  enum Cost {
+    /** A primitive written directly to the parcel. */
+    PRIMITIVE,
+    /** A built-in adapter with a single shared instance, such as the adapter for Strings. */
+    STATIC,
+    /** A call to the class generated for another {@code @PaperParcel} class. */
+    LINKED,
+    /** An adapter instance, such as a container adapter wrapping other adapters. */
+    ADAPTER,
+    /** A field that is read or written, or a class that is created, using reflection. */
+    REFLECTION,
+    /** A value that is written using {@code Parcel#writeSerializable}. */
+    SERIALIZABLE;
+
+    String key() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+
+    Cost max(Cost other) {
+      return compareTo(other) >= 0 ? this : other;
+    }
+  }
+
+  /** How a field is read from the model when writing, or assigned when reading. */
+  enum Access {
+    DIRECT, GETTER, SETTER, CONSTRUCTOR, REFLECTION;
+
+    String key() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /** How {@code null} values of a field are handled. */
+  enum NullCheck {
+    /** The field can never be null. */
+    NONE,
+    /** The adapter of the field handles null values itself. */
+    ADAPTER,
+    /** An {@code int} marker is written before the value. */
+    MARKER,
+    /** A bit in a leading header is used, see {@link OptionsDescriptor#packFlags()}. */
+    PACKED;
+
+    String key() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  static final class FieldCost {
+    final VariableElement element;
+    final String name;
+    final String type;
+    @Nullable final String adapter;
+    final NullCheck nullCheck;
+    final boolean elementNullMarkers;
+    final boolean serializable;
+    final Access read;
+    final Access write;
+    final Cost cost;
+
+    FieldCost(VariableElement element, String name, String type, @Nullable String adapter,
+        NullCheck nullCheck, boolean elementNullMarkers, boolean serializable, Access read,
+        Access write, Cost cost) {
+      this.element = element;
+      this.name = name;
+      this.type = type;
+      this.adapter = adapter;
+      this.nullCheck = nullCheck;
+      this.elementNullMarkers = elementNullMarkers;
+      this.serializable = serializable;
+      this.read = read;
+      this.write = write;
+      this.cost = cost;
+    }
+  }
+
+  static final class ClassCost {
+    final TypeElement element;
+    final String name;
+    final String generatedClass;
+    final String codec;
+    final boolean hot;
+    final Access construction;
+    final ImmutableList<FieldCost> fields;
+    final Cost cost;
+
+    ClassCost(TypeElement element, String name, String generatedClass, String codec, boolean hot,
+        Access construction, ImmutableList<FieldCost> fields, Cost cost) {
+      this.element = element;
+      this.name = name;
+      this.generatedClass = generatedClass;
+      this.codec = codec;
+      this.hot = hot;
+      this.construction = construction;
+      this.fields = fields;
+      this.cost = cost;
+    }
+  }
+
+  @Nullable private final String path;
+  private final List<ClassCost> classes = new ArrayList<>();
+
+  private CostManifest(@Nullable String path) {
+    this.path = path;
+  }
+
+  /** Returns a manifest that is written to {@code path}, or does nothing if it is null. */
+  static CostManifest create(@Nullable String path) {
+    return new CostManifest(path);
+  }
+
+  boolean isEnabled() {
+    return path != null;
+  }
+
+  void add(ClassCost classCost) {
+    if (isEnabled()) {
+      classes.add(classCost);
+    }
+  }
+
+  /** Describes the parcelled fields of {@code descriptor}, in the order that they are written. */
+  @SuppressWarnings("ConstantConditions")
+  static ClassCost describe(PaperParcelDescriptor descriptor) {
+    OptionsDescriptor options = descriptor.options();
+    ImmutableSet<FieldDescriptor> constructorFields =
+        ImmutableSet.copyOf(descriptor.constructorFields());
+    ImmutableSet<FieldDescriptor> writableFields =
+        ImmutableSet.copyOf(descriptor.writableFields());
+    ImmutableSet<FieldDescriptor> readableFields =
+        ImmutableSet.copyOf(descriptor.readableFields());
+
+    Access construction = descriptor.isSingleton() || descriptor.isConstructorVisible()
+        ? Access.CONSTRUCTOR
+        : Access.REFLECTION;
+    Cost classCost = construction == Access.REFLECTION ? Cost.REFLECTION : Cost.PRIMITIVE;
+
+    ImmutableList.Builder<FieldCost> fields = ImmutableList.builder();
+    for (FieldDescriptor field : descriptor.parcelledFields()) {
+      Access read;
+      if (readableFields.contains(field)) {
+        read = field.isVisible() ? Access.DIRECT : Access.REFLECTION;
+      } else {
+        read = Access.GETTER;
+      }
+      Access write;
+      if (constructorFields.contains(field)) {
+        write = Access.CONSTRUCTOR;
+      } else if (writableFields.contains(field)) {
+        write = field.isVisible() ? Access.DIRECT : Access.REFLECTION;
+      } else {
+        write = Access.SETTER;
+      }
+
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      String adapter = null;
+      NullCheck nullCheck = NullCheck.NONE;
+      boolean elementNullMarkers = false;
+      boolean serializable = false;
+      Cost cost;
+      if (fieldTypeName.isPrimitive()) {
+        cost = Cost.PRIMITIVE;
+      } else {
+        if (descriptor.hasNullMarker(field)) {
+          nullCheck = options.packFlags() ? NullCheck.PACKED : NullCheck.MARKER;
+        } else if (field.isNullable()) {
+          nullCheck = NullCheck.ADAPTER;
+        }
+        ClassName linkedClass = descriptor.linkedFields().get(field);
+        if (linkedClass != null) {
+          adapter = linkedClass.toString();
+          cost = Cost.LINKED;
+        } else {
+          AdapterDescriptor adapterDescriptor = descriptor.adapters().get(field);
+          adapter = adapterDescriptor.singletonInstance().isPresent()
+              ? adapterDescriptor.typeName() + "." + adapterDescriptor.singletonInstance().get()
+              : adapterDescriptor.typeName().toString();
+          elementNullMarkers = hasElementNullMarkers(adapterDescriptor);
+          serializable = isSerializable(adapterDescriptor);
+          if (serializable) {
+            cost = Cost.SERIALIZABLE;
+          } else if (adapterDescriptor.singletonInstance().isPresent()) {
+            cost = Cost.STATIC;
+          } else {
+            cost = Cost.ADAPTER;
+          }
+        }
+      }
+      if (read == Access.REFLECTION || write == Access.REFLECTION) {
+        cost = cost.max(Cost.REFLECTION);
+      }
+      classCost = classCost.max(cost);
+      fields.add(new FieldCost(field.element(), field.name(), field.type().get().toString(),
+          adapter, nullCheck, elementNullMarkers, serializable, read, write, cost));
+    }
+
+    TypeElement element = descriptor.element();
+    return new ClassCost(element,
+        element.getQualifiedName().toString(),
+        PaperParcelGenerator.generatedClassName(ClassName.get(element)).toString(),
+        options.useFieldTable() ? "table" : "unrolled",
+        options.hot(),
+        construction,
+        fields.build(),
+        classCost);
+  }
+
+  /**
+   * Returns true if {@code adapter} passes any of its element adapters through
+   * {@code Utils#nullSafeClone}, which writes a null marker before every element.
+   */
+  private static boolean hasElementNullMarkers(AdapterDescriptor adapter) {
+    for (AdapterDescriptor dependency : dependencies(adapter)) {
+      if (!dependency.nullSafe() || hasElementNullMarkers(dependency)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns true if {@code adapter}, or any adapter that it delegates to, is Serializable. */
+  private static boolean isSerializable(AdapterDescriptor adapter) {
+    TypeName typeName = adapter.typeName();
+    if (typeName instanceof ParameterizedTypeName) {
+      typeName = ((ParameterizedTypeName) typeName).rawType;
+    }
+    if (typeName.toString().equals(AdapterRegistry.SERIALIZABLE_ADAPTER)) {
+      return true;
+    }
+    for (AdapterDescriptor dependency : dependencies(adapter)) {
+      if (isSerializable(dependency)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<AdapterDescriptor> dependencies(AdapterDescriptor adapter) {
+    List<AdapterDescriptor> result = new ArrayList<>();
+    if (adapter.constructorInfo().isPresent()) {
+      for (ConstructorInfo.Param param : adapter.constructorInfo().get().constructorParameters()) {
+        if (param instanceof ConstructorInfo.AdapterParam) {
+          result.add(((ConstructorInfo.AdapterParam) param).adapter);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Writes the manifest if it is enabled. */
+  void write() throws IOException {
+    if (!isEnabled()) {
+      return;
+    }
+    JsonReports.write(path, toJson());
+  }
+
+  String toJson() {
+    StringBuilder json = new StringBuilder("{\n  \"classes\": [");
+    for (int i = 0; i < classes.size(); i++) {
+      ClassCost classCost = classes.get(i);
+      json.append(i == 0 ? "\n" : ",\n")
+          .append("    {\n")
+          .append("      \"name\": ").append(string(classCost.name)).append(",\n")
+          .append("      \"generatedClass\": ").append(string(classCost.generatedClass))
+          .append(",\n")
+          .append("      \"codec\": ").append(string(classCost.codec)).append(",\n")
+          .append("      \"hot\": ").append(classCost.hot).append(",\n")
+          .append("      \"construction\": ").append(string(classCost.construction.key()))
+          .append(",\n")
+          .append("      \"cost\": ").append(string(classCost.cost.key())).append(",\n")
+          .append("      \"fields\": [");
+      for (int j = 0; j < classCost.fields.size(); j++) {
+        FieldCost field = classCost.fields.get(j);
+        json.append(j == 0 ? "\n" : ",\n")
+            .append("        { \"name\": ").append(string(field.name))
+            .append(", \"type\": ").append(string(field.type))
+            .append(", \"adapter\": ")
+            .append(field.adapter != null ? string(field.adapter) : "null")
+            .append(", \"nullCheck\": ").append(string(field.nullCheck.key()))
+            .append(", \"elementNullMarkers\": ").append(field.elementNullMarkers)
+            .append(", \"read\": ").append(string(field.read.key()))
+            .append(", \"write\": ").append(string(field.write.key()))
+            .append(", \"cost\": ").append(string(field.cost.key()))
+            .append(" }");
+      }
+      json.append(classCost.fields.isEmpty() ? "]" : "\n      ]").append("\n    }");
+    }
+    return json.append(classes.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+  }
+}
@@ -47,6 +47,22 @@ final class ErrorMessages {
   /* @ProcessorConfig errors */
   static final String MULTIPLE_PROCESSOR_CONFIGS =
       "Multiple @ProcessorConfig annotations found within a single module.";
+  static final String PROFILE_NOT_WRITTEN =
+      "Unable to write the " + ProcessingProfile.OPTION + " report: %1$s";
+  static final String MANIFEST_NOT_WRITTEN =
+      "Unable to write the " + CostManifest.OPTION + " manifest: %1$s";
+  static final String PROCESSOR_CONFIG_WHEN_ISOLATING =
+      "@ProcessorConfig cannot be used when the " + PaperParcelProcessor.ISOLATING_OPTION
+          + " option is enabled, as it applies to every @PaperParcel class in the module. "
+          + "Remove the option to process this module in Gradle's aggregating mode instead.";
+  static final String SHARED_ADAPTERS_WHEN_ISOLATING =
+      "The " + PaperParcelProcessor.SHARED_ADAPTERS_OPTION + " option is ignored when the "
+          + PaperParcelProcessor.ISOLATING_OPTION + " option is enabled, as each shared adapter "
+          + "class is derived from many source files.";
+  static final String MANIFEST_WHEN_ISOLATING =
+      "The " + CostManifest.OPTION + " option is ignored when the "
+          + PaperParcelProcessor.ISOLATING_OPTION + " option is enabled, as the manifest describes "
+          + "every class in the module but only changed classes are processed.";
   static final String NO_EXPOSE_ANNOTATIONS_DEFINED =
       "No expose annotations returned from exposeAnnotations().";
 
@@ -108,7 +124,17 @@ final class ErrorMessages {
       "PaperParcel does not support recursive generic field types.";
   static final String FIELD_TYPE_IS_INTERSECTION_TYPE =
       "PaperParcel does not support intersection field types.";
-  
+
+  /* @PaperParcel.Options(hot = true) warnings */
+  static final String HOT_FIELD_SERIALIZABLE =
+      "Field %1$s of a hot @PaperParcel class is written with Parcel#writeSerializable. Define a "
+          + "TypeAdapter for %2$s, or make it Parcelable.";
+  static final String HOT_FIELD_REFLECTION =
+      "Field %1$s of a hot @PaperParcel class is accessed using reflection. Make the field "
+          + "visible, or add a visible getter, setter or constructor parameter for it.";
+  static final String HOT_CONSTRUCTOR_REFLECTION =
+      "Hot @PaperParcel class %1$s is created using reflection. Make its constructor visible.";
+
   /* AutoValue Extension errors */
   static final String MANUAL_IMPLEMENTATION_OF_CREATOR =
       "Manual implementation of a static Parcelable.Creator<T> CREATOR found in %s.";
@@ -22,9 +22,7 @@ import com.google.auto.value.AutoValue;
 import com.google.common.base.Equivalence;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
-import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.Types;
 
 /** Represents a single field in a {@link PaperParcel} class */
 @AutoValue
@@ -49,17 +47,16 @@ abstract class FieldDescriptor {
     private static final String NON_NULL_ANNOTATION_NAME = "NonNull";
     private static final String NOT_NULL_ANNOTATION_NAME = "NotNull";
 
-    private final Types types;
+    private final HierarchyCache hierarchyCache;
 
     Factory(
-        Types types) {
-      this.types = types;
+        HierarchyCache hierarchyCache) {
+      this.hierarchyCache = hierarchyCache;
     }
 
     FieldDescriptor create(TypeElement owner, VariableElement element) {
       String name = element.getSimpleName().toString();
-      TypeMirror type = types.asMemberOf((DeclaredType) owner.asType(), element);
-      TypeMirror fieldType = Utils.replaceTypeVariablesWithUpperBounds(types, type);
+      TypeMirror fieldType = hierarchyCache.getFieldType(owner, element);
       Equivalence.Wrapper<TypeMirror> wrappedType = MoreTypes.equivalence().wrap(fieldType);
       boolean isVisible = Visibility.ofElement(element) != Visibility.PRIVATE;
       boolean isNullable =
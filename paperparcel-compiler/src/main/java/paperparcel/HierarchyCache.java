@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.auto.common.MoreElements;
+import com.google.auto.common.MoreTypes;
+import com.google.auto.common.Visibility;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import static com.google.auto.common.MoreElements.getPackage;
+import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.util.ElementFilter.fieldsIn;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+
+/**
+ * Caches the members found while scanning {@link PaperParcel} classes and their supertypes. Model
+ * classes often share deep base classes, so the members of each supertype are only scanned once
+ * and then reused for all of its subclasses.
+ *
+ * <p>Elements are only valid for the round they were found in, so this must be cleared at the end
+ * of each round.</p>
+ *
+ * <p>A disabled cache scans every class from scratch, as the processor did before this cache was
+ * added. This exists so that the two can be compared.</p>
+ */
+final class HierarchyCache {
+  private final Elements elements;
+  private final Types types;
+  private final boolean enabled;
+
+  private final Table<PackageElement, TypeElement, ImmutableSet<ExecutableElement>> methods =
+      HashBasedTable.create();
+  private final Table<TypeElement, OptionsDescriptor, ImmutableList<VariableElement>> fields =
+      HashBasedTable.create();
+  private final Table<TypeElement, List<String>, ImmutableList<ExecutableElement>> constructors =
+      HashBasedTable.create();
+  private final Table<TypeElement, VariableElement, TypeMirror> fieldTypes =
+      HashBasedTable.create();
+
+  HierarchyCache(
+      Elements elements,
+      Types types,
+      boolean enabled) {
+    this.elements = elements;
+    this.types = types;
+    this.enabled = enabled;
+  }
+
+  void clear() {
+    methods.clear();
+    fields.clear();
+    constructors.clear();
+    fieldTypes.clear();
+  }
+
+  /**
+   * Returns the same methods, in the same order, as
+   * {@link MoreElements#getLocalAndInheritedMethods(TypeElement, Elements)}.
+   */
+  ImmutableSet<ExecutableElement> getLocalAndInheritedMethods(TypeElement type) {
+    if (!enabled) {
+      return MoreElements.getLocalAndInheritedMethods(type, elements);
+    }
+    return getLocalAndInheritedMethods(getPackage(type), type);
+  }
+
+  private ImmutableSet<ExecutableElement> getLocalAndInheritedMethods(
+      PackageElement pkg, TypeElement type) {
+    ImmutableSet<ExecutableElement> result = methods.get(pkg, type);
+    if (result != null) {
+      return result;
+    }
+
+    // Methods are grouped by the supertype they are inherited from. Overridden methods have
+    // already been removed from within each of these groups, so only methods from different groups
+    // need to be compared with each other. The groups are in the same order as MoreElements uses:
+    // interfaces, then the superclass, then the type's own methods.
+    List<Collection<ExecutableElement>> groups = new ArrayList<>();
+    for (TypeMirror superInterface : type.getInterfaces()) {
+      groups.add(getLocalAndInheritedMethods(pkg, MoreTypes.asTypeElement(superInterface)));
+    }
+    if (type.getSuperclass().getKind() != TypeKind.NONE) {
+      groups.add(getLocalAndInheritedMethods(pkg, MoreTypes.asTypeElement(type.getSuperclass())));
+    }
+    List<ExecutableElement> localMethods = new ArrayList<>();
+    for (ExecutableElement method : methodsIn(type.getEnclosedElements())) {
+      if (!method.getModifiers().contains(STATIC) && isVisibleFromPackage(method, pkg)) {
+        localMethods.add(method);
+      }
+    }
+    groups.add(localMethods);
+
+    Map<ExecutableElement, Integer> methodGroups = new LinkedHashMap<>();
+    SetMultimap<String, ExecutableElement> methodsByName = LinkedHashMultimap.create();
+    for (int i = 0; i < groups.size(); i++) {
+      for (ExecutableElement method : groups.get(i)) {
+        if (!methodGroups.containsKey(method)) {
+          methodGroups.put(method, i);
+          methodsByName.put(method.getSimpleName().toString(), method);
+        }
+      }
+    }
+
+    Set<ExecutableElement> overridden = new HashSet<>();
+    for (String name : methodsByName.keySet()) {
+      List<ExecutableElement> candidates = ImmutableList.copyOf(methodsByName.get(name));
+      for (int i = 0; i < candidates.size(); i++) {
+        ExecutableElement methodI = candidates.get(i);
+        for (int j = i + 1; j < candidates.size(); j++) {
+          ExecutableElement methodJ = candidates.get(j);
+          if (!methodGroups.get(methodI).equals(methodGroups.get(methodJ))
+              && elements.overrides(methodJ, methodI, type)) {
+            overridden.add(methodI);
+          }
+        }
+      }
+    }
+
+    ImmutableSet.Builder<ExecutableElement> builder = ImmutableSet.builder();
+    for (ExecutableElement method : methodGroups.keySet()) {
+      if (!overridden.contains(method)) {
+        builder.add(method);
+      }
+    }
+    result = builder.build();
+    methods.put(pkg, type, result);
+    return result;
+  }
+
+  private static boolean isVisibleFromPackage(ExecutableElement method, PackageElement pkg) {
+    switch (Visibility.ofElement(method)) {
+      case PRIVATE:
+        return false;
+      case DEFAULT:
+        return getPackage(method).equals(pkg);
+      default:
+        return true;
+    }
+  }
+
+  /** Returns all non-excluded fields on a {@link PaperParcel} annotated {@link TypeElement}. */
+  ImmutableList<VariableElement> getFieldsToParcel(
+      TypeElement element, OptionsDescriptor options) {
+    if (!MoreElements.isAnnotationPresent(element, PaperParcel.class)) {
+      throw new IllegalArgumentException("element must be annotated with @PaperParcel");
+    }
+    return getFieldsToParcelImpl(element, options);
+  }
+
+  private ImmutableList<VariableElement> getFieldsToParcelImpl(
+      TypeElement element, OptionsDescriptor options) {
+    ImmutableList<VariableElement> result = fields.get(element, options);
+    if (result != null) {
+      return result;
+    }
+    ImmutableList.Builder<VariableElement> builder = ImmutableList.builder();
+    Set<Name> names = new HashSet<>();
+    for (VariableElement variable : fieldsIn(element.getEnclosedElements())) {
+      if (Utils.isFieldToParcel(variable, options)) {
+        builder.add(variable);
+        names.add(variable.getSimpleName());
+      }
+    }
+    // Fields of the superclasses are hidden by those of the same name in their subclasses.
+    TypeMirror superType = element.getSuperclass();
+    if (superType.getKind() != TypeKind.NONE) {
+      TypeElement superElement = MoreTypes.asTypeElement(superType);
+      for (VariableElement variable : getFieldsToParcelImpl(superElement, options)) {
+        if (!names.contains(variable.getSimpleName())) {
+          builder.add(variable);
+        }
+      }
+    }
+    result = builder.build();
+    if (enabled) {
+      fields.put(element, options, result);
+    }
+    return result;
+  }
+
+  /** Returns {@link Utils#orderedConstructorsIn(TypeElement, List)}. */
+  ImmutableList<ExecutableElement> orderedConstructorsIn(
+      TypeElement element, List<String> reflectAnnotations) {
+    ImmutableList<ExecutableElement> result = constructors.get(element, reflectAnnotations);
+    if (result == null) {
+      result = Utils.orderedConstructorsIn(element, reflectAnnotations);
+      if (enabled) {
+        constructors.put(element, reflectAnnotations, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the type of {@code field} as a member of {@code owner}, with any type variables
+   * replaced by their upper bounds.
+   */
+  TypeMirror getFieldType(TypeElement owner, VariableElement field) {
+    // Fields declared in non-generic classes have the same type in all of their subclasses.
+    TypeElement declaringType = MoreElements.asType(field.getEnclosingElement());
+    TypeElement key = isGeneric(declaringType) ? owner : declaringType;
+    TypeMirror result = fieldTypes.get(key, field);
+    if (result == null) {
+      TypeMirror type = types.asMemberOf((DeclaredType) owner.asType(), field);
+      result = Utils.replaceTypeVariablesWithUpperBounds(types, type);
+      if (enabled) {
+        fieldTypes.put(key, field, result);
+      }
+    }
+    return result;
+  }
+
+  private static boolean isGeneric(TypeElement type) {
+    for (Element element = type; element instanceof TypeElement;
+        element = element.getEnclosingElement()) {
+      TypeElement typeElement = (TypeElement) element;
+      if (!typeElement.getTypeParameters().isEmpty()) {
+        return true;
+      }
+      if (typeElement.getNestingKind() == NestingKind.TOP_LEVEL
+          || typeElement.getModifiers().contains(STATIC)) {
+        return false;
+      }
+      if (typeElement.getNestingKind() != NestingKind.MEMBER) {
+        // Local and anonymous classes can use the type variables of their enclosing methods.
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import paperparcel.AdapterDescriptor.ConstructorInfo;
+
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates methods that read and write {@code List}, {@code Set}, {@code Collection} and
+ * {@code Map} values using loops, in place of the built-in adapters for these types. Nested
+ * containers are expanded into nested loops in the same method, and all other adapters are called
+ * as usual. The generated methods read and write exactly the same data as the adapters that they
+ * replace.
+ *
+ * @see PaperParcel.Options#inlineContainers()
+ */
+final class InlineContainers {
+  private static final ClassName PARCEL = ClassName.get("android.os", "Parcel");
+  private static final ClassName UTILS = ClassName.get("paperparcel.internal", "Utils");
+  private static final ClassName LIST_ADAPTER =
+      ClassName.get("paperparcel.internal", "ListAdapter");
+  private static final ClassName SET_ADAPTER =
+      ClassName.get("paperparcel.internal", "SetAdapter");
+  private static final ClassName COLLECTION_ADAPTER =
+      ClassName.get("paperparcel.internal", "CollectionAdapter");
+  private static final ClassName MAP_ADAPTER =
+      ClassName.get("paperparcel.internal", "MapAdapter");
+  private static final ImmutableSet<ClassName> CONTAINER_ADAPTERS =
+      ImmutableSet.of(LIST_ADAPTER, SET_ADAPTER, COLLECTION_ADAPTER, MAP_ADAPTER);
+
+  private static final ParameterSpec IN = ParameterSpec.builder(PARCEL, "in").build();
+  private static final ParameterSpec DEST = ParameterSpec.builder(PARCEL, "dest").build();
+  private static final ParameterSpec FLAGS = ParameterSpec.builder(int.class, "flags").build();
+  private static final String VALUE = "value";
+  private static final String RESULT = "result";
+
+  /** Returns the expression used to reference the instance of an adapter that isn't inlined. */
+  private final Function<AdapterDescriptor, CodeBlock> adapterInstances;
+
+  private final AdapterNameGenerator adapterNames = new AdapterNameGenerator();
+  private final UniqueNameSet methodNames = new UniqueNameSet();
+  private final Map<List<Object>, MethodSpec> readMethods = new LinkedHashMap<>();
+  private final Map<List<Object>, MethodSpec> writeMethods = new LinkedHashMap<>();
+
+  InlineContainers(
+      Function<AdapterDescriptor, CodeBlock> adapterInstances,
+      Iterable<String> reservedNames) {
+    this.adapterInstances = adapterInstances;
+    for (String name : reservedNames) {
+      methodNames.getUniqueName(name);
+    }
+  }
+
+  /**
+   * Returns true if {@code adapter} is one of the built-in container adapters, and all of the
+   * types it adapts can be named in the generated code.
+   */
+  static boolean canInline(AdapterDescriptor adapter) {
+    return adapter.constructorInfo().isPresent()
+        && adapter.typeName() instanceof ParameterizedTypeName
+        && CONTAINER_ADAPTERS.contains(((ParameterizedTypeName) adapter.typeName()).rawType)
+        && adapter.adaptedTypeName() instanceof ParameterizedTypeName
+        && isDenotable(adapter.adaptedTypeName());
+  }
+
+  /** Returns true if {@code typeName} contains no wildcards or type variables. */
+  private static boolean isDenotable(TypeName typeName) {
+    if (typeName instanceof ParameterizedTypeName) {
+      for (TypeName typeArgument : ((ParameterizedTypeName) typeName).typeArguments) {
+        if (!isDenotable(typeArgument)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (typeName instanceof ArrayTypeName) {
+      return isDenotable(((ArrayTypeName) typeName).componentType);
+    }
+    return typeName instanceof ClassName || typeName.isPrimitive();
+  }
+
+  /** Returns the adapters that {@code adapter} delegates to, in constructor order. */
+  @SuppressWarnings("OptionalGetWithoutIsPresent") // Only called for inlined adapters
+  static List<AdapterDescriptor> dependencies(AdapterDescriptor adapter) {
+    List<AdapterDescriptor> result = new ArrayList<>();
+    for (ConstructorInfo.Param param : adapter.constructorInfo().get().constructorParameters()) {
+      if (param instanceof ConstructorInfo.AdapterParam) {
+        result.add(((ConstructorInfo.AdapterParam) param).adapter);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns an expression that reads a value written by {@code adapter} from {@code in}. If
+   * {@code nullable} is true, the value must have been written with a leading null marker (as by
+   * {@code Utils#writeNullable}).
+   */
+  CodeBlock read(AdapterDescriptor adapter, boolean nullable, ParameterSpec in) {
+    List<Object> key = Arrays.<Object>asList(adapter.typeName(), nullable);
+    MethodSpec method = readMethods.get(key);
+    if (method == null) {
+      UniqueNameSet names = new UniqueNameSet();
+      names.getUniqueName(IN.name);
+      names.getUniqueName(RESULT);
+      CodeBlock.Builder code = CodeBlock.builder()
+          .addStatement("$T $N", adapter.adaptedTypeName(), RESULT);
+      readValue(code, adapter, RESULT, nullable, names);
+      method = MethodSpec.methodBuilder(methodName("read", adapter, nullable))
+          .addModifiers(PRIVATE, STATIC)
+          .returns(adapter.adaptedTypeName())
+          .addParameter(IN)
+          .addCode(code.build())
+          .addStatement("return $N", RESULT)
+          .build();
+      readMethods.put(key, method);
+    }
+    return CodeBlock.of("$N($N)", method, in);
+  }
+
+  /**
+   * Returns an expression that writes {@code value} to {@code dest} in the same way as
+   * {@code adapter}. If {@code nullable} is true, a leading null marker is written (as by
+   * {@code Utils#writeNullable}).
+   */
+  CodeBlock write(
+      AdapterDescriptor adapter,
+      boolean nullable,
+      CodeBlock value,
+      ParameterSpec dest,
+      ParameterSpec flags) {
+    List<Object> key = Arrays.<Object>asList(adapter.typeName(), nullable);
+    MethodSpec method = writeMethods.get(key);
+    if (method == null) {
+      UniqueNameSet names = new UniqueNameSet();
+      names.getUniqueName(VALUE);
+      names.getUniqueName(DEST.name);
+      names.getUniqueName(FLAGS.name);
+      CodeBlock.Builder code = CodeBlock.builder();
+      writeValue(code, adapter, VALUE, nullable, names);
+      method = MethodSpec.methodBuilder(methodName("write", adapter, nullable))
+          .addModifiers(PRIVATE, STATIC)
+          .addParameter(adapter.adaptedTypeName(), VALUE)
+          .addParameter(DEST)
+          .addParameter(FLAGS)
+          .addCode(code.build())
+          .build();
+      writeMethods.put(key, method);
+    }
+    return CodeBlock.of("$N($L, $N, $N)", method, value, dest, flags);
+  }
+
+  /** Returns all of the methods referenced by {@link #read} and {@link #write}. */
+  ImmutableList<MethodSpec> methods() {
+    return ImmutableList.<MethodSpec>builder()
+        .addAll(readMethods.values())
+        .addAll(writeMethods.values())
+        .build();
+  }
+
+  private String methodName(String prefix, AdapterDescriptor adapter, boolean nullable) {
+    String name = CaseFormat.UPPER_UNDERSCORE.to(
+        CaseFormat.UPPER_CAMEL, adapterNames.getName(adapter.typeName()));
+    if (name.endsWith("Adapter")) {
+      name = name.substring(0, name.length() - "Adapter".length());
+    }
+    return methodNames.getUniqueName(prefix + (nullable ? "Nullable" : "") + name);
+  }
+
+  /** Adds statements that assign the value read by {@code adapter} to {@code target}. */
+  private void readValue(
+      CodeBlock.Builder code,
+      AdapterDescriptor adapter,
+      String target,
+      boolean nullable,
+      UniqueNameSet names) {
+    if (!canInline(adapter)) {
+      code.addStatement("$N = $L", target, readCall(adapter, nullable));
+    } else if (nullable) {
+      code.beginControlFlow("if ($N.readInt() == 1)", IN);
+      readValue(code, adapter, target, false, names);
+      code.nextControlFlow("else")
+          .addStatement("$N = null", target)
+          .endControlFlow();
+    } else {
+      List<AdapterDescriptor> dependencies = dependencies(adapter);
+      List<TypeName> typeArguments =
+          ((ParameterizedTypeName) adapter.adaptedTypeName()).typeArguments;
+      ClassName rawType = ((ParameterizedTypeName) adapter.typeName()).rawType;
+      String size = names.getUniqueName("size");
+      String i = names.getUniqueName("i");
+      code.addStatement("int $N = $N.readInt()", size, IN)
+          .addStatement("$N = new $T($N)", target, containerType(rawType, typeArguments), size)
+          .beginControlFlow("for (int $1N = 0; $1N < $2N; $1N++)", i, size);
+      if (rawType.equals(MAP_ADAPTER)) {
+        String key = names.getUniqueName("key");
+        String value = names.getUniqueName("value");
+        readElement(code, typeArguments.get(0), dependencies.get(0), key, names);
+        readElement(code, typeArguments.get(1), dependencies.get(1), value, names);
+        code.addStatement("$N.put($N, $N)", target, key, value);
+      } else {
+        String item = names.getUniqueName("item");
+        readElement(code, typeArguments.get(0), dependencies.get(0), item, names);
+        code.addStatement("$N.add($N)", target, item);
+      }
+      code.endControlFlow();
+    }
+  }
+
+  /**
+   * Declares {@code target} and reads an element of a container into it. Adapters that aren't
+   * null-safe are wrapped using {@code Utils#nullSafeClone} when they are passed to a container
+   * adapter, so these elements have a leading null marker.
+   */
+  private void readElement(
+      CodeBlock.Builder code,
+      TypeName type,
+      AdapterDescriptor adapter,
+      String target,
+      UniqueNameSet names) {
+    boolean nullable = !adapter.nullSafe();
+    if (canInline(adapter)) {
+      code.addStatement("$T $N", type, target);
+      readValue(code, adapter, target, nullable, names);
+    } else {
+      code.addStatement("$T $N = $L", type, target, readCall(adapter, nullable));
+    }
+  }
+
+  /** Returns an expression that reads a value using an adapter that isn't inlined. */
+  private CodeBlock readCall(AdapterDescriptor adapter, boolean nullable) {
+    CodeBlock adapterInstance = adapterInstances.apply(adapter);
+    return nullable
+        ? CodeBlock.of("$T.readNullable($N, $L)", UTILS, IN, adapterInstance)
+        : CodeBlock.of("$L.readFromParcel($N)", adapterInstance, IN);
+  }
+
+  /** Adds statements that write {@code value} in the same way as {@code adapter}. */
+  private void writeValue(
+      CodeBlock.Builder code,
+      AdapterDescriptor adapter,
+      String value,
+      boolean nullable,
+      UniqueNameSet names) {
+    boolean inline = canInline(adapter);
+    if (nullable && !inline) {
+      code.addStatement("$T.writeNullable($N, $N, $N, $L)",
+          UTILS, value, DEST, FLAGS, adapterInstances.apply(adapter));
+    } else if (nullable) {
+      code.beginControlFlow("if ($N == null)", value)
+          .addStatement("$N.writeInt(0)", DEST)
+          .nextControlFlow("else")
+          .addStatement("$N.writeInt(1)", DEST);
+      writeValue(code, adapter, value, false, names);
+      code.endControlFlow();
+    } else if (!inline) {
+      code.addStatement("$L.writeToParcel($N, $N, $N)",
+          adapterInstances.apply(adapter), value, DEST, FLAGS);
+    } else {
+      List<AdapterDescriptor> dependencies = dependencies(adapter);
+      List<TypeName> typeArguments =
+          ((ParameterizedTypeName) adapter.adaptedTypeName()).typeArguments;
+      ClassName rawType = ((ParameterizedTypeName) adapter.typeName()).rawType;
+      if (rawType.equals(MAP_ADAPTER)) {
+        TypeName entryType = ParameterizedTypeName.get(ClassName.get(Map.Entry.class),
+            typeArguments.get(0), typeArguments.get(1));
+        String entry = names.getUniqueName("entry");
+        String key = names.getUniqueName("key");
+        String entryValue = names.getUniqueName("entryValue");
+        code.addStatement("$N.writeInt($N.size())", DEST, value)
+            .beginControlFlow("for ($T $N : $N.entrySet())", entryType, entry, value)
+            .addStatement("$T $N = $N.getKey()", typeArguments.get(0), key, entry);
+        writeElement(code, dependencies.get(0), key, names);
+        code.addStatement("$T $N = $N.getValue()", typeArguments.get(1), entryValue, entry);
+        writeElement(code, dependencies.get(1), entryValue, names);
+        code.endControlFlow();
+      } else if (rawType.equals(LIST_ADAPTER)) {
+        // Lists are indexed rather than iterated, exactly as ListAdapter does.
+        String size = names.getUniqueName("size");
+        String i = names.getUniqueName("i");
+        String item = names.getUniqueName("item");
+        code.addStatement("int $N = $N.size()", size, value)
+            .addStatement("$N.writeInt($N)", DEST, size)
+            .beginControlFlow("for (int $1N = 0; $1N < $2N; $1N++)", i, size)
+            .addStatement("$T $N = $N.get($N)", typeArguments.get(0), item, value, i);
+        writeElement(code, dependencies.get(0), item, names);
+        code.endControlFlow();
+      } else {
+        String item = names.getUniqueName("item");
+        code.addStatement("$N.writeInt($N.size())", DEST, value)
+            .beginControlFlow("for ($T $N : $N)", typeArguments.get(0), item, value);
+        writeElement(code, dependencies.get(0), item, names);
+        code.endControlFlow();
+      }
+    }
+  }
+
+  private void writeElement(
+      CodeBlock.Builder code, AdapterDescriptor adapter, String value, UniqueNameSet names) {
+    writeValue(code, adapter, value, !adapter.nullSafe(), names);
+  }
+
+  /** Returns the type that the container adapter {@code rawType} reads values into. */
+  private static TypeName containerType(ClassName rawType, List<TypeName> typeArguments) {
+    Class<?> container;
+    if (rawType.equals(MAP_ADAPTER)) {
+      container = LinkedHashMap.class;
+    } else if (rawType.equals(SET_ADAPTER)) {
+      container = LinkedHashSet.class;
+    } else {
+      container = ArrayList.class;
+    }
+    return ParameterizedTypeName.get(
+        ClassName.get(container), typeArguments.toArray(new TypeName[typeArguments.size()]));
+  }
+}
@@ -38,6 +38,15 @@ abstract class OptionsDescriptor {
       false,
       ImmutableList.<String>of(),
       true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
       false);
 
   @Nullable abstract AnnotationMirror mirror();
@@ -56,6 +65,43 @@ abstract class OptionsDescriptor {
 
   abstract boolean isLombokEnabled();
 
+  abstract boolean useEnumOrdinals();
+
+  abstract boolean packFlags();
+
+  abstract boolean poolStrings();
+
+  abstract boolean trackReferences();
+
+  abstract boolean presize();
+
+  abstract boolean inlineContainers();
+
+  abstract boolean tableDriven();
+
+  abstract boolean linkNested();
+
+  abstract boolean hot();
+
+  /**
+   * Returns true if a {@code sizeOf} method is generated and used to grow the parcel before
+   * writing. Sizing doesn't track object identity, so it would never finish for a cycle and would
+   * size a shared instance again for every reference to it. {@link #trackReferences()} therefore
+   * takes precedence over {@link #presize()}.
+   */
+  boolean usePresize() {
+    return presize() && !trackReferences();
+  }
+
+  /**
+   * Returns true if a {@code FieldTable} is generated rather than unrolled read and write
+   * statements. The table doesn't support packed flags, sizing or inlined containers, so these
+   * options take precedence over {@link #tableDriven()}.
+   */
+  boolean useFieldTable() {
+    return tableDriven() && !packFlags() && !usePresize() && !inlineContainers();
+  }
+
   static OptionsDescriptor create(
       AnnotationMirror mirror,
       ImmutableList<Set<Modifier>> excludeModifiers,
@@ -64,7 +110,16 @@ abstract class OptionsDescriptor {
       boolean excludeNonExposedFields,
       ImmutableList<String> reflectAnnotations,
       boolean allowSerializable,
-      boolean isLombokEnabled) {
+      boolean isLombokEnabled,
+      boolean useEnumOrdinals,
+      boolean packFlags,
+      boolean poolStrings,
+      boolean trackReferences,
+      boolean presize,
+      boolean inlineContainers,
+      boolean tableDriven,
+      boolean linkNested,
+      boolean hot) {
     return new AutoValue_OptionsDescriptor(
         mirror,
         excludeModifiers,
@@ -73,6 +128,15 @@ abstract class OptionsDescriptor {
         excludeNonExposedFields,
         reflectAnnotations,
         allowSerializable,
-        isLombokEnabled);
+        isLombokEnabled,
+        useEnumOrdinals,
+        packFlags,
+        poolStrings,
+        trackReferences,
+        presize,
+        inlineContainers,
+        tableDriven,
+        linkNested,
+        hot);
   }
 }
@@ -34,12 +34,15 @@ import static com.google.auto.common.MoreElements.getAnnotationMirror;
 final class OptionsProcessingStep implements BasicAnnotationProcessor.ProcessingStep {
   private final Messager messager;
   private final OptionsHolder optionsHolder;
+  private final boolean isolating;
 
   OptionsProcessingStep(
       Messager messager,
-      OptionsHolder optionsHolder) {
+      OptionsHolder optionsHolder,
+      boolean isolating) {
     this.messager = messager;
     this.optionsHolder = optionsHolder;
+    this.isolating = isolating;
   }
 
   @Override public Set<? extends Class<? extends Annotation>> annotations() {
@@ -51,6 +54,10 @@ final class OptionsProcessingStep implements BasicAnnotationProcessor.Processing
     Set<Element> processorConfigElements = elementsByAnnotation.get(ProcessorConfig.class);
     if (optionsHolder.isOptionsApplied() || processorConfigElements.size() > 1) {
       messager.printMessage(Diagnostic.Kind.ERROR, ErrorMessages.MULTIPLE_PROCESSOR_CONFIGS);
+    } else if (isolating && processorConfigElements.size() == 1) {
+      Element configElement = processorConfigElements.iterator().next();
+      messager.printMessage(
+          Diagnostic.Kind.ERROR, ErrorMessages.PROCESSOR_CONFIG_WHEN_ISOLATING, configElement);
     } else if (processorConfigElements.size() == 1) {
       Element configElement = processorConfigElements.iterator().next();
       AnnotationMirror config = getAnnotationMirror(configElement, ProcessorConfig.class).get();
@@ -17,12 +17,17 @@
 package paperparcel;
 
 import com.google.auto.common.MoreElements;
+import com.google.auto.common.MoreTypes;
 import com.google.auto.common.Visibility;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +37,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.UnknownTypeException;
 import javax.lang.model.util.Elements;
@@ -78,12 +84,50 @@ abstract class PaperParcelDescriptor {
    */
   abstract ImmutableMap<FieldDescriptor, AdapterDescriptor> adapters();
 
+  /**
+   * Returns the fields whose type is a final {@link PaperParcel} class in the same package, mapped
+   * to the class generated for that type. These fields are read and written by calling the
+   * generated class directly, so they have no entry in {@link #adapters()}.
+   */
+  abstract ImmutableMap<FieldDescriptor, ClassName> linkedFields();
+
   /**
    * Returns true if this class is a singleton. Singletons are defined as per
    * {@link Utils#isSingleton(Types, TypeElement)}
    */
   abstract boolean isSingleton();
 
+  /**
+   * Returns true if this class implements {@code paperparcel.PaperParcelable}, in which case the
+   * generated class registers a writer that {@code PaperParcelable} can dispatch to directly.
+   */
+  abstract boolean implementsPaperParcelable();
+
+  /** The options that this class was parsed with */
+  abstract OptionsDescriptor options();
+
+  /**
+   * Returns all of the parcelled fields in the exact same order that they are written to the
+   * Parcel. Currently directly readable fields first (including those that require reflection),
+   * then all fields that are read via getters.
+   */
+  ImmutableList<FieldDescriptor> parcelledFields() {
+    return ImmutableList.<FieldDescriptor>builder()
+        .addAll(readableFields())
+        .addAll(getterMethodMap().keySet())
+        .build();
+  }
+
+  /**
+   * Returns true if a non-null marker is written before the value of {@code field}. Linked
+   * fields always have a marker, as {@code ParcelableAdapter} writes one for every value.
+   */
+  @SuppressWarnings("ConstantConditions")
+  boolean hasNullMarker(FieldDescriptor field) {
+    return linkedFields().containsKey(field)
+        || (field.isNullable() && !adapters().get(field).nullSafe());
+  }
+
   private static boolean isGetterMethod(String fieldName, String methodName) {
     fieldName = stripKaptEscaping(fieldName);
     methodName = stripKotlinInternalVisibilityQualifier(methodName);
@@ -177,27 +221,31 @@ abstract class PaperParcelDescriptor {
     private final Types types;
     private final AdapterDescriptor.Factory adapterFactory;
     private final FieldDescriptor.Factory fieldDescriptorFactory;
+    private final HierarchyCache hierarchyCache;
+    private final ProcessingProfile profile;
 
     Factory(
         Elements elements,
         Types types,
         AdapterDescriptor.Factory adapterFactory,
-        FieldDescriptor.Factory fieldDescriptorFactory) {
+        FieldDescriptor.Factory fieldDescriptorFactory,
+        HierarchyCache hierarchyCache,
+        ProcessingProfile profile) {
       this.elements = elements;
       this.types = types;
       this.adapterFactory = adapterFactory;
       this.fieldDescriptorFactory = fieldDescriptorFactory;
+      this.hierarchyCache = hierarchyCache;
+      this.profile = profile;
     }
 
     PaperParcelDescriptor create(TypeElement element, OptionsDescriptor options)
         throws NonWritableFieldsException, NonReadableFieldsException {
 
-      ImmutableList<VariableElement> fields = Utils.getFieldsToParcel(element, options);
-      //noinspection deprecation: Support for kapt2
-      ImmutableSet<ExecutableElement> methods =
-          MoreElements.getLocalAndInheritedMethods(element, elements);
+      ImmutableList<VariableElement> fields = hierarchyCache.getFieldsToParcel(element, options);
+      ImmutableSet<ExecutableElement> methods = hierarchyCache.getLocalAndInheritedMethods(element);
       ImmutableList<ExecutableElement> constructors =
-          Utils.orderedConstructorsIn(element, options.reflectAnnotations());
+          hierarchyCache.orderedConstructorsIn(element, options.reflectAnnotations());
 
       ImmutableList<FieldDescriptor> constructorFields;
       boolean isConstructorVisible;
@@ -206,6 +254,7 @@ abstract class PaperParcelDescriptor {
       ImmutableList<FieldDescriptor> readableFields;
       ImmutableMap<FieldDescriptor, ExecutableElement> getterMethodMap;
       ImmutableMap<FieldDescriptor, AdapterDescriptor> adapters;
+      ImmutableMap<FieldDescriptor, ClassName> linkedFields;
 
       boolean singleton = Utils.isSingleton(types, element);
       if (!singleton) {
@@ -219,7 +268,16 @@ abstract class PaperParcelDescriptor {
             methods, options.reflectAnnotations());
         readableFields = readInfo.readableFields();
         getterMethodMap = readInfo.getterMethodMap();
-        adapters = getAdapterMap(readInfo, options.allowSerializable());
+        ImmutableMap.Builder<FieldDescriptor, AdapterDescriptor> adaptersBuilder =
+            ImmutableMap.builder();
+        ImmutableMap.Builder<FieldDescriptor, ClassName> linkedFieldsBuilder =
+            ImmutableMap.builder();
+        for (FieldDescriptor field : Iterables.concat(
+            readInfo.readableFields(), readInfo.getterMethodMap().keySet())) {
+          addAdapterForField(element, adaptersBuilder, linkedFieldsBuilder, field, options);
+        }
+        adapters = adaptersBuilder.build();
+        linkedFields = linkedFieldsBuilder.build();
 
       } else {
         constructorFields = ImmutableList.of();
@@ -229,6 +287,7 @@ abstract class PaperParcelDescriptor {
         readableFields = ImmutableList.of();
         getterMethodMap = ImmutableMap.of();
         adapters = ImmutableMap.of();
+        linkedFields = ImmutableMap.of();
       }
 
       return new AutoValue_PaperParcelDescriptor(
@@ -240,37 +299,69 @@ abstract class PaperParcelDescriptor {
           readableFields,
           getterMethodMap,
           adapters,
-          singleton);
-    }
-
-    private ImmutableMap<FieldDescriptor, AdapterDescriptor> getAdapterMap(ReadInfo readInfo,
-        boolean allowSerializable) {
-      ImmutableMap.Builder<FieldDescriptor, AdapterDescriptor> fieldAdapterMap =
-          ImmutableMap.builder();
-      if (readInfo != null) {
-        for (FieldDescriptor field : readInfo.readableFields()) {
-          addAdapterForField(fieldAdapterMap, field, allowSerializable);
-        }
-        for (FieldDescriptor field : readInfo.getterMethodMap().keySet()) {
-          addAdapterForField(fieldAdapterMap, field, allowSerializable);
-        }
-      }
-      return fieldAdapterMap.build();
+          linkedFields,
+          singleton,
+          Utils.isPaperParcelable(elements, types, element.asType()),
+          options);
     }
 
     private void addAdapterForField(
+        TypeElement element,
         ImmutableMap.Builder<FieldDescriptor, AdapterDescriptor> fieldAdapterMap,
-        FieldDescriptor field, boolean allowSerializable) {
+        ImmutableMap.Builder<FieldDescriptor, ClassName> linkedFieldMap,
+        FieldDescriptor field, OptionsDescriptor options) {
       TypeMirror fieldType = field.type().get();
       //noinspection ConstantConditions
       if (!fieldType.getKind().isPrimitive()) {
-        AdapterDescriptor adapter = adapterFactory.create(fieldType, allowSerializable);
-        if (adapter != null) {
-          fieldAdapterMap.put(field, adapter);
-        } else {
+        long start = profile.start();
+        AdapterDescriptor adapter = adapterFactory.create(fieldType, options);
+        profile.stop(ProcessingProfile.Phase.RESOLVE_ADAPTERS, start);
+        if (adapter == null) {
           throw new UnknownTypeException(fieldType, field.element());
         }
+        Optional<ClassName> linkedClass = linkedClass(element, fieldType, adapter, options);
+        if (linkedClass.isPresent()) {
+          linkedFieldMap.put(field, linkedClass.get());
+        } else {
+          fieldAdapterMap.put(field, adapter);
+        }
+      }
+    }
+
+    /**
+     * Returns the class generated for {@code fieldType} if fields of this type can call it
+     * directly, rather than going through a {@code ParcelableAdapter} and the type's
+     * {@code CREATOR}. This is only possible when the generated class is accessible (i.e. in the
+     * same package), and when {@code fieldType} is final so that the field can never hold a
+     * subtype. Custom adapters for the type are always respected. Linking bypasses the type's own
+     * {@code writeToParcel} method and {@code CREATOR}, so it is only done when the class opts in
+     * with {@link PaperParcel.Options#linkNested()}.
+     */
+    private Optional<ClassName> linkedClass(
+        TypeElement element, TypeMirror fieldType, AdapterDescriptor adapter,
+        OptionsDescriptor options) {
+      // sizeOf and field tables go through the adapters of every field
+      if (!options.linkNested()
+          || options.usePresize()
+          || options.useFieldTable()
+          || fieldType.getKind() != TypeKind.DECLARED) {
+        return Optional.absent();
+      }
+      TypeName adapterType = adapter.typeName();
+      if (adapterType instanceof ParameterizedTypeName) {
+        adapterType = ((ParameterizedTypeName) adapterType).rawType;
+      }
+      if (!adapterType.toString().equals(AdapterRegistry.PARCELABLE_ADAPTER)) {
+        return Optional.absent();
+      }
+      TypeElement fieldElement = MoreTypes.asTypeElement(fieldType);
+      if (!MoreElements.isAnnotationPresent(fieldElement, PaperParcel.class)
+          || !fieldElement.getModifiers().contains(Modifier.FINAL)
+          || !fieldElement.getTypeParameters().isEmpty()
+          || !elements.getPackageOf(fieldElement).equals(elements.getPackageOf(element))) {
+        return Optional.absent();
       }
+      return Optional.of(PaperParcelGenerator.generatedClassName(ClassName.get(fieldElement)));
     }
   }
 
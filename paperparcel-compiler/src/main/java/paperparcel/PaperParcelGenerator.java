@@ -18,6 +18,7 @@ package paperparcel;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.TypeSpec;
 import javax.annotation.processing.Filer;
@@ -28,18 +29,40 @@ import javax.lang.model.element.Element;
  * specified {@link PaperParcelDescriptor}
  */
 final class PaperParcelGenerator extends SourceFileGenerator<PaperParcelDescriptor> {
+  private final Optional<SharedAdapters> sharedAdapters;
+  private final boolean metrics;
+  private final PaperParcelWriter.Tracing tracing;
+  private final boolean sizeBudget;
+
   PaperParcelGenerator(
-      Filer filer) {
-    super(filer);
+      Filer filer,
+      ProcessingProfile profile,
+      Optional<SharedAdapters> sharedAdapters,
+      boolean metrics,
+      PaperParcelWriter.Tracing tracing,
+      boolean sizeBudget) {
+    super(filer, profile);
+    this.sharedAdapters = sharedAdapters;
+    this.metrics = metrics;
+    this.tracing = tracing;
+    this.sizeBudget = sizeBudget;
   }
 
   @Override ClassName nameGeneratedType(PaperParcelDescriptor input) {
-    ClassName paperParcelClassName = ClassName.get(input.element());
+    return generatedClassName(ClassName.get(input.element()));
+  }
+
+  /** Returns the name of the class generated for the {@code PaperParcel} class {@code name}. */
+  static ClassName generatedClassName(ClassName paperParcelClassName) {
     String implName =
         "PaperParcel" + Joiner.on('_').join(paperParcelClassName.simpleNames());
     return paperParcelClassName.topLevelClassName().peerClass(implName);
   }
 
+  @Override Iterable<? extends Element> originatingElements(PaperParcelDescriptor input) {
+    return ImmutableList.of(input.element());
+  }
+
   @Override Optional<? extends Element> getElementForErrorReporting(PaperParcelDescriptor input) {
     return Optional.of(input.element());
   }
@@ -47,7 +70,8 @@ final class PaperParcelGenerator extends SourceFileGenerator<PaperParcelDescript
   @Override Optional<TypeSpec.Builder> write(
       ClassName generatedTypeName, PaperParcelDescriptor input) {
     return Optional.of(
-        new PaperParcelWriter(generatedTypeName, input)
+        new PaperParcelWriter(generatedTypeName, input, sharedAdapters, metrics, tracing,
+            sizeBudget)
             .write());
   }
 }
@@ -17,6 +17,7 @@
 package paperparcel;
 
 import com.google.auto.common.BasicAnnotationProcessor;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
@@ -54,6 +55,11 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
   private final PaperParcelValidator paperParcelValidator;
   private final PaperParcelDescriptor.Factory paperParcelDescriptorFactory;
   private final PaperParcelGenerator paperParcelGenerator;
+  private final Optional<SharedAdapters> sharedAdapters;
+  private final SharedAdaptersGenerator sharedAdaptersGenerator;
+  private final ProcessingProfile profile;
+  private final CostManifest manifest;
+  private final boolean strict;
 
   private boolean isLombokEnabled = false;
   private boolean waitForLombok = false;
@@ -63,13 +69,22 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
       OptionsHolder optionsHolder,
       PaperParcelValidator paperParcelValidator,
       PaperParcelDescriptor.Factory paperParcelDescriptorFactory,
-      PaperParcelGenerator paperParcelGenerator) {
+      PaperParcelGenerator paperParcelGenerator,
+      Optional<SharedAdapters> sharedAdapters,
+      SharedAdaptersGenerator sharedAdaptersGenerator,
+      ProcessingProfile profile,
+      CostManifest manifest,
+      boolean strict) {
     this.messager = messager;
     this.optionsHolder = optionsHolder;
     this.paperParcelValidator = paperParcelValidator;
     this.paperParcelDescriptorFactory = paperParcelDescriptorFactory;
     this.paperParcelGenerator = paperParcelGenerator;
-
+    this.sharedAdapters = sharedAdapters;
+    this.sharedAdaptersGenerator = sharedAdaptersGenerator;
+    this.profile = profile;
+    this.manifest = manifest;
+    this.strict = strict;
   }
 
   @Override public Set<? extends Class<? extends Annotation>> annotations() {
@@ -84,16 +99,25 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
     for (Element element : elementsByAnnotation.get(PaperParcel.class)) {
 
       TypeElement paperParcelElement = asType(element);
+      profile.beginClass(paperParcelElement);
+      long start = profile.start();
       OptionsDescriptor options = Utils.getOptions(paperParcelElement).or(optionsHolder.getOptions());
       ValidationReport<TypeElement> validationReport = paperParcelValidator.validate(paperParcelElement, options);
       validationReport.printMessagesTo(messager);
+      profile.stop(ProcessingProfile.Phase.VALIDATE, start);
 
       isLombokEnabled = options.isLombokEnabled();
       waitForLombok = isLombokEnabled && isLombokDataValueAnnotationPresent(element);
 
       if (validationReport.isClean()) {
         try {
-          generatePaperParcel(paperParcelDescriptorFactory.create(paperParcelElement, options));
+          start = profile.start();
+          PaperParcelDescriptor descriptor =
+              paperParcelDescriptorFactory.create(paperParcelElement, options);
+          profile.stop(ProcessingProfile.Phase.DESCRIBE, start);
+          profile.increment(ProcessingProfile.Counter.DESCRIPTORS_BUILT);
+          auditCosts(descriptor);
+          generatePaperParcel(descriptor);
         } catch (PaperParcelDescriptor.NonWritableFieldsException e) {
           if (waitForLombok && hasNoFieldsWithLombokSetterAccessLevelNone(e)) {
             defferedElements.add(element);
@@ -111,6 +135,10 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
                                                                      e.getUnknownType().toString()), (Element) e.getArgument());
         }
       }
+      profile.endClass();
+    }
+    if (sharedAdapters.isPresent()) {
+      generateSharedAdapters(sharedAdapters.get());
     }
     return defferedElements;
   }
@@ -157,6 +185,35 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
     return true;
   }
 
+  private void auditCosts(PaperParcelDescriptor descriptor) {
+    if (!manifest.isEnabled() && !descriptor.options().hot()) {
+      return;
+    }
+    CostManifest.ClassCost classCost = CostManifest.describe(descriptor);
+    manifest.add(classCost);
+    if (!classCost.hot) {
+      return;
+    }
+    Diagnostic.Kind kind = strict ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING;
+    if (classCost.construction == CostManifest.Access.REFLECTION) {
+      messager.printMessage(kind,
+          String.format(ErrorMessages.HOT_CONSTRUCTOR_REFLECTION, classCost.name),
+          classCost.element);
+    }
+    for (CostManifest.FieldCost field : classCost.fields) {
+      if (field.serializable) {
+        messager.printMessage(kind,
+            String.format(ErrorMessages.HOT_FIELD_SERIALIZABLE, field.name, field.type),
+            field.element);
+      }
+      if (field.read == CostManifest.Access.REFLECTION
+          || field.write == CostManifest.Access.REFLECTION) {
+        messager.printMessage(kind,
+            String.format(ErrorMessages.HOT_FIELD_REFLECTION, field.name), field.element);
+      }
+    }
+  }
+
   private void generatePaperParcel(PaperParcelDescriptor descriptor) {
     try {
       paperParcelGenerator.generate(descriptor);
@@ -165,6 +222,16 @@ final class PaperParcelProcessingStep implements BasicAnnotationProcessor.Proces
     }
   }
 
+  private void generateSharedAdapters(SharedAdapters sharedAdapters) {
+    for (SharedAdapters.Holder holder : sharedAdapters.drain()) {
+      try {
+        sharedAdaptersGenerator.generate(holder);
+      } catch (SourceFileGenerationException e) {
+        e.printMessageTo(messager);
+      }
+    }
+  }
+
   private void printMessages(PaperParcelDescriptor.NonWritableFieldsException e) {
     ImmutableSet<ExecutableElement> validConstructors = e.allNonWritableFieldsMap().keySet();
     ImmutableSet<ExecutableElement> invalidConstructors =
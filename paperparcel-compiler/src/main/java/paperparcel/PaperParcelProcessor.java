@@ -18,62 +18,205 @@ package paperparcel;
 
 import com.google.auto.common.BasicAnnotationProcessor;
 import com.google.auto.service.AutoService;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.googlejavaformat.java.filer.FormattingFiler;
+import java.io.IOException;
+import java.util.Set;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 
 /**
  * The annotation processor responsible for generating the classes that drive the PaperParcel
  * implementation.
+ *
+ * <p>The processor supports Gradle's incremental annotation processing. By default it runs in
+ * aggregating mode, as a {@link ProcessorConfig} affects every generated class in the module.
+ * Modules that don't declare a {@link ProcessorConfig} can pass
+ * {@code -Apaperparcel.isolating=true} to run in isolating mode instead, so that only the classes
+ * whose source files changed are regenerated.
+ *
+ * <p>Passing {@code -Apaperparcel.sharedAdapters=true} defines the {@link TypeAdapter}s used by
+ * the generated classes in each package once, in a shared {@code PaperParcelAdapters} class, and
+ * creates each of them lazily the first time it is used. This is ignored in isolating mode, as
+ * the shared class is derived from many source files.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.profile=<path>} writes a JSON report of where the processor
+ * spent its time to the given path. See {@link ProcessingProfile}.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.manifest=<path>} writes a JSON manifest describing how each
+ * field of every {@link PaperParcel} class is parcelled, and what that costs, to the given path.
+ * This is ignored in isolating mode, as only the classes whose source files changed are
+ * processed. See {@link CostManifest}. Classes that enable {@link PaperParcel.Options#hot()}
+ * produce a warning for each Serializable or reflective access; passing
+ * {@code -Apaperparcel.strict=true} turns these warnings into errors.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.metrics=true} makes the generated {@code writeToParcel} and
+ * {@code createFromParcel} methods report the bytes and time of each call to
+ * {@code paperparcel.internal.ParcelMetrics}.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.trace=true} wraps the same methods in trace sections sent to
+ * {@code paperparcel.internal.ParcelTrace}, and {@code -Apaperparcel.traceFields=true} also
+ * wraps each field that is parcelled by a {@link TypeAdapter}.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.budget=true} makes the generated {@code writeToParcel} methods
+ * attribute the bytes that they write to field paths, and report top-level models that exceed
+ * the budget installed with {@code paperparcel.internal.ParcelBudget}.</p>
+ *
+ * <p>Passing {@code -Apaperparcel.hierarchyCache=false} rescans the supertypes of every class
+ * instead of caching their members, so that {@code ProcessorBenchmark} can measure the cache. See
+ * {@link HierarchyCache}.</p>
  */
 @AutoService(Processor.class)
 public class PaperParcelProcessor extends BasicAnnotationProcessor {
+  static final String ISOLATING_OPTION = "paperparcel.isolating";
+  static final String SHARED_ADAPTERS_OPTION = "paperparcel.sharedAdapters";
+  static final String STRICT_OPTION = "paperparcel.strict";
+  static final String METRICS_OPTION = "paperparcel.metrics";
+  static final String TRACE_OPTION = "paperparcel.trace";
+  static final String TRACE_FIELDS_OPTION = "paperparcel.traceFields";
+  static final String BUDGET_OPTION = "paperparcel.budget";
+  static final String HIERARCHY_CACHE_OPTION = "paperparcel.hierarchyCache";
+
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+  private ProcessingProfile profile;
+  private CostManifest manifest;
+  private HierarchyCache hierarchyCache;
+
   @Override public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
   }
 
+  @Override public Set<String> getSupportedOptions() {
+    return ImmutableSet.of(ISOLATING_OPTION, SHARED_ADAPTERS_OPTION, ProcessingProfile.OPTION,
+        CostManifest.OPTION, STRICT_OPTION, METRICS_OPTION,
+        TRACE_OPTION, TRACE_FIELDS_OPTION, BUDGET_OPTION, HIERARCHY_CACHE_OPTION,
+        isIsolating() ? GRADLE_ISOLATING : GRADLE_AGGREGATING);
+  }
+
+  private boolean isIsolating() {
+    return processingEnv != null
+        && Boolean.parseBoolean(processingEnv.getOptions().get(ISOLATING_OPTION));
+  }
+
+  private Optional<SharedAdapters> sharedAdapters() {
+    if (!Boolean.parseBoolean(processingEnv.getOptions().get(SHARED_ADAPTERS_OPTION))) {
+      return Optional.absent();
+    }
+    if (isIsolating()) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          ErrorMessages.SHARED_ADAPTERS_WHEN_ISOLATING);
+      return Optional.absent();
+    }
+    return Optional.of(new SharedAdapters());
+  }
+
+  private CostManifest manifest() {
+    String path = processingEnv.getOptions().get(CostManifest.OPTION);
+    if (path != null && isIsolating()) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          ErrorMessages.MANIFEST_WHEN_ISOLATING);
+      return CostManifest.create(null);
+    }
+    return CostManifest.create(path);
+  }
+
+  private PaperParcelWriter.Tracing tracing() {
+    if (Boolean.parseBoolean(processingEnv.getOptions().get(TRACE_FIELDS_OPTION))) {
+      return PaperParcelWriter.Tracing.FIELDS;
+    }
+    if (Boolean.parseBoolean(processingEnv.getOptions().get(TRACE_OPTION))) {
+      return PaperParcelWriter.Tracing.CLASSES;
+    }
+    return PaperParcelWriter.Tracing.NONE;
+  }
+
   @Override protected Iterable<? extends ProcessingStep> initSteps() {
     Messager messager = processingEnv.getMessager();
     Types types = processingEnv.getTypeUtils();
     Elements elements = processingEnv.getElementUtils();
     Filer filer = new FormattingFiler(processingEnv.getFiler());
+    profile = ProcessingProfile.create(processingEnv.getOptions().get(ProcessingProfile.OPTION));
+    manifest = manifest();
+    boolean strict = Boolean.parseBoolean(processingEnv.getOptions().get(STRICT_OPTION));
+    boolean metrics = Boolean.parseBoolean(processingEnv.getOptions().get(METRICS_OPTION));
+    PaperParcelWriter.Tracing tracing = tracing();
+    boolean sizeBudget = Boolean.parseBoolean(processingEnv.getOptions().get(BUDGET_OPTION));
+
+    boolean cacheHierarchies =
+        !"false".equals(processingEnv.getOptions().get(HIERARCHY_CACHE_OPTION));
+    hierarchyCache = new HierarchyCache(elements, types, cacheHierarchies);
 
-    AdapterRegistry adapterRegistry = new AdapterRegistry(elements, types);
+    AdapterRegistry adapterRegistry = new AdapterRegistry(elements, types, profile);
     OptionsHolder optionsHolder = new OptionsHolder();
 
     AdapterValidator adapterValidator = new AdapterValidator(elements, types);
     PaperParcelValidator paperParcelValidator =
-        new PaperParcelValidator(elements, types);
+        new PaperParcelValidator(elements, types, hierarchyCache);
 
-    FieldDescriptor.Factory fieldDescriptorFactory = new FieldDescriptor.Factory(types);
+    FieldDescriptor.Factory fieldDescriptorFactory = new FieldDescriptor.Factory(hierarchyCache);
     AdapterDescriptor.Factory adapterFactory = new AdapterDescriptor.Factory(elements, types, adapterRegistry);
     PaperParcelDescriptor.Factory paperParcelDescriptorFactory =
         new PaperParcelDescriptor.Factory(
             elements,
             types,
             adapterFactory,
-            fieldDescriptorFactory);
+            fieldDescriptorFactory,
+            hierarchyCache,
+            profile);
 
-    PaperParcelGenerator paperParcelGenerator = new PaperParcelGenerator(filer);
+    Optional<SharedAdapters> sharedAdapters = sharedAdapters();
+    PaperParcelGenerator paperParcelGenerator =
+        new PaperParcelGenerator(filer, profile, sharedAdapters, metrics, tracing,
+            sizeBudget);
+    SharedAdaptersGenerator sharedAdaptersGenerator = new SharedAdaptersGenerator(filer, profile);
 
     return ImmutableList.of(
-        new OptionsProcessingStep(
+        profile.time(new OptionsProcessingStep(
             messager,
-            optionsHolder),
-        new AdapterProcessingStep(
+            optionsHolder,
+            isIsolating())),
+        profile.time(new AdapterProcessingStep(
             messager,
             adapterValidator,
-            adapterRegistry),
-        new PaperParcelProcessingStep(
+            adapterRegistry)),
+        profile.time(new PaperParcelProcessingStep(
             messager,
             optionsHolder,
             paperParcelValidator,
             paperParcelDescriptorFactory,
-            paperParcelGenerator));
+            paperParcelGenerator,
+            sharedAdapters,
+            sharedAdaptersGenerator,
+            profile,
+            manifest,
+            strict)));
+  }
+
+  @Override protected void postRound(RoundEnvironment roundEnv) {
+    hierarchyCache.clear();
+    try {
+      profile.endRound(roundEnv.processingOver());
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          String.format(ErrorMessages.PROFILE_NOT_WRITTEN, e.getMessage()));
+    }
+    if (roundEnv.processingOver()) {
+      try {
+        manifest.write();
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            String.format(ErrorMessages.MANIFEST_NOT_WRITTEN, e.getMessage()));
+      }
+    }
   }
 }
@@ -32,12 +32,15 @@ import javax.lang.model.util.Types;
 final class PaperParcelValidator {
   private final Elements elements;
   private final Types types;
+  private final HierarchyCache hierarchyCache;
 
   PaperParcelValidator(
       Elements elements,
-      Types types) {
+      Types types,
+      HierarchyCache hierarchyCache) {
     this.elements = elements;
     this.types = types;
+    this.hierarchyCache = hierarchyCache;
   }
 
   ValidationReport<TypeElement> validate(TypeElement element, OptionsDescriptor options) {
@@ -72,12 +75,12 @@ final class PaperParcelValidator {
 
     if (!Utils.isSingleton(types, element)) {
       ImmutableList<ExecutableElement> constructors =
-          Utils.orderedConstructorsIn(element, options.reflectAnnotations());
+          hierarchyCache.orderedConstructorsIn(element, options.reflectAnnotations());
       if (constructors.size() == 0) {
         builder.addError(ErrorMessages.PAPERPARCEL_NO_VISIBLE_CONSTRUCTOR);
       }
 
-      ImmutableList<VariableElement> fields = Utils.getFieldsToParcel(element, options);
+      ImmutableList<VariableElement> fields = hierarchyCache.getFieldsToParcel(element, options);
       for (VariableElement field : fields) {
         if (Utils.containsWildcards(field.asType())) {
           builder.addError(ErrorMessages.WILDCARD_IN_FIELD_TYPE, field);
@@ -17,6 +17,8 @@
 package paperparcel;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.common.base.Joiner;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
@@ -24,7 +26,9 @@ import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
@@ -34,13 +38,16 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import paperparcel.AdapterDescriptor.ConstructorInfo;
 
@@ -54,32 +61,345 @@ import static javax.lang.model.element.Modifier.STATIC;
  * implementations
  */
 final class PaperParcelWriter {
+  /** The parts of the generated code that are wrapped in trace sections. */
+  enum Tracing {
+    NONE,
+    /** Each {@code writeToParcel} and {@code createFromParcel} call. */
+    CLASSES,
+    /** Each call, and each field that is read or written by a {@code TypeAdapter}. */
+    FIELDS
+  }
+
   private static final ClassName PARCEL = ClassName.get("android.os", "Parcel");
   private static final ClassName UTILS = ClassName.get("paperparcel.internal", "Utils");
   private static final ClassName TYPE_ADAPTER = ClassName.get("paperparcel", "TypeAdapter");
+  private static final ClassName PARCEL_SCOPE =
+      ClassName.get("paperparcel.internal", "ParcelScope");
+  private static final ClassName SIZED_CREATOR =
+      ClassName.get("paperparcel.internal", "SizedCreator");
+  private static final ClassName FIELD_TABLE =
+      ClassName.get("paperparcel.internal", "FieldTable");
+  private static final ClassName FIELD_TABLE_ACCESSOR =
+      ClassName.get("paperparcel.internal", "FieldTable", "Accessor");
+  private static final ClassName PARCEL_METRICS =
+      ClassName.get("paperparcel.internal", "ParcelMetrics");
+  private static final ClassName PARCEL_TRACE =
+      ClassName.get("paperparcel.internal", "ParcelTrace");
+  private static final ClassName TRACER =
+      ClassName.get("paperparcel.internal", "ParcelTrace", "Tracer");
+  private static final ClassName PARCEL_BUDGET =
+      ClassName.get("paperparcel.internal", "ParcelBudget");
+  private static final ClassName BUDGET_RECORDER =
+      ClassName.get("paperparcel.internal", "ParcelBudget", "Recorder");
+  private static final ImmutableSet<TypeName> CONTAINER_ADAPTERS = ImmutableSet.<TypeName>of(
+      ClassName.get("paperparcel.internal", "ArrayAdapter"),
+      ClassName.get("paperparcel.internal", "CollectionAdapter"),
+      ClassName.get("paperparcel.internal", "ListAdapter"),
+      ClassName.get("paperparcel.internal", "MapAdapter"),
+      ClassName.get("paperparcel.internal", "ParcelableListAdapter"),
+      ClassName.get("paperparcel.internal", "SetAdapter"),
+      ClassName.get("paperparcel.internal", "SparseArrayAdapter"));
+  private static final ClassName PAPER_PARCELABLE_WRITER =
+      ClassName.get("paperparcel", "PaperParcelable", "Writer");
+  private static final ClassName PAPER_PARCEL_WRITERS =
+      ClassName.get("paperparcel", "PaperParcelWriters");
 
   private final AdapterNameGenerator adapterNames = new AdapterNameGenerator();
 
   private final ClassName name;
   private final PaperParcelDescriptor descriptor;
 
+  /**
+   * The bit index of each field that is packed into the leading header ints. Empty unless
+   * {@link OptionsDescriptor#packFlags()} is enabled.
+   */
+  private final ImmutableMap<FieldDescriptor, Integer> packedFlags;
+
+  /**
+   * Defines adapters in a holder shared with other classes in the same package, rather than as
+   * fields of the generated class. Absent unless the {@code paperparcel.sharedAdapters} option is
+   * enabled.
+   */
+  private final Optional<SharedAdapters> sharedAdapters;
+
+  /**
+   * Reports the bytes and time of each read and write to {@code ParcelMetrics}. False unless the
+   * {@code paperparcel.metrics} option is enabled.
+   */
+  private final boolean metrics;
+
+  /** Which trace sections are sent to {@code ParcelTrace}. */
+  private final Tracing tracing;
+
+  /**
+   * Attributes the bytes of each write to field paths for {@code ParcelBudget}. False unless the
+   * {@code paperparcel.budget} option is enabled.
+   */
+  private final boolean sizeBudget;
+
+  /** References to the shared instance of each adapter defined in {@link #sharedAdapters}. */
+  private final Map<TypeName, CodeBlock> sharedInstances = Maps.newLinkedHashMap();
+
+  /** Generates the methods that replace container adapters when they are inlined. */
+  private final InlineContainers inlineContainers = new InlineContainers(
+      new Function<AdapterDescriptor, CodeBlock>() {
+        @Override public CodeBlock apply(AdapterDescriptor adapter) {
+          return adapterInstance(adapter);
+        }
+      },
+      ImmutableList.of("writeToParcel", "sizeOf"));
+
   PaperParcelWriter(
       ClassName name,
-      PaperParcelDescriptor descriptor) {
+      PaperParcelDescriptor descriptor,
+      Optional<SharedAdapters> sharedAdapters,
+      boolean metrics,
+      Tracing tracing,
+      boolean sizeBudget) {
     this.name = name;
     this.descriptor = descriptor;
+    this.sharedAdapters = sharedAdapters;
+    this.metrics = metrics;
+    this.tracing = tracing;
+    this.sizeBudget = sizeBudget;
+    this.packedFlags = descriptor.options().packFlags()
+        ? packedFlags()
+        : ImmutableMap.<FieldDescriptor, Integer>of();
   }
 
   final TypeSpec.Builder write() {
     ClassName className = ClassName.get(descriptor.element());
-    return TypeSpec.classBuilder(name)
+    if (descriptor.options().useFieldTable()) {
+      return writeFieldTable(className);
+    }
+    TypeSpec.Builder builder = TypeSpec.classBuilder(name)
         .addModifiers(FINAL)
         .addFields(adapterDependencies(descriptor.adapters().values()))
-        .addField(creator(className))
-        .addMethod(writeToParcel(className))
+        .addField(creator(className));
+    if (descriptor.implementsPaperParcelable()) {
+      builder.addStaticBlock(registerWriter(className));
+    }
+    builder.addMethod(writeToParcel(className));
+    if (descriptor.options().usePresize()) {
+      builder.addMethod(sizeOf(className));
+    }
+    return builder
+        .addMethods(inlineContainers.methods())
         .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
   }
 
+  /**
+   * Generates a class that describes the layout of the parcelled fields in a {@code FieldTable},
+   * which reads and writes them on its behalf and is used as the {@code CREATOR}. The generated
+   * class itself implements {@code FieldTable.Accessor} to get each field and create the model.
+   */
+  private TypeSpec.Builder writeFieldTable(ClassName className) {
+    TypeSpec.Builder builder = TypeSpec.classBuilder(name)
+        .addModifiers(FINAL)
+        .addSuperinterface(FIELD_TABLE_ACCESSOR)
+        .addFields(adapterDependencies(descriptor.adapters().values()))
+        .addField(fieldTable(className));
+    if (descriptor.implementsPaperParcelable()) {
+      builder.addStaticBlock(registerWriter(className));
+    }
+    MethodSpec writeToParcel = MethodSpec.methodBuilder("writeToParcel")
+        .addModifiers(STATIC)
+        .addParameter(ParameterSpec.builder(className, "data").addAnnotation(NonNull.class).build())
+        .addParameter(ParameterSpec.builder(PARCEL, "dest").addAnnotation(NonNull.class).build())
+        .addParameter(int.class, "flags")
+        .addStatement("CREATOR.write(data, dest, flags)")
+        .build();
+    return builder.addMethod(writeToParcel)
+        .addMethod(getField(className))
+        .addMethod(createModel(className))
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
+  }
+
+  /**
+   * Returns the {@code FieldTable} field. Each field is described by a single character of the
+   * layout string and has an entry in the adapter array, which is {@code null} for primitives.
+   * The field names are also passed in when they are needed for budget paths or trace sections.
+   */
+  @SuppressWarnings("ConstantConditions")
+  private FieldSpec fieldTable(ClassName className) {
+    StringBuilder layout = new StringBuilder();
+    List<CodeBlock> adapters = new ArrayList<>();
+    List<CodeBlock> names = new ArrayList<>();
+    for (FieldDescriptor field : descriptor.parcelledFields()) {
+      names.add(CodeBlock.of("$S", budgetPathName(field)));
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      if (fieldTypeName.isPrimitive()) {
+        layout.append(primitiveKind(fieldTypeName));
+        adapters.add(CodeBlock.of("null"));
+      } else {
+        AdapterDescriptor adapter = descriptor.adapters().get(field);
+        layout.append(field.isNullable() && !adapter.nullSafe() ? 'N' : 'A');
+        adapters.add(adapterInstance(adapter));
+      }
+    }
+    List<CodeBlock> flagBlocks = new ArrayList<>();
+    if (isScoped()) {
+      flagBlocks.add(CodeBlock.of("$T.SCOPED", FIELD_TABLE));
+    }
+    if (descriptor.options().trackReferences()) {
+      flagBlocks.add(CodeBlock.of("$T.TRACK_REFERENCES", FIELD_TABLE));
+    }
+    if (metrics && !descriptor.isSingleton()) {
+      flagBlocks.add(CodeBlock.of("$T.METRICS", FIELD_TABLE));
+    }
+    if (tracing != Tracing.NONE && !descriptor.isSingleton()) {
+      flagBlocks.add(CodeBlock.of("$T.TRACE", FIELD_TABLE));
+    }
+    if (tracing == Tracing.FIELDS && !descriptor.isSingleton()) {
+      flagBlocks.add(CodeBlock.of("$T.TRACE_FIELDS", FIELD_TABLE));
+    }
+    if (sizeBudget && !descriptor.isSingleton()) {
+      flagBlocks.add(CodeBlock.of("$T.BUDGET", FIELD_TABLE));
+    }
+    CodeBlock flags = flagBlocks.isEmpty()
+        ? CodeBlock.of("0")
+        : CodeBlocks.join(flagBlocks, " | ");
+    TypeName tableOfClass = ParameterizedTypeName.get(FIELD_TABLE, className);
+    TypeName adapterArray = ArrayTypeName.of(
+        ParameterizedTypeName.get(TYPE_ADAPTER, WildcardTypeName.subtypeOf(Object.class)));
+    CodeBlock.Builder initializer = CodeBlock.builder()
+        .add("new $T($T.class, new $T(), $S, new $T { $L }, $L", tableOfClass, className, name,
+            layout.toString(), adapterArray, CodeBlocks.join(adapters, ", "), flags);
+    if ((sizeBudget || tracing == Tracing.FIELDS)
+        && !descriptor.isSingleton()
+        && !names.isEmpty()) {
+      initializer.add(", new $T[] { $L }", String.class, CodeBlocks.join(names, ", "));
+    }
+    return FieldSpec.builder(tableOfClass, "CREATOR", STATIC, FINAL)
+        .addAnnotation(NonNull.class)
+        .initializer(initializer.add(")").build())
+        .build();
+  }
+
+  /** Returns the JVM descriptor of {@code primitive}, which identifies it in a layout. */
+  private static char primitiveKind(TypeName primitive) {
+    if (TypeName.BOOLEAN.equals(primitive)) {
+      return 'Z';
+    } else if (TypeName.INT.equals(primitive)) {
+      return 'I';
+    } else if (TypeName.LONG.equals(primitive)) {
+      return 'J';
+    } else if (TypeName.DOUBLE.equals(primitive)) {
+      return 'D';
+    } else if (TypeName.FLOAT.equals(primitive)) {
+      return 'F';
+    } else if (TypeName.CHAR.equals(primitive)) {
+      return 'C';
+    } else if (TypeName.BYTE.equals(primitive)) {
+      return 'B';
+    } else if (TypeName.SHORT.equals(primitive)) {
+      return 'S';
+    }
+    throw new IllegalArgumentException("Unknown primitive type: " + primitive);
+  }
+
+  /** Returns {@code FieldTable.Accessor#get}, which switches over the parcelled fields. */
+  private MethodSpec getField(ClassName className) {
+    ParameterSpec object = ParameterSpec.builder(Object.class, "object")
+        .addAnnotation(NonNull.class)
+        .build();
+    ParameterSpec index = ParameterSpec.builder(int.class, "index").build();
+    ParameterSpec data = ParameterSpec.builder(className, "data").build();
+    Map<FieldDescriptor, CodeBlock> accessorBlocks = accessorBlocks(data);
+    CodeBlock.Builder block = CodeBlock.builder();
+    if (!accessorBlocks.isEmpty()) {
+      block.addStatement("$T $N = ($T) $N", className, data, className, object);
+    }
+    block.beginControlFlow("switch ($N)", index);
+    int i = 0;
+    for (CodeBlock accessorBlock : accessorBlocks.values()) {
+      block.add("case $L:\n", i++)
+          .indent()
+          .addStatement("return $L", accessorBlock)
+          .unindent();
+    }
+    block.add("default:\n")
+        .indent()
+        .addStatement("throw new $T(\"Unknown field: \" + $N)",
+            IllegalArgumentException.class, index)
+        .unindent()
+        .endControlFlow();
+    return MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(object)
+        .addParameter(index)
+        .returns(Object.class)
+        .addCode(block.build())
+        .build();
+  }
+
+  /** Returns {@code FieldTable.Accessor#create}, which casts each value and builds the model. */
+  @SuppressWarnings("ConstantConditions")
+  private MethodSpec createModel(ClassName className) {
+    UniqueNameSet readNames = new UniqueNameSet();
+    ParameterSpec values = ParameterSpec.builder(
+        ArrayTypeName.of(Object.class), readNames.getUniqueName("values"))
+        .addAnnotation(NonNull.class)
+        .build();
+    MethodSpec.Builder builder = MethodSpec.methodBuilder("create")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(values)
+        .returns(Object.class);
+
+    if (descriptor.isSingleton()) {
+      return builder.addStatement("return $T.INSTANCE", className).build();
+    }
+
+    ImmutableMap.Builder<String, FieldSpec> fieldMap = ImmutableMap.builder();
+    boolean unchecked = false;
+    int i = 0;
+    for (FieldDescriptor field : descriptor.parcelledFields()) {
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      unchecked |= !fieldTypeName.isPrimitive() && !(fieldTypeName instanceof ClassName);
+      FieldSpec local = FieldSpec.builder(fieldTypeName, readNames.getUniqueName(field.name()))
+          .initializer("($T) $N[$L]", fieldTypeName.box(), values, i++)
+          .build();
+      builder.addStatement("$T $N = $L", local.type, local.name, local.initializer);
+      fieldMap.put(field.name(), local);
+    }
+    if (unchecked) {
+      builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+          .addMember("value", "$S", "unchecked")
+          .build());
+    }
+    ImmutableMap<String, FieldSpec> fields = fieldMap.build();
+    FieldSpec model = initModel(className, readNames, fields);
+    return builder.addStatement("$T $N = $L", model.type, model.name, model.initializer)
+        .addCode(setFields(model, fields))
+        .addStatement("return $N", model.name)
+        .build();
+  }
+
+  /**
+   * Registers a {@code PaperParcelable.Writer} for {@code className} so that
+   * {@code PaperParcelable#writeToParcel} can call {@code writeToParcel} without reflection. This
+   * runs when the model's {@code CREATOR} first references this class.
+   */
+  private CodeBlock registerWriter(ClassName className) {
+    MethodSpec writeToParcel = MethodSpec.methodBuilder("writeToParcel")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(className, "data")
+        .addParameter(PARCEL, "dest")
+        .addParameter(int.class, "flags")
+        .addStatement("$T.writeToParcel(data, dest, flags)", name)
+        .build();
+    TypeSpec writer = TypeSpec.anonymousClassBuilder("")
+        .addSuperinterface(ParameterizedTypeName.get(PAPER_PARCELABLE_WRITER, className))
+        .addMethod(writeToParcel)
+        .build();
+    return CodeBlock.builder()
+        .addStatement("$T.register($T.class, $L)", PAPER_PARCEL_WRITERS, className, writer)
+        .build();
+  }
+
   private FieldSpec creator(ClassName className) {
     UniqueNameSet readNames = new UniqueNameSet();
 
@@ -96,16 +416,66 @@ final class PaperParcelWriter {
     if (descriptor.isSingleton()) {
       createFromParcel.addStatement("return $T.INSTANCE", className);
     } else {
-      // Read the fields from the parcel
-      ImmutableMap<String, FieldSpec> fieldMap = readFields(in, readNames);
-      for (FieldSpec field : fieldMap.values()) {
-        createFromParcel.addStatement("$T $N = $L", field.type, field.name, field.initializer);
+      String tracer = tracing != Tracing.NONE ? readNames.getUniqueName("tracer") : null;
+      String metricsStart = metrics ? readNames.getUniqueName("metricsStart") : null;
+      String metricsPosition = metrics ? readNames.getUniqueName("metricsPosition") : null;
+      if (tracer != null) {
+        createFromParcel.addStatement("$T $N = $T.getTracer()", TRACER, tracer, PARCEL_TRACE);
+        beginTrace(createFromParcel, tracer, "createFromParcel");
+      }
+      if (metrics) {
+        beginMetrics(createFromParcel, in, metricsStart, metricsPosition);
+      }
+      boolean scoped = isScoped();
+      if (scoped) {
+        createFromParcel.addStatement("$T.beginRead($N)", PARCEL_SCOPE, in)
+            .beginControlFlow("try");
+      }
+      boolean trackReferences = descriptor.options().trackReferences();
+      if (trackReferences) {
+        String reference = readNames.getUniqueName("reference");
+        createFromParcel
+            .addStatement("$T $N = $T.readReference($N)", className, reference, PARCEL_SCOPE, in)
+            .beginControlFlow("if ($N != null)", reference)
+            .addStatement("return $N", reference)
+            .endControlFlow();
+      }
+      // Read the header and then the fields from the parcel
+      List<String> headers = headerNames(readNames);
+      for (String header : headers) {
+        createFromParcel.addStatement("int $N = $N.readInt()", header, in);
+      }
+      ImmutableMap<String, FieldSpec> fieldMap = readFields(in, readNames, headers);
+      for (FieldDescriptor fieldDescriptor : descriptor.parcelledFields()) {
+        FieldSpec field = fieldMap.get(fieldDescriptor.name());
+        if (isTraced(fieldDescriptor)) {
+          createFromParcel.addStatement("$T $N", field.type, field.name);
+          beginTrace(createFromParcel, tracer, fieldDescriptor.name() + ".read");
+          createFromParcel.addStatement("$N = $L", field.name, field.initializer);
+          endTrace(createFromParcel, tracer);
+        } else {
+          createFromParcel.addStatement("$T $N = $L", field.type, field.name, field.initializer);
+        }
       }
       // Re-construct the model and return
       FieldSpec model = initModel(className, readNames, fieldMap);
       createFromParcel.addStatement("$T $N = $L", model.type, model.name, model.initializer)
-          .addCode(setFields(model, fieldMap))
-          .addStatement("return $N", model.name);
+          .addCode(setFields(model, fieldMap));
+      if (trackReferences) {
+        createFromParcel.addStatement("$T.registerRead($N, $N)", PARCEL_SCOPE, in, model.name);
+      }
+      createFromParcel.addStatement("return $N", model.name);
+      if (scoped) {
+        createFromParcel.nextControlFlow("finally")
+            .addStatement("$T.endRead($N)", PARCEL_SCOPE, in)
+            .endControlFlow();
+      }
+      if (metrics) {
+        endMetrics(createFromParcel, "recordRead", className, in, metricsStart, metricsPosition);
+      }
+      if (tracer != null) {
+        endTrace(createFromParcel, tracer);
+      }
     }
 
     MethodSpec.Builder newArray = MethodSpec.methodBuilder("newArray")
@@ -115,38 +485,114 @@ final class PaperParcelWriter {
         .returns(ArrayTypeName.of(className))
         .addStatement("return new $T[size]", className);
 
-    TypeSpec initializer = TypeSpec.anonymousClassBuilder("")
-        .addSuperinterface(creatorOfClass)
+    TypeSpec.Builder initializer = TypeSpec.anonymousClassBuilder("")
         .addMethod(createFromParcel.build())
-        .addMethod(newArray.build())
-        .build();
+        .addMethod(newArray.build());
+    if (descriptor.options().usePresize()) {
+      // Lets the adapters of other classes size fields of this type without writing them.
+      ParameterSpec value = ParameterSpec.builder(className, "value")
+          .addAnnotation(NonNull.class)
+          .build();
+      MethodSpec sizeOf = MethodSpec.methodBuilder("sizeOf")
+          .addAnnotation(Override.class)
+          .addModifiers(PUBLIC)
+          .addParameter(value)
+          .returns(int.class)
+          .addStatement("return $T.sizeOf($N)", name, value)
+          .build();
+      initializer.superclass(ParameterizedTypeName.get(SIZED_CREATOR, className))
+          .addMethod(sizeOf);
+    } else {
+      initializer.addSuperinterface(creatorOfClass);
+    }
 
     return FieldSpec.builder(creatorOfClass, "CREATOR", STATIC, FINAL)
-        .initializer("$L", initializer)
+        .initializer("$L", initializer.build())
         .addAnnotation(NonNull.class)
         .build();
   }
 
+  /**
+   * Returns {@code true} if the generated code needs to enter a {@code ParcelScope} to share
+   * state with the other models in the same parcel.
+   */
+  private boolean isScoped() {
+    OptionsDescriptor options = descriptor.options();
+    return options.poolStrings() || options.trackReferences();
+  }
+
   private ImmutableMap<String, FieldSpec> readFields(
-      ParameterSpec in, UniqueNameSet readNames) {
+      ParameterSpec in, UniqueNameSet readNames, List<String> headers) {
     ImmutableMap.Builder<String, FieldSpec> result = ImmutableMap.builder();
 
-    // Read the fields in the exact same order that they were written to the Parcel. Currently
-    // directly readable fields first, then all fields that are read via getters, and finally
-    // all fields that require reflection.
-    ImmutableList<FieldDescriptor> combined = ImmutableList.<FieldDescriptor>builder()
-        .addAll(descriptor.readableFields())
-        .addAll(descriptor.getterMethodMap().keySet())
-        .build();
-
-    for (FieldDescriptor field : combined) {
+    for (FieldDescriptor field : descriptor.parcelledFields()) {
       String fieldName = readNames.getUniqueName(field.name());
-      result.put(field.name(), readField(fieldName, field, in));
+      Integer bit = packedFlags.get(field);
+      FieldSpec fieldSpec = bit == null
+          ? readField(fieldName, field, in)
+          : readPackedField(fieldName, field, in, headers.get(bit / Integer.SIZE), bitMask(bit));
+      result.put(field.name(), fieldSpec);
     }
 
     return result.build();
   }
 
+  /**
+   * Assigns a header bit to every {@code boolean} field (holding its value) and to every nullable
+   * field whose adapter isn't null-safe (holding whether it is non-null).
+   */
+  @SuppressWarnings("ConstantConditions")
+  private ImmutableMap<FieldDescriptor, Integer> packedFlags() {
+    ImmutableMap.Builder<FieldDescriptor, Integer> result = ImmutableMap.builder();
+    int bit = 0;
+    for (FieldDescriptor field : descriptor.parcelledFields()) {
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      boolean packed = fieldTypeName.isPrimitive()
+          ? TypeName.BOOLEAN.equals(fieldTypeName)
+          : descriptor.hasNullMarker(field);
+      if (packed) {
+        result.put(field, bit++);
+      }
+    }
+    return result.build();
+  }
+
+  /** Returns the names of the header ints that hold {@link #packedFlags}. */
+  private List<String> headerNames(UniqueNameSet names) {
+    int count = (packedFlags.size() + Integer.SIZE - 1) / Integer.SIZE;
+    List<String> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(names.getUniqueName("header"));
+    }
+    return result;
+  }
+
+  private static String bitMask(int bit) {
+    return "0x" + Integer.toHexString(1 << (bit % Integer.SIZE));
+  }
+
+  private FieldSpec readPackedField(
+      String fieldName, FieldDescriptor field, ParameterSpec in, String header, String mask) {
+    TypeName fieldTypeName = TypeName.get(field.type().get());
+    FieldSpec.Builder builder = FieldSpec.builder(fieldTypeName, fieldName);
+    if (fieldTypeName.isPrimitive()) {
+      builder.initializer("($N & $L) != 0", header, mask);
+    } else {
+      AdapterDescriptor adapter = descriptor.adapters().get(field);
+      CodeBlock value;
+      if (descriptor.linkedFields().containsKey(field)) {
+        value = CodeBlock.of("$T.CREATOR.createFromParcel($N)",
+            descriptor.linkedFields().get(field), in);
+      } else if (isInlined(adapter)) {
+        value = inlineContainers.read(adapter, false, in);
+      } else {
+        value = CodeBlock.of("$L.readFromParcel($N)", adapterInstance(adapter), in);
+      }
+      builder.initializer("($N & $L) != 0 ? $L : null", header, mask, value);
+    }
+    return builder.build();
+  }
+
   @SuppressWarnings("ConstantConditions")
   private FieldSpec readField(String fieldName, FieldDescriptor field, ParameterSpec in) {
     TypeName fieldTypeName = TypeName.get(field.type().get());
@@ -173,13 +619,18 @@ final class PaperParcelWriter {
       } else {
         throw new IllegalArgumentException("Unknown primitive type: " + fieldTypeName);
       }
+    } else if (descriptor.linkedFields().containsKey(field)) {
+      builder.initializer("$N.readInt() == 1 ? $T.CREATOR.createFromParcel($N) : null",
+          in, descriptor.linkedFields().get(field), in);
     } else {
       AdapterDescriptor adapter = descriptor.adapters().get(field);
-      CodeBlock adapterInstance = adapterInstance(adapter);
-      if (field.isNullable() && !adapter.nullSafe()) {
-        builder.initializer("$T.readNullable($N, $L)", UTILS, in, adapterInstance);
+      if (isInlined(adapter)) {
+        builder.initializer("$L",
+            inlineContainers.read(adapter, field.isNullable() && !adapter.nullSafe(), in));
+      } else if (field.isNullable() && !adapter.nullSafe()) {
+        builder.initializer("$T.readNullable($N, $L)", UTILS, in, adapterInstance(adapter));
       } else {
-        builder.initializer("$L.readFromParcel($N)", adapterInstance, in);
+        builder.initializer("$L.readFromParcel($N)", adapterInstance(adapter), in);
       }
     }
 
@@ -265,41 +716,396 @@ final class PaperParcelWriter {
         .addParameter(flags);
 
     if (!descriptor.isSingleton()) {
-      ImmutableList<FieldDescriptor> readableFields = descriptor.readableFields();
-      for (FieldDescriptor field : readableFields) {
-        if (field.isVisible()) {
-          CodeBlock accessorBlock = CodeBlock.of("$N.$N", data, field.name());
-          writeField(builder, field, accessorBlock, dest, flags);
-        } else {
-          // Field isn't visible, read via reflection.
-          TypeName type = rawTypeFrom(field.type().get());
-          TypeName enclosingClass = rawTypeFrom(field.element().getEnclosingElement().asType());
-          CodeBlock accessorBlock = CodeBlock.of("$T.readField($T.class, $T.class, $N, $S)",
-              UTILS, type, enclosingClass, data, field.name());
-          writeField(builder, field, accessorBlock, dest, flags);
+      UniqueNameSet writeNames = new UniqueNameSet();
+      writeNames.getUniqueName(data.name);
+      writeNames.getUniqueName(dest.name);
+      writeNames.getUniqueName(flags.name);
+      String tracer = tracing != Tracing.NONE ? writeNames.getUniqueName("tracer") : null;
+      String metricsStart = metrics ? writeNames.getUniqueName("metricsStart") : null;
+      String metricsPosition = metrics ? writeNames.getUniqueName("metricsPosition") : null;
+      String budget = sizeBudget ? writeNames.getUniqueName("budget") : null;
+      String presized = descriptor.options().usePresize()
+          ? writeNames.getUniqueName("presized")
+          : null;
+      if (tracer != null) {
+        builder.addStatement("$T $N = $T.getTracer()", TRACER, tracer, PARCEL_TRACE);
+        beginTrace(builder, tracer, "writeToParcel");
+      }
+      if (metrics) {
+        beginMetrics(builder, dest, metricsStart, metricsPosition);
+      }
+      if (budget != null) {
+        builder.addStatement("$T $N = $T.begin($N, $S)", BUDGET_RECORDER, budget, PARCEL_BUDGET,
+            dest, Joiner.on('.').join(ClassName.get(descriptor.element()).simpleNames()))
+            .beginControlFlow("try");
+      }
+      if (presized != null) {
+        // Grow the parcel once for the whole tree, rather than as each value is written.
+        builder.addStatement("boolean $N = !$T.isPresized($N)", presized, UTILS, dest)
+            .beginControlFlow("if ($N)", presized)
+            .addStatement("$T.beginPresize($N, sizeOf($N))", UTILS, dest, data)
+            .endControlFlow()
+            .beginControlFlow("try");
+      }
+      boolean scoped = isScoped();
+      if (scoped) {
+        builder.addStatement("$T.beginWrite($N, $N)", PARCEL_SCOPE, dest, data)
+            .beginControlFlow("try");
+      }
+      boolean trackReferences = descriptor.options().trackReferences();
+      if (trackReferences) {
+        builder.beginControlFlow("if ($T.writeReference($N, $N))", PARCEL_SCOPE, dest, data)
+            .addStatement("return")
+            .endControlFlow();
+      }
+      Map<FieldDescriptor, CodeBlock> accessorBlocks = accessorBlocks(data);
+      if (packedFlags.isEmpty()) {
+        for (Map.Entry<FieldDescriptor, CodeBlock> entry : accessorBlocks.entrySet()) {
+          writeInstrumentedField(builder, entry.getKey(), entry.getValue(), dest, flags,
+              writeNames, tracer, budget);
         }
+      } else {
+        writePackedFields(builder, accessorBlocks, dest, flags, writeNames, tracer, budget);
       }
-
-      ImmutableSet<Map.Entry<FieldDescriptor, ExecutableElement>> fieldGetterEntries =
-          descriptor.getterMethodMap().entrySet();
-      for (Map.Entry<FieldDescriptor, ExecutableElement> fieldGetterEntry : fieldGetterEntries) {
-        FieldDescriptor field = fieldGetterEntry.getKey();
-        Name accessorMethodName = fieldGetterEntry.getValue().getSimpleName();
-        CodeBlock accessorBlock = CodeBlock.of("$N.$N()", data, accessorMethodName);
-        writeField(builder, field, accessorBlock, dest, flags);
+      if (trackReferences) {
+        builder.addStatement("$T.registerWritten($N, $N)", PARCEL_SCOPE, dest, data);
+      }
+      if (scoped) {
+        builder.nextControlFlow("finally")
+            .addStatement("$T.endWrite($N)", PARCEL_SCOPE, dest)
+            .endControlFlow();
+      }
+      if (presized != null) {
+        builder.nextControlFlow("finally")
+            .beginControlFlow("if ($N)", presized)
+            .addStatement("$T.endPresize($N)", UTILS, dest)
+            .endControlFlow()
+            .endControlFlow();
+      }
+      if (budget != null) {
+        builder.nextControlFlow("finally")
+            .beginControlFlow("if ($N != null)", budget)
+            .addStatement("$N.end($N)", budget, dest)
+            .endControlFlow()
+            .endControlFlow();
+      }
+      if (metrics) {
+        endMetrics(builder, "recordWrite", ClassName.get(descriptor.element()), dest,
+            metricsStart, metricsPosition);
+      }
+      if (tracer != null) {
+        endTrace(builder, tracer);
       }
     }
 
     return builder.build();
   }
 
+  /** Returns true if the bytes of {@code field} are attributed to its path by the budget. */
+  private static boolean isBudgeted(FieldDescriptor field) {
+    return !TypeName.get(field.type().get()).isPrimitive();
+  }
+
+  /**
+   * Returns the name of {@code field} in budget paths, which is suffixed with {@code []} if it is
+   * written by a container adapter so that the paths of its elements' fields read naturally.
+   */
+  private String budgetPathName(FieldDescriptor field) {
+    boolean container = field.type().get().getKind() == TypeKind.ARRAY;
+    AdapterDescriptor adapter = descriptor.adapters().get(field);
+    if (!container && adapter != null) {
+      TypeName adapterType = adapter.typeName();
+      if (adapterType instanceof ParameterizedTypeName) {
+        adapterType = ((ParameterizedTypeName) adapterType).rawType;
+      }
+      container = CONTAINER_ADAPTERS.contains(adapterType);
+    }
+    return container ? field.name() + "[]" : field.name();
+  }
+
+  private void enterBudgetField(
+      MethodSpec.Builder builder, String budget, ParameterSpec dest, FieldDescriptor field) {
+    builder.beginControlFlow("if ($N != null)", budget)
+        .addStatement("$N.enterField($N, $S)", budget, dest, budgetPathName(field))
+        .endControlFlow();
+  }
+
+  private static void exitBudgetField(
+      MethodSpec.Builder builder, String budget, ParameterSpec dest) {
+    builder.beginControlFlow("if ($N != null)", budget)
+        .addStatement("$N.exitField($N)", budget, dest)
+        .endControlFlow();
+  }
+
+  /** Returns true if {@code field} is wrapped in its own trace section. */
+  private boolean isTraced(FieldDescriptor field) {
+    return tracing == Tracing.FIELDS
+        && !TypeName.get(field.type().get()).isPrimitive()
+        && !descriptor.linkedFields().containsKey(field);
+  }
+
+  /**
+   * Begins the trace section {@code name} of the model on the local {@code tracer} that was read
+   * when the call started, and opens the {@code try} block that {@link #endTrace} closes. Both
+   * ends of a section use the same tracer, even if another one is installed in between.
+   */
+  private void beginTrace(MethodSpec.Builder builder, String tracer, String name) {
+    builder.beginControlFlow("if ($N != null)", tracer)
+        .addStatement("$N.beginSection($S)", tracer,
+            descriptor.element().getQualifiedName() + "." + name)
+        .endControlFlow()
+        .beginControlFlow("try");
+  }
+
+  private static void endTrace(MethodSpec.Builder builder, String tracer) {
+    builder.nextControlFlow("finally")
+        .beginControlFlow("if ($N != null)", tracer)
+        .addStatement("$N.endSection()", tracer)
+        .endControlFlow()
+        .endControlFlow();
+  }
+
+  /**
+   * Records the start time and position of a read or write, and opens the {@code try} block that
+   * {@link #endMetrics} closes.
+   */
+  private static void beginMetrics(
+      MethodSpec.Builder builder, ParameterSpec parcel, String start, String position) {
+    builder.addStatement("long $N = $T.start()", start, PARCEL_METRICS)
+        .addStatement("int $N = $N.dataPosition()", position, parcel)
+        .beginControlFlow("try");
+  }
+
+  /** Reports the bytes and time of a read or write to {@code ParcelMetrics}. */
+  private static void endMetrics(MethodSpec.Builder builder, String record, ClassName className,
+      ParameterSpec parcel, String start, String position) {
+    builder.nextControlFlow("finally")
+        .addStatement("$T.$N($T.class, $N.dataPosition() - $N, $N)", PARCEL_METRICS, record,
+            className, parcel, position, start)
+        .endControlFlow();
+  }
+
+  /**
+   * Returns the expressions used to read the value of each parcelled field from {@code data}, in
+   * the order that they are written.
+   */
+  private Map<FieldDescriptor, CodeBlock> accessorBlocks(ParameterSpec data) {
+    Map<FieldDescriptor, CodeBlock> accessorBlocks = new LinkedHashMap<>();
+    ImmutableList<FieldDescriptor> readableFields = descriptor.readableFields();
+    for (FieldDescriptor field : readableFields) {
+      if (field.isVisible()) {
+        accessorBlocks.put(field, CodeBlock.of("$N.$N", data, field.name()));
+      } else {
+        // Field isn't visible, read via reflection.
+        TypeName type = rawTypeFrom(field.type().get());
+        TypeName enclosingClass = rawTypeFrom(field.element().getEnclosingElement().asType());
+        accessorBlocks.put(field, CodeBlock.of("$T.readField($T.class, $T.class, $N, $S)",
+            UTILS, type, enclosingClass, data, field.name()));
+      }
+    }
+
+    ImmutableSet<Map.Entry<FieldDescriptor, ExecutableElement>> fieldGetterEntries =
+        descriptor.getterMethodMap().entrySet();
+    for (Map.Entry<FieldDescriptor, ExecutableElement> fieldGetterEntry : fieldGetterEntries) {
+      FieldDescriptor field = fieldGetterEntry.getKey();
+      Name accessorMethodName = fieldGetterEntry.getValue().getSimpleName();
+      accessorBlocks.put(field, CodeBlock.of("$N.$N()", data, accessorMethodName));
+    }
+    return accessorBlocks;
+  }
+
+  /**
+   * Returns a method computing the number of bytes that {@code writeToParcel} writes for an
+   * instance, or {@code Utils.UNKNOWN_SIZE} if a field's size can't be known without writing it.
+   * Fixed-size values (markers, header ints and primitives) are summed at compile time.
+   */
+  @SuppressWarnings("ConstantConditions")
+  private MethodSpec sizeOf(TypeName className) {
+    ParameterSpec data = ParameterSpec.builder(className, "data")
+        .addAnnotation(NonNull.class)
+        .build();
+
+    MethodSpec.Builder builder = MethodSpec.methodBuilder("sizeOf")
+        .addModifiers(STATIC)
+        .addParameter(data)
+        .returns(int.class);
+
+    if (descriptor.isSingleton()) {
+      return builder.addStatement("return 0").build();
+    }
+
+    UniqueNameSet sizeNames = new UniqueNameSet();
+    sizeNames.getUniqueName(data.name);
+    String size = sizeNames.getUniqueName("size");
+
+    int fixedSize = 0;
+    if (isScoped()) {
+      fixedSize += 4;
+    }
+    fixedSize += 4 * headerNames(new UniqueNameSet()).size();
+
+    CodeBlock.Builder variableSize = CodeBlock.builder();
+    for (Map.Entry<FieldDescriptor, CodeBlock> entry : accessorBlocks(data).entrySet()) {
+      FieldDescriptor field = entry.getKey();
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      if (fieldTypeName.isPrimitive()) {
+        if (!packedFlags.containsKey(field)) {
+          fixedSize += primitiveSize(fieldTypeName);
+        }
+        continue;
+      }
+      AdapterDescriptor adapter = descriptor.adapters().get(field);
+      CodeBlock adapterInstance = adapterInstance(adapter);
+      if (packedFlags.containsKey(field)) {
+        String local = sizeNames.getUniqueName(field.name());
+        variableSize.addStatement("$T $N = $L", fieldTypeName, local, entry.getValue())
+            .beginControlFlow("if ($N != null)", local)
+            .addStatement("$N = $T.addSizes($N, $T.sizeOf($N, $L))",
+                size, UTILS, size, UTILS, local, adapterInstance)
+            .endControlFlow();
+      } else if (field.isNullable() && !adapter.nullSafe()) {
+        variableSize.addStatement("$N = $T.addSizes($N, $T.sizeOfNullable($L, $L))",
+            size, UTILS, size, UTILS, entry.getValue(), adapterInstance);
+      } else {
+        variableSize.addStatement("$N = $T.addSizes($N, $T.sizeOf($L, $L))",
+            size, UTILS, size, UTILS, entry.getValue(), adapterInstance);
+      }
+    }
+
+    CodeBlock variable = variableSize.build();
+    if (variable.isEmpty()) {
+      return builder.addStatement("return $L", fixedSize).build();
+    }
+    return builder.addStatement("int $N = $L", size, fixedSize)
+        .addCode(variable)
+        .addStatement("return $N", size)
+        .build();
+  }
+
+  private static int primitiveSize(TypeName primitive) {
+    if (TypeName.LONG.equals(primitive) || TypeName.DOUBLE.equals(primitive)) {
+      return 8;
+    }
+    // Every other primitive is written as (or padded to) a single int.
+    return 4;
+  }
+
+  /**
+   * Writes the header ints holding {@link #packedFlags}, followed by the values of all other
+   * fields. Nullable fields are read into locals first so that each accessor is only called once,
+   * and are only written when they are non-null.
+   */
+  @SuppressWarnings("ConstantConditions")
+  private void writePackedFields(
+      MethodSpec.Builder builder,
+      Map<FieldDescriptor, CodeBlock> accessorBlocks,
+      ParameterSpec dest,
+      ParameterSpec flags,
+      UniqueNameSet writeNames,
+      @Nullable String tracer,
+      @Nullable String budget) {
+    List<String> headers = headerNames(writeNames);
+    for (String header : headers) {
+      builder.addStatement("int $N = 0", header);
+    }
+
+    Map<FieldDescriptor, String> locals = new LinkedHashMap<>();
+    for (Map.Entry<FieldDescriptor, CodeBlock> entry : accessorBlocks.entrySet()) {
+      FieldDescriptor field = entry.getKey();
+      Integer bit = packedFlags.get(field);
+      if (bit == null) continue;
+      String header = headers.get(bit / Integer.SIZE);
+      TypeName fieldTypeName = TypeName.get(field.type().get());
+      if (fieldTypeName.isPrimitive()) {
+        builder.beginControlFlow("if ($L)", entry.getValue());
+      } else {
+        String local = writeNames.getUniqueName(field.name());
+        locals.put(field, local);
+        builder.addStatement("$T $N = $L", fieldTypeName, local, entry.getValue());
+        builder.beginControlFlow("if ($N != null)", local);
+      }
+      builder.addStatement("$N |= $L", header, bitMask(bit))
+          .endControlFlow();
+    }
+    for (String header : headers) {
+      builder.addStatement("$N.writeInt($N)", dest, header);
+    }
+
+    for (Map.Entry<FieldDescriptor, CodeBlock> entry : accessorBlocks.entrySet()) {
+      FieldDescriptor field = entry.getKey();
+      if (!packedFlags.containsKey(field)) {
+        writeInstrumentedField(
+            builder, field, entry.getValue(), dest, flags, writeNames, tracer, budget);
+      } else if (locals.containsKey(field)) {
+        String local = locals.get(field);
+        AdapterDescriptor adapter = descriptor.adapters().get(field);
+        builder.beginControlFlow("if ($N != null)", local);
+        boolean tracedField = isTraced(field);
+        if (tracedField) {
+          beginTrace(builder, tracer, field.name() + ".write");
+        }
+        boolean budgetedField = budget != null && isBudgeted(field);
+        if (budgetedField) {
+          enterBudgetField(builder, budget, dest, field);
+        }
+        if (descriptor.linkedFields().containsKey(field)) {
+          writeLinkedField(builder, field, local, dest, flags);
+        } else if (isInlined(adapter)) {
+          builder.addStatement("$L",
+              inlineContainers.write(adapter, false, CodeBlock.of("$N", local), dest, flags));
+        } else {
+          builder.addStatement("$L.writeToParcel($N, $N, $N)",
+              adapterInstance(adapter), local, dest, flags);
+        }
+        if (budgetedField) {
+          exitBudgetField(builder, budget, dest);
+        }
+        if (tracedField) {
+          endTrace(builder, tracer);
+        }
+        builder.endControlFlow();
+      }
+    }
+  }
+
+  /**
+   * Calls {@link #writeField}, wrapped in a trace section if {@code field} is traced and in calls
+   * to the {@code ParcelBudget.Recorder} if {@code budget} is not null.
+   */
+  private void writeInstrumentedField(
+      MethodSpec.Builder builder,
+      FieldDescriptor field,
+      CodeBlock accessorBlock,
+      ParameterSpec dest,
+      ParameterSpec flags,
+      UniqueNameSet writeNames,
+      @Nullable String tracer,
+      @Nullable String budget) {
+    boolean tracedField = isTraced(field);
+    if (tracedField) {
+      beginTrace(builder, tracer, field.name() + ".write");
+    }
+    boolean budgetedField = budget != null && isBudgeted(field);
+    if (budgetedField) {
+      enterBudgetField(builder, budget, dest, field);
+    }
+    writeField(builder, field, accessorBlock, dest, flags, writeNames);
+    if (budgetedField) {
+      exitBudgetField(builder, budget, dest);
+    }
+    if (tracedField) {
+      endTrace(builder, tracer);
+    }
+  }
+
   @SuppressWarnings("ConstantConditions")
   private void writeField(
       MethodSpec.Builder builder,
       FieldDescriptor field,
       CodeBlock accessorBlock,
       ParameterSpec dest,
-      ParameterSpec flags) {
+      ParameterSpec flags,
+      UniqueNameSet writeNames) {
     TypeName fieldTypeName = TypeName.get(field.type().get());
     if (fieldTypeName.isPrimitive()) {
       if (TypeName.BOOLEAN.equals(fieldTypeName)) {
@@ -321,24 +1127,51 @@ final class PaperParcelWriter {
       } else {
         throw new IllegalArgumentException("Unknown primitive type: " + fieldTypeName);
       }
+    } else if (descriptor.linkedFields().containsKey(field)) {
+      // Read into a local first so that the accessor is only called once
+      String local = writeNames.getUniqueName(field.name());
+      builder.addStatement("$T $N = $L", fieldTypeName, local, accessorBlock)
+          .beginControlFlow("if ($N == null)", local)
+          .addStatement("$N.writeInt(0)", dest)
+          .nextControlFlow("else")
+          .addStatement("$N.writeInt(1)", dest);
+      writeLinkedField(builder, field, local, dest, flags);
+      builder.endControlFlow();
     } else {
       AdapterDescriptor adapter = descriptor.adapters().get(field);
-      CodeBlock adapterInstance = adapterInstance(adapter);
-      if (field.isNullable() && !adapter.nullSafe()) {
+      if (isInlined(adapter)) {
+        builder.addStatement("$L", inlineContainers.write(
+            adapter, field.isNullable() && !adapter.nullSafe(), accessorBlock, dest, flags));
+      } else if (field.isNullable() && !adapter.nullSafe()) {
         builder.addStatement("$T.writeNullable($L, $N, $N, $L)",
-            UTILS, accessorBlock, dest, flags, adapterInstance);
+            UTILS, accessorBlock, dest, flags, adapterInstance(adapter));
       } else {
         builder.addStatement("$L.writeToParcel($L, $N, $N)",
-            adapterInstance, accessorBlock, dest, flags);
+            adapterInstance(adapter), accessorBlock, dest, flags);
       }
     }
   }
 
+  /**
+   * Calls the generated class of {@code field} directly. A scoped model first hands the value off
+   * to its {@code ParcelScope}, as {@code ParcelableAdapter} would, so that both share the scope.
+   */
+  private void writeLinkedField(MethodSpec.Builder builder, FieldDescriptor field, String local,
+      ParameterSpec dest, ParameterSpec flags) {
+    if (isScoped()) {
+      builder.addStatement("$T.handOff($N, $N)", PARCEL_SCOPE, dest, local);
+    }
+    builder.addStatement("$T.writeToParcel($N, $N, $N)",
+        descriptor.linkedFields().get(field), local, dest, flags);
+  }
+
   private CodeBlock adapterInstance(AdapterDescriptor adapter) {
     CodeBlock adapterInstance;
     Optional<String> singletonInstance = adapter.singletonInstance();
     if (singletonInstance.isPresent()) {
       adapterInstance = CodeBlock.of("$T.$N", adapter.typeName(), singletonInstance.get());
+    } else if (sharedInstances.containsKey(adapter.typeName())) {
+      adapterInstance = sharedInstances.get(adapter.typeName());
     } else {
       adapterInstance = CodeBlock.of("$T.$N", name, adapterNames.getName(adapter.typeName()));
     }
@@ -348,16 +1181,36 @@ final class PaperParcelWriter {
   private ImmutableList<FieldSpec> adapterDependencies(
       ImmutableCollection<AdapterDescriptor> adapters) {
     Set<TypeName> emptySet = Sets.newLinkedHashSet();
-    return adapterDependenciesInternal(adapters, emptySet);
+    return adapterDependenciesInternal(adapters, emptySet, true);
+  }
+
+  /**
+   * Returns true if {@code adapter} is replaced by loops in the generated code, rather than
+   * called. Note that {@code sizeOf} still calls container adapters, so these adapters are only
+   * inlined when {@link OptionsDescriptor#usePresize()} is false.
+   */
+  private boolean isInlined(AdapterDescriptor adapter) {
+    OptionsDescriptor options = descriptor.options();
+    return options.inlineContainers()
+        && !options.usePresize()
+        && InlineContainers.canInline(adapter);
   }
 
   /** Returns a list of all of the {@link FieldSpec}s that define the required TypeAdapters */
   @SuppressWarnings("OptionalGetWithoutIsPresent") // Previous validation ensures this is fine.
   private ImmutableList<FieldSpec> adapterDependenciesInternal(
-      Collection<AdapterDescriptor> adapters, Set<TypeName> scoped) {
+      Collection<AdapterDescriptor> adapters, Set<TypeName> scoped, boolean inlinable) {
 
     ImmutableList.Builder<FieldSpec> adapterFields = new ImmutableList.Builder<>();
     for (AdapterDescriptor adapter : adapters) {
+      // Inlined adapters are never referenced, but the adapters they delegate to are. Adapters
+      // passed to the constructor of another adapter must always be defined.
+      if (inlinable && isInlined(adapter)) {
+        adapterFields.addAll(adapterDependenciesInternal(
+            InlineContainers.dependencies(adapter), scoped, true));
+        continue;
+      }
+
       // Don't define the same adapter twice
       if (scoped.contains(adapter.typeName())) {
         continue;
@@ -375,19 +1228,25 @@ final class PaperParcelWriter {
           }
         }
         if (adapterDependencies.size() > 0) {
-          adapterFields.addAll(adapterDependenciesInternal(adapterDependencies, scoped));
+          adapterFields.addAll(adapterDependenciesInternal(adapterDependencies, scoped, false));
         }
 
         // Construct the single instance of this type adapter
-        String adapterName = adapterNames.getName(adapter.typeName());
         CodeBlock parameters = getAdapterParameterList(constructorInfo);
+        CodeBlock initializer = CodeBlock.of("new $T($L)", adapter.typeName(), parameters);
         ParameterizedTypeName adapterInterfaceType =
             ParameterizedTypeName.get(TYPE_ADAPTER, adapter.adaptedTypeName());
 
-        adapterFields.add(
-            FieldSpec.builder(adapterInterfaceType, adapterName, STATIC, FINAL)
-                .initializer(CodeBlock.of("new $T($L)", adapter.typeName(), parameters))
-                .build());
+        if (sharedAdapters.isPresent()) {
+          sharedInstances.put(adapter.typeName(), sharedAdapters.get().instance(
+              descriptor.element(), adapter.typeName(), adapterInterfaceType, initializer));
+        } else {
+          String adapterName = adapterNames.getName(adapter.typeName());
+          adapterFields.add(
+              FieldSpec.builder(adapterInterfaceType, adapterName, STATIC, FINAL)
+                  .initializer(initializer)
+                  .build());
+        }
       }
     }
 
@@ -431,6 +1290,34 @@ final class PaperParcelWriter {
         } else {
           blocks.add(CodeBlock.of("$T.$N", creatorParam.creatorOwner, "CREATOR"));
         }
+
+      } else if (param instanceof ConstructorInfo.ConstantCountParam) {
+        ConstructorInfo.ConstantCountParam constantCountParam =
+            (ConstructorInfo.ConstantCountParam) param;
+        blocks.add(CodeBlock.of("$L", constantCountParam.constantCount));
+
+      } else if (param instanceof ConstructorInfo.SubtypeClassesParam) {
+        ConstructorInfo.SubtypeClassesParam subtypesParam =
+            (ConstructorInfo.SubtypeClassesParam) param;
+        List<CodeBlock> classes = new ArrayList<>();
+        for (ClassName subtype : subtypesParam.subtypes) {
+          classes.add(CodeBlock.of("$T.class", subtype));
+        }
+        TypeName classType = ParameterizedTypeName.get(
+            ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        blocks.add(CodeBlock.of("new $T[] { $L }", classType, CodeBlocks.join(classes, ", ")));
+
+      } else if (param instanceof ConstructorInfo.SubtypeCreatorsParam) {
+        ConstructorInfo.SubtypeCreatorsParam subtypesParam =
+            (ConstructorInfo.SubtypeCreatorsParam) param;
+        List<CodeBlock> creators = new ArrayList<>();
+        for (ClassName subtype : subtypesParam.subtypes) {
+          creators.add(CodeBlock.of("$T.$N", subtype, "CREATOR"));
+        }
+        TypeName creatorType = ParameterizedTypeName.get(
+            ClassName.get("android.os", "Parcelable", "Creator"),
+            WildcardTypeName.subtypeOf(Object.class));
+        blocks.add(CodeBlock.of("new $T[] { $L }", creatorType, CodeBlocks.join(creators, ", ")));
       }
     }
 
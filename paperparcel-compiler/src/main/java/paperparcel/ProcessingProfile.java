@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import android.support.annotation.Nullable;
+import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
+import com.google.common.collect.SetMultimap;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import static paperparcel.JsonReports.string;
+
+/**
+ * Records where the {@link PaperParcelProcessor} spends its time when the
+ * {@code paperparcel.profile} option is set, and writes a JSON report to the path given by the
+ * option once processing is over. The report has a breakdown of the wall time and counters of
+ * each round, and of the time spent on each {@code @PaperParcel} class.
+ *
+ * <p>When the option is not set, all of the methods of this class do nothing.</p>
+ */
+final class ProcessingProfile {
+  static final String OPTION = "paperparcel.profile";
+
+  /** The phases that are timed for each {@code @PaperParcel} class. */
+  enum Phase {
+    /** Validating the class. */
+    VALIDATE("validateMillis"),
+    /** Building the {@link PaperParcelDescriptor}, including {@link #RESOLVE_ADAPTERS}. */
+    DESCRIBE("describeMillis"),
+    /** Finding or creating the {@link AdapterDescriptor} of each field. */
+    RESOLVE_ADAPTERS("resolveAdaptersMillis"),
+    /** Building the generated type with JavaPoet. */
+    EMIT("emitMillis"),
+    /** Formatting the generated source and writing it to the {@code Filer}. */
+    FILE("fileMillis");
+
+    final String key;
+
+    Phase(String key) {
+      this.key = key;
+    }
+  }
+
+  /** The counters that are recorded for each round. */
+  enum Counter {
+    DESCRIPTORS_BUILT("descriptorsBuilt"),
+    ADAPTER_CACHE_HITS("adapterCacheHits"),
+    ADAPTER_CACHE_MISSES("adapterCacheMisses"),
+    FILES_WRITTEN("filesWritten");
+
+    final String key;
+
+    Counter(String key) {
+      this.key = key;
+    }
+  }
+
+  private static final class RoundProfile {
+    final int round;
+    final long startNanos = System.nanoTime();
+    long endNanos;
+    final Map<String, Long> stepNanos = new LinkedHashMap<>();
+    final Map<Counter, Integer> counters = new EnumMap<>(Counter.class);
+
+    RoundProfile(int round) {
+      this.round = round;
+      for (Counter counter : Counter.values()) {
+        counters.put(counter, 0);
+      }
+    }
+  }
+
+  private static final class ClassProfile {
+    final String name;
+    final int round;
+    final Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+
+    ClassProfile(String name, int round) {
+      this.name = name;
+      this.round = round;
+      for (Phase phase : Phase.values()) {
+        phaseNanos.put(phase, 0L);
+      }
+    }
+  }
+
+  @Nullable private final String path;
+  private final List<RoundProfile> rounds = new ArrayList<>();
+  private final List<ClassProfile> classes = new ArrayList<>();
+  @Nullable private RoundProfile currentRound;
+  @Nullable private ClassProfile currentClass;
+
+  private ProcessingProfile(@Nullable String path) {
+    this.path = path;
+  }
+
+  /** Returns a profile that writes its report to {@code path}, or does nothing if it is null. */
+  static ProcessingProfile create(@Nullable String path) {
+    return new ProcessingProfile(path);
+  }
+
+  boolean isEnabled() {
+    return path != null;
+  }
+
+  /** Wraps {@code step} so that the time spent in it is recorded against the current round. */
+  ProcessingStep time(final ProcessingStep step) {
+    if (!isEnabled()) {
+      return step;
+    }
+    return new ProcessingStep() {
+      @Override public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override public Set<Element> process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+        // Starts the round before the first step so that its time covers all of its steps.
+        RoundProfile round = round();
+        long start = System.nanoTime();
+        try {
+          return step.process(elementsByAnnotation);
+        } finally {
+          String name = step.getClass().getSimpleName();
+          Long previous = round.stepNanos.get(name);
+          long elapsed = System.nanoTime() - start;
+          round.stepNanos.put(name, previous != null ? previous + elapsed : elapsed);
+        }
+      }
+    };
+  }
+
+  /** Attributes the phases recorded until {@link #endClass()} to {@code element}. */
+  void beginClass(TypeElement element) {
+    if (isEnabled()) {
+      currentClass = new ClassProfile(element.getQualifiedName().toString(), round().round);
+      classes.add(currentClass);
+    }
+  }
+
+  void endClass() {
+    currentClass = null;
+  }
+
+  /** Returns a timestamp to pass to {@link #stop}. */
+  long start() {
+    return isEnabled() ? System.nanoTime() : 0L;
+  }
+
+  /** Records the time since {@code start} against {@code phase} of the current class. */
+  void stop(Phase phase, long start) {
+    if (isEnabled() && currentClass != null) {
+      long elapsed = System.nanoTime() - start;
+      currentClass.phaseNanos.put(phase, currentClass.phaseNanos.get(phase) + elapsed);
+    }
+  }
+
+  void increment(Counter counter) {
+    if (isEnabled()) {
+      RoundProfile round = round();
+      round.counters.put(counter, round.counters.get(counter) + 1);
+    }
+  }
+
+  /**
+   * Ends the current round. Once {@code processingOver} is true the report is written, and any
+   * {@link IOException} is rethrown.
+   */
+  void endRound(boolean processingOver) throws IOException {
+    if (!isEnabled()) {
+      return;
+    }
+    round().endNanos = System.nanoTime();
+    currentRound = null;
+    if (processingOver) {
+      JsonReports.write(path, toJson());
+    }
+  }
+
+  private RoundProfile round() {
+    if (currentRound == null) {
+      currentRound = new RoundProfile(rounds.size() + 1);
+      rounds.add(currentRound);
+    }
+    return currentRound;
+  }
+
+  String toJson() {
+    StringBuilder json = new StringBuilder("{\n  \"rounds\": [");
+    for (int i = 0; i < rounds.size(); i++) {
+      RoundProfile round = rounds.get(i);
+      json.append(i == 0 ? "\n" : ",\n")
+          .append("    {\n")
+          .append("      \"round\": ").append(round.round).append(",\n")
+          .append("      \"millis\": ").append(millis(round.endNanos - round.startNanos))
+          .append(",\n")
+          .append("      \"steps\": {");
+      int step = 0;
+      for (Map.Entry<String, Long> entry : round.stepNanos.entrySet()) {
+        json.append(step++ == 0 ? " " : ", ")
+            .append(string(entry.getKey())).append(": ").append(millis(entry.getValue()));
+      }
+      json.append(" }");
+      for (Counter counter : Counter.values()) {
+        json.append(",\n      ").append(string(counter.key)).append(": ")
+            .append(round.counters.get(counter));
+      }
+      json.append("\n    }");
+    }
+    json.append("\n  ],\n  \"classes\": [");
+    for (int i = 0; i < classes.size(); i++) {
+      ClassProfile profile = classes.get(i);
+      json.append(i == 0 ? "\n" : ",\n")
+          .append("    { \"name\": ").append(string(profile.name))
+          .append(", \"round\": ").append(profile.round);
+      for (Phase phase : Phase.values()) {
+        json.append(", ").append(string(phase.key)).append(": ")
+            .append(millis(profile.phaseNanos.get(phase)));
+      }
+      json.append(" }");
+    }
+    return json.append("\n  ]\n}\n").toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+}
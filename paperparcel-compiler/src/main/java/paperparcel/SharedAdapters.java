@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Collects the {@code TypeAdapter} instances required by the {@code PaperParcel} classes
+ * generated in a round, so that each distinct adapter graph is defined once per package in a
+ * shared holder class rather than once in every generated class that uses it.
+ *
+ * <p>Each adapter is defined in its own nested class using the initialization-on-demand holder
+ * idiom, so it is only created the first time that it is actually used. Holders are per package
+ * (rather than per module) because adapters may refer to package-private types.</p>
+ */
+final class SharedAdapters {
+  private static final String HOLDER_NAME = "PaperParcelAdapters";
+
+  /** The holder names used by each package in this or any previous round. */
+  private final Map<String, UniqueNameSet> holderNames = Maps.newLinkedHashMap();
+
+  /** The holders defined in this round, keyed by package name. */
+  private final Map<String, Holder> holders = Maps.newLinkedHashMap();
+
+  /**
+   * Returns a reference to the shared instance of the adapter created by {@code initializer},
+   * defining it in the holder for {@code owner}'s package if an identical adapter hasn't been
+   * defined there in this round.
+   */
+  CodeBlock instance(
+      TypeElement owner,
+      TypeName adapterTypeName,
+      TypeName adapterInterfaceType,
+      CodeBlock initializer) {
+    String packageName = ClassName.get(owner).packageName();
+    Holder holder = holders.get(packageName);
+    if (holder == null) {
+      UniqueNameSet names = holderNames.get(packageName);
+      if (names == null) {
+        names = new UniqueNameSet();
+        holderNames.put(packageName, names);
+      }
+      holder = new Holder(ClassName.get(packageName, names.getUniqueName(HOLDER_NAME)));
+      holders.put(packageName, holder);
+    }
+    holder.originatingElements.add(owner);
+    return CodeBlock.of("$T.INSTANCE",
+        holder.entry(adapterTypeName, adapterInterfaceType, initializer));
+  }
+
+  /** Returns the holders defined in this round and starts a new round. */
+  ImmutableList<Holder> drain() {
+    ImmutableList<Holder> result = ImmutableList.copyOf(holders.values());
+    holders.clear();
+    return result;
+  }
+
+  /** A holder class to generate, and the adapters that it defines. */
+  static final class Holder {
+    private final ClassName name;
+    private final Set<TypeElement> originatingElements = Sets.newLinkedHashSet();
+    private final Map<String, Entry> entries = Maps.newLinkedHashMap();
+    private final AdapterNameGenerator adapterNames = new AdapterNameGenerator();
+    private final UniqueNameSet entryNames = new UniqueNameSet();
+
+    private Holder(ClassName name) {
+      this.name = name;
+    }
+
+    private ClassName entry(
+        TypeName adapterTypeName, TypeName adapterInterfaceType, CodeBlock initializer) {
+      // The initializer refers to the adapter type and to all of its dependencies, so two
+      // adapters with the same initializer are always identical.
+      String key = initializer.toString();
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        String constantName = adapterNames.getName(adapterTypeName);
+        String entryName = entryNames.getUniqueName(
+            CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, constantName) + "Holder");
+        entry = new Entry(name.nestedClass(entryName), adapterInterfaceType, initializer);
+        entries.put(key, entry);
+      }
+      return entry.name;
+    }
+
+    ClassName name() {
+      return name;
+    }
+
+    /** The {@code PaperParcel} classes that use the adapters in this holder. */
+    ImmutableSet<TypeElement> originatingElements() {
+      return ImmutableSet.copyOf(originatingElements);
+    }
+
+    /** The adapters to define, in the order that they were first used. */
+    ImmutableList<Entry> entries() {
+      return ImmutableList.copyOf(entries.values());
+    }
+  }
+
+  /** A nested class that defines a single adapter instance named {@code INSTANCE}. */
+  static final class Entry {
+    final ClassName name;
+    final TypeName adapterInterfaceType;
+    final CodeBlock initializer;
+
+    private Entry(ClassName name, TypeName adapterInterfaceType, CodeBlock initializer) {
+      this.name = name;
+      this.adapterInterfaceType = adapterInterfaceType;
+      this.initializer = initializer;
+    }
+  }
+}
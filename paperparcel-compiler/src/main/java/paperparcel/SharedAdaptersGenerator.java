@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Iterables;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * The class responsible for generating the holder classes that define the {@code TypeAdapter}
+ * instances shared by the {@code PaperParcel} classes in a package.
+ *
+ * @see SharedAdapters
+ */
+final class SharedAdaptersGenerator extends SourceFileGenerator<SharedAdapters.Holder> {
+  SharedAdaptersGenerator(
+      Filer filer,
+      ProcessingProfile profile) {
+    super(filer, profile);
+  }
+
+  @Override ClassName nameGeneratedType(SharedAdapters.Holder input) {
+    return input.name();
+  }
+
+  @Override Iterable<? extends Element> originatingElements(SharedAdapters.Holder input) {
+    return input.originatingElements();
+  }
+
+  @Override Optional<? extends Element> getElementForErrorReporting(SharedAdapters.Holder input) {
+    return Optional.of(Iterables.getFirst(input.originatingElements(), null));
+  }
+
+  @Override Optional<TypeSpec.Builder> write(
+      ClassName generatedTypeName, SharedAdapters.Holder input) {
+    TypeSpec.Builder builder = TypeSpec.classBuilder(generatedTypeName)
+        .addModifiers(FINAL);
+    for (SharedAdapters.Entry entry : input.entries()) {
+      builder.addType(TypeSpec.classBuilder(entry.name)
+          .addModifiers(STATIC, FINAL)
+          .addField(FieldSpec.builder(entry.adapterInterfaceType, "INSTANCE", STATIC, FINAL)
+              .initializer(entry.initializer)
+              .build())
+          .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+          .build());
+    }
+    return Optional.of(builder
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build()));
+  }
+}
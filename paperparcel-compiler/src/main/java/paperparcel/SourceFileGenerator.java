@@ -39,21 +39,33 @@ abstract class SourceFileGenerator<T> {
   private static final String GENERATED_COMMENTS = "https://github.com/grandstaish/paperparcel";
 
   private final Filer filer;
+  private final ProcessingProfile profile;
 
   SourceFileGenerator(
-      Filer filer) {
+      Filer filer,
+      ProcessingProfile profile) {
     this.filer = checkNotNull(filer);
+    this.profile = checkNotNull(profile);
   }
 
   /** Generates a source file to be compiled for {@code T}. */
   void generate(T input) throws SourceFileGenerationException {
     ClassName generatedTypeName = nameGeneratedType(input);
     try {
+      long start = profile.start();
       Optional<TypeSpec.Builder> type = write(generatedTypeName, input);
       if (!type.isPresent()) {
         return;
       }
-      buildJavaFile(generatedTypeName, type.get()).writeTo(filer);
+      for (Element element : originatingElements(input)) {
+        type.get().addOriginatingElement(element);
+      }
+      JavaFile javaFile = buildJavaFile(generatedTypeName, type.get());
+      profile.stop(ProcessingProfile.Phase.EMIT, start);
+      start = profile.start();
+      javaFile.writeTo(filer);
+      profile.stop(ProcessingProfile.Phase.FILE, start);
+      profile.increment(ProcessingProfile.Counter.FILES_WRITTEN);
     } catch (Exception e) {
       // if the code above threw a SFGE, use that
       Throwables.propagateIfPossible(e, SourceFileGenerationException.class);
@@ -77,6 +89,12 @@ abstract class SourceFileGenerator<T> {
    */
   abstract ClassName nameGeneratedType(T input);
 
+  /**
+   * Returns the elements that the generated type is derived from. Incremental builds regenerate
+   * the type when, and only when, the source file containing one of these elements changes.
+   */
+  abstract Iterable<? extends Element> originatingElements(T input);
+
   /**
    * Returns an optional element to be used for reporting errors. This returns a single element
    * rather than a collection to reduce output noise.
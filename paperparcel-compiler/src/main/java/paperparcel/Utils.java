@@ -38,9 +38,9 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.AnnotationValueVisitor;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
-import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
@@ -62,13 +62,16 @@ import static com.google.auto.common.MoreTypes.asDeclared;
 import static com.google.common.base.Preconditions.checkState;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.util.ElementFilter.constructorsIn;
 import static javax.lang.model.util.ElementFilter.fieldsIn;
+import static javax.lang.model.util.ElementFilter.typesIn;
 
 /** A grab bag of shared utility methods with no home. FeelsBadMan. */
 final class Utils {
   private static final String TYPE_ADAPTER_CLASS_NAME = "paperparcel.TypeAdapter";
   private static final String PARCELABLE_CLASS_NAME = "android.os.Parcelable";
   private static final String PARCELABLE_CREATOR_CLASS_NAME = "android.os.Parcelable.Creator";
+  private static final String PAPER_PARCELABLE_CLASS_NAME = "paperparcel.PaperParcelable";
 
   private static final Ordering<ExecutableElement> PARAMETER_COUNT_ORDER =
       new Ordering<ExecutableElement>() {
@@ -327,6 +330,91 @@ final class Utils {
     return null;
   }
 
+  /**
+   * Returns the concrete subtypes of {@code type} if it is a polymorphic type whose subtypes are
+   * known at compile time: either they are listed using {@link PaperParcel.Subtypes}, or
+   * {@code type} is a class whose constructors are all private, so that it can only be extended by
+   * the classes nested in the same top-level class. Returns an empty list if {@code type} is not
+   * one of these, or if any of its subtypes can't be read using its own {@code CREATOR}.
+   */
+  static ImmutableList<TypeElement> getSubtypes(Elements elements, Types types, TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return ImmutableList.of();
+    }
+    TypeElement element = asType(asDeclared(type).asElement());
+    if (element.getModifiers().contains(Modifier.FINAL)) {
+      return ImmutableList.of();
+    }
+
+    List<TypeElement> subtypes = new ArrayList<>();
+    Optional<AnnotationMirror> subtypesMirror =
+        MoreElements.getAnnotationMirror(element, PaperParcel.Subtypes.class);
+    if (subtypesMirror.isPresent()) {
+      AnnotationValue value = AnnotationMirrors.getAnnotationValue(subtypesMirror.get(), "value");
+      for (String subtypeName : value.accept(TYPE_NAME_ARRAY_VISITOR, null)) {
+        subtypes.add(elements.getTypeElement(subtypeName));
+      }
+    } else if (isClosed(element)) {
+      if (!element.getModifiers().contains(Modifier.ABSTRACT)) {
+        subtypes.add(element);
+      }
+      addNestedSubclasses(types, element, outermostType(element), subtypes);
+    }
+
+    TypeMirror erasedType = types.erasure(type);
+    for (TypeElement subtype : subtypes) {
+      VariableElement creator = findCreator(elements, types, subtype);
+      if (subtype.getModifiers().contains(Modifier.ABSTRACT)
+          || !subtype.getTypeParameters().isEmpty()
+          || !types.isSubtype(subtype.asType(), erasedType)
+          || creator == null
+          || !creator.getEnclosingElement().equals(subtype)) {
+        return ImmutableList.of();
+      }
+    }
+    return ImmutableList.copyOf(subtypes);
+  }
+
+  /** Returns true if {@code element} is a class that only declares private constructors. */
+  private static boolean isClosed(TypeElement element) {
+    if (element.getKind() != ElementKind.CLASS) {
+      return false;
+    }
+    for (ExecutableElement constructor : constructorsIn(element.getEnclosedElements())) {
+      if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the top-level class that {@code element} is nested in, or {@code element} itself. */
+  private static TypeElement outermostType(TypeElement element) {
+    Element enclosing = element;
+    while (enclosing.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return asType(enclosing);
+  }
+
+  /**
+   * Adds the concrete subclasses of {@code base} that are nested anywhere in {@code enclosing}.
+   * Private constructors are accessible throughout the top-level class, so siblings of
+   * {@code base} and classes nested in them can extend it too.
+   */
+  private static void addNestedSubclasses(
+      Types types, TypeElement base, TypeElement enclosing, List<TypeElement> result) {
+    for (TypeElement nested : typesIn(enclosing.getEnclosedElements())) {
+      if (nested.getKind() == ElementKind.CLASS
+          && !nested.equals(base)
+          && !nested.getModifiers().contains(Modifier.ABSTRACT)
+          && types.isSubtype(types.erasure(nested.asType()), types.erasure(base.asType()))) {
+        result.add(nested);
+      }
+      addNestedSubclasses(types, base, nested, result);
+    }
+  }
+
   /**
    * A singleton is defined by a class with a public static final field named "INSTANCE"
    * with a type assignable from itself.
@@ -358,40 +446,30 @@ final class Utils {
     return false;
   }
 
-  /** Returns all non-excluded fields on a {@link PaperParcel} annotated {@link TypeElement}. */
-  static ImmutableList<VariableElement> getFieldsToParcel(
-      TypeElement element, OptionsDescriptor options) {
-    Optional<AnnotationMirror> paperParcelMirror =
-        MoreElements.getAnnotationMirror(element, PaperParcel.class);
-    if (paperParcelMirror.isPresent()) {
-      ImmutableList.Builder<VariableElement> fields = ImmutableList.builder();
-      getFieldsToParcelImpl(element, options, fields, new HashSet<Name>());
-      return fields.build();
-    } else {
-      throw new IllegalArgumentException("element must be annotated with @PaperParcel");
-    }
-  }
-
-  private static void getFieldsToParcelImpl(
-      TypeElement element,
-      OptionsDescriptor options,
-      ImmutableList.Builder<VariableElement> fields,
-      Set<Name> seenFieldNames) {
-    for (VariableElement variable : fieldsIn(element.getEnclosedElements())) {
-      if (!excludeViaModifiers(variable, options.excludeModifiers())
-          && !usesAnyAnnotationsFrom(variable, options.excludeAnnotationNames())
-          && !seenFieldNames.contains(variable.getSimpleName())
-          && (!options.excludeNonExposedFields()
-          || usesAnyAnnotationsFrom(variable, options.exposeAnnotationNames()))) {
-        fields.add(variable);
-        seenFieldNames.add(variable.getSimpleName());
+  /**
+   * Returns the number of constants declared by {@code enumElement}. Checked at runtime by
+   * {@code paperparcel.internal.OrdinalEnumAdapter}.
+   */
+  static int getEnumConstantCount(TypeElement enumElement) {
+    int result = 0;
+    for (VariableElement field : fieldsIn(enumElement.getEnclosedElements())) {
+      if (field.getKind() == ElementKind.ENUM_CONSTANT) {
+        result++;
       }
     }
-    TypeMirror superType = element.getSuperclass();
-    if (superType.getKind() != TypeKind.NONE) {
-      TypeElement superElement = asType(asDeclared(superType).asElement());
-      getFieldsToParcelImpl(superElement, options, fields, seenFieldNames);
-    }
+    return result;
+  }
+
+  /**
+   * Returns true if {@code variable} is not excluded from being parcelled by {@code options}.
+   *
+   * @see HierarchyCache#getFieldsToParcel(TypeElement, OptionsDescriptor)
+   */
+  static boolean isFieldToParcel(VariableElement variable, OptionsDescriptor options) {
+    return !excludeViaModifiers(variable, options.excludeModifiers())
+        && !usesAnyAnnotationsFrom(variable, options.excludeAnnotationNames())
+        && (!options.excludeNonExposedFields()
+        || usesAnyAnnotationsFrom(variable, options.exposeAnnotationNames()));
   }
 
   static Optional<OptionsDescriptor> getOptions(TypeElement element) {
@@ -420,8 +498,19 @@ final class Utils {
     ImmutableList<String> reflectAnnotations = getReflectAnnotations(optionsMirror);
     boolean allowSerializable = getAllowSerializable(optionsMirror);
     boolean isLombokEnabled = isLombokEnabled(optionsMirror);
+    boolean useEnumOrdinals = getUseEnumOrdinals(optionsMirror);
+    boolean packFlags = getPackFlags(optionsMirror);
+    boolean poolStrings = getPoolStrings(optionsMirror);
+    boolean trackReferences = getTrackReferences(optionsMirror);
+    boolean presize = getPresize(optionsMirror);
+    boolean inlineContainers = getInlineContainers(optionsMirror);
+    boolean tableDriven = getTableDriven(optionsMirror);
+    boolean linkNested = getLinkNested(optionsMirror);
+    boolean hot = getHot(optionsMirror);
     return OptionsDescriptor.create(optionsMirror, excludeModifiers, excludeAnnotationNames,
-        exposeAnnotationNames, excludeNonExposedFields, reflectAnnotations, allowSerializable, isLombokEnabled);
+        exposeAnnotationNames, excludeNonExposedFields, reflectAnnotations, allowSerializable, isLombokEnabled,
+        useEnumOrdinals, packFlags, poolStrings, trackReferences, presize, inlineContainers,
+        tableDriven, linkNested, hot);
   }
 
   static boolean usesAnyAnnotationsFrom(Element element, List<String> annotationNames) {
@@ -442,6 +531,16 @@ final class Utils {
     return types.isAssignable(type, parcelableType);
   }
 
+  /**
+   * Returns true if {@code type} implements {@code paperparcel.PaperParcelable}. Returns false if
+   * paperparcel-kotlin is not on the classpath.
+   */
+  static boolean isPaperParcelable(Elements elements, Types types, TypeMirror type) {
+    TypeElement paperParcelableElement = elements.getTypeElement(PAPER_PARCELABLE_CLASS_NAME);
+    return paperParcelableElement != null
+        && types.isAssignable(type, types.erasure(paperParcelableElement.asType()));
+  }
+
   /** Returns true if {@code typeMirror} is a raw type. */
   static boolean isRawType(TypeMirror typeMirror) {
     Set<TypeParameterElement> visited = new HashSet<>();
@@ -787,5 +886,53 @@ final class Utils {
     return isLombokEnabled.accept(TO_BOOLEAN, null);
   }
 
+  private static boolean getUseEnumOrdinals(AnnotationMirror mirror) {
+    AnnotationValue useEnumOrdinals =
+        AnnotationMirrors.getAnnotationValue(mirror, "useEnumOrdinals");
+    return useEnumOrdinals.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getPackFlags(AnnotationMirror mirror) {
+    AnnotationValue packFlags = AnnotationMirrors.getAnnotationValue(mirror, "packFlags");
+    return packFlags.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getPoolStrings(AnnotationMirror mirror) {
+    AnnotationValue poolStrings = AnnotationMirrors.getAnnotationValue(mirror, "poolStrings");
+    return poolStrings.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getTrackReferences(AnnotationMirror mirror) {
+    AnnotationValue trackReferences =
+        AnnotationMirrors.getAnnotationValue(mirror, "trackReferences");
+    return trackReferences.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getPresize(AnnotationMirror mirror) {
+    AnnotationValue presize = AnnotationMirrors.getAnnotationValue(mirror, "presize");
+    return presize.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getInlineContainers(AnnotationMirror mirror) {
+    AnnotationValue inlineContainers =
+        AnnotationMirrors.getAnnotationValue(mirror, "inlineContainers");
+    return inlineContainers.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getTableDriven(AnnotationMirror mirror) {
+    AnnotationValue tableDriven = AnnotationMirrors.getAnnotationValue(mirror, "tableDriven");
+    return tableDriven.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getLinkNested(AnnotationMirror mirror) {
+    AnnotationValue linkNested = AnnotationMirrors.getAnnotationValue(mirror, "linkNested");
+    return linkNested.accept(TO_BOOLEAN, null);
+  }
+
+  private static boolean getHot(AnnotationMirror mirror) {
+    AnnotationValue hot = AnnotationMirrors.getAnnotationValue(mirror, "hot");
+    return hot.accept(TO_BOOLEAN, null);
+  }
+
   private Utils() {}
 }
@@ -0,0 +1,79 @@
+package paperparcel
+
+import android.os.Parcel
+import java.lang.reflect.Method
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Maps each [PaperParcel] annotated [PaperParcelable] class to its generated
+ * [PaperParcelable.Writer].
+ *
+ * The generated `PaperParcelXxx` class registers its writer from a static initializer, which runs
+ * as soon as the model's `CREATOR` is initialized. Lookups never lock, and subclasses of an
+ * annotated class are resolved once and then cached. If nothing is registered yet, the generated
+ * class is initialized by name. Classes generated by older versions of PaperParcel don't register
+ * a writer, so their `writeToParcel` method is called reflectively instead.
+ */
+object PaperParcelWriters {
+  private val writers = ConcurrentHashMap<Class<*>, PaperParcelable.Writer<*>>()
+
+  /** Registers the [writer] for [type]. Called by generated code. */
+  @JvmStatic fun <T> register(type: Class<T>, writer: PaperParcelable.Writer<T>) {
+    writers.put(type, writer)
+  }
+
+  internal fun writerFor(type: Class<*>): PaperParcelable.Writer<*> {
+    writers[type]?.let { return it }
+    var current: Class<*>? = type.superclass
+    while (current != null) {
+      val writer = writers[current]
+      if (writer != null) {
+        writers.putIfAbsent(type, writer)
+        return writer
+      }
+      current = current.superclass
+    }
+    val writer = loadWriter(type)
+    writers.putIfAbsent(type, writer)
+    return writer
+  }
+
+  private fun loadWriter(type: Class<*>): PaperParcelable.Writer<*> {
+    val annotatedClass = annotatedClass(type)
+    val generatedClass = try {
+      Class.forName(annotatedClass.implementationName, true, annotatedClass.classLoader)
+    } catch (e: ClassNotFoundException) {
+      throw IllegalStateException("No PaperParcelable.Writer registered for ${type.name}. Make " +
+          "sure it is annotated with @PaperParcel and that PaperParcelProcessor has run.", e)
+    }
+    writers[annotatedClass]?.let { return it }
+    val writeMethod = generatedClass
+        .getDeclaredMethod("writeToParcel", annotatedClass, Parcel::class.java,
+            Int::class.javaPrimitiveType)
+        .apply { isAccessible = true }
+    val writer = ReflectiveWriter(writeMethod)
+    writers.putIfAbsent(annotatedClass, writer)
+    return writer
+  }
+
+  private fun annotatedClass(type: Class<*>): Class<*> {
+    var current: Class<*>? = type
+    while (current != null) {
+      if (current.isAnnotationPresent(PaperParcel::class.java)) {
+        return current
+      }
+      current = current.superclass
+    }
+    throw IllegalStateException("Cannot find @PaperParcel on ${type.name}.")
+  }
+
+  private val Class<*>.implementationName: String
+    get() = "${`package`.name}.PaperParcel${name.substring(`package`.name.length + 1).replace('$', '_')}"
+
+  /** Calls the static `writeToParcel` method of a class that doesn't register a writer. */
+  private class ReflectiveWriter(private val method: Method) : PaperParcelable.Writer<Any> {
+    override fun writeToParcel(data: Any, dest: Parcel, flags: Int) {
+      method.invoke(null, data, dest, flags)
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mapping from String keys to values of various types, shared by {@link Bundle} and
+ * {@link PersistableBundle}.
+ *
+ * <p>As on a device, a bundle read from a {@link Parcel} keeps a private copy of its parcelled
+ * data and only unparcels it the first time it is accessed. Values that themselves use a
+ * {@link Parcel} are therefore read from a different {@link Parcel} instance than the one they
+ * were written to.
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public class BaseBundle {
+  private static final int BUNDLE_MAGIC = 0x4C444E42; // 'B' 'N' 'D' 'L'
+
+  Map<String, Object> map;
+  Parcel parcelledData;
+  ClassLoader classLoader;
+
+  BaseBundle() {
+    map = new LinkedHashMap<>();
+  }
+
+  BaseBundle(BaseBundle b) {
+    b.unparcel();
+    map = new LinkedHashMap<>(b.map);
+    classLoader = b.classLoader;
+  }
+
+  BaseBundle(Parcel source, int length) {
+    int magic = source.readInt();
+    if (magic != BUNDLE_MAGIC) {
+      throw new IllegalStateException("Bad magic number for Bundle: 0x"
+          + Integer.toHexString(magic));
+    }
+    int offset = source.dataPosition();
+    source.setDataPosition(offset + length);
+    Parcel p = Parcel.obtain();
+    p.appendFrom(source, offset, length);
+    p.setDataPosition(0);
+    parcelledData = p;
+  }
+
+  void setClassLoader(ClassLoader loader) {
+    classLoader = loader;
+  }
+
+  /** Returns {@code true} if this bundle has not been accessed since it was read. */
+  public boolean isParcelled() {
+    return parcelledData != null;
+  }
+
+  void unparcel() {
+    if (parcelledData == null) {
+      return;
+    }
+    Parcel p = parcelledData;
+    parcelledData = null;
+    int size = p.readInt();
+    map = new LinkedHashMap<>(size);
+    ClassLoader loader = classLoader != null ? classLoader : getClass().getClassLoader();
+    for (int i = 0; i < size; i++) {
+      String key = p.readString();
+      map.put(key, p.readValue(loader));
+    }
+    p.recycle();
+  }
+
+  void writeToParcelInner(Parcel dest) {
+    unparcel();
+    int lengthPos = dest.dataPosition();
+    dest.writeInt(-1); // Placeholder, patched below.
+    dest.writeInt(BUNDLE_MAGIC);
+    int startPos = dest.dataPosition();
+    dest.writeInt(map.size());
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      dest.writeString(entry.getKey());
+      dest.writeValue(entry.getValue());
+    }
+    int endPos = dest.dataPosition();
+    dest.setDataPosition(lengthPos);
+    dest.writeInt(endPos - startPos);
+    dest.setDataPosition(endPos);
+  }
+
+  public int size() {
+    unparcel();
+    return map.size();
+  }
+
+  public boolean isEmpty() {
+    unparcel();
+    return map.isEmpty();
+  }
+
+  public void clear() {
+    unparcel();
+    map.clear();
+  }
+
+  public boolean containsKey(String key) {
+    unparcel();
+    return map.containsKey(key);
+  }
+
+  public Object get(String key) {
+    unparcel();
+    return map.get(key);
+  }
+
+  public void remove(String key) {
+    unparcel();
+    map.remove(key);
+  }
+
+  public Set<String> keySet() {
+    unparcel();
+    return map.keySet();
+  }
+
+  public void putBoolean(String key, boolean value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public boolean getBoolean(String key) {
+    return getBoolean(key, false);
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    Object o = get(key);
+    return o instanceof Boolean ? (Boolean) o : defaultValue;
+  }
+
+  public void putInt(String key, int value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public int getInt(String key) {
+    return getInt(key, 0);
+  }
+
+  public int getInt(String key, int defaultValue) {
+    Object o = get(key);
+    return o instanceof Integer ? (Integer) o : defaultValue;
+  }
+
+  public void putLong(String key, long value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public long getLong(String key) {
+    return getLong(key, 0L);
+  }
+
+  public long getLong(String key, long defaultValue) {
+    Object o = get(key);
+    return o instanceof Long ? (Long) o : defaultValue;
+  }
+
+  public void putDouble(String key, double value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public double getDouble(String key) {
+    return getDouble(key, 0.0);
+  }
+
+  public double getDouble(String key, double defaultValue) {
+    Object o = get(key);
+    return o instanceof Double ? (Double) o : defaultValue;
+  }
+
+  public void putString(String key, String value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public String getString(String key) {
+    Object o = get(key);
+    return o instanceof String ? (String) o : null;
+  }
+
+  public String getString(String key, String defaultValue) {
+    String s = getString(key);
+    return s == null ? defaultValue : s;
+  }
+
+  public void putIntArray(String key, int[] value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public int[] getIntArray(String key) {
+    Object o = get(key);
+    return o instanceof int[] ? (int[]) o : null;
+  }
+
+  public void putLongArray(String key, long[] value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public long[] getLongArray(String key) {
+    Object o = get(key);
+    return o instanceof long[] ? (long[]) o : null;
+  }
+
+  public void putStringArray(String key, String[] value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  public String[] getStringArray(String key) {
+    Object o = get(key);
+    return o instanceof String[] ? (String[]) o : null;
+  }
+
+  void putObject(String key, Object value) {
+    unparcel();
+    map.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> T getObject(String key, Class<T> type) {
+    Object o = get(key);
+    return type.isInstance(o) ? (T) o : null;
+  }
+
+  @Override public String toString() {
+    if (parcelledData != null) {
+      return getClass().getSimpleName() + "[mParcelledData.dataSize="
+          + parcelledData.dataSize() + "]";
+    }
+    return getClass().getSimpleName() + "[" + map + "]";
+  }
+
+  static ArrayList<String> toStringList(Object o) {
+    if (!(o instanceof ArrayList)) {
+      return null;
+    }
+    ArrayList<String> result = new ArrayList<>();
+    for (Object item : (ArrayList<?>) o) {
+      result.add((String) item);
+    }
+    return result;
+  }
+}
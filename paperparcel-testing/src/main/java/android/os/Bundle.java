@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+import android.util.SparseArray;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/** A mapping from String keys to various {@link Parcelable} values. */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public final class Bundle extends BaseBundle implements Cloneable, Parcelable {
+  public static final Bundle EMPTY = new Bundle();
+
+  public static final Parcelable.Creator<Bundle> CREATOR = new Parcelable.Creator<Bundle>() {
+    @Override public Bundle createFromParcel(Parcel in) {
+      return in.readBundle();
+    }
+
+    @Override public Bundle[] newArray(int size) {
+      return new Bundle[size];
+    }
+  };
+
+  public Bundle() {
+  }
+
+  public Bundle(ClassLoader loader) {
+    setClassLoader(loader);
+  }
+
+  public Bundle(Bundle b) {
+    super(b);
+  }
+
+  Bundle(Parcel source, int length) {
+    super(source, length);
+  }
+
+  @Override public void setClassLoader(ClassLoader loader) {
+    super.setClassLoader(loader);
+  }
+
+  public ClassLoader getClassLoader() {
+    return classLoader;
+  }
+
+  @Override public Object clone() {
+    return new Bundle(this);
+  }
+
+  public void putAll(Bundle bundle) {
+    unparcel();
+    bundle.unparcel();
+    map.putAll(bundle.map);
+  }
+
+  public void putByte(String key, byte value) {
+    putObject(key, value);
+  }
+
+  public byte getByte(String key) {
+    Byte b = getObject(key, Byte.class);
+    return b != null ? b : 0;
+  }
+
+  public void putChar(String key, char value) {
+    putObject(key, value);
+  }
+
+  public char getChar(String key) {
+    Character c = getObject(key, Character.class);
+    return c != null ? c : 0;
+  }
+
+  public void putShort(String key, short value) {
+    putObject(key, value);
+  }
+
+  public short getShort(String key) {
+    Short s = getObject(key, Short.class);
+    return s != null ? s : 0;
+  }
+
+  public void putFloat(String key, float value) {
+    putObject(key, value);
+  }
+
+  public float getFloat(String key) {
+    Float f = getObject(key, Float.class);
+    return f != null ? f : 0f;
+  }
+
+  public void putCharSequence(String key, CharSequence value) {
+    putObject(key, value);
+  }
+
+  public CharSequence getCharSequence(String key) {
+    return getObject(key, CharSequence.class);
+  }
+
+  public void putParcelable(String key, Parcelable value) {
+    putObject(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> T getParcelable(String key) {
+    return (T) getObject(key, Parcelable.class);
+  }
+
+  public void putParcelableArray(String key, Parcelable[] value) {
+    putObject(key, value);
+  }
+
+  public Parcelable[] getParcelableArray(String key) {
+    return getObject(key, Parcelable[].class);
+  }
+
+  public void putParcelableArrayList(String key, ArrayList<? extends Parcelable> value) {
+    putObject(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> ArrayList<T> getParcelableArrayList(String key) {
+    return (ArrayList<T>) getObject(key, ArrayList.class);
+  }
+
+  public void putSparseParcelableArray(String key, SparseArray<? extends Parcelable> value) {
+    putObject(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> SparseArray<T> getSparseParcelableArray(String key) {
+    return (SparseArray<T>) getObject(key, SparseArray.class);
+  }
+
+  public void putStringArrayList(String key, ArrayList<String> value) {
+    putObject(key, value);
+  }
+
+  public ArrayList<String> getStringArrayList(String key) {
+    return toStringList(get(key));
+  }
+
+  public void putSerializable(String key, Serializable value) {
+    putObject(key, value);
+  }
+
+  public Serializable getSerializable(String key) {
+    return getObject(key, Serializable.class);
+  }
+
+  public void putByteArray(String key, byte[] value) {
+    putObject(key, value);
+  }
+
+  public byte[] getByteArray(String key) {
+    return getObject(key, byte[].class);
+  }
+
+  public void putBundle(String key, Bundle value) {
+    putObject(key, value);
+  }
+
+  public Bundle getBundle(String key) {
+    return getObject(key, Bundle.class);
+  }
+
+  public void putBinder(String key, IBinder value) {
+    putObject(key, value);
+  }
+
+  public IBinder getBinder(String key) {
+    return getObject(key, IBinder.class);
+  }
+
+  @Override public int describeContents() {
+    return 0;
+  }
+
+  @Override public void writeToParcel(Parcel parcel, int flags) {
+    writeToParcelInner(parcel);
+  }
+
+  public void readFromParcel(Parcel parcel) {
+    int length = parcel.readInt();
+    Bundle read = new Bundle(parcel, length);
+    read.unparcel();
+    map = read.map;
+    parcelledData = null;
+  }
+}
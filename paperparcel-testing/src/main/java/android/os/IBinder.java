@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * Base interface for a remotable object. Binders written to a host-side {@link Parcel} are kept
+ * in a side table and are returned as the same instance when read back.
+ */
+public interface IBinder {
+  String getInterfaceDescriptor() throws RemoteException;
+
+  boolean pingBinder();
+
+  boolean isBinderAlive();
+}
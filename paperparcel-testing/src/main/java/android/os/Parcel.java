@@ -0,0 +1,1284 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+import android.text.TextUtils;
+import android.util.Size;
+import android.util.SizeF;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A host-side implementation of {@code android.os.Parcel}.
+ *
+ * <p>Data is stored in a growable little-endian byte buffer using the same layout as the native
+ * implementation: every primitive occupies at least 4 bytes, strings are written as a length
+ * followed by UTF-16 code units and a null terminator, and all writes are padded to 4 byte
+ * boundaries. This means {@link #dataSize()} and {@link #dataPosition()} report the same values
+ * they would on a device for everything except binder objects, which are kept in a side table.
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public final class Parcel {
+  private static final int VAL_NULL = -1;
+  private static final int VAL_STRING = 0;
+  private static final int VAL_INTEGER = 1;
+  private static final int VAL_MAP = 2;
+  private static final int VAL_BUNDLE = 3;
+  private static final int VAL_PARCELABLE = 4;
+  private static final int VAL_SHORT = 5;
+  private static final int VAL_LONG = 6;
+  private static final int VAL_FLOAT = 7;
+  private static final int VAL_DOUBLE = 8;
+  private static final int VAL_BOOLEAN = 9;
+  private static final int VAL_CHARSEQUENCE = 10;
+  private static final int VAL_LIST = 11;
+  private static final int VAL_SPARSEARRAY = 12;
+  private static final int VAL_BYTEARRAY = 13;
+  private static final int VAL_STRINGARRAY = 14;
+  private static final int VAL_IBINDER = 15;
+  private static final int VAL_PARCELABLEARRAY = 16;
+  private static final int VAL_OBJECTARRAY = 17;
+  private static final int VAL_INTARRAY = 18;
+  private static final int VAL_LONGARRAY = 19;
+  private static final int VAL_BYTE = 20;
+  private static final int VAL_SERIALIZABLE = 21;
+  private static final int VAL_SPARSEBOOLEANARRAY = 22;
+  private static final int VAL_BOOLEANARRAY = 23;
+  private static final int VAL_CHARSEQUENCEARRAY = 24;
+  private static final int VAL_PERSISTABLEBUNDLE = 25;
+  private static final int VAL_SIZE = 26;
+  private static final int VAL_SIZEF = 27;
+  private static final int VAL_DOUBLEARRAY = 28;
+
+  private static final int BINDER_SIZE = 24;
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private static final Map<String, Parcelable.Creator<?>> CREATORS = new ConcurrentHashMap<>();
+
+  public static final Parcelable.Creator<String> STRING_CREATOR =
+      new Parcelable.Creator<String>() {
+        @Override public String createFromParcel(Parcel source) {
+          return source.readString();
+        }
+
+        @Override public String[] newArray(int size) {
+          return new String[size];
+        }
+      };
+
+  private byte[] data = new byte[DEFAULT_CAPACITY];
+  private int dataSize;
+  private int dataPosition;
+  private final List<IBinder> binders = new ArrayList<>();
+
+  private Parcel() {
+  }
+
+  /** Retrieve a new Parcel object. */
+  public static Parcel obtain() {
+    return new Parcel();
+  }
+
+  /** Put a Parcel object back so that it can be reused. */
+  public void recycle() {
+    freeData();
+  }
+
+  public int dataSize() {
+    return dataSize;
+  }
+
+  public int dataAvail() {
+    return dataSize - dataPosition;
+  }
+
+  public int dataPosition() {
+    return dataPosition;
+  }
+
+  public int dataCapacity() {
+    return data.length;
+  }
+
+  public void setDataSize(int size) {
+    ensureCapacity(size);
+    dataSize = size;
+    if (dataPosition > size) {
+      dataPosition = size;
+    }
+  }
+
+  public void setDataPosition(int pos) {
+    if (pos < 0) {
+      throw new IllegalArgumentException("Negative position: " + pos);
+    }
+    dataPosition = pos;
+  }
+
+  public void setDataCapacity(int size) {
+    if (size > data.length) {
+      data = Arrays.copyOf(data, size);
+    }
+  }
+
+  public byte[] marshall() {
+    if (!binders.isEmpty()) {
+      throw new RuntimeException("Tried to marshall a Parcel that contained Binder objects.");
+    }
+    return Arrays.copyOf(data, dataSize);
+  }
+
+  public void unmarshall(byte[] bytes, int offset, int length) {
+    freeData();
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, data, 0, length);
+    dataSize = length;
+  }
+
+  public void appendFrom(Parcel parcel, int offset, int length) {
+    ensureCapacity(dataPosition + length);
+    System.arraycopy(parcel.data, offset, data, dataPosition, length);
+    dataPosition += length;
+    dataSize = Math.max(dataSize, dataPosition);
+  }
+
+  public boolean hasFileDescriptors() {
+    return false;
+  }
+
+  private void freeData() {
+    data = new byte[DEFAULT_CAPACITY];
+    dataSize = 0;
+    dataPosition = 0;
+    binders.clear();
+  }
+
+  private void ensureCapacity(int required) {
+    if (required > data.length) {
+      data = Arrays.copyOf(data, Math.max(required, data.length * 3 / 2));
+    }
+  }
+
+  private int grow(int length) {
+    int padded = pad(length);
+    int start = dataPosition;
+    ensureCapacity(start + padded);
+    for (int i = start + length; i < start + padded; i++) {
+      data[i] = 0;
+    }
+    dataPosition = start + padded;
+    if (dataPosition > dataSize) {
+      dataSize = dataPosition;
+    }
+    return start;
+  }
+
+  private int advance(int length) {
+    int start = dataPosition;
+    int padded = pad(length);
+    if (start + padded > dataSize) {
+      dataPosition = dataSize;
+      return -1;
+    }
+    dataPosition = start + padded;
+    return start;
+  }
+
+  private static int pad(int length) {
+    return (length + 3) & ~3;
+  }
+
+  // Primitives
+
+  public void writeInt(int val) {
+    int p = grow(4);
+    byte[] d = data;
+    d[p] = (byte) val;
+    d[p + 1] = (byte) (val >> 8);
+    d[p + 2] = (byte) (val >> 16);
+    d[p + 3] = (byte) (val >> 24);
+  }
+
+  public int readInt() {
+    int p = advance(4);
+    if (p < 0) {
+      return 0;
+    }
+    byte[] d = data;
+    return (d[p] & 0xff)
+        | (d[p + 1] & 0xff) << 8
+        | (d[p + 2] & 0xff) << 16
+        | (d[p + 3] & 0xff) << 24;
+  }
+
+  public void writeLong(long val) {
+    int p = grow(8);
+    byte[] d = data;
+    for (int i = 0; i < 8; i++) {
+      d[p + i] = (byte) (val >> (8 * i));
+    }
+  }
+
+  public long readLong() {
+    int p = advance(8);
+    if (p < 0) {
+      return 0L;
+    }
+    byte[] d = data;
+    long result = 0;
+    for (int i = 7; i >= 0; i--) {
+      result = (result << 8) | (d[p + i] & 0xff);
+    }
+    return result;
+  }
+
+  public void writeFloat(float val) {
+    writeInt(Float.floatToRawIntBits(val));
+  }
+
+  public float readFloat() {
+    return Float.intBitsToFloat(readInt());
+  }
+
+  public void writeDouble(double val) {
+    writeLong(Double.doubleToRawLongBits(val));
+  }
+
+  public double readDouble() {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  public void writeByte(byte val) {
+    writeInt(val);
+  }
+
+  public byte readByte() {
+    return (byte) (readInt() & 0xff);
+  }
+
+  // Strings
+
+  public void writeString(String val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    int length = val.length();
+    writeInt(length);
+    int p = grow((length + 1) * 2);
+    byte[] d = data;
+    for (int i = 0; i < length; i++) {
+      char c = val.charAt(i);
+      d[p++] = (byte) c;
+      d[p++] = (byte) (c >> 8);
+    }
+    d[p++] = 0;
+    d[p] = 0;
+  }
+
+  public String readString() {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    int p = advance((length + 1) * 2);
+    if (p < 0) {
+      return null;
+    }
+    byte[] d = data;
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ((d[p] & 0xff) | (d[p + 1] & 0xff) << 8);
+      p += 2;
+    }
+    return new String(chars);
+  }
+
+  public void writeCharSequence(CharSequence val) {
+    TextUtils.writeToParcel(val, this, 0);
+  }
+
+  public CharSequence readCharSequence() {
+    return TextUtils.CHAR_SEQUENCE_CREATOR.createFromParcel(this);
+  }
+
+  // Arrays
+
+  public void writeByteArray(byte[] b) {
+    writeByteArray(b, 0, b != null ? b.length : 0);
+  }
+
+  public void writeByteArray(byte[] b, int offset, int len) {
+    if (b == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(len);
+    int p = grow(len);
+    System.arraycopy(b, offset, data, p, len);
+  }
+
+  public byte[] createByteArray() {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    int p = advance(length);
+    if (p < 0) {
+      return null;
+    }
+    return Arrays.copyOfRange(data, p, p + length);
+  }
+
+  public void readByteArray(byte[] val) {
+    byte[] read = createByteArray();
+    if (read == null || read.length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    System.arraycopy(read, 0, val, 0, val.length);
+  }
+
+  public void writeBooleanArray(boolean[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (boolean b : val) {
+      writeInt(b ? 1 : 0);
+    }
+  }
+
+  public boolean[] createBooleanArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 4) {
+      return null;
+    }
+    boolean[] val = new boolean[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readInt() != 0;
+    }
+    return val;
+  }
+
+  public void readBooleanArray(boolean[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readInt() != 0;
+    }
+  }
+
+  public void writeCharArray(char[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (char c : val) {
+      writeInt(c);
+    }
+  }
+
+  public char[] createCharArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 4) {
+      return null;
+    }
+    char[] val = new char[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = (char) readInt();
+    }
+    return val;
+  }
+
+  public void readCharArray(char[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = (char) readInt();
+    }
+  }
+
+  public void writeIntArray(int[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (int i : val) {
+      writeInt(i);
+    }
+  }
+
+  public int[] createIntArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 4) {
+      return null;
+    }
+    int[] val = new int[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readInt();
+    }
+    return val;
+  }
+
+  public void readIntArray(int[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readInt();
+    }
+  }
+
+  public void writeLongArray(long[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (long l : val) {
+      writeLong(l);
+    }
+  }
+
+  public long[] createLongArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 8) {
+      return null;
+    }
+    long[] val = new long[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readLong();
+    }
+    return val;
+  }
+
+  public void readLongArray(long[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readLong();
+    }
+  }
+
+  public void writeFloatArray(float[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (float f : val) {
+      writeFloat(f);
+    }
+  }
+
+  public float[] createFloatArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 4) {
+      return null;
+    }
+    float[] val = new float[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readFloat();
+    }
+    return val;
+  }
+
+  public void readFloatArray(float[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readFloat();
+    }
+  }
+
+  public void writeDoubleArray(double[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (double d : val) {
+      writeDouble(d);
+    }
+  }
+
+  public double[] createDoubleArray() {
+    int length = readInt();
+    if (length < 0 || length > dataAvail() / 8) {
+      return null;
+    }
+    double[] val = new double[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readDouble();
+    }
+    return val;
+  }
+
+  public void readDoubleArray(double[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readDouble();
+    }
+  }
+
+  public void writeStringArray(String[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (String s : val) {
+      writeString(s);
+    }
+  }
+
+  public String[] createStringArray() {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    String[] val = new String[length];
+    for (int i = 0; i < length; i++) {
+      val[i] = readString();
+    }
+    return val;
+  }
+
+  public void readStringArray(String[] val) {
+    int length = readInt();
+    if (length != val.length) {
+      throw new RuntimeException("bad array lengths");
+    }
+    for (int i = 0; i < length; i++) {
+      val[i] = readString();
+    }
+  }
+
+  public void writeStringList(List<String> val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.size());
+    for (String s : val) {
+      writeString(s);
+    }
+  }
+
+  public ArrayList<String> createStringArrayList() {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    ArrayList<String> val = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      val.add(readString());
+    }
+    return val;
+  }
+
+  public void readStringList(List<String> list) {
+    list.clear();
+    int length = readInt();
+    for (int i = 0; i < length; i++) {
+      list.add(readString());
+    }
+  }
+
+  // Binders
+
+  public void writeStrongBinder(IBinder val) {
+    int p = grow(BINDER_SIZE);
+    int index = -1;
+    if (val != null) {
+      index = binders.size();
+      binders.add(val);
+    }
+    setInt(p, index);
+  }
+
+  public IBinder readStrongBinder() {
+    int p = advance(BINDER_SIZE);
+    if (p < 0) {
+      return null;
+    }
+    int index = getInt(p);
+    return index >= 0 && index < binders.size() ? binders.get(index) : null;
+  }
+
+  private void setInt(int p, int val) {
+    data[p] = (byte) val;
+    data[p + 1] = (byte) (val >> 8);
+    data[p + 2] = (byte) (val >> 16);
+    data[p + 3] = (byte) (val >> 24);
+  }
+
+  private int getInt(int p) {
+    return (data[p] & 0xff)
+        | (data[p + 1] & 0xff) << 8
+        | (data[p + 2] & 0xff) << 16
+        | (data[p + 3] & 0xff) << 24;
+  }
+
+  // Parcelables
+
+  public void writeParcelable(Parcelable p, int parcelableFlags) {
+    if (p == null) {
+      writeString(null);
+      return;
+    }
+    writeString(p.getClass().getName());
+    p.writeToParcel(this, parcelableFlags);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> T readParcelable(ClassLoader loader) {
+    Parcelable.Creator<?> creator = readParcelableCreator(loader);
+    if (creator == null) {
+      return null;
+    }
+    if (creator instanceof Parcelable.ClassLoaderCreator<?>) {
+      return (T) ((Parcelable.ClassLoaderCreator<?>) creator).createFromParcel(this, loader);
+    }
+    return (T) creator.createFromParcel(this);
+  }
+
+  public Parcelable.Creator<?> readParcelableCreator(ClassLoader loader) {
+    String name = readString();
+    if (name == null) {
+      return null;
+    }
+    Parcelable.Creator<?> creator = CREATORS.get(name);
+    if (creator == null) {
+      creator = findCreator(name, loader);
+      CREATORS.put(name, creator);
+    }
+    return creator;
+  }
+
+  private static Parcelable.Creator<?> findCreator(String name, ClassLoader loader) {
+    try {
+      ClassLoader classLoader = loader != null ? loader : Parcel.class.getClassLoader();
+      Class<?> parcelableClass = Class.forName(name, false, classLoader);
+      if (!Parcelable.class.isAssignableFrom(parcelableClass)) {
+        throw new BadParcelableException(
+            "Parcelable protocol requires that the class implements Parcelable");
+      }
+      Field field = parcelableClass.getField("CREATOR");
+      if ((field.getModifiers() & Modifier.STATIC) == 0) {
+        throw new BadParcelableException(
+            "Parcelable protocol requires the CREATOR object to be static on class " + name);
+      }
+      Object creator = field.get(null);
+      if (creator == null) {
+        throw new BadParcelableException(
+            "Parcelable protocol requires a non-null Parcelable.Creator object called "
+                + "CREATOR on class " + name);
+      }
+      return (Parcelable.Creator<?>) creator;
+    } catch (ClassNotFoundException e) {
+      throw new BadParcelableException("ClassNotFoundException when unmarshalling: " + name);
+    } catch (NoSuchFieldException e) {
+      throw new BadParcelableException("Parcelable protocol requires a Parcelable.Creator "
+          + "object called CREATOR on class " + name);
+    } catch (IllegalAccessException e) {
+      throw new BadParcelableException("IllegalAccessException when unmarshalling: " + name);
+    }
+  }
+
+  public void writeParcelableArray(Parcelable[] value, int parcelableFlags) {
+    if (value == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(value.length);
+    for (Parcelable p : value) {
+      writeParcelable(p, parcelableFlags);
+    }
+  }
+
+  public Parcelable[] readParcelableArray(ClassLoader loader) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    Parcelable[] p = new Parcelable[length];
+    for (int i = 0; i < length; i++) {
+      p[i] = readParcelable(loader);
+    }
+    return p;
+  }
+
+  public <T extends Parcelable> void writeTypedArray(T[] val, int parcelableFlags) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (T item : val) {
+      writeTypedObject(item, parcelableFlags);
+    }
+  }
+
+  public <T> T[] createTypedArray(Parcelable.Creator<T> c) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    T[] val = c.newArray(length);
+    for (int i = 0; i < length; i++) {
+      val[i] = readTypedObject(c);
+    }
+    return val;
+  }
+
+  public <T extends Parcelable> void writeTypedList(List<T> val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.size());
+    for (T item : val) {
+      writeTypedObject(item, 0);
+    }
+  }
+
+  public <T> ArrayList<T> createTypedArrayList(Parcelable.Creator<T> c) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    ArrayList<T> val = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      val.add(readTypedObject(c));
+    }
+    return val;
+  }
+
+  public <T extends Parcelable> void writeTypedObject(T val, int parcelableFlags) {
+    if (val != null) {
+      writeInt(1);
+      val.writeToParcel(this, parcelableFlags);
+    } else {
+      writeInt(0);
+    }
+  }
+
+  public <T> T readTypedObject(Parcelable.Creator<T> c) {
+    if (readInt() != 0) {
+      return c.createFromParcel(this);
+    }
+    return null;
+  }
+
+  // Serializables
+
+  public void writeSerializable(Serializable s) {
+    if (s == null) {
+      writeString(null);
+      return;
+    }
+    writeString(s.getClass().getName());
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      ObjectOutputStream oos = new ObjectOutputStream(baos);
+      oos.writeObject(s);
+      oos.close();
+      writeByteArray(baos.toByteArray());
+    } catch (IOException ioe) {
+      throw new RuntimeException("Parcelable encountered IOException writing serializable object"
+          + " (name = " + s.getClass().getName() + ")", ioe);
+    }
+  }
+
+  public Serializable readSerializable() {
+    return readSerializable(null);
+  }
+
+  private Serializable readSerializable(final ClassLoader loader) {
+    String name = readString();
+    if (name == null) {
+      return null;
+    }
+    byte[] serializedData = createByteArray();
+    ByteArrayInputStream bais = new ByteArrayInputStream(serializedData);
+    try {
+      ObjectInputStream ois = new ObjectInputStream(bais) {
+        @Override protected Class<?> resolveClass(ObjectStreamClass osClass)
+            throws IOException, ClassNotFoundException {
+          if (loader != null) {
+            return Class.forName(osClass.getName(), false, loader);
+          }
+          return super.resolveClass(osClass);
+        }
+      };
+      return (Serializable) ois.readObject();
+    } catch (IOException ioe) {
+      throw new RuntimeException("Parcelable encountered IOException reading a Serializable "
+          + "object (name = " + name + ")", ioe);
+    } catch (ClassNotFoundException cnfe) {
+      throw new RuntimeException("Parcelable encountered ClassNotFoundException reading a "
+          + "Serializable object (name = " + name + ")", cnfe);
+    }
+  }
+
+  // Bundles and framework types
+
+  public void writeBundle(Bundle val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    val.writeToParcel(this, 0);
+  }
+
+  public Bundle readBundle() {
+    return readBundle(null);
+  }
+
+  public Bundle readBundle(ClassLoader loader) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    Bundle bundle = new Bundle(this, length);
+    if (loader != null) {
+      bundle.setClassLoader(loader);
+    }
+    return bundle;
+  }
+
+  public void writePersistableBundle(PersistableBundle val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    val.writeToParcel(this, 0);
+  }
+
+  public PersistableBundle readPersistableBundle() {
+    return readPersistableBundle(null);
+  }
+
+  public PersistableBundle readPersistableBundle(ClassLoader loader) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new PersistableBundle(this, length);
+  }
+
+  public void writeSize(Size val) {
+    writeInt(val.getWidth());
+    writeInt(val.getHeight());
+  }
+
+  public Size readSize() {
+    int width = readInt();
+    int height = readInt();
+    return new Size(width, height);
+  }
+
+  public void writeSizeF(SizeF val) {
+    writeFloat(val.getWidth());
+    writeFloat(val.getHeight());
+  }
+
+  public SizeF readSizeF() {
+    float width = readFloat();
+    float height = readFloat();
+    return new SizeF(width, height);
+  }
+
+  public void writeSparseBooleanArray(SparseBooleanArray val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    int size = val.size();
+    writeInt(size);
+    for (int i = 0; i < size; i++) {
+      writeInt(val.keyAt(i));
+      writeByte((byte) (val.valueAt(i) ? 1 : 0));
+    }
+  }
+
+  public SparseBooleanArray readSparseBooleanArray() {
+    int size = readInt();
+    if (size < 0) {
+      return null;
+    }
+    SparseBooleanArray sa = new SparseBooleanArray(size);
+    for (int i = 0; i < size; i++) {
+      int key = readInt();
+      sa.append(key, readByte() == 1);
+    }
+    return sa;
+  }
+
+  public void writeSparseArray(SparseArray<Object> val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    int size = val.size();
+    writeInt(size);
+    for (int i = 0; i < size; i++) {
+      writeInt(val.keyAt(i));
+      writeValue(val.valueAt(i));
+    }
+  }
+
+  public SparseArray readSparseArray(ClassLoader loader) {
+    int size = readInt();
+    if (size < 0) {
+      return null;
+    }
+    SparseArray<Object> sa = new SparseArray<>(size);
+    for (int i = 0; i < size; i++) {
+      int key = readInt();
+      sa.append(key, readValue(loader));
+    }
+    return sa;
+  }
+
+  // Generic values
+
+  public void writeMap(Map val) {
+    writeMapInternal(val);
+  }
+
+  @SuppressWarnings("unchecked")
+  void writeMapInternal(Map<?, ?> val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    Set<? extends Map.Entry<?, ?>> entries = val.entrySet();
+    writeInt(entries.size());
+    for (Map.Entry<?, ?> e : entries) {
+      writeValue(e.getKey());
+      writeValue(e.getValue());
+    }
+  }
+
+  public HashMap readHashMap(ClassLoader loader) {
+    int size = readInt();
+    if (size < 0) {
+      return null;
+    }
+    HashMap<Object, Object> m = new HashMap<>(size);
+    readMapInternal(m, size, loader);
+    return m;
+  }
+
+  public void readMap(Map outVal, ClassLoader loader) {
+    int size = readInt();
+    readMapInternal(outVal, size, loader);
+  }
+
+  @SuppressWarnings("unchecked")
+  void readMapInternal(Map outVal, int size, ClassLoader loader) {
+    while (size > 0) {
+      Object key = readValue(loader);
+      Object value = readValue(loader);
+      outVal.put(key, value);
+      size--;
+    }
+  }
+
+  public void writeList(List val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    int size = val.size();
+    writeInt(size);
+    for (int i = 0; i < size; i++) {
+      writeValue(val.get(i));
+    }
+  }
+
+  public ArrayList readArrayList(ClassLoader loader) {
+    int size = readInt();
+    if (size < 0) {
+      return null;
+    }
+    ArrayList<Object> l = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      l.add(readValue(loader));
+    }
+    return l;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void readList(List outVal, ClassLoader loader) {
+    int size = readInt();
+    for (int i = 0; i < size; i++) {
+      outVal.add(readValue(loader));
+    }
+  }
+
+  public void writeArray(Object[] val) {
+    if (val == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(val.length);
+    for (Object o : val) {
+      writeValue(o);
+    }
+  }
+
+  public Object[] readArray(ClassLoader loader) {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+    Object[] l = new Object[length];
+    for (int i = 0; i < length; i++) {
+      l[i] = readValue(loader);
+    }
+    return l;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void writeValue(Object v) {
+    if (v == null) {
+      writeInt(VAL_NULL);
+    } else if (v instanceof String) {
+      writeInt(VAL_STRING);
+      writeString((String) v);
+    } else if (v instanceof Integer) {
+      writeInt(VAL_INTEGER);
+      writeInt((Integer) v);
+    } else if (v instanceof Map) {
+      writeInt(VAL_MAP);
+      writeMap((Map) v);
+    } else if (v instanceof Bundle) {
+      writeInt(VAL_BUNDLE);
+      writeBundle((Bundle) v);
+    } else if (v instanceof PersistableBundle) {
+      writeInt(VAL_PERSISTABLEBUNDLE);
+      writePersistableBundle((PersistableBundle) v);
+    } else if (v instanceof Parcelable) {
+      writeInt(VAL_PARCELABLE);
+      writeParcelable((Parcelable) v, 0);
+    } else if (v instanceof Short) {
+      writeInt(VAL_SHORT);
+      writeInt(((Short) v).intValue());
+    } else if (v instanceof Long) {
+      writeInt(VAL_LONG);
+      writeLong((Long) v);
+    } else if (v instanceof Float) {
+      writeInt(VAL_FLOAT);
+      writeFloat((Float) v);
+    } else if (v instanceof Double) {
+      writeInt(VAL_DOUBLE);
+      writeDouble((Double) v);
+    } else if (v instanceof Boolean) {
+      writeInt(VAL_BOOLEAN);
+      writeInt((Boolean) v ? 1 : 0);
+    } else if (v instanceof CharSequence) {
+      writeInt(VAL_CHARSEQUENCE);
+      writeCharSequence((CharSequence) v);
+    } else if (v instanceof List) {
+      writeInt(VAL_LIST);
+      writeList((List) v);
+    } else if (v instanceof SparseArray) {
+      writeInt(VAL_SPARSEARRAY);
+      writeSparseArray((SparseArray<Object>) v);
+    } else if (v instanceof boolean[]) {
+      writeInt(VAL_BOOLEANARRAY);
+      writeBooleanArray((boolean[]) v);
+    } else if (v instanceof byte[]) {
+      writeInt(VAL_BYTEARRAY);
+      writeByteArray((byte[]) v);
+    } else if (v instanceof String[]) {
+      writeInt(VAL_STRINGARRAY);
+      writeStringArray((String[]) v);
+    } else if (v instanceof CharSequence[]) {
+      writeInt(VAL_CHARSEQUENCEARRAY);
+      CharSequence[] array = (CharSequence[]) v;
+      writeInt(array.length);
+      for (CharSequence cs : array) {
+        writeCharSequence(cs);
+      }
+    } else if (v instanceof IBinder) {
+      writeInt(VAL_IBINDER);
+      writeStrongBinder((IBinder) v);
+    } else if (v instanceof Parcelable[]) {
+      writeInt(VAL_PARCELABLEARRAY);
+      writeParcelableArray((Parcelable[]) v, 0);
+    } else if (v instanceof int[]) {
+      writeInt(VAL_INTARRAY);
+      writeIntArray((int[]) v);
+    } else if (v instanceof long[]) {
+      writeInt(VAL_LONGARRAY);
+      writeLongArray((long[]) v);
+    } else if (v instanceof double[]) {
+      writeInt(VAL_DOUBLEARRAY);
+      writeDoubleArray((double[]) v);
+    } else if (v instanceof Byte) {
+      writeInt(VAL_BYTE);
+      writeInt((Byte) v);
+    } else if (v instanceof Size) {
+      writeInt(VAL_SIZE);
+      writeSize((Size) v);
+    } else if (v instanceof SizeF) {
+      writeInt(VAL_SIZEF);
+      writeSizeF((SizeF) v);
+    } else if (v instanceof SparseBooleanArray) {
+      writeInt(VAL_SPARSEBOOLEANARRAY);
+      writeSparseBooleanArray((SparseBooleanArray) v);
+    } else if (v.getClass().isArray()
+        && v.getClass().getComponentType() == Object.class) {
+      writeInt(VAL_OBJECTARRAY);
+      writeArray((Object[]) v);
+    } else if (v instanceof Serializable) {
+      writeInt(VAL_SERIALIZABLE);
+      writeSerializable((Serializable) v);
+    } else {
+      throw new RuntimeException("Parcel: unable to marshal value " + v);
+    }
+  }
+
+  public Object readValue(ClassLoader loader) {
+    int type = readInt();
+    switch (type) {
+      case VAL_NULL:
+        return null;
+      case VAL_STRING:
+        return readString();
+      case VAL_INTEGER:
+        return readInt();
+      case VAL_MAP:
+        return readHashMap(loader);
+      case VAL_BUNDLE:
+        return readBundle(loader);
+      case VAL_PERSISTABLEBUNDLE:
+        return readPersistableBundle(loader);
+      case VAL_PARCELABLE:
+        return readParcelable(loader);
+      case VAL_SHORT:
+        return (short) readInt();
+      case VAL_LONG:
+        return readLong();
+      case VAL_FLOAT:
+        return readFloat();
+      case VAL_DOUBLE:
+        return readDouble();
+      case VAL_BOOLEAN:
+        return readInt() == 1;
+      case VAL_CHARSEQUENCE:
+        return readCharSequence();
+      case VAL_LIST:
+        return readArrayList(loader);
+      case VAL_SPARSEARRAY:
+        return readSparseArray(loader);
+      case VAL_BOOLEANARRAY:
+        return createBooleanArray();
+      case VAL_BYTEARRAY:
+        return createByteArray();
+      case VAL_STRINGARRAY:
+        return createStringArray();
+      case VAL_CHARSEQUENCEARRAY: {
+        int length = readInt();
+        if (length < 0) {
+          return null;
+        }
+        CharSequence[] array = new CharSequence[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = readCharSequence();
+        }
+        return array;
+      }
+      case VAL_IBINDER:
+        return readStrongBinder();
+      case VAL_PARCELABLEARRAY:
+        return readParcelableArray(loader);
+      case VAL_INTARRAY:
+        return createIntArray();
+      case VAL_LONGARRAY:
+        return createLongArray();
+      case VAL_DOUBLEARRAY:
+        return createDoubleArray();
+      case VAL_BYTE:
+        return readByte();
+      case VAL_SIZE:
+        return readSize();
+      case VAL_SIZEF:
+        return readSizeF();
+      case VAL_SPARSEBOOLEANARRAY:
+        return readSparseBooleanArray();
+      case VAL_OBJECTARRAY:
+        return readArray(loader);
+      case VAL_SERIALIZABLE:
+        return readSerializable(loader);
+      default:
+        int off = dataPosition() - 4;
+        throw new RuntimeException(
+            "Parcel " + this + ": Unmarshalling unknown type code " + type + " at offset " + off);
+    }
+  }
+
+  public void writeException(Exception e) {
+    writeInt(-1);
+    writeString(e.getMessage());
+  }
+
+  public void writeNoException() {
+    writeInt(0);
+  }
+
+  public void readException() {
+    int code = readInt();
+    if (code != 0) {
+      throw new RuntimeException(readString());
+    }
+  }
+}
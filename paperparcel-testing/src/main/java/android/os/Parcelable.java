@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * Interface for classes whose instances can be written to and restored from a {@link Parcel}.
+ */
+public interface Parcelable {
+  int PARCELABLE_WRITE_RETURN_VALUE = 0x0001;
+  int CONTENTS_FILE_DESCRIPTOR = 0x0001;
+
+  int describeContents();
+
+  void writeToParcel(Parcel dest, int flags);
+
+  /** Interface that must be implemented and provided as a public CREATOR field. */
+  interface Creator<T> {
+    T createFromParcel(Parcel source);
+
+    T[] newArray(int size);
+  }
+
+  /** Specialization of {@link Creator} that allows you to receive the {@link ClassLoader}. */
+  interface ClassLoaderCreator<T> extends Creator<T> {
+    T createFromParcel(Parcel source, ClassLoader loader);
+  }
+}
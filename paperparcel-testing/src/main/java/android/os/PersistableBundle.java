@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/** A mapping from String keys to values of types that can be persisted. */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public final class PersistableBundle extends BaseBundle implements Cloneable, Parcelable {
+  public static final PersistableBundle EMPTY = new PersistableBundle();
+
+  public static final Parcelable.Creator<PersistableBundle> CREATOR =
+      new Parcelable.Creator<PersistableBundle>() {
+        @Override public PersistableBundle createFromParcel(Parcel in) {
+          return in.readPersistableBundle();
+        }
+
+        @Override public PersistableBundle[] newArray(int size) {
+          return new PersistableBundle[size];
+        }
+      };
+
+  public PersistableBundle() {
+  }
+
+  public PersistableBundle(PersistableBundle b) {
+    super(b);
+  }
+
+  PersistableBundle(Parcel source, int length) {
+    super(source, length);
+  }
+
+  @Override public Object clone() {
+    return new PersistableBundle(this);
+  }
+
+  public void putPersistableBundle(String key, PersistableBundle value) {
+    putObject(key, value);
+  }
+
+  public PersistableBundle getPersistableBundle(String key) {
+    return getObject(key, PersistableBundle.class);
+  }
+
+  @Override public int describeContents() {
+    return 0;
+  }
+
+  @Override public void writeToParcel(Parcel parcel, int flags) {
+    writeToParcelInner(parcel);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.text;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/** The subset of {@code android.text.TextUtils} used when parcelling text. */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public class TextUtils {
+  private static final int CHAR_SEQUENCE_PLAIN = 1;
+
+  public static final Parcelable.Creator<CharSequence> CHAR_SEQUENCE_CREATOR =
+      new Parcelable.Creator<CharSequence>() {
+        @Override public CharSequence createFromParcel(Parcel p) {
+          int kind = p.readInt();
+          String string = p.readString();
+          if (string == null) {
+            return null;
+          }
+          if (kind != CHAR_SEQUENCE_PLAIN) {
+            throw new UnsupportedOperationException("Spanned text is not supported on the host");
+          }
+          return string;
+        }
+
+        @Override public CharSequence[] newArray(int size) {
+          return new CharSequence[size];
+        }
+      };
+
+  /** Flattens a CharSequence into a Parcel. Styling spans are not supported on the host. */
+  public static void writeToParcel(CharSequence cs, Parcel p, int parcelableFlags) {
+    p.writeInt(CHAR_SEQUENCE_PLAIN);
+    p.writeString(cs != null ? cs.toString() : null);
+  }
+
+  public static boolean isEmpty(CharSequence str) {
+    return str == null || str.length() == 0;
+  }
+
+  public static boolean equals(CharSequence a, CharSequence b) {
+    if (a == b) {
+      return true;
+    }
+    if (a != null && b != null && a.length() == b.length()) {
+      return a.toString().equals(b.toString());
+    }
+    return false;
+  }
+
+  private TextUtils() {
+  }
+}
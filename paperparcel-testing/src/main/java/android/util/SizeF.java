@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.util;
+
+/** Immutable class for describing width and height dimensions in some arbitrary unit. */
+public final class SizeF {
+  private final float width;
+  private final float height;
+
+  public SizeF(float width, float height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  public float getWidth() {
+    return width;
+  }
+
+  public float getHeight() {
+    return height;
+  }
+
+  @Override public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof SizeF) {
+      SizeF other = (SizeF) obj;
+      return width == other.width && height == other.height;
+    }
+    return false;
+  }
+
+  @Override public int hashCode() {
+    return Float.floatToIntBits(width) ^ Float.floatToIntBits(height);
+  }
+
+  @Override public String toString() {
+    return width + "x" + height;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/** Maps integers to Objects, with keys kept in ascending order. */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public class SparseArray<E> implements Cloneable {
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  public SparseArray() {
+    this(10);
+  }
+
+  public SparseArray(int initialCapacity) {
+    keys = new int[Math.max(initialCapacity, 1)];
+    values = new Object[keys.length];
+  }
+
+  @Override @SuppressWarnings("unchecked")
+  public SparseArray<E> clone() {
+    SparseArray<E> clone = new SparseArray<>(keys.length);
+    clone.keys = keys.clone();
+    clone.values = values.clone();
+    clone.size = size;
+    return clone;
+  }
+
+  public E get(int key) {
+    return get(key, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  public E get(int key, E valueIfKeyNotFound) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    return i < 0 ? valueIfKeyNotFound : (E) values[i];
+  }
+
+  public void delete(int key) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    if (i >= 0) {
+      removeAt(i);
+    }
+  }
+
+  public void remove(int key) {
+    delete(key);
+  }
+
+  public void removeAt(int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    values[size] = null;
+  }
+
+  public void put(int key, E value) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    if (i >= 0) {
+      values[i] = value;
+    } else {
+      insert(~i, key, value);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int keyAt(int index) {
+    return keys[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  public E valueAt(int index) {
+    return (E) values[index];
+  }
+
+  public void setValueAt(int index, E value) {
+    values[index] = value;
+  }
+
+  public int indexOfKey(int key) {
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  public int indexOfValue(E value) {
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  public void append(int key, E value) {
+    if (size != 0 && key <= keys[size - 1]) {
+      put(key, value);
+      return;
+    }
+    insert(size, key, value);
+  }
+
+  private void insert(int index, int key, E value) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  @Override public String toString() {
+    StringBuilder buffer = new StringBuilder(size * 28);
+    buffer.append('{');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append(keys[i]).append('=').append(values[i]);
+    }
+    return buffer.append('}').toString();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/** Maps integers to booleans, with keys kept in ascending order. */
+@SuppressWarnings({ "WeakerAccess", "unused" })
+public class SparseBooleanArray implements Cloneable {
+  private int[] keys;
+  private boolean[] values;
+  private int size;
+
+  public SparseBooleanArray() {
+    this(10);
+  }
+
+  public SparseBooleanArray(int initialCapacity) {
+    keys = new int[Math.max(initialCapacity, 1)];
+    values = new boolean[keys.length];
+  }
+
+  @Override public SparseBooleanArray clone() {
+    SparseBooleanArray clone = new SparseBooleanArray(keys.length);
+    clone.keys = keys.clone();
+    clone.values = values.clone();
+    clone.size = size;
+    return clone;
+  }
+
+  public boolean get(int key) {
+    return get(key, false);
+  }
+
+  public boolean get(int key, boolean valueIfKeyNotFound) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    return i < 0 ? valueIfKeyNotFound : values[i];
+  }
+
+  public void delete(int key) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    if (i >= 0) {
+      System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+      System.arraycopy(values, i + 1, values, i, size - i - 1);
+      size--;
+    }
+  }
+
+  public void put(int key, boolean value) {
+    int i = Arrays.binarySearch(keys, 0, size, key);
+    if (i >= 0) {
+      values[i] = value;
+    } else {
+      insert(~i, key, value);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int keyAt(int index) {
+    return keys[index];
+  }
+
+  public boolean valueAt(int index) {
+    return values[index];
+  }
+
+  public int indexOfKey(int key) {
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void append(int key, boolean value) {
+    if (size != 0 && key <= keys[size - 1]) {
+      put(key, value);
+      return;
+    }
+    insert(size, key, value);
+  }
+
+  private void insert(int index, int key, boolean value) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  @Override public boolean equals(Object that) {
+    if (this == that) {
+      return true;
+    }
+    if (!(that instanceof SparseBooleanArray)) {
+      return false;
+    }
+    SparseBooleanArray other = (SparseBooleanArray) that;
+    if (size != other.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys[i] != other.keys[i] || values[i] != other.values[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override public int hashCode() {
+    int hashCode = size;
+    for (int i = 0; i < size; i++) {
+      hashCode = 31 * hashCode + keys[i] | (values[i] ? 1 : 0);
+    }
+    return hashCode;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ParcelTest {
+  @Test public void primitivesArePaddedToFourBytes() {
+    Parcel parcel = Parcel.obtain();
+    parcel.writeByte((byte) 1);
+    assertThat(parcel.dataPosition()).isEqualTo(4);
+    parcel.writeInt(2);
+    assertThat(parcel.dataPosition()).isEqualTo(8);
+    parcel.writeLong(3L);
+    assertThat(parcel.dataPosition()).isEqualTo(16);
+    parcel.writeFloat(4f);
+    parcel.writeDouble(5d);
+    assertThat(parcel.dataSize()).isEqualTo(28);
+
+    parcel.setDataPosition(0);
+    assertThat(parcel.readByte()).isEqualTo((byte) 1);
+    assertThat(parcel.readInt()).isEqualTo(2);
+    assertThat(parcel.readLong()).isEqualTo(3L);
+    assertThat(parcel.readFloat()).isEqualTo(4f);
+    assertThat(parcel.readDouble()).isEqualTo(5d);
+    assertThat(parcel.dataAvail()).isEqualTo(0);
+    parcel.recycle();
+  }
+
+  @Test public void stringsAreWrittenAsUtf16WithATerminator() {
+    Parcel parcel = Parcel.obtain();
+    parcel.writeString("abc");
+    // Length, then 3 chars and a null terminator.
+    assertThat(parcel.dataSize()).isEqualTo(4 + 8);
+    parcel.writeString("ab");
+    // 2 chars and a null terminator, padded from 6 to 8 bytes.
+    assertThat(parcel.dataSize()).isEqualTo(12 + 4 + 8);
+    parcel.writeString(null);
+    assertThat(parcel.dataSize()).isEqualTo(24 + 4);
+
+    byte[] bytes = parcel.marshall();
+    assertThat(Arrays.copyOfRange(bytes, 0, 12))
+        .isEqualTo(new byte[] { 3, 0, 0, 0, 'a', 0, 'b', 0, 'c', 0, 0, 0 });
+
+    parcel.setDataPosition(0);
+    assertThat(parcel.readString()).isEqualTo("abc");
+    assertThat(parcel.readString()).isEqualTo("ab");
+    assertThat(parcel.readString()).isNull();
+    parcel.recycle();
+  }
+
+  @Test public void surrogatePairsRoundTrip() {
+    String expected = "😀 é";
+    Parcel parcel = Parcel.obtain();
+    parcel.writeString(expected);
+    assertThat(parcel.dataSize()).isEqualTo(4 + 12);
+    parcel.setDataPosition(0);
+    assertThat(parcel.readString()).isEqualTo(expected);
+    parcel.recycle();
+  }
+
+  @Test public void settingThePositionOverwritesInPlace() {
+    Parcel parcel = Parcel.obtain();
+    parcel.writeInt(1);
+    parcel.writeInt(2);
+    parcel.setDataPosition(0);
+    parcel.writeInt(3);
+    assertThat(parcel.dataPosition()).isEqualTo(4);
+    assertThat(parcel.dataSize()).isEqualTo(8);
+    parcel.setDataPosition(0);
+    assertThat(parcel.readInt()).isEqualTo(3);
+    assertThat(parcel.readInt()).isEqualTo(2);
+    parcel.recycle();
+  }
+
+  @Test public void marshalledBytesCanBeUnmarshalled() {
+    Parcel first = Parcel.obtain();
+    first.writeInt(42);
+    first.writeString("hello");
+    byte[] bytes = first.marshall();
+    first.recycle();
+
+    Parcel second = Parcel.obtain();
+    second.unmarshall(bytes, 0, bytes.length);
+    assertThat(second.dataSize()).isEqualTo(bytes.length);
+    second.setDataPosition(0);
+    assertThat(second.readInt()).isEqualTo(42);
+    assertThat(second.readString()).isEqualTo("hello");
+    second.recycle();
+  }
+
+  @Test public void bundleRoundTrip() {
+    Bundle expected = new Bundle();
+    expected.putInt("int", 1);
+    expected.putString("string", "value");
+    expected.putStringArray("array", new String[] { "a", null, "c" });
+    expected.putParcelable("point", new Point(3, 4));
+
+    Parcel parcel = Parcel.obtain();
+    parcel.writeBundle(expected);
+    parcel.setDataPosition(0);
+    Bundle actual = parcel.readBundle(getClass().getClassLoader());
+    parcel.recycle();
+
+    assertThat(actual.getInt("int")).isEqualTo(1);
+    assertThat(actual.getString("string")).isEqualTo("value");
+    assertThat(actual.getStringArray("array")).isEqualTo(new String[] { "a", null, "c" });
+    assertThat(actual.<Point>getParcelable("point")).isEqualTo(new Point(3, 4));
+  }
+
+  @Test public void parcelablesAreCreatedUsingTheirCreator() {
+    Parcel parcel = Parcel.obtain();
+    parcel.writeParcelable(new Point(1, 2), 0);
+    parcel.writeParcelable(null, 0);
+    parcel.setDataPosition(0);
+    Point actual = parcel.readParcelable(getClass().getClassLoader());
+    assertThat(actual).isEqualTo(new Point(1, 2));
+    assertThat(parcel.<Point>readParcelable(getClass().getClassLoader())).isNull();
+    parcel.recycle();
+  }
+
+  public static final class Point implements Parcelable {
+    public static final Parcelable.Creator<Point> CREATOR = new Parcelable.Creator<Point>() {
+      @Override public Point createFromParcel(Parcel in) {
+        return new Point(in.readInt(), in.readInt());
+      }
+
+      @Override public Point[] newArray(int size) {
+        return new Point[size];
+      }
+    };
+
+    final int x;
+    final int y;
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      dest.writeInt(x);
+      dest.writeInt(y);
+    }
+
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof Point)) {
+        return false;
+      }
+      Point other = (Point) o;
+      return x == other.x && y == other.y;
+    }
+
+    @Override public int hashCode() {
+      return 31 * x + y;
+    }
+  }
+}
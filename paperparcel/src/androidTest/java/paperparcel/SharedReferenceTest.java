@@ -0,0 +1,183 @@
+package paperparcel;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class SharedReferenceTest {
+
+  @Test public void sharedInstancesAreReadAsTheSameInstance() {
+    Image image = new Image("https://example.com/a.png");
+    Gallery expected = new Gallery(Arrays.asList(image, image, new Image("b.png"), image), image);
+
+    Gallery result = writeThenRead(expected, Gallery.CREATOR);
+    assertThat(result.images).hasSize(4);
+    assertThat(result.images.get(0).url).isEqualTo("https://example.com/a.png");
+    assertThat(result.images.get(1)).isSameAs(result.images.get(0));
+    assertThat(result.images.get(2)).isNotSameAs(result.images.get(0));
+    assertThat(result.images.get(2).url).isEqualTo("b.png");
+    assertThat(result.images.get(3)).isSameAs(result.images.get(0));
+    assertThat(result.cover).isSameAs(result.images.get(0));
+  }
+
+  @Test public void sharedInstancesAreOnlyWrittenOnce() {
+    Image image = new Image("https://example.com/a.png");
+    Gallery once = new Gallery(Arrays.asList(image), null);
+    Gallery twice = new Gallery(Arrays.asList(image, image), null);
+
+    // The second occurrence only costs the list item's null flag, the scope marker and the id.
+    assertThat(sizeOf(twice) - sizeOf(once)).isEqualTo(3 * 4);
+  }
+
+  @Test public void cyclesFailFast() {
+    Node node = new Node();
+    node.next = new Node();
+    node.next.next = node;
+
+    Parcel parcel = Parcel.obtain();
+    try {
+      node.writeToParcel(parcel, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).contains(Node.class.getName());
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  @Test public void presizeIsIgnoredForSharedInstances() {
+    // Sizing every path through this graph would take 2^32 steps.
+    Diamond diamond = null;
+    for (int i = 0; i < 32; i++) {
+      diamond = new Diamond(diamond, diamond);
+    }
+
+    Diamond result = writeThenRead(diamond, Diamond.CREATOR);
+    for (int i = 0; i < 32; i++) {
+      assertThat(result.right).isSameAs(result.left);
+      result = result.left;
+    }
+    assertThat(result).isNull();
+  }
+
+  @Test public void presizedCyclesFailFast() {
+    Diamond node = new Diamond(null, null);
+    node.left = new Diamond(node, null);
+
+    Parcel parcel = Parcel.obtain();
+    try {
+      node.writeToParcel(parcel, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).contains(Diamond.class.getName());
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static int sizeOf(Parcelable value) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    int size = parcel.dataSize();
+    parcel.recycle();
+    return size;
+  }
+
+  private static <T extends Parcelable> T writeThenRead(T value, Parcelable.Creator<T> creator) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    T result = creator.createFromParcel(parcel);
+    parcel.recycle();
+    return result;
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(trackReferences = true)
+  public static final class Image implements Parcelable {
+    public static final Parcelable.Creator<Image> CREATOR =
+        PaperParcelSharedReferenceTest_Image.CREATOR;
+
+    final String url;
+
+    Image(String url) {
+      this.url = url;
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSharedReferenceTest_Image.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(trackReferences = true)
+  public static final class Gallery implements Parcelable {
+    public static final Parcelable.Creator<Gallery> CREATOR =
+        PaperParcelSharedReferenceTest_Gallery.CREATOR;
+
+    final List<Image> images;
+    final Image cover;
+
+    Gallery(List<Image> images, Image cover) {
+      this.images = images;
+      this.cover = cover;
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSharedReferenceTest_Gallery.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(trackReferences = true)
+  public static final class Node implements Parcelable {
+    public static final Parcelable.Creator<Node> CREATOR =
+        PaperParcelSharedReferenceTest_Node.CREATOR;
+
+    Node next;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSharedReferenceTest_Node.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(trackReferences = true, presize = true)
+  public static final class Diamond implements Parcelable {
+    public static final Parcelable.Creator<Diamond> CREATOR =
+        PaperParcelSharedReferenceTest_Diamond.CREATOR;
+
+    Diamond left;
+    Diamond right;
+
+    Diamond(Diamond left, Diamond right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSharedReferenceTest_Diamond.writeToParcel(this, dest, flags);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package paperparcel;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class SubtypesTest {
+
+  @Test public void declaredSubtypesAreCorrectlyParcelled() {
+    Zoo expected = new Zoo();
+    expected.animal = new Dog();
+    ((Dog) expected.animal).name = "Rex";
+
+    Zoo result = writeThenRead(expected, Zoo.CREATOR);
+    assertThat(result.animal).isInstanceOf(Dog.class);
+    assertThat(((Dog) result.animal).name).isEqualTo("Rex");
+  }
+
+  @Test public void undeclaredSubtypesFallBackToWriteParcelable() {
+    Zoo expected = new Zoo();
+    expected.animal = new Fish();
+    ((Fish) expected.animal).fins = 4;
+
+    Zoo result = writeThenRead(expected, Zoo.CREATOR);
+    assertThat(result.animal).isInstanceOf(Fish.class);
+    assertThat(((Fish) result.animal).fins).isEqualTo(4);
+  }
+
+  @Test public void closedHierarchiesAreCorrectlyParcelled() {
+    Shape.Circle circle = new Shape.Circle();
+    circle.radius = 2;
+    Shape.Square square = new Shape.Square();
+    square.width = 3;
+    Zoo expected = new Zoo();
+    expected.shapes = Arrays.asList(circle, null, square);
+
+    Zoo result = writeThenRead(expected, Zoo.CREATOR);
+    assertThat(result.shapes).hasSize(3);
+    assertThat(((Shape.Circle) result.shapes.get(0)).radius).isEqualTo(2);
+    assertThat(result.shapes.get(1)).isNull();
+    assertThat(((Shape.Square) result.shapes.get(2)).width).isEqualTo(3);
+  }
+
+  @Test public void siblingsOfClosedHierarchiesAreFound() {
+    Shape.Circle circle = new Shape.Circle();
+    circle.radius = 2;
+    Triangle triangle = new Triangle();
+    triangle.sides = 3;
+    Zoo withCircle = new Zoo();
+    withCircle.shapes = Arrays.<Shape>asList(circle);
+    Zoo withTriangle = new Zoo();
+    withTriangle.shapes = Arrays.<Shape>asList(triangle);
+
+    Zoo result = writeThenRead(withTriangle, Zoo.CREATOR);
+    assertThat(((Triangle) result.shapes.get(0)).sides).isEqualTo(3);
+    // Both are written with a tag and a single int, rather than the Triangle's class name.
+    assertThat(sizeOf(withTriangle)).isEqualTo(sizeOf(withCircle));
+  }
+
+  @Test public void subtypesAreWrittenWithoutTheirClassName() {
+    Zoo withCat = new Zoo();
+    withCat.animal = new Cat();
+    Zoo withoutAnimal = new Zoo();
+
+    // The Cat has no fields, so all that is written is its tag in place of the null tag.
+    assertThat(sizeOf(withCat)).isEqualTo(sizeOf(withoutAnimal));
+  }
+
+  private static int sizeOf(Parcelable value) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    int size = parcel.dataSize();
+    parcel.recycle();
+    return size;
+  }
+
+  private static <T extends Parcelable> T writeThenRead(T value, Parcelable.Creator<T> creator) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    T result = creator.createFromParcel(parcel);
+    parcel.recycle();
+    return result;
+  }
+
+  @PaperParcel
+  public static final class Zoo implements Parcelable {
+    public static final Parcelable.Creator<Zoo> CREATOR = PaperParcelSubtypesTest_Zoo.CREATOR;
+
+    Animal animal;
+    List<Shape> shapes;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSubtypesTest_Zoo.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel.Subtypes({ Cat.class, Dog.class })
+  public static abstract class Animal implements Parcelable {
+    @Override public int describeContents() {
+      return 0;
+    }
+  }
+
+  @PaperParcel
+  public static final class Cat extends Animal {
+    public static final Parcelable.Creator<Cat> CREATOR = PaperParcelSubtypesTest_Cat.CREATOR;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSubtypesTest_Cat.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  public static final class Dog extends Animal {
+    public static final Parcelable.Creator<Dog> CREATOR = PaperParcelSubtypesTest_Dog.CREATOR;
+
+    String name;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSubtypesTest_Dog.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  public static final class Fish extends Animal {
+    public static final Parcelable.Creator<Fish> CREATOR = PaperParcelSubtypesTest_Fish.CREATOR;
+
+    int fins;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSubtypesTest_Fish.writeToParcel(this, dest, flags);
+    }
+  }
+
+  public static abstract class Shape implements Parcelable {
+    private Shape() {
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @PaperParcel
+    public static final class Circle extends Shape {
+      public static final Parcelable.Creator<Circle> CREATOR =
+          PaperParcelSubtypesTest_Shape_Circle.CREATOR;
+
+      int radius;
+
+      @Override public void writeToParcel(Parcel dest, int flags) {
+        PaperParcelSubtypesTest_Shape_Circle.writeToParcel(this, dest, flags);
+      }
+    }
+
+    @PaperParcel
+    public static final class Square extends Shape {
+      public static final Parcelable.Creator<Square> CREATOR =
+          PaperParcelSubtypesTest_Shape_Square.CREATOR;
+
+      int width;
+
+      @Override public void writeToParcel(Parcel dest, int flags) {
+        PaperParcelSubtypesTest_Shape_Square.writeToParcel(this, dest, flags);
+      }
+    }
+  }
+
+  @PaperParcel
+  public static final class Triangle extends Shape {
+    public static final Parcelable.Creator<Triangle> CREATOR =
+        PaperParcelSubtypesTest_Triangle.CREATOR;
+
+    int sides;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelSubtypesTest_Triangle.writeToParcel(this, dest, flags);
+    }
+  }
+}
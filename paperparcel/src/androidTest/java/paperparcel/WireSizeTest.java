@@ -0,0 +1,720 @@
+package paperparcel;
+
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import paperparcel.internal.Utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class WireSizeTest {
+
+  @Test public void packedFlagsAreSmallerThanDefaultLayout() {
+    Unpacked unpacked = new Unpacked();
+    unpacked.enabled = true;
+    unpacked.visible = false;
+    unpacked.count = 42;
+    unpacked.id = 7L;
+    unpacked.name = "name";
+    Packed packed = new Packed();
+    packed.enabled = true;
+    packed.visible = false;
+    packed.count = 42;
+    packed.id = 7L;
+    packed.name = "name";
+
+    // 2 booleans and 3 null flags are packed into a single header int. Strings and
+    // CharSequences handle nulls themselves so they aren't packed.
+    assertThat(sizeOf(unpacked) - sizeOf(packed)).isEqualTo((5 - 1) * 4);
+  }
+
+  @Test public void packedFlagsAreCorrectlyParcelled() {
+    Packed expected = new Packed();
+    expected.enabled = true;
+    expected.visible = false;
+    expected.count = null;
+    expected.id = 7L;
+    expected.name = null;
+    expected.flag = true;
+
+    Packed result = writeThenRead(expected, Packed.CREATOR);
+    assertThat(result.enabled).isTrue();
+    assertThat(result.visible).isFalse();
+    assertThat(result.count).isNull();
+    assertThat(result.id).isEqualTo(7L);
+    assertThat(result.name).isNull();
+    assertThat(result.flag).isTrue();
+    assertThat(result.description).isNull();
+  }
+
+  @Test public void pooledStringsAreSmallerThanDefaultLayout() {
+    List<String> tags = Arrays.asList("red", "red", "red", "red");
+    Unpooled unpooled = new Unpooled();
+    unpooled.tags = tags;
+    Pooled pooled = new Pooled();
+    pooled.tags = tags;
+
+    // Each repeat of "red" (length + 4 padded chars) is replaced by an index. Starting the scope
+    // and introducing the first string cost one int each.
+    assertThat(sizeOf(unpooled) - sizeOf(pooled)).isEqualTo(3 * (4 + 8 - 4) - 2 * 4);
+  }
+
+  @Test public void pooledStringsAreCorrectlyParcelled() {
+    PooledTree child = new PooledTree();
+    child.name = "shared";
+    child.tags = Arrays.asList("child", "shared");
+    PooledTree expected = new PooledTree();
+    expected.name = "shared";
+    expected.tags = Arrays.asList("a", null, "b", "a", "shared");
+    expected.labels = Collections.singletonMap("shared", "a");
+    expected.child = child;
+
+    PooledTree result = writeThenRead(expected, PooledTree.CREATOR);
+    assertThat(result.name).isEqualTo("shared");
+    assertThat(result.tags).containsExactly("a", null, "b", "a", "shared").inOrder();
+    assertThat(result.labels).containsExactly("shared", "a");
+    assertThat(result.child.name).isEqualTo("shared");
+    assertThat(result.child.tags).containsExactly("child", "shared").inOrder();
+    assertThat(result.child.child).isNull();
+  }
+
+  @Test public void pooledStringsAreScopedToEachTopLevelWrite() {
+    PooledTree first = new PooledTree();
+    first.name = "name";
+    PooledTree second = new PooledTree();
+    second.name = "name";
+
+    Parcel parcel = Parcel.obtain();
+    first.writeToParcel(parcel, 0);
+    second.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    assertThat(PooledTree.CREATOR.createFromParcel(parcel).name).isEqualTo("name");
+    assertThat(PooledTree.CREATOR.createFromParcel(parcel).name).isEqualTo("name");
+    parcel.recycle();
+  }
+
+  @Test public void pooledStringsInBundlesStartAFreshScope() {
+    PooledTree child = new PooledTree();
+    child.name = "shared";
+    PooledHolder expected = new PooledHolder();
+    expected.name = "shared";
+    expected.extras = new Bundle();
+    expected.extras.putParcelable("child", child);
+
+    // The Bundle is only unparcelled once it is accessed, after the holder has been read.
+    PooledHolder result = writeThenRead(expected, PooledHolder.CREATOR);
+    assertThat(result.name).isEqualTo("shared");
+    result.extras.setClassLoader(PooledTree.class.getClassLoader());
+    PooledTree resultChild = result.extras.getParcelable("child");
+    assertThat(resultChild.name).isEqualTo("shared");
+  }
+
+  @Test public void nestedParcelablesReceiveTheCallersFlags() {
+    PooledHolder holder = new PooledHolder();
+    holder.recorder = new FlagRecorder();
+    Parcel parcel = Parcel.obtain();
+    holder.writeToParcel(parcel, Parcelable.PARCELABLE_WRITE_RETURN_VALUE);
+    parcel.recycle();
+    assertThat(holder.recorder.flags).isEqualTo(Parcelable.PARCELABLE_WRITE_RETURN_VALUE);
+  }
+
+  @Test public void presizedSizeMatchesBytesWritten() {
+    Presized child = new Presized();
+    child.name = "child";
+    Presized expected = new Presized();
+    expected.id = 42L;
+    expected.ratio = 0.5f;
+    expected.name = "name";
+    expected.count = null;
+    expected.tags = Arrays.asList("red", null, "blue");
+    expected.counts = Collections.singletonMap("red", 1);
+    expected.data = new byte[] { 1, 2, 3 };
+    expected.child = child;
+
+    assertThat(PaperParcelWireSizeTest_Presized.sizeOf(expected)).isEqualTo(sizeOf(expected));
+    Presized result = writeThenRead(expected, Presized.CREATOR);
+    assertThat(result.name).isEqualTo("name");
+    assertThat(result.tags).containsExactly("red", null, "blue").inOrder();
+    assertThat(result.child.name).isEqualTo("child");
+  }
+
+  @Test public void presizedPackedSizeMatchesBytesWritten() {
+    PresizedPacked value = new PresizedPacked();
+    value.enabled = true;
+    value.count = null;
+    value.id = 7L;
+    assertThat(PaperParcelWireSizeTest_PresizedPacked.sizeOf(value)).isEqualTo(sizeOf(value));
+    value.count = 42;
+    value.id = null;
+    assertThat(PaperParcelWireSizeTest_PresizedPacked.sizeOf(value)).isEqualTo(sizeOf(value));
+  }
+
+  @Test public void presizingIsSkippedWhenASizeIsUnknown() {
+    Presized child = new Presized();
+    child.name = "child";
+    PresizedHolder expected = new PresizedHolder();
+    expected.child = child;
+    expected.extras = new Bundle();
+    expected.extras.putString("name", "extra");
+
+    assertThat(PaperParcelWireSizeTest_PresizedHolder.sizeOf(expected))
+        .isEqualTo(Utils.UNKNOWN_SIZE);
+    PresizedHolder result = writeThenRead(expected, PresizedHolder.CREATOR);
+    assertThat(result.child.name).isEqualTo("child");
+    assertThat(result.extras.getString("name")).isEqualTo("extra");
+  }
+
+  @Test public void inlinedContainersMatchAdapterLayout() {
+    Boxed boxed = new Boxed();
+    Inlined inlined = new Inlined();
+    boxed.groups = inlined.groups = groups();
+    boxed.ids = inlined.ids = new LinkedHashSet<>(Arrays.asList(1L, null, 3L));
+    boxed.children = inlined.children = Arrays.asList(unpacked("first"), null, unpacked("last"));
+    boxed.rows = inlined.rows = Arrays.asList(Arrays.asList("a", "b"), null, Arrays.asList("c"));
+
+    assertThat(bytesOf(inlined)).isEqualTo(bytesOf(boxed));
+    inlined.groups = null;
+    boxed.groups = null;
+    assertThat(bytesOf(inlined)).isEqualTo(bytesOf(boxed));
+  }
+
+  @Test public void inlinedContainersAreCorrectlyParcelled() {
+    Inlined expected = new Inlined();
+    expected.groups = groups();
+    expected.ids = new LinkedHashSet<>(Arrays.asList(1L, null, 3L));
+    expected.children = Arrays.asList(unpacked("first"), null, unpacked("last"));
+    expected.rows = Arrays.asList(Arrays.asList("a", "b"), null, Arrays.asList("c"));
+
+    Inlined result = writeThenRead(expected, Inlined.CREATOR);
+    assertThat(result.groups).isEqualTo(expected.groups);
+    assertThat(result.ids).containsExactly(1L, null, 3L).inOrder();
+    List<Unpacked> children = new ArrayList<>(result.children);
+    assertThat(children).hasSize(3);
+    assertThat(children.get(1)).isNull();
+    assertThat(children.get(2).name).isEqualTo("last");
+    assertThat(result.rows).isEqualTo(expected.rows);
+  }
+
+  @Test public void inlinedPackedContainersAreCorrectlyParcelled() {
+    InlinedPacked expected = new InlinedPacked();
+    expected.groups = groups();
+    expected.ids = null;
+
+    InlinedPacked result = writeThenRead(expected, InlinedPacked.CREATOR);
+    assertThat(result.groups).isEqualTo(expected.groups);
+    assertThat(result.ids).isNull();
+  }
+
+  @Test public void packedLinkedFieldsAreSmallerThanDefaultLayout() {
+    Tree tree = new Tree();
+    tree.left = new Tree();
+    PackedTree packed = new PackedTree();
+    packed.left = new PackedTree();
+
+    // Both null markers of each node are packed into a single header int.
+    assertThat(sizeOf(tree) - sizeOf(packed)).isEqualTo(2 * (2 - 1) * 4);
+  }
+
+  @Test public void packedLinkedFieldsAreCorrectlyParcelled() {
+    PackedTree expected = new PackedTree();
+    expected.name = "root";
+    expected.right = new PackedTree();
+    expected.right.name = "right";
+
+    PackedTree result = writeThenRead(expected, PackedTree.CREATOR);
+    assertThat(result.name).isEqualTo("root");
+    assertThat(result.left).isNull();
+    assertThat(result.right.name).isEqualTo("right");
+    assertThat(result.right.left).isNull();
+    assertThat(result.right.right).isNull();
+  }
+
+  @Test public void nestedWriteToParcelIsCalledUnlessLinked() {
+    Lowercase child = new Lowercase();
+    child.name = "MiXeD";
+    LowercaseHolder holder = new LowercaseHolder();
+    holder.child = child;
+    LinkedLowercaseHolder linked = new LinkedLowercaseHolder();
+    linked.child = child;
+
+    assertThat(writeThenRead(holder, LowercaseHolder.CREATOR).child.name).isEqualTo("mixed");
+    // Linking calls the generated class directly, so Lowercase.writeToParcel is bypassed.
+    assertThat(writeThenRead(linked, LinkedLowercaseHolder.CREATOR).child.name)
+        .isEqualTo("MiXeD");
+  }
+
+  @Test public void tableDrivenFieldsMatchUnrolledLayout() {
+    Unrolled unrolled = unrolled(new Unrolled());
+    Tabled tabled = unrolled(new Tabled());
+    assertThat(bytesOf(tabled)).isEqualTo(bytesOf(unrolled));
+  }
+
+  @Test public void tableDrivenFieldsAreCorrectlyParcelled() {
+    Tabled expected = unrolled(new Tabled());
+    Tabled result = writeThenRead(expected, Tabled.CREATOR);
+    assertThat(result.flag).isTrue();
+    assertThat(result.b).isEqualTo((byte) 1);
+    assertThat(result.c).isEqualTo('c');
+    assertThat(result.s).isEqualTo((short) 2);
+    assertThat(result.i).isEqualTo(3);
+    assertThat(result.l).isEqualTo(4L);
+    assertThat(result.f).isEqualTo(5f);
+    assertThat(result.d).isEqualTo(6d);
+    assertThat(result.name).isNull();
+    assertThat(result.tags).containsExactly("a", "b", "a").inOrder();
+    assertThat(result.child.name).isEqualTo("a");
+  }
+
+  private static <T extends Unrolled> T unrolled(T value) {
+    value.flag = true;
+    value.b = 1;
+    value.c = 'c';
+    value.s = 2;
+    value.i = 3;
+    value.l = 4L;
+    value.f = 5f;
+    value.d = 6d;
+    value.tags = Arrays.asList("a", "b", "a");
+    value.child = new Tree();
+    value.child.name = "a";
+    return value;
+  }
+
+  private static Map<String, List<String>> groups() {
+    Map<String, List<String>> groups = new LinkedHashMap<>();
+    groups.put("red", Arrays.asList("apple", null, "cherry"));
+    groups.put("empty", Collections.<String>emptyList());
+    groups.put("none", null);
+    return groups;
+  }
+
+  private static Unpacked unpacked(String name) {
+    Unpacked result = new Unpacked();
+    result.name = name;
+    return result;
+  }
+
+  private static byte[] bytesOf(Parcelable value) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    byte[] bytes = parcel.marshall();
+    parcel.recycle();
+    return bytes;
+  }
+
+  private static int sizeOf(Parcelable value) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    int size = parcel.dataSize();
+    parcel.recycle();
+    return size;
+  }
+
+  private static <T extends Parcelable> T writeThenRead(T value, Parcelable.Creator<T> creator) {
+    Parcel parcel = Parcel.obtain();
+    value.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    T result = creator.createFromParcel(parcel);
+    parcel.recycle();
+    return result;
+  }
+
+  @PaperParcel
+  static final class Unpacked implements Parcelable {
+    public static final Parcelable.Creator<Unpacked> CREATOR =
+        PaperParcelWireSizeTest_Unpacked.CREATOR;
+
+    boolean enabled;
+    boolean visible;
+    Integer count;
+    Long id;
+    String name;
+    Boolean flag;
+    CharSequence description;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Unpacked.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(packFlags = true)
+  static final class Packed implements Parcelable {
+    public static final Parcelable.Creator<Packed> CREATOR =
+        PaperParcelWireSizeTest_Packed.CREATOR;
+
+    boolean enabled;
+    boolean visible;
+    Integer count;
+    Long id;
+    String name;
+    Boolean flag;
+    CharSequence description;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Packed.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  static final class Unpooled implements Parcelable {
+    public static final Parcelable.Creator<Unpooled> CREATOR =
+        PaperParcelWireSizeTest_Unpooled.CREATOR;
+
+    List<String> tags;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Unpooled.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(poolStrings = true)
+  static final class Pooled implements Parcelable {
+    public static final Parcelable.Creator<Pooled> CREATOR =
+        PaperParcelWireSizeTest_Pooled.CREATOR;
+
+    List<String> tags;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Pooled.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(poolStrings = true)
+  public static final class PooledTree implements Parcelable {
+    public static final Parcelable.Creator<PooledTree> CREATOR =
+        PaperParcelWireSizeTest_PooledTree.CREATOR;
+
+    String name;
+    List<String> tags;
+    Map<String, String> labels;
+    PooledTree child;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_PooledTree.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(poolStrings = true)
+  static final class PooledHolder implements Parcelable {
+    public static final Parcelable.Creator<PooledHolder> CREATOR =
+        PaperParcelWireSizeTest_PooledHolder.CREATOR;
+
+    String name;
+    Bundle extras;
+    FlagRecorder recorder;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_PooledHolder.writeToParcel(this, dest, flags);
+    }
+  }
+
+  /** A {@link Parcelable} that isn't generated by PaperParcel and records the flags it is given. */
+  static final class FlagRecorder implements Parcelable {
+    public static final Parcelable.Creator<FlagRecorder> CREATOR =
+        new Parcelable.Creator<FlagRecorder>() {
+          @Override public FlagRecorder createFromParcel(Parcel source) {
+            FlagRecorder result = new FlagRecorder();
+            result.flags = source.readInt();
+            return result;
+          }
+
+          @Override public FlagRecorder[] newArray(int size) {
+            return new FlagRecorder[size];
+          }
+        };
+
+    int flags = -1;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      this.flags = flags;
+      dest.writeInt(flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(presize = true)
+  public static final class Presized implements Parcelable {
+    public static final Parcelable.Creator<Presized> CREATOR =
+        PaperParcelWireSizeTest_Presized.CREATOR;
+
+    long id;
+    float ratio;
+    String name;
+    Integer count;
+    List<String> tags;
+    Map<String, Integer> counts;
+    byte[] data;
+    Presized child;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Presized.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(presize = true)
+  static final class PresizedHolder implements Parcelable {
+    public static final Parcelable.Creator<PresizedHolder> CREATOR =
+        PaperParcelWireSizeTest_PresizedHolder.CREATOR;
+
+    Presized child;
+    Bundle extras;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_PresizedHolder.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(packFlags = true, presize = true)
+  static final class PresizedPacked implements Parcelable {
+    public static final Parcelable.Creator<PresizedPacked> CREATOR =
+        PaperParcelWireSizeTest_PresizedPacked.CREATOR;
+
+    boolean enabled;
+    Integer count;
+    Long id;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_PresizedPacked.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  static final class Boxed implements Parcelable {
+    public static final Parcelable.Creator<Boxed> CREATOR =
+        PaperParcelWireSizeTest_Boxed.CREATOR;
+
+    Map<String, List<String>> groups;
+    Set<Long> ids;
+    Collection<Unpacked> children;
+    List<List<String>> rows;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Boxed.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(inlineContainers = true)
+  static final class Inlined implements Parcelable {
+    public static final Parcelable.Creator<Inlined> CREATOR =
+        PaperParcelWireSizeTest_Inlined.CREATOR;
+
+    Map<String, List<String>> groups;
+    Set<Long> ids;
+    Collection<Unpacked> children;
+    List<List<String>> rows;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Inlined.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(inlineContainers = true, packFlags = true)
+  static final class InlinedPacked implements Parcelable {
+    public static final Parcelable.Creator<InlinedPacked> CREATOR =
+        PaperParcelWireSizeTest_InlinedPacked.CREATOR;
+
+    Map<String, List<String>> groups;
+    Set<Long> ids;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_InlinedPacked.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(linkNested = true)
+  static final class Tree implements Parcelable {
+    public static final Parcelable.Creator<Tree> CREATOR = PaperParcelWireSizeTest_Tree.CREATOR;
+
+    String name;
+    Tree left;
+    Tree right;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Tree.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(packFlags = true, linkNested = true)
+  static final class PackedTree implements Parcelable {
+    public static final Parcelable.Creator<PackedTree> CREATOR =
+        PaperParcelWireSizeTest_PackedTree.CREATOR;
+
+    String name;
+    PackedTree left;
+    PackedTree right;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_PackedTree.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  static final class Lowercase implements Parcelable {
+    public static final Parcelable.Creator<Lowercase> CREATOR =
+        PaperParcelWireSizeTest_Lowercase.CREATOR;
+
+    String name;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      Lowercase lowercase = new Lowercase();
+      lowercase.name = name.toLowerCase(Locale.ROOT);
+      PaperParcelWireSizeTest_Lowercase.writeToParcel(lowercase, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  static final class LowercaseHolder implements Parcelable {
+    public static final Parcelable.Creator<LowercaseHolder> CREATOR =
+        PaperParcelWireSizeTest_LowercaseHolder.CREATOR;
+
+    Lowercase child;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_LowercaseHolder.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(linkNested = true)
+  static final class LinkedLowercaseHolder implements Parcelable {
+    public static final Parcelable.Creator<LinkedLowercaseHolder> CREATOR =
+        PaperParcelWireSizeTest_LinkedLowercaseHolder.CREATOR;
+
+    Lowercase child;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_LinkedLowercaseHolder.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(poolStrings = true)
+  static class Unrolled implements Parcelable {
+    public static final Parcelable.Creator<Unrolled> CREATOR =
+        PaperParcelWireSizeTest_Unrolled.CREATOR;
+
+    boolean flag;
+    byte b;
+    char c;
+    short s;
+    int i;
+    long l;
+    float f;
+    double d;
+    String name;
+    List<String> tags;
+    Tree child;
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Unrolled.writeToParcel(this, dest, flags);
+    }
+  }
+
+  @PaperParcel
+  @PaperParcel.Options(poolStrings = true, tableDriven = true)
+  static final class Tabled extends Unrolled {
+    public static final Parcelable.Creator<Tabled> CREATOR =
+        PaperParcelWireSizeTest_Tabled.CREATOR;
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      PaperParcelWireSizeTest_Tabled.writeToParcel(this, dest, flags);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import paperparcel.TypeAdapter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ParcelBudgetTest {
+  private final List<ParcelBudget.Report> reports = new ArrayList<>();
+  private final ParcelBudget.Callback callback = new ParcelBudget.Callback() {
+    @Override public void onBudgetExceeded(@NonNull ParcelBudget.Report report) {
+      reports.add(report);
+    }
+  };
+
+  @After public void uninstall() {
+    ParcelBudget.uninstall();
+  }
+
+  /** Writes a User with two friends, the way generated code would. */
+  private static void writeUser(Parcel dest, String url) {
+    ParcelBudget.Recorder budget = ParcelBudget.begin(dest, "User");
+    budget.enterField(dest, "name");
+    dest.writeString("user");
+    budget.exitField(dest);
+    budget.enterField(dest, "friends[]");
+    dest.writeInt(2);
+    for (int i = 0; i < 2; i++) {
+      ParcelBudget.Recorder friend = ParcelBudget.begin(dest, "Friend");
+      friend.enterField(dest, "image");
+      ParcelBudget.Recorder image = ParcelBudget.begin(dest, "Image");
+      image.enterField(dest, "url");
+      dest.writeString(url);
+      image.exitField(dest);
+      image.end(dest);
+      friend.exitField(dest);
+      friend.end(dest);
+    }
+    budget.exitField(dest);
+    budget.end(dest);
+  }
+
+  @Test public void reportsFieldPathsWhenOverBudget() {
+    ParcelBudget.install(64, 1, callback);
+    Parcel parcel = Parcel.obtain();
+    writeUser(parcel, "https://example.com/a.png");
+    int bytes = parcel.dataSize();
+    parcel.recycle();
+
+    assertThat(reports).hasSize(1);
+    ParcelBudget.Report report = reports.get(0);
+    assertThat(report.root).isEqualTo("User");
+    assertThat(report.bytes).isEqualTo(bytes);
+    assertThat(report.budgetBytes).isEqualTo(64);
+    // "name" is 4 + 4 * 2 + 2 padded to 16 bytes, each url is 4 + 25 * 2 + 2 padded to 56.
+    assertThat(report.entries).hasSize(4);
+    assertThat(report.entries.get(0).toString()).isEqualTo("User.friends[]: 116 bytes");
+    assertThat(report.entries.get(1).toString())
+        .isEqualTo("User.friends[].image: 112 bytes (2 writes)");
+    assertThat(report.entries.get(2).toString())
+        .isEqualTo("User.friends[].image.url: 112 bytes (2 writes)");
+    assertThat(report.entries.get(3).toString()).isEqualTo("User.name: 16 bytes");
+  }
+
+  @Test public void silentWithinBudget() {
+    ParcelBudget.install(1024, 1, callback);
+    Parcel parcel = Parcel.obtain();
+    writeUser(parcel, "a");
+    parcel.recycle();
+    assertThat(reports).isEmpty();
+  }
+
+  @Test public void samplesTopLevelWrites() {
+    ParcelBudget.install(0, 3, callback);
+    Parcel parcel = Parcel.obtain();
+    for (int i = 0; i < 6; i++) {
+      writeUser(parcel, "a");
+    }
+    parcel.recycle();
+    assertThat(reports).hasSize(2);
+  }
+
+  @Test public void ignoresWritesToOtherParcels() {
+    ParcelBudget.install(0, 1, callback);
+    Parcel parcel = Parcel.obtain();
+    Parcel other = Parcel.obtain();
+    ParcelBudget.Recorder budget = ParcelBudget.begin(parcel, "Outer");
+    budget.enterField(parcel, "bundle");
+    ParcelBudget.Recorder nested = ParcelBudget.begin(other, "Inner");
+    nested.enterField(other, "value");
+    other.writeInt(1);
+    nested.exitField(other);
+    nested.end(other);
+    parcel.writeInt(1);
+    budget.exitField(parcel);
+    budget.end(parcel);
+    parcel.recycle();
+    other.recycle();
+
+    assertThat(reports).hasSize(1);
+    assertThat(reports.get(0).entries).hasSize(1);
+    assertThat(reports.get(0).entries.get(0).path).isEqualTo("Outer.bundle");
+  }
+
+  static final class Box {
+    final int value;
+
+    Box(int value) {
+      this.value = value;
+    }
+  }
+
+  @Test public void fieldTableChecksBudget() {
+    FieldTable<Box> table = new FieldTable<>(Box.class, new FieldTable.Accessor() {
+      @Override public Object get(@NonNull Object data, int index) {
+        return ((Box) data).value;
+      }
+
+      @Override public Object create(@NonNull Object[] values) {
+        return new Box((Integer) values[0]);
+      }
+    }, "I", new TypeAdapter<?>[] { null }, FieldTable.BUDGET);
+
+    ParcelBudget.install(2, 1, callback);
+    Parcel parcel = Parcel.obtain();
+    table.write(new Box(42), parcel, 0);
+    parcel.recycle();
+
+    assertThat(reports).hasSize(1);
+    assertThat(reports.get(0).root).isEqualTo("ParcelBudgetTest.Box");
+    assertThat(reports.get(0).bytes).isEqualTo(4);
+    assertThat(reports.get(0).entries).isEmpty();
+  }
+
+  static final class Label {
+    final String text;
+
+    Label(String text) {
+      this.text = text;
+    }
+  }
+
+  static final class Holder {
+    final String name;
+    final Label label;
+
+    Holder(String name, Label label) {
+      this.name = name;
+      this.label = label;
+    }
+  }
+
+  @Test public void fieldTableAttributesFieldPaths() {
+    final FieldTable<Label> labels = new FieldTable<>(Label.class, new FieldTable.Accessor() {
+      @Override public Object get(@NonNull Object data, int index) {
+        return ((Label) data).text;
+      }
+
+      @Override public Object create(@NonNull Object[] values) {
+        return new Label((String) values[0]);
+      }
+    }, "A", new TypeAdapter<?>[] { StaticAdapters.STRING_ADAPTER }, FieldTable.BUDGET,
+        new String[] { "text" });
+    TypeAdapter<Label> labelAdapter = new TypeAdapter<Label>() {
+      @Override public Label readFromParcel(@NonNull Parcel source) {
+        return labels.createFromParcel(source);
+      }
+
+      @Override public void writeToParcel(Label value, @NonNull Parcel dest, int flags) {
+        labels.write(value, dest, flags);
+      }
+    };
+    FieldTable<Holder> holders = new FieldTable<>(Holder.class, new FieldTable.Accessor() {
+      @Override public Object get(@NonNull Object data, int index) {
+        Holder holder = (Holder) data;
+        return index == 0 ? holder.name : holder.label;
+      }
+
+      @Override public Object create(@NonNull Object[] values) {
+        return new Holder((String) values[0], (Label) values[1]);
+      }
+    }, "AA", new TypeAdapter<?>[] { StaticAdapters.STRING_ADAPTER, labelAdapter },
+        FieldTable.BUDGET, new String[] { "name", "label" });
+
+    ParcelBudget.install(0, 1, callback);
+    Parcel parcel = Parcel.obtain();
+    holders.write(new Holder("holder", new Label("label")), parcel, 0);
+    parcel.recycle();
+
+    assertThat(reports).hasSize(1);
+    assertThat(reports.get(0).root).isEqualTo("ParcelBudgetTest.Holder");
+    // "holder" is 4 + 7 * 2 padded to 20 bytes, "label" is 4 + 6 * 2 padded to 16.
+    assertThat(reports.get(0).entries).hasSize(3);
+    assertThat(reports.get(0).entries.get(0).toString())
+        .isEqualTo("ParcelBudgetTest.Holder.name: 20 bytes");
+    assertThat(reports.get(0).entries.get(1).toString())
+        .isEqualTo("ParcelBudgetTest.Holder.label: 16 bytes");
+    assertThat(reports.get(0).entries.get(2).toString())
+        .isEqualTo("ParcelBudgetTest.Holder.label.text: 16 bytes");
+  }
+}
@@ -0,0 +1,107 @@
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import paperparcel.TypeAdapter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ParcelMetricsTest {
+
+  @After public void restoreDefaultSink() {
+    ParcelMetrics.setSink(ParcelMetrics.defaultSink());
+  }
+
+  @Test public void snapshotSumsEveryCall() {
+    StripedMetricsSink sink = new StripedMetricsSink();
+    sink.onWrite(String.class, 8, 500L);
+    sink.onWrite(String.class, 12, 2000L);
+    sink.onRead(String.class, 20, 5000000L);
+
+    List<StripedMetricsSink.Snapshot> snapshot = sink.snapshot();
+    assertThat(snapshot).hasSize(1);
+    StripedMetricsSink.Snapshot strings = snapshot.get(0);
+    assertThat(strings.type).isEqualTo(String.class);
+    assertThat(strings.writes).isEqualTo(2L);
+    assertThat(strings.bytesWritten).isEqualTo(20L);
+    assertThat(strings.writeNanos).isEqualTo(2500L);
+    assertThat(strings.reads).isEqualTo(1L);
+    assertThat(strings.bytesRead).isEqualTo(20L);
+    assertThat(strings.readNanos).isEqualTo(5000000L);
+    assertThat(strings.writeHistogram).asList().containsExactly(1L, 1L, 0L, 0L, 0L, 0L, 0L, 0L)
+        .inOrder();
+    assertThat(strings.readHistogram).asList().containsExactly(0L, 0L, 0L, 0L, 0L, 0L, 0L, 1L)
+        .inOrder();
+  }
+
+  @Test public void bucketBoundsAreExclusive() {
+    assertThat(StripedMetricsSink.bucket(0L)).isEqualTo(0);
+    assertThat(StripedMetricsSink.bucket(999L)).isEqualTo(0);
+    assertThat(StripedMetricsSink.bucket(1000L)).isEqualTo(1);
+    assertThat(StripedMetricsSink.bucket(3999999L)).isEqualTo(6);
+    assertThat(StripedMetricsSink.bucket(4000000L)).isEqualTo(7);
+    assertThat(StripedMetricsSink.bucket(Long.MAX_VALUE)).isEqualTo(7);
+  }
+
+  @Test public void countsCallsFromManyThreads() throws Exception {
+    final StripedMetricsSink sink = new StripedMetricsSink(4);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread(new Runnable() {
+        @Override public void run() {
+          for (int j = 0; j < 10000; j++) {
+            sink.onWrite(Integer.class, 4, 100L);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    StripedMetricsSink.Snapshot ints = sink.snapshot().get(0);
+    assertThat(ints.writes).isEqualTo(80000L);
+    assertThat(ints.bytesWritten).isEqualTo(320000L);
+    assertThat(ints.writeHistogram[0]).isEqualTo(80000L);
+    assertThat(ints.reads).isEqualTo(0L);
+  }
+
+  @Test public void fieldTableReportsBytesToSink() {
+    final List<String> calls = new ArrayList<>();
+    ParcelMetrics.setSink(new ParcelMetrics.Sink() {
+      @Override public void onWrite(@NonNull Class<?> type, int bytes, long nanos) {
+        calls.add("write " + type.getSimpleName() + " " + bytes);
+      }
+
+      @Override public void onRead(@NonNull Class<?> type, int bytes, long nanos) {
+        calls.add("read " + type.getSimpleName() + " " + bytes);
+      }
+    });
+    FieldTable<int[]> table = new FieldTable<>(int[].class, new FieldTable.Accessor() {
+      @Override public Object get(@NonNull Object data, int index) {
+        return ((int[]) data)[index];
+      }
+
+      @Override public Object create(@NonNull Object[] values) {
+        return new int[] { (Integer) values[0], (Integer) values[1] };
+      }
+    }, "II", new TypeAdapter<?>[] { null, null }, FieldTable.METRICS);
+
+    Parcel parcel = Parcel.obtain();
+    parcel.writeInt(-1);
+    table.write(new int[] { 1, 2 }, parcel, 0);
+    parcel.setDataPosition(4);
+    int[] result = table.createFromParcel(parcel);
+    parcel.recycle();
+
+    assertThat(result).asList().containsExactly(1, 2).inOrder();
+    assertThat(calls).containsExactly("write int[] 8", "read int[] 8").inOrder();
+  }
+}
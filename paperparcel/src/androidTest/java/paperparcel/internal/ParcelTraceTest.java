@@ -0,0 +1,115 @@
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import org.junit.After;
+import org.junit.Test;
+import paperparcel.TypeAdapter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class ParcelTraceTest {
+  private static final FieldTable<int[]> TABLE =
+      new FieldTable<>(int[].class, new FieldTable.Accessor() {
+        @Override public Object get(@NonNull Object data, int index) {
+          return ((int[]) data)[index];
+        }
+
+        @Override public Object create(@NonNull Object[] values) {
+          return new int[] { (Integer) values[0] };
+        }
+      }, "I", new TypeAdapter<?>[] { null }, FieldTable.TRACE);
+
+  @After public void disableTracing() {
+    ParcelTrace.setTracer(null);
+  }
+
+  @Test public void disabledUntilTracerIsSet() {
+    assertThat(ParcelTrace.getTracer()).isNull();
+    RecordingTracer tracer = new RecordingTracer();
+    ParcelTrace.setTracer(tracer);
+    assertThat(ParcelTrace.getTracer()).isSameAs(tracer);
+    ParcelTrace.setTracer(null);
+    assertThat(ParcelTrace.getTracer()).isNull();
+  }
+
+  @Test public void recordsNestedSections() {
+    RecordingTracer tracer = new RecordingTracer();
+    tracer.beginSection("outer");
+    tracer.beginSection("inner");
+    tracer.endSection();
+    tracer.beginSection("sibling");
+    assertThat(tracer.openSections()).isEqualTo(2);
+    tracer.endSection();
+    tracer.endSection();
+    assertThat(tracer.sections()).containsExactly("outer", "  inner", "  sibling").inOrder();
+    assertThat(tracer.openSections()).isEqualTo(0);
+  }
+
+  @Test public void unbalancedEndSectionThrows() {
+    try {
+      new RecordingTracer().endSection();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test public void fieldTableTracesReadsAndWrites() {
+    RecordingTracer tracer = new RecordingTracer();
+    ParcelTrace.setTracer(tracer);
+    Parcel parcel = Parcel.obtain();
+    TABLE.write(new int[] { 42 }, parcel, 0);
+    parcel.setDataPosition(0);
+    int[] result = TABLE.createFromParcel(parcel);
+    parcel.recycle();
+
+    assertThat(result).asList().containsExactly(42);
+    assertThat(tracer.sections()).containsExactly("[I.writeToParcel", "[I.createFromParcel")
+        .inOrder();
+    assertThat(tracer.openSections()).isEqualTo(0);
+  }
+
+  @Test public void fieldTableSkipsSectionsWhenDisabled() {
+    RecordingTracer tracer = new RecordingTracer();
+    Parcel parcel = Parcel.obtain();
+    TABLE.write(new int[] { 42 }, parcel, 0);
+    parcel.recycle();
+    assertThat(tracer.sections()).isEmpty();
+  }
+
+  @Test public void fieldTableTracesAdaptedFields() {
+    FieldTable<String[]> table = new FieldTable<>(String[].class, new FieldTable.Accessor() {
+      @Override public Object get(@NonNull Object data, int index) {
+        return ((String[]) data)[index];
+      }
+
+      @Override public Object create(@NonNull Object[] values) {
+        return new String[] { (String) values[0] };
+      }
+    }, "A", new TypeAdapter<?>[] { StaticAdapters.STRING_ADAPTER },
+        FieldTable.TRACE | FieldTable.TRACE_FIELDS, new String[] { "values[]" });
+
+    RecordingTracer tracer = new RecordingTracer();
+    ParcelTrace.setTracer(tracer);
+    Parcel parcel = Parcel.obtain();
+    table.write(new String[] { "a" }, parcel, 0);
+    parcel.setDataPosition(0);
+    String[] result = table.createFromParcel(parcel);
+    parcel.recycle();
+
+    assertThat(result).asList().containsExactly("a");
+    assertThat(tracer.sections()).containsExactly(
+        "[Ljava.lang.String;.writeToParcel",
+        "  [Ljava.lang.String;.values.write",
+        "[Ljava.lang.String;.createFromParcel",
+        "  [Ljava.lang.String;.values.read").inOrder();
+    assertThat(tracer.openSections()).isEqualTo(0);
+  }
+
+  @Test public void systemTracerDoesNothingOnHost() {
+    ParcelTrace.Tracer tracer = ParcelTrace.systemTracer();
+    tracer.beginSection("section");
+    tracer.endSection();
+  }
+}
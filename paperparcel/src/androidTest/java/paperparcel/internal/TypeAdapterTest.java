@@ -2,25 +2,50 @@ package paperparcel.internal;
 
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
+import android.os.BadParcelableException;
 import android.os.Build;
+import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.Size;
 import android.util.SizeF;
 import android.util.SparseArray;
 import android.util.SparseBooleanArray;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import org.junit.Test;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 import paperparcel.internal.ArrayAdapter;
 import paperparcel.internal.CollectionAdapter;
 import paperparcel.internal.EnumAdapter;
 import paperparcel.internal.MapAdapter;
+import paperparcel.internal.OrdinalEnumAdapter;
 import paperparcel.internal.ParcelableAdapter;
+import paperparcel.internal.ParcelableListAdapter;
 import paperparcel.internal.SerializableAdapter;
 import paperparcel.internal.SparseArrayAdapter;
 import paperparcel.internal.StaticAdapters;
@@ -93,6 +118,51 @@ public class TypeAdapterTest {
     assertItemsAreEqual(expected, result);
   }
 
+  @Test public void boxedPrimitiveListsAreCorrectlyParcelled() {
+    TypeAdapter<List<Integer>> adapter = BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER;
+    List<Integer> expected = Arrays.asList(42, 0, -1);
+    List<Integer> result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+    assertThat(result).isInstanceOf(IntArrayList.class);
+    result = writeThenRead(adapter, result);
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test public void boxedPrimitiveListsWithNullsAreCorrectlyParcelled() {
+    TypeAdapter<List<Long>> adapter = BoxedPrimitiveAdapters.LONG_LIST_ADAPTER;
+    List<Long> expected = Arrays.asList(42L, null, 0L);
+    List<Long> result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test public void boxedPrimitiveSetsAreCorrectlyParcelled() {
+    TypeAdapter<Set<Double>> adapter = BoxedPrimitiveAdapters.DOUBLE_SET_ADAPTER;
+    Set<Double> expected = new LinkedHashSet<>(Arrays.asList(42.42, 0.0));
+    Set<Double> result = writeThenRead(adapter, expected);
+    assertThat(result).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  @Test public void boxedPrimitiveArraysAreCorrectlyParcelled() {
+    TypeAdapter<Float[]> adapter = BoxedPrimitiveAdapters.FLOAT_ARRAY_ADAPTER;
+    Float[] expected = new Float[] { 42.42f, 0f };
+    Float[] result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+    expected = new Float[] { 42.42f, null };
+    result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test public void primitiveBackedListsAreMutable() {
+    List<Integer> list = new IntArrayList(new int[] { 1, 2, 3 });
+    list.add(4);
+    list.add(0, 0);
+    list.remove(2);
+    list.set(0, 5);
+    assertThat(list).containsExactly(5, 1, 3, 4).inOrder();
+    list.subList(1, 3).clear();
+    assertThat(list).containsExactly(5, 4).inOrder();
+  }
+
   @Test public void doublesAreCorrectlyParcelled() {
     TypeAdapter<Double> adapter = StaticAdapters.DOUBLE_ADAPTER;
     Double expected = 42.42;
@@ -117,6 +187,38 @@ public class TypeAdapterTest {
     assertThat(result).isEqualTo(expected);
   }
 
+  @Test public void enumOrdinalsAreCorrectlyParcelled() {
+    TypeAdapter<TestEnum> adapter =
+        new OrdinalEnumAdapter<>(TestEnum.class, TEST_ENUM_CONSTANT_COUNT);
+    TestEnum expected = TestEnum.A;
+    TestEnum result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+    expected = TestEnum.B;
+    result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+    result = writeThenRead(adapter, null);
+    assertThat(result).isNull();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void enumOrdinalsFailWhenConstantsHaveChanged() {
+    new OrdinalEnumAdapter<>(TestEnum.class, TEST_ENUM_CONSTANT_COUNT + 1);
+  }
+
+  @Test(expected = BadParcelableException.class)
+  public void enumOrdinalsFailWhenOutOfRange() {
+    TypeAdapter<TestEnum> adapter =
+        new OrdinalEnumAdapter<>(TestEnum.class, TEST_ENUM_CONSTANT_COUNT);
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.writeInt(TEST_ENUM_CONSTANT_COUNT);
+      parcel.setDataPosition(0);
+      adapter.readFromParcel(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
   @Test public void floatsAreCorrectlyParcelled() {
     TypeAdapter<Float> adapter = StaticAdapters.FLOAT_ADAPTER;
     Float expected = 42.42f;
@@ -175,6 +277,38 @@ public class TypeAdapterTest {
     assertThat(result).isEqualTo(expected);
   }
 
+  @Test public void parcelableListsOfOneClassAreCorrectlyParcelled() {
+    TypeAdapter<List<TestListItem>> adapter = new ParcelableListAdapter<>();
+    List<TestListItem> expected =
+        Arrays.asList(new TestListItem(1), new TestListItem(2), new TestListItem(3));
+    List<TestListItem> result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test public void parcelableListsOfOneClassOnlyWriteTheClassNameOnce() {
+    TypeAdapter<List<TestListItem>> adapter = new ParcelableListAdapter<>();
+    TypeAdapter<List<TestListItem>> perItemAdapter =
+        new ListAdapter<>(new ParcelableAdapter<TestListItem>(null));
+    List<TestListItem> value =
+        Arrays.asList(new TestListItem(1), new TestListItem(2), new TestListItem(3));
+    assertThat(sizeOf(adapter, value)).isLessThan(sizeOf(perItemAdapter, value));
+  }
+
+  @Test public void parcelableListsOfMixedClassesAreCorrectlyParcelled() {
+    TypeAdapter<List<TestListItem>> adapter = new ParcelableListAdapter<>();
+    List<TestListItem> expected =
+        Arrays.asList(new TestListItem(1), new TestListSubItem(2), null, new TestListItem(3));
+    List<TestListItem> result = writeThenRead(adapter, expected);
+    assertThat(result).isEqualTo(expected);
+    assertThat(result.get(1)).isInstanceOf(TestListSubItem.class);
+  }
+
+  @Test public void emptyParcelableListsAreCorrectlyParcelled() {
+    TypeAdapter<List<TestListItem>> adapter = new ParcelableListAdapter<>();
+    List<TestListItem> result = writeThenRead(adapter, Collections.<TestListItem>emptyList());
+    assertThat(result).isEmpty();
+  }
+
   @Test public void shortsAreCorrectlyParcelled() {
     TypeAdapter<Short> adapter = StaticAdapters.SHORT_ADAPTER;
     Short expected = 42;
@@ -245,6 +379,128 @@ public class TypeAdapterTest {
     assertThat(result).isEqualTo(expected);
   }
 
+  @Test public void datesAreCorrectlyParcelled() {
+    Date expected = new Date(1234567890123L);
+    assertThat(writeThenRead(StaticAdapters.DATE_ADAPTER, expected)).isEqualTo(expected);
+  }
+
+  @Test public void uuidsAreCorrectlyParcelled() {
+    UUID expected = UUID.randomUUID();
+    assertThat(writeThenRead(StaticAdapters.UUID_ADAPTER, expected)).isEqualTo(expected);
+  }
+
+  @Test public void bigNumbersAreCorrectlyParcelled() {
+    BigInteger bigInteger = new BigInteger("-123456789012345678901234567890");
+    assertThat(writeThenRead(StaticAdapters.BIG_INTEGER_ADAPTER, bigInteger))
+        .isEqualTo(bigInteger);
+    BigDecimal bigDecimal = new BigDecimal("-12345678901234567890.0012300");
+    assertThat(writeThenRead(StaticAdapters.BIG_DECIMAL_ADAPTER, bigDecimal))
+        .isEqualTo(bigDecimal);
+    assertThat(writeThenRead(StaticAdapters.BIG_DECIMAL_ADAPTER, BigDecimal.ZERO))
+        .isEqualTo(BigDecimal.ZERO);
+  }
+
+  @Test public void urisAreCorrectlyParcelled() {
+    URI expected = URI.create("https://example.com/path?query=1#fragment");
+    assertThat(writeThenRead(StaticAdapters.URI_ADAPTER, expected)).isEqualTo(expected);
+  }
+
+  @Test public void currenciesAreCorrectlyParcelled() {
+    Currency expected = Currency.getInstance("NZD");
+    assertThat(writeThenRead(StaticAdapters.CURRENCY_ADAPTER, expected)).isSameAs(expected);
+  }
+
+  @Test public void localesAreCorrectlyParcelled() {
+    Locale expected = new Locale("en", "NZ", "POSIX");
+    assertThat(writeThenRead(StaticAdapters.LOCALE_ADAPTER, expected)).isEqualTo(expected);
+    assertThat(writeThenRead(StaticAdapters.LOCALE_ADAPTER, Locale.ROOT)).isEqualTo(Locale.ROOT);
+  }
+
+  @Test public void bitSetsAreCorrectlyParcelled() {
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(63);
+    expected.set(64);
+    expected.set(200);
+    assertThat(writeThenRead(StaticAdapters.BIT_SET_ADAPTER, expected)).isEqualTo(expected);
+    assertThat(writeThenRead(StaticAdapters.BIT_SET_ADAPTER, new BitSet())).isEqualTo(new BitSet());
+  }
+
+  @TargetApi(Build.VERSION_CODES.O)
+  @Test public void javaTimeTypesAreCorrectlyParcelled() {
+    Instant instant = Instant.ofEpochSecond(1234567890L, 123456789);
+    assertThat(writeThenRead(JavaTimeAdapters.INSTANT_ADAPTER, instant)).isEqualTo(instant);
+    Duration duration = Duration.ofSeconds(-42L, 7);
+    assertThat(writeThenRead(JavaTimeAdapters.DURATION_ADAPTER, duration)).isEqualTo(duration);
+    Period period = Period.of(1, -2, 3);
+    assertThat(writeThenRead(JavaTimeAdapters.PERIOD_ADAPTER, period)).isEqualTo(period);
+    LocalDateTime dateTime = LocalDateTime.of(2016, 2, 29, 23, 59, 59, 999999999);
+    assertThat(writeThenRead(JavaTimeAdapters.LOCAL_DATE_ADAPTER, dateTime.toLocalDate()))
+        .isEqualTo(dateTime.toLocalDate());
+    assertThat(writeThenRead(JavaTimeAdapters.LOCAL_TIME_ADAPTER, dateTime.toLocalTime()))
+        .isEqualTo(dateTime.toLocalTime());
+    assertThat(writeThenRead(JavaTimeAdapters.LOCAL_DATE_TIME_ADAPTER, dateTime))
+        .isEqualTo(dateTime);
+    OffsetDateTime offsetDateTime = OffsetDateTime.of(dateTime, ZoneOffset.ofHoursMinutes(5, 30));
+    assertThat(writeThenRead(JavaTimeAdapters.OFFSET_DATE_TIME_ADAPTER, offsetDateTime))
+        .isEqualTo(offsetDateTime);
+    ZoneId zone = ZoneId.of("Pacific/Auckland");
+    assertThat(writeThenRead(JavaTimeAdapters.ZONE_ID_ADAPTER, zone)).isEqualTo(zone);
+    // 2:30am on this date occurs twice, so the later offset must be restored
+    ZonedDateTime zonedDateTime =
+        ZonedDateTime.of(2017, 4, 2, 2, 30, 0, 0, zone).withLaterOffsetAtOverlap();
+    assertThat(writeThenRead(JavaTimeAdapters.ZONED_DATE_TIME_ADAPTER, zonedDateTime))
+        .isEqualTo(zonedDateTime);
+  }
+
+  @Test public void sizedAdaptersReturnTheNumberOfBytesWritten() {
+    assertSizeIsExact(StaticAdapters.STRING_ADAPTER, "hello world");
+    assertSizeIsExact(StaticAdapters.STRING_ADAPTER, null);
+    assertSizeIsExact(StaticAdapters.LONG_ADAPTER, 42L);
+    assertSizeIsExact(StaticAdapters.BIG_INTEGER_ADAPTER, BigInteger.ZERO);
+    assertSizeIsExact(StaticAdapters.BIG_INTEGER_ADAPTER, BigInteger.valueOf(-128));
+    assertSizeIsExact(StaticAdapters.BIG_INTEGER_ADAPTER, BigInteger.valueOf(128));
+    assertSizeIsExact(StaticAdapters.BIG_DECIMAL_ADAPTER, new BigDecimal("-1234567.890"));
+    assertSizeIsExact(StaticAdapters.LOCALE_ADAPTER, Locale.CANADA_FRENCH);
+    BitSet bitSet = new BitSet();
+    bitSet.set(64);
+    assertSizeIsExact(StaticAdapters.BIT_SET_ADAPTER, bitSet);
+    assertSizeIsExact(StaticAdapters.BYTE_ARRAY_ADAPTER, new byte[] { 1, 2, 3, 4, 5 });
+    assertSizeIsExact(StaticAdapters.SHORT_ARRAY_ADAPTER, new short[] { 1, 2 });
+    assertSizeIsExact(StaticAdapters.INT_ARRAY_ADAPTER, null);
+    assertSizeIsExact(StaticAdapters.DOUBLE_ARRAY_ADAPTER, new double[] { 1.0, 2.0 });
+    SparseBooleanArray sparseBooleanArray = new SparseBooleanArray();
+    sparseBooleanArray.put(42, true);
+    assertSizeIsExact(StaticAdapters.SPARSE_BOOLEAN_ARRAY_ADAPTER, sparseBooleanArray);
+    assertSizeIsExact(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER), null);
+    assertSizeIsExact(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER), 42);
+    assertSizeIsExact(BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER, Arrays.asList(1, 2, 3));
+    assertSizeIsExact(BoxedPrimitiveAdapters.LONG_LIST_ADAPTER, Arrays.asList(1L, null, 3L));
+    assertSizeIsExact(new EnumAdapter<>(TestEnum.class), TestEnum.B);
+    assertSizeIsExact(new OrdinalEnumAdapter<>(TestEnum.class, TEST_ENUM_CONSTANT_COUNT), null);
+    Map<String, Integer> map = new HashMap<>();
+    map.put("LIFE_MEANING", 42);
+    assertSizeIsExact(
+        new MapAdapter<>(StaticAdapters.STRING_ADAPTER, StaticAdapters.INTEGER_ADAPTER), map);
+    SparseArray<String> sparseArray = new SparseArray<>();
+    sparseArray.put(42, "hello world");
+    assertSizeIsExact(new SparseArrayAdapter<>(StaticAdapters.STRING_ADAPTER), sparseArray);
+    assertSizeIsExact(new ParcelableAdapter<TestListItem>(null), null);
+    assertSizeIsExact(new ParcelableListAdapter<TestListItem>(),
+        Collections.<TestListItem>emptyList());
+  }
+
+  @Test public void sizesOfValuesThatCantBeSizedWithoutWritingThemAreUnknown() {
+    assertSizeIsUnknown(new ParcelableAdapter<>(TestParcelable.CREATOR), new TestParcelable(42));
+    assertSizeIsUnknown(new ParcelableAdapter<TestListItem>(null), new TestListItem(42));
+    assertSizeIsUnknown(new ParcelableListAdapter<TestListItem>(),
+        Arrays.asList(new TestListItem(1), new TestListSubItem(2), null));
+    assertSizeIsUnknown(new ListAdapter<>(StaticAdapters.BUNDLE_ADAPTER),
+        Arrays.asList(new Bundle(), null));
+    assertThat(Utils.sizeOf(new Bundle(), StaticAdapters.BUNDLE_ADAPTER))
+        .isEqualTo(Utils.UNKNOWN_SIZE);
+  }
+
   private static class TestParcelable implements Parcelable {
     public static final Parcelable.Creator<TestParcelable> CREATOR =
         new Parcelable.Creator<TestParcelable>() {
@@ -292,6 +548,72 @@ public class TypeAdapterTest {
     }
   }
 
+  public static class TestListItem implements Parcelable {
+    public static final Parcelable.Creator<TestListItem> CREATOR =
+        new Parcelable.Creator<TestListItem>() {
+
+          @Override
+          public TestListItem createFromParcel(Parcel in) {
+            return new TestListItem(in.readInt());
+          }
+
+          @Override
+          public TestListItem[] newArray(int size) {
+            return new TestListItem[size];
+          }
+        };
+
+    final int value;
+
+    TestListItem(int value) {
+      this.value = value;
+    }
+
+    @Override public int describeContents() {
+      return 0;
+    }
+
+    @Override public void writeToParcel(Parcel dest, int flags) {
+      dest.writeInt(value);
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      TestListItem that = (TestListItem) o;
+
+      return value == that.value;
+    }
+
+    @Override public int hashCode() {
+      return value;
+    }
+  }
+
+  public static class TestListSubItem extends TestListItem {
+    public static final Parcelable.Creator<TestListSubItem> CREATOR =
+        new Parcelable.Creator<TestListSubItem>() {
+
+          @Override
+          public TestListSubItem createFromParcel(Parcel in) {
+            return new TestListSubItem(in.readInt());
+          }
+
+          @Override
+          public TestListSubItem[] newArray(int size) {
+            return new TestListSubItem[size];
+          }
+        };
+
+    TestListSubItem(int value) {
+      super(value);
+    }
+  }
+
+  /** The constant count the compiler computes for {@link TestEnum}. */
+  private static final int TEST_ENUM_CONSTANT_COUNT = 2;
+
   private enum TestEnum {
     A,
     B
@@ -308,6 +630,25 @@ public class TypeAdapterTest {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private static <T> void assertSizeIsExact(TypeAdapter<T> adapter, T input) {
+    assertThat(adapter).isInstanceOf(SizedTypeAdapter.class);
+    assertThat(((SizedTypeAdapter<T>) adapter).sizeOf(input)).isEqualTo(sizeOf(adapter, input));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void assertSizeIsUnknown(TypeAdapter<T> adapter, T input) {
+    assertThat(((SizedTypeAdapter<T>) adapter).sizeOf(input)).isEqualTo(Utils.UNKNOWN_SIZE);
+  }
+
+  private static <T> int sizeOf(TypeAdapter<T> adapter, T input) {
+    Parcel parcel = Parcel.obtain();
+    adapter.writeToParcel(input, parcel, 0);
+    int size = parcel.dataSize();
+    parcel.recycle();
+    return size;
+  }
+
   private static <A extends TypeAdapter<T>, T> T writeThenRead(A adapter, T input) {
     Parcel parcel = Parcel.obtain();
     adapter.writeToParcel(input, parcel, 0);
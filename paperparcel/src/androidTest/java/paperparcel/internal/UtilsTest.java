@@ -31,6 +31,27 @@ public class UtilsTest {
     Utils.init(PrivateConstructor.class, new Class[] {}, new Object[] {});
   }
 
+  @Test public void canCallEachConstructorOfAClass() {
+    TwoConstructors first = Utils.init(TwoConstructors.class, new Class[] {}, new Object[] {});
+    TwoConstructors second = Utils.init(
+        TwoConstructors.class, new Class[] { int.class }, new Object[] { 5 });
+    TwoConstructors third = Utils.init(TwoConstructors.class, new Class[] {}, new Object[] {});
+    assertThat(first.value).isEqualTo(-1);
+    assertThat(second.value).isEqualTo(5);
+    assertThat(third.value).isEqualTo(-1);
+  }
+
+  @Test public void canReadAndWritePrivateFieldRepeatedly() {
+    PrivateWrite first = new PrivateWrite();
+    PrivateWrite second = new PrivateWrite();
+    Utils.writeField(1, PrivateWrite.class, first, "myPrivateField");
+    Utils.writeField(2, PrivateWrite.class, second, "myPrivateField");
+    assertThat(first.getMyPrivateField()).isEqualTo(1);
+    assertThat(second.getMyPrivateField()).isEqualTo(2);
+    int actual = Utils.readField(int.class, PrivateWrite.class, second, "myPrivateField");
+    assertThat(actual).isEqualTo(2);
+  }
+
   @SuppressWarnings("ConstantConditions")
   @Test public void nullSafeClone() {
     Integer expected = null;
@@ -137,4 +158,16 @@ public class UtilsTest {
       PaperParcelUtilsTest_PrivateConstructor.writeToParcel(this, dest, flags);
     }
   }
+
+  static final class TwoConstructors {
+    final int value;
+
+    private TwoConstructors() {
+      this(-1);
+    }
+
+    private TwoConstructors(int value) {
+      this.value = value;
+    }
+  }
 }
@@ -19,10 +19,11 @@ package paperparcel.internal;
 import android.os.Parcel;
 import android.support.annotation.NonNull;
 import java.lang.reflect.Array;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class ArrayAdapter<T> implements TypeAdapter<T[]> {
+public final class ArrayAdapter<T> implements SizedTypeAdapter<T[]> {
   private final Class<T> componentType;
   private final TypeAdapter<T> componentAdapter;
 
@@ -52,4 +53,14 @@ public final class ArrayAdapter<T> implements TypeAdapter<T[]> {
       componentAdapter.writeToParcel(value[i], dest, flags);
     }
   }
+
+  @Override
+  @SuppressWarnings("ForLoopReplaceableByForEach") // No allocations.
+  public int sizeOf(@NonNull T[] value) {
+    int result = 4;
+    for (int i = 0, size = value.length; i < size; i++) {
+      result = Utils.addSizes(result, Utils.sizeOf(value[i], componentAdapter));
+    }
+    return result;
+  }
 }
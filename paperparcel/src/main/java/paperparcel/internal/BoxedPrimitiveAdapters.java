@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import paperparcel.SizedTypeAdapter;
+import paperparcel.TypeAdapter;
+
+/**
+ * {@link TypeAdapter}s for lists, sets and arrays of boxed primitives. When a collection contains
+ * no null elements, it is written as a single primitive array rather than element by element.
+ * Lists are read back into primitive-backed views that only box elements when they are accessed.
+ * Collections that contain null elements fall back to writing each element individually.
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class BoxedPrimitiveAdapters {
+  private static final int HAS_NULLS = 0;
+  private static final int PACKED = 1;
+
+  public static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER =
+      new SizedTypeAdapter<List<Integer>>() {
+        @NonNull @Override public List<Integer> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            return new IntArrayList(source.createIntArray());
+          }
+          return readBoxed(source, StaticAdapters.INTEGER_ADAPTER);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull List<Integer> value, @NonNull Parcel dest, int flags) {
+          int[] packed = value instanceof IntArrayList
+              ? ((IntArrayList) value).toIntArray()
+              : packInts(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeIntArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.INTEGER_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull List<Integer> value) {
+          return sizeOfBoxed(value, 4);
+        }
+      };
+
+  public static final TypeAdapter<Set<Integer>> INTEGER_SET_ADAPTER =
+      new SizedTypeAdapter<Set<Integer>>() {
+        @NonNull @Override public Set<Integer> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            int[] packed = source.createIntArray();
+            Set<Integer> value = new LinkedHashSet<>(packed.length);
+            for (int item : packed) {
+              value.add(item);
+            }
+            return value;
+          }
+          return new LinkedHashSet<>(readBoxed(source, StaticAdapters.INTEGER_ADAPTER));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Set<Integer> value, @NonNull Parcel dest, int flags) {
+          int[] packed = packInts(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeIntArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.INTEGER_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Set<Integer> value) {
+          return sizeOfBoxed(value, 4);
+        }
+      };
+
+  public static final TypeAdapter<Integer[]> INTEGER_ARRAY_ADAPTER =
+      new SizedTypeAdapter<Integer[]>() {
+        @NonNull @Override public Integer[] readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            int[] packed = source.createIntArray();
+            Integer[] value = new Integer[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+              value[i] = packed[i];
+            }
+            return value;
+          }
+          List<Integer> value = readBoxed(source, StaticAdapters.INTEGER_ADAPTER);
+          return value.toArray(new Integer[value.size()]);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Integer[] value, @NonNull Parcel dest, int flags) {
+          int[] packed = packInts(Arrays.asList(value));
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeIntArray(packed);
+          } else {
+            writeBoxed(Arrays.asList(value), dest, flags, StaticAdapters.INTEGER_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Integer[] value) {
+          return sizeOfBoxed(Arrays.asList(value), 4);
+        }
+      };
+
+  public static final TypeAdapter<List<Long>> LONG_LIST_ADAPTER =
+      new SizedTypeAdapter<List<Long>>() {
+        @NonNull @Override public List<Long> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            return new LongArrayList(source.createLongArray());
+          }
+          return readBoxed(source, StaticAdapters.LONG_ADAPTER);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull List<Long> value, @NonNull Parcel dest, int flags) {
+          long[] packed = value instanceof LongArrayList
+              ? ((LongArrayList) value).toLongArray()
+              : packLongs(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeLongArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.LONG_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull List<Long> value) {
+          return sizeOfBoxed(value, 8);
+        }
+      };
+
+  public static final TypeAdapter<Set<Long>> LONG_SET_ADAPTER =
+      new SizedTypeAdapter<Set<Long>>() {
+        @NonNull @Override public Set<Long> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            long[] packed = source.createLongArray();
+            Set<Long> value = new LinkedHashSet<>(packed.length);
+            for (long item : packed) {
+              value.add(item);
+            }
+            return value;
+          }
+          return new LinkedHashSet<>(readBoxed(source, StaticAdapters.LONG_ADAPTER));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Set<Long> value, @NonNull Parcel dest, int flags) {
+          long[] packed = packLongs(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeLongArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.LONG_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Set<Long> value) {
+          return sizeOfBoxed(value, 8);
+        }
+      };
+
+  public static final TypeAdapter<Long[]> LONG_ARRAY_ADAPTER =
+      new SizedTypeAdapter<Long[]>() {
+        @NonNull @Override public Long[] readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            long[] packed = source.createLongArray();
+            Long[] value = new Long[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+              value[i] = packed[i];
+            }
+            return value;
+          }
+          List<Long> value = readBoxed(source, StaticAdapters.LONG_ADAPTER);
+          return value.toArray(new Long[value.size()]);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Long[] value, @NonNull Parcel dest, int flags) {
+          long[] packed = packLongs(Arrays.asList(value));
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeLongArray(packed);
+          } else {
+            writeBoxed(Arrays.asList(value), dest, flags, StaticAdapters.LONG_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Long[] value) {
+          return sizeOfBoxed(Arrays.asList(value), 8);
+        }
+      };
+
+  public static final TypeAdapter<List<Float>> FLOAT_LIST_ADAPTER =
+      new SizedTypeAdapter<List<Float>>() {
+        @NonNull @Override public List<Float> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            return new FloatArrayList(source.createFloatArray());
+          }
+          return readBoxed(source, StaticAdapters.FLOAT_ADAPTER);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull List<Float> value, @NonNull Parcel dest, int flags) {
+          float[] packed = value instanceof FloatArrayList
+              ? ((FloatArrayList) value).toFloatArray()
+              : packFloats(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeFloatArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.FLOAT_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull List<Float> value) {
+          return sizeOfBoxed(value, 4);
+        }
+      };
+
+  public static final TypeAdapter<Set<Float>> FLOAT_SET_ADAPTER =
+      new SizedTypeAdapter<Set<Float>>() {
+        @NonNull @Override public Set<Float> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            float[] packed = source.createFloatArray();
+            Set<Float> value = new LinkedHashSet<>(packed.length);
+            for (float item : packed) {
+              value.add(item);
+            }
+            return value;
+          }
+          return new LinkedHashSet<>(readBoxed(source, StaticAdapters.FLOAT_ADAPTER));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Set<Float> value, @NonNull Parcel dest, int flags) {
+          float[] packed = packFloats(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeFloatArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.FLOAT_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Set<Float> value) {
+          return sizeOfBoxed(value, 4);
+        }
+      };
+
+  public static final TypeAdapter<Float[]> FLOAT_ARRAY_ADAPTER =
+      new SizedTypeAdapter<Float[]>() {
+        @NonNull @Override public Float[] readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            float[] packed = source.createFloatArray();
+            Float[] value = new Float[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+              value[i] = packed[i];
+            }
+            return value;
+          }
+          List<Float> value = readBoxed(source, StaticAdapters.FLOAT_ADAPTER);
+          return value.toArray(new Float[value.size()]);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Float[] value, @NonNull Parcel dest, int flags) {
+          float[] packed = packFloats(Arrays.asList(value));
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeFloatArray(packed);
+          } else {
+            writeBoxed(Arrays.asList(value), dest, flags, StaticAdapters.FLOAT_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Float[] value) {
+          return sizeOfBoxed(Arrays.asList(value), 4);
+        }
+      };
+
+  public static final TypeAdapter<List<Double>> DOUBLE_LIST_ADAPTER =
+      new SizedTypeAdapter<List<Double>>() {
+        @NonNull @Override public List<Double> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            return new DoubleArrayList(source.createDoubleArray());
+          }
+          return readBoxed(source, StaticAdapters.DOUBLE_ADAPTER);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull List<Double> value, @NonNull Parcel dest, int flags) {
+          double[] packed = value instanceof DoubleArrayList
+              ? ((DoubleArrayList) value).toDoubleArray()
+              : packDoubles(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeDoubleArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.DOUBLE_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull List<Double> value) {
+          return sizeOfBoxed(value, 8);
+        }
+      };
+
+  public static final TypeAdapter<Set<Double>> DOUBLE_SET_ADAPTER =
+      new SizedTypeAdapter<Set<Double>>() {
+        @NonNull @Override public Set<Double> readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            double[] packed = source.createDoubleArray();
+            Set<Double> value = new LinkedHashSet<>(packed.length);
+            for (double item : packed) {
+              value.add(item);
+            }
+            return value;
+          }
+          return new LinkedHashSet<>(readBoxed(source, StaticAdapters.DOUBLE_ADAPTER));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Set<Double> value, @NonNull Parcel dest, int flags) {
+          double[] packed = packDoubles(value);
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeDoubleArray(packed);
+          } else {
+            writeBoxed(value, dest, flags, StaticAdapters.DOUBLE_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Set<Double> value) {
+          return sizeOfBoxed(value, 8);
+        }
+      };
+
+  public static final TypeAdapter<Double[]> DOUBLE_ARRAY_ADAPTER =
+      new SizedTypeAdapter<Double[]>() {
+        @NonNull @Override public Double[] readFromParcel(@NonNull Parcel source) {
+          if (source.readInt() == PACKED) {
+            double[] packed = source.createDoubleArray();
+            Double[] value = new Double[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+              value[i] = packed[i];
+            }
+            return value;
+          }
+          List<Double> value = readBoxed(source, StaticAdapters.DOUBLE_ADAPTER);
+          return value.toArray(new Double[value.size()]);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Double[] value, @NonNull Parcel dest, int flags) {
+          double[] packed = packDoubles(Arrays.asList(value));
+          if (packed != null) {
+            dest.writeInt(PACKED);
+            dest.writeDoubleArray(packed);
+          } else {
+            writeBoxed(Arrays.asList(value), dest, flags, StaticAdapters.DOUBLE_ADAPTER);
+          }
+        }
+
+        @Override public int sizeOf(@NonNull Double[] value) {
+          return sizeOfBoxed(Arrays.asList(value), 8);
+        }
+      };
+
+  /** Returns the unboxed elements of {@code value}, or null if any element is null. */
+  @Nullable private static int[] packInts(Collection<Integer> value) {
+    int[] packed = new int[value.size()];
+    int i = 0;
+    for (Integer item : value) {
+      if (item == null) {
+        return null;
+      }
+      packed[i++] = item;
+    }
+    return packed;
+  }
+
+  /** Returns the unboxed elements of {@code value}, or null if any element is null. */
+  @Nullable private static long[] packLongs(Collection<Long> value) {
+    long[] packed = new long[value.size()];
+    int i = 0;
+    for (Long item : value) {
+      if (item == null) {
+        return null;
+      }
+      packed[i++] = item;
+    }
+    return packed;
+  }
+
+  /** Returns the unboxed elements of {@code value}, or null if any element is null. */
+  @Nullable private static float[] packFloats(Collection<Float> value) {
+    float[] packed = new float[value.size()];
+    int i = 0;
+    for (Float item : value) {
+      if (item == null) {
+        return null;
+      }
+      packed[i++] = item;
+    }
+    return packed;
+  }
+
+  /** Returns the unboxed elements of {@code value}, or null if any element is null. */
+  @Nullable private static double[] packDoubles(Collection<Double> value) {
+    double[] packed = new double[value.size()];
+    int i = 0;
+    for (Double item : value) {
+      if (item == null) {
+        return null;
+      }
+      packed[i++] = item;
+    }
+    return packed;
+  }
+
+  private static <T> List<T> readBoxed(Parcel source, TypeAdapter<T> itemAdapter) {
+    int size = source.readInt();
+    List<T> value = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      value.add(Utils.readNullable(source, itemAdapter));
+    }
+    return value;
+  }
+
+  private static <T> void writeBoxed(
+      Collection<T> value, Parcel dest, int flags, TypeAdapter<T> itemAdapter) {
+    dest.writeInt(HAS_NULLS);
+    dest.writeInt(value.size());
+    for (T item : value) {
+      Utils.writeNullable(item, dest, flags, itemAdapter);
+    }
+  }
+
+  /**
+   * Returns the number of bytes written for {@code value} by {@code writeToParcel}, where
+   * {@code width} is the size of each unboxed element.
+   */
+  private static int sizeOfBoxed(Collection<?> value, int width) {
+    int size = value.size();
+    int nulls = 0;
+    for (Object item : value) {
+      if (item == null) {
+        nulls++;
+      }
+    }
+    return nulls == 0 ? 8 + width * size : 8 + 4 * size + width * (size - nulls);
+  }
+
+  private BoxedPrimitiveAdapters() {
+    throw new AssertionError("No instances.");
+  }
+}
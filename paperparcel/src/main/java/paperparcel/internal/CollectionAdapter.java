@@ -20,10 +20,11 @@ import android.os.Parcel;
 import android.support.annotation.NonNull;
 import java.util.ArrayList;
 import java.util.Collection;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class CollectionAdapter<T> implements TypeAdapter<Collection<T>> {
+public final class CollectionAdapter<T> implements SizedTypeAdapter<Collection<T>> {
   private final TypeAdapter<T> itemAdapter;
 
   public CollectionAdapter(TypeAdapter<T> itemAdapter) {
@@ -46,4 +47,12 @@ public final class CollectionAdapter<T> implements TypeAdapter<Collection<T>> {
       itemAdapter.writeToParcel(item, dest, flags);
     }
   }
+
+  @Override public int sizeOf(@NonNull Collection<T> value) {
+    int result = 4;
+    for (T item : value) {
+      result = Utils.addSizes(result, Utils.sizeOf(item, itemAdapter));
+    }
+    return result;
+  }
 }
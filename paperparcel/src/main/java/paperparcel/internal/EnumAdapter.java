@@ -18,10 +18,10 @@ package paperparcel.internal;
 
 import android.os.Parcel;
 import android.support.annotation.NonNull;
-import paperparcel.TypeAdapter;
+import paperparcel.SizedTypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class EnumAdapter<T extends Enum<T>> implements TypeAdapter<T> {
+public final class EnumAdapter<T extends Enum<T>> implements SizedTypeAdapter<T> {
   private final Class<T> enumClass;
 
   public EnumAdapter(Class<T> enumClass) {
@@ -36,4 +36,8 @@ public final class EnumAdapter<T extends Enum<T>> implements TypeAdapter<T> {
   @Override public void writeToParcel(@NonNull T value, @NonNull Parcel dest, int flags) {
     dest.writeString(value.name());
   }
+
+  @Override public int sizeOf(@NonNull T value) {
+    return Utils.sizeOfString(value.name());
+  }
 }
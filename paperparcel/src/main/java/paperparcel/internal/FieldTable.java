@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.lang.reflect.Array;
+import paperparcel.TypeAdapter;
+
+/**
+ * The {@code CREATOR} generated for classes that enable {@code PaperParcel.Options#tableDriven()}.
+ * Rather than unrolling a read and write statement for every field, the generated class describes
+ * its fields with a layout string and an array of {@link TypeAdapter}s, and this class interprets
+ * them. The parcelled data is identical to that of the unrolled code.
+ *
+ * <p>Each character of the layout describes one field, in the order that it is parcelled. The
+ * primitive types use their JVM descriptors ({@code Z}, {@code B}, {@code C}, {@code S},
+ * {@code I}, {@code J}, {@code F} and {@code D}), {@code A} is read and written by the field's
+ * adapter and {@code N} is read and written by the field's adapter after a null marker.</p>
+ *
+ * <p>The names of the fields are only passed in when the {@code paperparcel.budget} or
+ * {@code paperparcel.traceFields} option is enabled. They start the budget path and the trace
+ * section of each field that is parcelled by an adapter.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class FieldTable<T> implements Parcelable.Creator<T> {
+  /** Set when the model shares a {@link ParcelScope} with the other models in its parcel. */
+  public static final int SCOPED = 1;
+  /** Set when the model enables {@code PaperParcel.Options#trackReferences()}. */
+  public static final int TRACK_REFERENCES = 1 << 1;
+  /** Set when the {@code paperparcel.metrics} option reports each call to {@link ParcelMetrics}. */
+  public static final int METRICS = 1 << 2;
+  /** Set when the {@code paperparcel.trace} option sends each call to {@link ParcelTrace}. */
+  public static final int TRACE = 1 << 3;
+  /** Set when the {@code paperparcel.budget} option reports each write to {@link ParcelBudget}. */
+  public static final int BUDGET = 1 << 4;
+  /** Set with {@link #TRACE} when the {@code paperparcel.traceFields} option traces each field. */
+  public static final int TRACE_FIELDS = 1 << 5;
+
+  /**
+   * Gets the fields of a model and creates new instances. Implemented by each generated class.
+   * This interface isn't generic so that implementations don't need bridge methods.
+   */
+  public interface Accessor {
+    /** Returns the value of the field at {@code index} in the layout of {@code data}. */
+    Object get(@NonNull Object data, int index);
+
+    /** Creates a model from the field values, in the order of the layout. */
+    Object create(@NonNull Object[] values);
+  }
+
+  private final Class<T> type;
+  private final Accessor accessor;
+  private final String layout;
+  private final TypeAdapter<Object>[] adapters;
+  private final int flags;
+  @Nullable private final String readSection;
+  @Nullable private final String writeSection;
+  @Nullable private final String budgetName;
+  @Nullable private final String[] budgetPaths;
+  @Nullable private final String[] readSections;
+  @Nullable private final String[] writeSections;
+
+  public FieldTable(
+      @NonNull Class<T> type,
+      @NonNull Accessor accessor,
+      @NonNull String layout,
+      @NonNull TypeAdapter<?>[] adapters,
+      int flags) {
+    this(type, accessor, layout, adapters, flags, null);
+  }
+
+  /**
+   * {@code names} holds the name of each field in the order of the layout. The names of fields
+   * that are written by a container adapter are suffixed with {@code []} in budget paths.
+   */
+  @SuppressWarnings("unchecked")
+  public FieldTable(
+      @NonNull Class<T> type,
+      @NonNull Accessor accessor,
+      @NonNull String layout,
+      @NonNull TypeAdapter<?>[] adapters,
+      int flags,
+      @Nullable String[] names) {
+    this.type = type;
+    this.accessor = accessor;
+    this.layout = layout;
+    this.adapters = (TypeAdapter<Object>[]) adapters;
+    this.flags = flags;
+    if ((flags & TRACE) != 0) {
+      String name = type.getName().replace('$', '.');
+      this.readSection = name + ".createFromParcel";
+      this.writeSection = name + ".writeToParcel";
+    } else {
+      this.readSection = null;
+      this.writeSection = null;
+    }
+    if ((flags & BUDGET) != 0) {
+      String name = type.getName();
+      this.budgetName = name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+      this.budgetPaths = names;
+    } else {
+      this.budgetName = null;
+      this.budgetPaths = null;
+    }
+    if ((flags & TRACE_FIELDS) != 0 && names != null) {
+      String name = type.getName().replace('$', '.');
+      this.readSections = new String[names.length];
+      this.writeSections = new String[names.length];
+      for (int i = 0; i < names.length; i++) {
+        // Trace sections use the plain field name, as in the unrolled code.
+        String field = names[i].endsWith("[]")
+            ? names[i].substring(0, names[i].length() - 2)
+            : names[i];
+        readSections[i] = name + "." + field + ".read";
+        writeSections[i] = name + "." + field + ".write";
+      }
+    } else {
+      this.readSections = null;
+      this.writeSections = null;
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  @Override public T createFromParcel(Parcel in) {
+    if ((flags & (METRICS | TRACE)) == 0) {
+      return read(in, null);
+    }
+    ParcelTrace.Tracer tracer = (flags & TRACE) != 0 ? ParcelTrace.getTracer() : null;
+    if (tracer != null) {
+      tracer.beginSection(readSection);
+    }
+    boolean measured = (flags & METRICS) != 0;
+    long start = measured ? ParcelMetrics.start() : 0L;
+    int position = in.dataPosition();
+    try {
+      return read(in, tracer);
+    } finally {
+      if (measured) {
+        ParcelMetrics.recordRead(type, in.dataPosition() - position, start);
+      }
+      if (tracer != null) {
+        tracer.endSection();
+      }
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "ConstantConditions" })
+  private T read(Parcel in, @Nullable ParcelTrace.Tracer tracer) {
+    boolean scoped = (flags & SCOPED) != 0;
+    if (scoped) {
+      ParcelScope.beginRead(in);
+    }
+    try {
+      boolean trackReferences = (flags & TRACK_REFERENCES) != 0;
+      if (trackReferences) {
+        T reference = ParcelScope.readReference(in);
+        if (reference != null) {
+          return reference;
+        }
+      }
+      String layout = this.layout;
+      int count = layout.length();
+      Object[] values = new Object[count];
+      String[] sections = tracer != null ? readSections : null;
+      for (int i = 0; i < count; i++) {
+        char kind = layout.charAt(i);
+        if (sections == null || !isAdapted(kind)) {
+          values[i] = read(kind, i, in);
+          continue;
+        }
+        tracer.beginSection(sections[i]);
+        try {
+          values[i] = read(kind, i, in);
+        } finally {
+          tracer.endSection();
+        }
+      }
+      T data = (T) accessor.create(values);
+      if (trackReferences) {
+        ParcelScope.registerRead(in, data);
+      }
+      return data;
+    } finally {
+      if (scoped) {
+        ParcelScope.endRead(in);
+      }
+    }
+  }
+
+  private Object read(char kind, int index, Parcel in) {
+    switch (kind) {
+      case 'Z':
+        return in.readInt() == 1;
+      case 'B':
+        return in.readByte();
+      case 'C':
+        return (char) in.readInt();
+      case 'S':
+        return (short) in.readInt();
+      case 'I':
+        return in.readInt();
+      case 'J':
+        return in.readLong();
+      case 'F':
+        return in.readFloat();
+      case 'D':
+        return in.readDouble();
+      case 'A':
+        return adapters[index].readFromParcel(in);
+      case 'N':
+        return Utils.readNullable(in, adapters[index]);
+      default:
+        throw new IllegalStateException("Unknown field kind: " + kind);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override public T[] newArray(int size) {
+    return (T[]) Array.newInstance(type, size);
+  }
+
+  /** Writes {@code data} to {@code dest}. Called by the generated {@code writeToParcel}. */
+  @SuppressWarnings("ConstantConditions")
+  public void write(@NonNull T data, @NonNull Parcel dest, int flags) {
+    if ((this.flags & (METRICS | TRACE | BUDGET)) == 0) {
+      writeFields(data, dest, flags, null, null);
+      return;
+    }
+    ParcelTrace.Tracer tracer = (this.flags & TRACE) != 0 ? ParcelTrace.getTracer() : null;
+    if (tracer != null) {
+      tracer.beginSection(writeSection);
+    }
+    boolean measured = (this.flags & METRICS) != 0;
+    long start = measured ? ParcelMetrics.start() : 0L;
+    int position = dest.dataPosition();
+    ParcelBudget.Recorder budget = (this.flags & BUDGET) != 0
+        ? ParcelBudget.begin(dest, budgetName)
+        : null;
+    try {
+      writeFields(data, dest, flags, tracer, budget);
+    } finally {
+      if (budget != null) {
+        budget.end(dest);
+      }
+      if (measured) {
+        ParcelMetrics.recordWrite(type, dest.dataPosition() - position, start);
+      }
+      if (tracer != null) {
+        tracer.endSection();
+      }
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private void writeFields(
+      T data,
+      Parcel dest,
+      int flags,
+      @Nullable ParcelTrace.Tracer tracer,
+      @Nullable ParcelBudget.Recorder budget) {
+    boolean scoped = (this.flags & SCOPED) != 0;
+    if (scoped) {
+      ParcelScope.beginWrite(dest, data);
+    }
+    try {
+      boolean trackReferences = (this.flags & TRACK_REFERENCES) != 0;
+      if (trackReferences && ParcelScope.writeReference(dest, data)) {
+        return;
+      }
+      String layout = this.layout;
+      int count = layout.length();
+      String[] sections = tracer != null ? writeSections : null;
+      String[] paths = budget != null ? budgetPaths : null;
+      for (int i = 0; i < count; i++) {
+        char kind = layout.charAt(i);
+        if ((sections == null && paths == null) || !isAdapted(kind)) {
+          write(kind, i, accessor.get(data, i), dest, flags);
+          continue;
+        }
+        if (sections != null) {
+          tracer.beginSection(sections[i]);
+        }
+        try {
+          if (paths != null) {
+            budget.enterField(dest, paths[i]);
+          }
+          write(kind, i, accessor.get(data, i), dest, flags);
+          if (paths != null) {
+            budget.exitField(dest);
+          }
+        } finally {
+          if (sections != null) {
+            tracer.endSection();
+          }
+        }
+      }
+      if (trackReferences) {
+        ParcelScope.registerWritten(dest, data);
+      }
+    } finally {
+      if (scoped) {
+        ParcelScope.endWrite(dest);
+      }
+    }
+  }
+
+  /** Returns true if fields of {@code kind} are parcelled by an adapter rather than directly. */
+  private static boolean isAdapted(char kind) {
+    return kind == 'A' || kind == 'N';
+  }
+
+  private void write(char kind, int index, Object value, Parcel dest, int flags) {
+    switch (kind) {
+      case 'Z':
+        dest.writeInt((Boolean) value ? 1 : 0);
+        break;
+      case 'B':
+        dest.writeByte((Byte) value);
+        break;
+      case 'C':
+        dest.writeInt((Character) value);
+        break;
+      case 'S':
+        dest.writeInt((Short) value);
+        break;
+      case 'I':
+        dest.writeInt((Integer) value);
+        break;
+      case 'J':
+        dest.writeLong((Long) value);
+        break;
+      case 'F':
+        dest.writeFloat((Float) value);
+        break;
+      case 'D':
+        dest.writeDouble((Double) value);
+        break;
+      case 'A':
+        adapters[index].writeToParcel(value, dest, flags);
+        break;
+      case 'N':
+        Utils.writeNullable(value, dest, flags, adapters[index]);
+        break;
+      default:
+        throw new IllegalStateException("Unknown field kind: " + kind);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable {@code List<Float>} backed by a {@code float[]}, used to read lists of boxed
+ * primitives without boxing every element up front. Elements are boxed when they are read. Null
+ * elements are not permitted.
+ */
+final class FloatArrayList extends AbstractList<Float> implements RandomAccess {
+  private float[] elements;
+  private int size;
+
+  FloatArrayList(float[] elements) {
+    this.elements = elements;
+    this.size = elements.length;
+  }
+
+  @Override public Float get(int index) {
+    checkIndex(index);
+    return elements[index];
+  }
+
+  @Override public Float set(int index, Float element) {
+    checkIndex(index);
+    float previous = elements[index];
+    elements[index] = element;
+    return previous;
+  }
+
+  @Override public void add(int index, Float element) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    float value = element;
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+    }
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = value;
+    size++;
+    modCount++;
+  }
+
+  @Override public Float remove(int index) {
+    checkIndex(index);
+    float previous = elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override protected void removeRange(int fromIndex, int toIndex) {
+    System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+    size -= toIndex - fromIndex;
+    modCount++;
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  /** Returns a copy of the elements of this list. */
+  float[] toFloatArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
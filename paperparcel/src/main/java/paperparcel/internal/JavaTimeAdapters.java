@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import paperparcel.SizedTypeAdapter;
+import paperparcel.TypeAdapter;
+
+/**
+ * Adapters for the {@code java.time} types, which are only available from API 26. These are kept
+ * separate from {@link StaticAdapters} so that loading those adapters never loads these classes
+ * on older versions.
+ */
+@TargetApi(Build.VERSION_CODES.O)
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class JavaTimeAdapters {
+
+  public static final TypeAdapter<Instant> INSTANT_ADAPTER = new SizedTypeAdapter<Instant>() {
+    @NonNull @Override public Instant readFromParcel(@NonNull Parcel source) {
+      return Instant.ofEpochSecond(source.readLong(), source.readInt());
+    }
+
+    @Override public void writeToParcel(@NonNull Instant value, @NonNull Parcel dest, int flags) {
+      dest.writeLong(value.getEpochSecond());
+      dest.writeInt(value.getNano());
+    }
+
+    @Override public int sizeOf(@NonNull Instant value) {
+      return 12;
+    }
+  };
+
+  public static final TypeAdapter<Duration> DURATION_ADAPTER = new SizedTypeAdapter<Duration>() {
+    @NonNull @Override public Duration readFromParcel(@NonNull Parcel source) {
+      return Duration.ofSeconds(source.readLong(), source.readInt());
+    }
+
+    @Override public void writeToParcel(@NonNull Duration value, @NonNull Parcel dest, int flags) {
+      dest.writeLong(value.getSeconds());
+      dest.writeInt(value.getNano());
+    }
+
+    @Override public int sizeOf(@NonNull Duration value) {
+      return 12;
+    }
+  };
+
+  public static final TypeAdapter<Period> PERIOD_ADAPTER = new SizedTypeAdapter<Period>() {
+    @NonNull @Override public Period readFromParcel(@NonNull Parcel source) {
+      return Period.of(source.readInt(), source.readInt(), source.readInt());
+    }
+
+    @Override public void writeToParcel(@NonNull Period value, @NonNull Parcel dest, int flags) {
+      dest.writeInt(value.getYears());
+      dest.writeInt(value.getMonths());
+      dest.writeInt(value.getDays());
+    }
+
+    @Override public int sizeOf(@NonNull Period value) {
+      return 12;
+    }
+  };
+
+  public static final TypeAdapter<LocalDate> LOCAL_DATE_ADAPTER =
+      new SizedTypeAdapter<LocalDate>() {
+        @NonNull @Override public LocalDate readFromParcel(@NonNull Parcel source) {
+          return LocalDate.ofEpochDay(source.readLong());
+        }
+
+        @Override
+        public void writeToParcel(@NonNull LocalDate value, @NonNull Parcel dest, int flags) {
+          dest.writeLong(value.toEpochDay());
+        }
+
+        @Override public int sizeOf(@NonNull LocalDate value) {
+          return 8;
+        }
+      };
+
+  public static final TypeAdapter<LocalTime> LOCAL_TIME_ADAPTER =
+      new SizedTypeAdapter<LocalTime>() {
+        @NonNull @Override public LocalTime readFromParcel(@NonNull Parcel source) {
+          return LocalTime.ofNanoOfDay(source.readLong());
+        }
+
+        @Override
+        public void writeToParcel(@NonNull LocalTime value, @NonNull Parcel dest, int flags) {
+          dest.writeLong(value.toNanoOfDay());
+        }
+
+        @Override public int sizeOf(@NonNull LocalTime value) {
+          return 8;
+        }
+      };
+
+  public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_ADAPTER =
+      new SizedTypeAdapter<LocalDateTime>() {
+        @NonNull @Override public LocalDateTime readFromParcel(@NonNull Parcel source) {
+          return readLocalDateTime(source);
+        }
+
+        @Override
+        public void writeToParcel(@NonNull LocalDateTime value, @NonNull Parcel dest, int flags) {
+          writeLocalDateTime(value, dest);
+        }
+
+        @Override public int sizeOf(@NonNull LocalDateTime value) {
+          return 16;
+        }
+      };
+
+  public static final TypeAdapter<OffsetDateTime> OFFSET_DATE_TIME_ADAPTER =
+      new SizedTypeAdapter<OffsetDateTime>() {
+        @NonNull @Override public OffsetDateTime readFromParcel(@NonNull Parcel source) {
+          LocalDateTime dateTime = readLocalDateTime(source);
+          return OffsetDateTime.of(dateTime, ZoneOffset.ofTotalSeconds(source.readInt()));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull OffsetDateTime value, @NonNull Parcel dest, int flags) {
+          writeLocalDateTime(value.toLocalDateTime(), dest);
+          dest.writeInt(value.getOffset().getTotalSeconds());
+        }
+
+        @Override public int sizeOf(@NonNull OffsetDateTime value) {
+          return 20;
+        }
+      };
+
+  /**
+   * Writes a {@link ZonedDateTime} as its instant and zone id, which restores the same offset
+   * even when the local time is ambiguous.
+   */
+  public static final TypeAdapter<ZonedDateTime> ZONED_DATE_TIME_ADAPTER =
+      new SizedTypeAdapter<ZonedDateTime>() {
+        @NonNull @Override public ZonedDateTime readFromParcel(@NonNull Parcel source) {
+          Instant instant = Instant.ofEpochSecond(source.readLong(), source.readInt());
+          return ZonedDateTime.ofInstant(instant, ZoneId.of(source.readString()));
+        }
+
+        @Override
+        public void writeToParcel(@NonNull ZonedDateTime value, @NonNull Parcel dest, int flags) {
+          dest.writeLong(value.toEpochSecond());
+          dest.writeInt(value.getNano());
+          dest.writeString(value.getZone().getId());
+        }
+
+        @Override public int sizeOf(@NonNull ZonedDateTime value) {
+          return 12 + Utils.sizeOfString(value.getZone().getId());
+        }
+      };
+
+  public static final TypeAdapter<ZoneId> ZONE_ID_ADAPTER = new SizedTypeAdapter<ZoneId>() {
+    @NonNull @Override public ZoneId readFromParcel(@NonNull Parcel source) {
+      return ZoneId.of(source.readString());
+    }
+
+    @Override public void writeToParcel(@NonNull ZoneId value, @NonNull Parcel dest, int flags) {
+      dest.writeString(value.getId());
+    }
+
+    @Override public int sizeOf(@NonNull ZoneId value) {
+      return Utils.sizeOfString(value.getId());
+    }
+  };
+
+  private static LocalDateTime readLocalDateTime(Parcel source) {
+    LocalDate date = LocalDate.ofEpochDay(source.readLong());
+    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(source.readLong()));
+  }
+
+  private static void writeLocalDateTime(LocalDateTime value, Parcel dest) {
+    dest.writeLong(value.toLocalDate().toEpochDay());
+    dest.writeLong(value.toLocalTime().toNanoOfDay());
+  }
+
+  private JavaTimeAdapters() {
+    throw new AssertionError("No instances.");
+  }
+}
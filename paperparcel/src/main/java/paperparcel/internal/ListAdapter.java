@@ -20,10 +20,11 @@ import android.os.Parcel;
 import android.support.annotation.NonNull;
 import java.util.ArrayList;
 import java.util.List;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class ListAdapter<T> implements TypeAdapter<List<T>> {
+public final class ListAdapter<T> implements SizedTypeAdapter<List<T>> {
   private final TypeAdapter<T> itemAdapter;
 
   public ListAdapter(TypeAdapter<T> itemAdapter) {
@@ -48,4 +49,12 @@ public final class ListAdapter<T> implements TypeAdapter<List<T>> {
       itemAdapter.writeToParcel(item, dest, flags);
     }
   }
+
+  @Override public int sizeOf(@NonNull List<T> value) {
+    int result = 4;
+    for (int i = 0, size = value.size(); i < size; i++) {
+      result = Utils.addSizes(result, Utils.sizeOf(value.get(i), itemAdapter));
+    }
+    return result;
+  }
 }
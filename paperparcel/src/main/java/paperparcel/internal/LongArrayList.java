@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable {@code List<Long>} backed by a {@code long[]}, used to read lists of boxed
+ * primitives without boxing every element up front. Elements are boxed when they are read. Null
+ * elements are not permitted.
+ */
+final class LongArrayList extends AbstractList<Long> implements RandomAccess {
+  private long[] elements;
+  private int size;
+
+  LongArrayList(long[] elements) {
+    this.elements = elements;
+    this.size = elements.length;
+  }
+
+  @Override public Long get(int index) {
+    checkIndex(index);
+    return elements[index];
+  }
+
+  @Override public Long set(int index, Long element) {
+    checkIndex(index);
+    long previous = elements[index];
+    elements[index] = element;
+    return previous;
+  }
+
+  @Override public void add(int index, Long element) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    long value = element;
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+    }
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = value;
+    size++;
+    modCount++;
+  }
+
+  @Override public Long remove(int index) {
+    checkIndex(index);
+    long previous = elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override protected void removeRange(int fromIndex, int toIndex) {
+    System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+    size -= toIndex - fromIndex;
+    modCount++;
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  /** Returns a copy of the elements of this list. */
+  long[] toLongArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
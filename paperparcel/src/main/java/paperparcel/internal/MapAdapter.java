@@ -20,10 +20,11 @@ import android.os.Parcel;
 import android.support.annotation.NonNull;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class MapAdapter<K, V> implements TypeAdapter<Map<K, V>> {
+public final class MapAdapter<K, V> implements SizedTypeAdapter<Map<K, V>> {
   private final TypeAdapter<K> keyAdapter;
   private final TypeAdapter<V> valueAdapter;
 
@@ -49,4 +50,13 @@ public final class MapAdapter<K, V> implements TypeAdapter<Map<K, V>> {
       valueAdapter.writeToParcel(entry.getValue(), dest, flags);
     }
   }
+
+  @Override public int sizeOf(@NonNull Map<K, V> value) {
+    int result = 4;
+    for (Map.Entry<K, V> entry : value.entrySet()) {
+      result = Utils.addSizes(result, Utils.sizeOf(entry.getKey(), keyAdapter));
+      result = Utils.addSizes(result, Utils.sizeOf(entry.getValue(), valueAdapter));
+    }
+    return result;
+  }
 }
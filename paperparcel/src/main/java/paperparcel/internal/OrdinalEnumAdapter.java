@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import paperparcel.SizedTypeAdapter;
+
+/**
+ * Writes enum values by their ordinal rather than by their name. Used instead of
+ * {@link EnumAdapter} when {@code PaperParcel.Options#useEnumOrdinals()} is enabled.
+ *
+ * <p>{@code constantCount} is the number of enum constants when the model is compiled. If the enum
+ * has since had constants added or removed, the ordinals written by this adapter would silently map
+ * to the wrong constants, so construction fails instead. Only the count is checked: constant names
+ * may be renamed by ProGuard or R8, so they can't be compared with the names seen at compile time.
+ * Reordering the constants is therefore not detected.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class OrdinalEnumAdapter<T extends Enum<T>> implements SizedTypeAdapter<T> {
+  private static final int NULL_ORDINAL = -1;
+
+  private final T[] constants;
+
+  public OrdinalEnumAdapter(Class<T> enumClass, int constantCount) {
+    this.constants = enumClass.getEnumConstants();
+    if (constants.length != constantCount) {
+      throw new IllegalStateException("The constants of " + enumClass.getName()
+          + " have changed since the PaperParcel class using it was compiled. Rebuild the module"
+          + " containing that class.");
+    }
+  }
+
+  @Nullable @Override public T readFromParcel(@NonNull Parcel source) {
+    int ordinal = source.readInt();
+    if (ordinal == NULL_ORDINAL) {
+      return null;
+    }
+    if (ordinal < 0 || ordinal >= constants.length) {
+      throw new BadParcelableException("Unknown ordinal " + ordinal + " of "
+          + constants.getClass().getComponentType().getName() + " in Parcel " + source);
+    }
+    return constants[ordinal];
+  }
+
+  @Override public void writeToParcel(@Nullable T value, @NonNull Parcel dest, int flags) {
+    dest.writeInt(value == null ? NULL_ORDINAL : value.ordinal());
+  }
+
+  @Override public int sizeOf(@Nullable T value) {
+    return 4;
+  }
+}
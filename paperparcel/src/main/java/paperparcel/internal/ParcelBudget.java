@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports models that write more than a configured number of bytes, with a breakdown of the
+ * bytes written by each field path, e.g. {@code User.friends[].image.url}. Used by generated
+ * code when the {@code paperparcel.budget} processor option is enabled, to find the models that
+ * push an {@code Intent} or {@code Bundle} towards the Binder transaction limit before it fails
+ * with a {@code TransactionTooLargeException}.
+ *
+ * <p>Nothing is recorded until a budget is installed with {@link #install}. Generated code calls
+ * {@link #begin} once per {@code writeToParcel} call and does no other work when it returns null.
+ * Each top-level model that is written then records the {@link Parcel#dataPosition()} delta
+ * around every non-primitive field, including the fields of the models nested within it. Fields
+ * written by a container adapter are suffixed with {@code []}, and their paths continue into the
+ * fields of each element. When the top-level model has written more than the budget, the
+ * {@link Callback} is called on the writing thread with a {@link Report}.</p>
+ *
+ * <p>The budget applies to each top-level model on its own, not to the parcel that it is written
+ * to. A {@code Bundle} that holds several models, or other values alongside them, can still go
+ * over the Binder transaction limit while every model stays within its budget, so
+ * {@code budgetBytes} should be the share of a transaction that a single model may use.</p>
+ *
+ * <p>Recording allocates a path for each field that is written, so it is meant for debug builds.
+ * In production, pass a {@code sampleRate} greater than one to record only one in that many
+ * top-level writes on each thread.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class ParcelBudget {
+  /** Called when a top-level model writes more bytes than the installed budget. */
+  public interface Callback {
+    void onBudgetExceeded(@NonNull Report report);
+  }
+
+  @Nullable private static volatile Config config;
+
+  private static final ThreadLocal<Recorder> RECORDERS = new ThreadLocal<Recorder>() {
+    @Override protected Recorder initialValue() {
+      return new Recorder();
+    }
+  };
+
+  /**
+   * Calls {@code callback} whenever a single top-level model writes more than
+   * {@code budgetBytes}, recording one in every {@code sampleRate} top-level writes on each
+   * thread. Bytes written to the same parcel by other models or values are not counted.
+   */
+  public static void install(int budgetBytes, int sampleRate, @NonNull Callback callback) {
+    if (budgetBytes < 0) {
+      throw new IllegalArgumentException("budgetBytes < 0: " + budgetBytes);
+    }
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("sampleRate < 1: " + sampleRate);
+    }
+    if (callback == null) {
+      throw new NullPointerException("callback == null");
+    }
+    config = new Config(budgetBytes, sampleRate, callback);
+  }
+
+  /** Stops recording. Writes that are already in progress finish recording. */
+  public static void uninstall() {
+    config = null;
+  }
+
+  /**
+   * Called at the start of each generated {@code writeToParcel}. Returns null if no budget is
+   * installed. Otherwise the returned recorder belongs to the current thread and must be
+   * {@linkplain Recorder#end ended}. {@code name} is the simple name of the model, which starts
+   * the path of each of its fields when it is the top-level model.
+   */
+  @Nullable public static Recorder begin(@NonNull Parcel dest, @NonNull String name) {
+    if (config == null) {
+      return null;
+    }
+    Recorder recorder = RECORDERS.get();
+    recorder.begin(dest, name);
+    return recorder;
+  }
+
+  /** Records the field paths of the models written on a single thread. */
+  public static final class Recorder {
+    /** The parcel of the top-level model, or null if it isn't being recorded. */
+    @Nullable private Parcel parcel;
+    @Nullable private Config config;
+    private int depth;
+    private int start;
+    private String root;
+    private long writes;
+
+    private final StringBuilder path = new StringBuilder();
+    private int[] pathLengths = new int[8];
+    private int[] positions = new int[8];
+    private int fields;
+    private final Map<String, long[]> totals = new HashMap<>();
+
+    Recorder() {
+    }
+
+    void begin(Parcel dest, String name) {
+      if (depth++ > 0) {
+        return;
+      }
+      Config config = ParcelBudget.config;
+      if (config == null || writes++ % config.sampleRate != 0) {
+        return;
+      }
+      this.parcel = dest;
+      this.config = config;
+      this.start = dest.dataPosition();
+      this.root = name;
+      path.setLength(0);
+      path.append(name);
+      fields = 0;
+    }
+
+    /** Called before the field {@code name} of the current model is written. */
+    public void enterField(@NonNull Parcel dest, @NonNull String name) {
+      if (dest != parcel) {
+        return;
+      }
+      if (fields == positions.length) {
+        positions = Arrays.copyOf(positions, fields * 2);
+        pathLengths = Arrays.copyOf(pathLengths, fields * 2);
+      }
+      pathLengths[fields] = path.length();
+      positions[fields] = dest.dataPosition();
+      fields++;
+      path.append('.').append(name);
+    }
+
+    /** Called after the field passed to the last {@link #enterField} call has been written. */
+    public void exitField(@NonNull Parcel dest) {
+      if (dest != parcel || fields == 0) {
+        return;
+      }
+      fields--;
+      String key = path.toString();
+      long[] total = totals.get(key);
+      if (total == null) {
+        total = new long[2];
+        totals.put(key, total);
+      }
+      total[0] += dest.dataPosition() - positions[fields];
+      total[1]++;
+      path.setLength(pathLengths[fields]);
+    }
+
+    /** Called at the end of each generated {@code writeToParcel}, even if it failed. */
+    @SuppressWarnings("ConstantConditions")
+    public void end(@NonNull Parcel dest) {
+      if (--depth > 0 || parcel == null) {
+        return;
+      }
+      Config config = this.config;
+      int bytes = parcel.dataPosition() - start;
+      Report report = bytes > config.budgetBytes
+          ? new Report(root, bytes, config.budgetBytes, entries())
+          : null;
+      parcel = null;
+      this.config = null;
+      totals.clear();
+      if (report != null) {
+        config.callback.onBudgetExceeded(report);
+      }
+    }
+
+    private List<Entry> entries() {
+      List<Entry> entries = new ArrayList<>(totals.size());
+      for (Map.Entry<String, long[]> total : totals.entrySet()) {
+        entries.add(new Entry(total.getKey(), total.getValue()[0], (int) total.getValue()[1]));
+      }
+      Collections.sort(entries, new Comparator<Entry>() {
+        @Override public int compare(Entry left, Entry right) {
+          if (left.bytes != right.bytes) {
+            return left.bytes > right.bytes ? -1 : 1;
+          }
+          return left.path.compareTo(right.path);
+        }
+      });
+      return Collections.unmodifiableList(entries);
+    }
+  }
+
+  /** The bytes written by a top-level model that exceeded the budget. */
+  public static final class Report {
+    /** The simple name of the top-level model. */
+    @NonNull public final String root;
+    public final int bytes;
+    public final int budgetBytes;
+    /**
+     * The bytes written by each field path, largest first. The bytes of a path include those of
+     * the paths nested within it.
+     */
+    @NonNull public final List<Entry> entries;
+
+    Report(String root, int bytes, int budgetBytes, List<Entry> entries) {
+      this.root = root;
+      this.bytes = bytes;
+      this.budgetBytes = budgetBytes;
+      this.entries = entries;
+    }
+
+    @Override public String toString() {
+      StringBuilder result = new StringBuilder()
+          .append(root).append(" wrote ").append(bytes).append(" bytes, over the budget of ")
+          .append(budgetBytes).append(" bytes");
+      for (Entry entry : entries) {
+        result.append("\n  ").append(entry);
+      }
+      return result.toString();
+    }
+  }
+
+  /** The bytes written by a single field path. */
+  public static final class Entry {
+    /** The path of the field, starting with the simple name of the top-level model. */
+    @NonNull public final String path;
+    public final long bytes;
+    /** The number of times that the path was written, e.g. once for each element of a list. */
+    public final int count;
+
+    Entry(String path, long bytes, int count) {
+      this.path = path;
+      this.bytes = bytes;
+      this.count = count;
+    }
+
+    @Override public String toString() {
+      return path + ": " + bytes + " bytes" + (count > 1 ? " (" + count + " writes)" : "");
+    }
+  }
+
+  private static final class Config {
+    final int budgetBytes;
+    final int sampleRate;
+    final Callback callback;
+
+    Config(int budgetBytes, int sampleRate, Callback callback) {
+      this.budgetBytes = budgetBytes;
+      this.sampleRate = sampleRate;
+      this.callback = callback;
+    }
+  }
+
+  private ParcelBudget() {
+    throw new AssertionError("No instances.");
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+
+/**
+ * Receives the size and duration of each {@code writeToParcel} and {@code createFromParcel} call
+ * made by generated code. Used by generated code when the {@code paperparcel.metrics} processor
+ * option is enabled; otherwise nothing is recorded and this class is never loaded.
+ *
+ * <p>Each call reports the class of the model, the number of bytes that it wrote or read (the
+ * change in {@link Parcel#dataPosition()}) and the elapsed time in nanoseconds. The numbers are
+ * inclusive: a model that contains another {@code PaperParcel} model also counts the bytes and
+ * time of the nested model, which reports them again under its own class.</p>
+ *
+ * <p>By default calls are recorded by a {@link StripedMetricsSink}, which is returned by
+ * {@link #defaultSink()} so that its {@linkplain StripedMetricsSink#snapshot() snapshot} can be
+ * exported. Any other {@link Sink} can be installed with {@link #setSink(Sink)}.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class ParcelMetrics {
+  /** Receives the metrics of each call. Implementations must be thread-safe. */
+  public interface Sink {
+    /** Called after {@code bytes} were written for a {@code type} model in {@code nanos}. */
+    void onWrite(@NonNull Class<?> type, int bytes, long nanos);
+
+    /** Called after {@code bytes} were read for a {@code type} model in {@code nanos}. */
+    void onRead(@NonNull Class<?> type, int bytes, long nanos);
+  }
+
+  private static final StripedMetricsSink DEFAULT_SINK = new StripedMetricsSink();
+
+  private static volatile Sink sink = DEFAULT_SINK;
+
+  /** Returns the sink that is installed until {@link #setSink(Sink)} is called. */
+  @NonNull public static StripedMetricsSink defaultSink() {
+    return DEFAULT_SINK;
+  }
+
+  /** Returns the sink that currently receives the metrics of each call. */
+  @NonNull public static Sink getSink() {
+    return sink;
+  }
+
+  /** Sends the metrics of every subsequent call to {@code sink}. */
+  public static void setSink(@NonNull Sink sink) {
+    if (sink == null) {
+      throw new NullPointerException("sink == null");
+    }
+    ParcelMetrics.sink = sink;
+  }
+
+  /** Returns the start time of a call, to be passed to {@link #recordWrite} or {@link #recordRead}. */
+  public static long start() {
+    return System.nanoTime();
+  }
+
+  public static void recordWrite(@NonNull Class<?> type, int bytes, long start) {
+    sink.onWrite(type, bytes, System.nanoTime() - start);
+  }
+
+  public static void recordRead(@NonNull Class<?> type, int bytes, long start) {
+    sink.onRead(type, bytes, System.nanoTime() - start);
+  }
+
+  private ParcelMetrics() {
+    throw new AssertionError("No instances.");
+  }
+}
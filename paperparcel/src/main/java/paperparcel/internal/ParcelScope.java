@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import paperparcel.SizedTypeAdapter;
+import paperparcel.TypeAdapter;
+
+/**
+ * Tracks state that is shared by every {@code PaperParcel} model written to (or read from) a
+ * {@link Parcel} as part of a single top-level {@code writeToParcel} (or {@code createFromParcel})
+ * call. Used by generated code when {@code PaperParcel.Options#poolStrings()} or
+ * {@code PaperParcel.Options#trackReferences()} is enabled.
+ *
+ * <p>Each model begins by writing a marker saying whether it starts a new scope or shares the
+ * scope of the model that is writing it. Nested models share their parent's scope as long as
+ * they are written to the same {@link Parcel} and were handed to their {@code writeToParcel}
+ * method by PaperParcel itself (see {@link #handOff(Parcel, Object)}). Anything written by other
+ * code (e.g. the contents of a {@code Bundle}) starts a fresh scope, which keeps lazily-read data
+ * self-contained. The {@code flags} passed to nested values are left untouched.</p>
+ *
+ * <p>Scopes are confined to the current thread, mirroring {@link Parcel} itself.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class ParcelScope {
+  private static final int FRESH = 0;
+  private static final int SHARED = 1;
+
+  private static final int NULL_STRING = -1;
+  private static final int NEW_STRING = -2;
+
+  private static final int NEW_OBJECT = -1;
+  private static final int IN_PROGRESS = -1;
+
+  /**
+   * Writes strings to a table that is local to the current scope. The first occurrence of a
+   * string is written in full and every later occurrence is written as its index in the table.
+   * As {@code sizeOf} has no scope to look strings up in, it returns the size of a first
+   * occurrence.
+   */
+  public static final TypeAdapter<String> STRING_ADAPTER = new SizedTypeAdapter<String>() {
+    @Nullable @Override public String readFromParcel(@NonNull Parcel source) {
+      int index = source.readInt();
+      if (index == NULL_STRING) {
+        return null;
+      }
+      List<String> strings = current(source).readStrings;
+      if (index == NEW_STRING) {
+        String value = source.readString();
+        strings.add(value);
+        return value;
+      }
+      if (index >= strings.size()) {
+        throw new BadParcelableException("Unknown string index " + index + " in Parcel " + source);
+      }
+      return strings.get(index);
+    }
+
+    @Override public void writeToParcel(@Nullable String value, @NonNull Parcel dest, int flags) {
+      if (value == null) {
+        dest.writeInt(NULL_STRING);
+        return;
+      }
+      Map<String, Integer> strings = current(dest).writtenStrings;
+      Integer index = strings.get(value);
+      if (index != null) {
+        dest.writeInt(index);
+      } else {
+        strings.put(value, strings.size());
+        dest.writeInt(NEW_STRING);
+        dest.writeString(value);
+      }
+    }
+
+    @Override public int sizeOf(@Nullable String value) {
+      return value == null ? 4 : 4 + Utils.sizeOfString(value);
+    }
+  };
+
+  private static final ThreadLocal<ParcelScope> TOP = new ThreadLocal<>();
+
+  private final Parcel parcel;
+  private final ParcelScope parent;
+  private int depth = 1;
+  private Object handedOff;
+
+  private final Map<String, Integer> writtenStrings = new HashMap<>();
+  private final List<String> readStrings = new ArrayList<>();
+
+  private final Map<Object, Integer> writtenObjects = new IdentityHashMap<>();
+  private int writtenObjectCount;
+  private final List<Object> readObjects = new ArrayList<>();
+
+  private ParcelScope(Parcel parcel, ParcelScope parent) {
+    this.parcel = parcel;
+    this.parent = parent;
+  }
+
+  /**
+   * Records that {@code value} is about to be written to {@code dest} by PaperParcel, so that it
+   * can share the scope that is active for {@code dest}, if any. Called by the built-in adapters
+   * just before they call {@code writeToParcel} on a {@code Parcelable}.
+   */
+  public static void handOff(@NonNull Parcel dest, @NonNull Object value) {
+    ParcelScope top = TOP.get();
+    if (top != null && top.parcel == dest) {
+      top.handedOff = value;
+    }
+  }
+
+  /**
+   * Enters the scope that {@code data} should be written to {@code dest} in. Every call must be
+   * paired with a call to {@link #endWrite(Parcel)}.
+   */
+  public static void beginWrite(@NonNull Parcel dest, @NonNull Object data) {
+    ParcelScope top = TOP.get();
+    if (top != null && top.parcel == dest && top.handedOff == data) {
+      top.handedOff = null;
+      top.depth++;
+      dest.writeInt(SHARED);
+    } else {
+      TOP.set(new ParcelScope(dest, top));
+      dest.writeInt(FRESH);
+    }
+  }
+
+  public static void endWrite(@NonNull Parcel dest) {
+    end(dest);
+  }
+
+  /**
+   * Enters the scope that {@code source} was written in. Every call must be paired with a call to
+   * {@link #endRead(Parcel)}.
+   */
+  public static void beginRead(@NonNull Parcel source) {
+    ParcelScope top = TOP.get();
+    int marker = source.readInt();
+    if (marker == SHARED) {
+      if (top == null || top.parcel != source) {
+        throw new BadParcelableException("Parcel " + source + " continues a PaperParcel scope"
+            + " that was never started. Was it read using different flags than it was written"
+            + " with?");
+      }
+      top.depth++;
+    } else {
+      TOP.set(new ParcelScope(source, top));
+    }
+  }
+
+  public static void endRead(@NonNull Parcel source) {
+    end(source);
+  }
+
+  /**
+   * Writes a back-reference to {@code value} if it has already been written in the current scope
+   * and returns {@code true}. Otherwise marks {@code value} as being written and returns
+   * {@code false}, in which case the caller must write {@code value} and then call
+   * {@link #registerWritten(Parcel, Object)}.
+   *
+   * <p>Objects are only assigned an id once they have been written in full, so that the reader
+   * can assign the same ids as it creates each object. As an object can't be created before the
+   * objects it refers to, an object that refers back to itself can't be restored and an
+   * {@link IllegalArgumentException} is thrown instead.</p>
+   */
+  public static boolean writeReference(@NonNull Parcel dest, @NonNull Object value) {
+    Map<Object, Integer> objects = current(dest).writtenObjects;
+    Integer id = objects.get(value);
+    if (id == null) {
+      objects.put(value, IN_PROGRESS);
+      dest.writeInt(NEW_OBJECT);
+      return false;
+    }
+    if (id == IN_PROGRESS) {
+      throw new IllegalArgumentException("Cannot write " + value.getClass().getName()
+          + " to a Parcel as it is reachable from its own fields. Shared references can be"
+          + " restored, but cycles cannot be as each object is only created once all of its"
+          + " fields have been read.");
+    }
+    dest.writeInt(id);
+    return true;
+  }
+
+  public static void registerWritten(@NonNull Parcel dest, @NonNull Object value) {
+    ParcelScope scope = current(dest);
+    scope.writtenObjects.put(value, scope.writtenObjectCount++);
+  }
+
+  /**
+   * Returns the previously read object if the next value in {@code source} is a back-reference
+   * written by {@link #writeReference(Parcel, Object)}, otherwise returns {@code null}, in which
+   * case the caller must read the object and then call {@link #registerRead(Parcel, Object)}.
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable public static <T> T readReference(@NonNull Parcel source) {
+    int id = source.readInt();
+    if (id == NEW_OBJECT) {
+      return null;
+    }
+    List<Object> objects = current(source).readObjects;
+    if (id < 0 || id >= objects.size()) {
+      throw new BadParcelableException("Unknown object id " + id + " in Parcel " + source);
+    }
+    return (T) objects.get(id);
+  }
+
+  public static void registerRead(@NonNull Parcel source, @NonNull Object value) {
+    current(source).readObjects.add(value);
+  }
+
+  private static void end(Parcel parcel) {
+    ParcelScope top = current(parcel);
+    if (--top.depth == 0) {
+      TOP.set(top.parent);
+    }
+  }
+
+  private static ParcelScope current(Parcel parcel) {
+    ParcelScope top = TOP.get();
+    if (top == null || top.parcel != parcel) {
+      throw new IllegalStateException("No PaperParcel scope is active for Parcel " + parcel);
+    }
+    return top;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Sends trace sections around the generated {@code writeToParcel} and {@code createFromParcel}
+ * methods to a pluggable {@link Tracer}. Used by generated code when the
+ * {@code paperparcel.trace} processor option is enabled; {@code paperparcel.traceFields} also
+ * traces each field that is read or written by a {@code TypeAdapter}.
+ *
+ * <p>Generated code reads {@link #getTracer()} into a local once per call, begins and ends its
+ * sections on that local, and skips tracing entirely when it is null, which is the case until a
+ * tracer is installed with {@link #setTracer(Tracer)}. On a
+ * device, {@link #systemTracer()} records the sections with {@code android.os.Trace} so that they
+ * show up in systrace and Perfetto. On the host, a {@link RecordingTracer} keeps them in memory
+ * so that they can be asserted in tests.</p>
+ *
+ * <p>Sections are named after the model class, e.g. {@code com.example.User.writeToParcel}, and
+ * fields after the class and field, e.g. {@code com.example.User.friends.read}.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class ParcelTrace {
+  /** Receives the sections of generated code. Calls are balanced on each thread. */
+  public interface Tracer {
+    void beginSection(@NonNull String name);
+
+    void endSection();
+  }
+
+  @Nullable private static volatile Tracer tracer;
+
+  /**
+   * Sends the sections of every subsequent call to {@code tracer}, or stops tracing if it is
+   * null. Calls that are already in progress keep the tracer that they started with, so their
+   * sections stay balanced on it.
+   */
+  public static void setTracer(@Nullable Tracer tracer) {
+    ParcelTrace.tracer = tracer;
+  }
+
+  /** Returns the installed tracer, or null if tracing is disabled. */
+  @Nullable public static Tracer getTracer() {
+    return tracer;
+  }
+
+  /**
+   * Returns a tracer that records sections with {@code android.os.Trace}, or one that does
+   * nothing below API 18.
+   */
+  @NonNull public static Tracer systemTracer() {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2
+        ? SystemTracer.INSTANCE
+        : NoOpTracer.INSTANCE;
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static final class SystemTracer implements Tracer {
+    static final SystemTracer INSTANCE = new SystemTracer();
+
+    /** The longest section name accepted by {@code android.os.Trace}. */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    @Override public void beginSection(@NonNull String name) {
+      if (name.length() > MAX_SECTION_NAME_LENGTH) {
+        // Keep the end of the name, which holds the simple class name and the operation.
+        name = name.substring(name.length() - MAX_SECTION_NAME_LENGTH);
+      }
+      Trace.beginSection(name);
+    }
+
+    @Override public void endSection() {
+      Trace.endSection();
+    }
+  }
+
+  private static final class NoOpTracer implements Tracer {
+    static final NoOpTracer INSTANCE = new NoOpTracer();
+
+    @Override public void beginSection(@NonNull String name) {
+    }
+
+    @Override public void endSection() {
+    }
+  }
+
+  private ParcelTrace() {
+    throw new AssertionError("No instances.");
+  }
+}
@@ -20,10 +20,10 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import paperparcel.TypeAdapter;
+import paperparcel.SizedTypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class ParcelableAdapter<T extends Parcelable> implements TypeAdapter<T> {
+public final class ParcelableAdapter<T extends Parcelable> implements SizedTypeAdapter<T> {
   private final Parcelable.Creator<T> creator;
 
   public ParcelableAdapter(@Nullable Parcelable.Creator<T> creator) {
@@ -48,10 +48,22 @@ public final class ParcelableAdapter<T extends Parcelable> implements TypeAdapte
         dest.writeInt(0);
       } else {
         dest.writeInt(1);
+        ParcelScope.handOff(dest, value);
         value.writeToParcel(dest, flags);
       }
     } else {
+      if (value != null) {
+        ParcelScope.handOff(dest, value);
+      }
       dest.writeParcelable(value, flags);
     }
   }
+
+  @Override public int sizeOf(@Nullable T value) {
+    if (creator != null) {
+      return value == null ? 4 : Utils.addSizes(4, Utils.sizeOfParcelable(value, creator));
+    } else {
+      return Utils.sizeOfParcelableWithClass(value);
+    }
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import paperparcel.SizedTypeAdapter;
+
+/**
+ * Reads and writes lists of a {@link Parcelable} type that can't be read using a fixed
+ * {@code CREATOR}, i.e. where each item would otherwise need to be written using
+ * {@link Parcel#writeParcelable(Parcelable, int)}.
+ *
+ * <p>Almost all such lists contain items of a single class. For these lists, the class name is
+ * written once and the {@code CREATOR} is looked up once, rather than once per item. Lists of
+ * mixed classes, or containing {@code null}, fall back to writing each item using
+ * {@link Parcel#writeParcelable(Parcelable, int)}.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class ParcelableListAdapter<T extends Parcelable>
+    implements SizedTypeAdapter<List<T>> {
+  private static final int SINGLE_CLASS = 0;
+  private static final int MIXED = 1;
+
+  private static final ConcurrentMap<String, Parcelable.Creator<?>> CREATORS =
+      new ConcurrentHashMap<>();
+
+  public ParcelableListAdapter() {
+  }
+
+  @SuppressWarnings("unchecked")
+  @NonNull @Override public List<T> readFromParcel(@NonNull Parcel source) {
+    int size = source.readInt();
+    List<T> value = new ArrayList<>(size);
+    if (size == 0) {
+      return value;
+    }
+    ClassLoader loader = ParcelableListAdapter.class.getClassLoader();
+    if (source.readInt() == SINGLE_CLASS) {
+      Parcelable.Creator<?> creator = findCreator(source.readString(), loader);
+      if (creator instanceof Parcelable.ClassLoaderCreator<?>) {
+        Parcelable.ClassLoaderCreator<?> classLoaderCreator =
+            (Parcelable.ClassLoaderCreator<?>) creator;
+        for (int i = 0; i < size; i++) {
+          value.add((T) classLoaderCreator.createFromParcel(source, loader));
+        }
+      } else {
+        for (int i = 0; i < size; i++) {
+          value.add((T) creator.createFromParcel(source));
+        }
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        value.add(source.<T>readParcelable(loader));
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public void writeToParcel(@NonNull List<T> value, @NonNull Parcel dest, int flags) {
+    int size = value.size();
+    dest.writeInt(size);
+    if (size == 0) {
+      return;
+    }
+    Class<?> itemClass = singleClassOf(value);
+    if (itemClass != null) {
+      dest.writeInt(SINGLE_CLASS);
+      dest.writeString(itemClass.getName());
+      for (int i = 0; i < size; i++) {
+        T item = value.get(i);
+        ParcelScope.handOff(dest, item);
+        item.writeToParcel(dest, flags);
+      }
+    } else {
+      dest.writeInt(MIXED);
+      for (int i = 0; i < size; i++) {
+        T item = value.get(i);
+        if (item != null) {
+          ParcelScope.handOff(dest, item);
+        }
+        dest.writeParcelable(item, flags);
+      }
+    }
+  }
+
+  @Override public int sizeOf(@NonNull List<T> value) {
+    int size = value.size();
+    if (size == 0) {
+      return 4;
+    }
+    int result = 8;
+    Class<?> itemClass = singleClassOf(value);
+    if (itemClass != null) {
+      result += Utils.sizeOfString(itemClass.getName());
+      // Only use a CREATOR that has already been looked up rather than reflecting to size a list.
+      Parcelable.Creator<?> creator = CREATORS.get(itemClass.getName());
+      for (int i = 0; i < size; i++) {
+        result = Utils.addSizes(result, Utils.sizeOfParcelable(value.get(i), creator));
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        result = Utils.addSizes(result, Utils.sizeOfParcelableWithClass(value.get(i)));
+      }
+    }
+    return result;
+  }
+
+  /** Returns the class of every item in {@code value}, or {@code null} if they differ. */
+  private static Class<?> singleClassOf(List<?> value) {
+    Object first = value.get(0);
+    if (first == null) {
+      return null;
+    }
+    Class<?> itemClass = first.getClass();
+    for (int i = 1, size = value.size(); i < size; i++) {
+      Object item = value.get(i);
+      if (item == null || item.getClass() != itemClass) {
+        return null;
+      }
+    }
+    return itemClass;
+  }
+
+  private static Parcelable.Creator<?> findCreator(String name, ClassLoader loader) {
+    Parcelable.Creator<?> creator = CREATORS.get(name);
+    if (creator != null) {
+      return creator;
+    }
+    try {
+      Class<?> itemClass = Class.forName(name, false, loader);
+      Field field = itemClass.getField("CREATOR");
+      if (!Modifier.isStatic(field.getModifiers())
+          || !Parcelable.Creator.class.isAssignableFrom(field.getType())) {
+        throw new BadParcelableException("Parcelable protocol requires a static Parcelable.Creator"
+            + " object called CREATOR on class " + name);
+      }
+      creator = (Parcelable.Creator<?>) field.get(null);
+    } catch (ClassNotFoundException e) {
+      throw new BadParcelableException("ClassNotFoundException when unmarshalling: " + name);
+    } catch (NoSuchFieldException e) {
+      throw new BadParcelableException("Parcelable protocol requires a Parcelable.Creator object"
+          + " called CREATOR on class " + name);
+    } catch (IllegalAccessException e) {
+      throw new BadParcelableException("IllegalAccessException when unmarshalling: " + name);
+    }
+    if (creator == null) {
+      throw new BadParcelableException("Parcelable protocol requires a non-null"
+          + " Parcelable.Creator object called CREATOR on class " + name);
+    }
+    CREATORS.putIfAbsent(name, creator);
+    return creator;
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ParcelTrace.Tracer} that keeps every section in memory, for asserting the sections of
+ * generated code in host tests.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class RecordingTracer implements ParcelTrace.Tracer {
+  private final List<String> sections = new ArrayList<>();
+  private int depth;
+
+  @Override public synchronized void beginSection(@NonNull String name) {
+    StringBuilder section = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      section.append("  ");
+    }
+    sections.add(section.append(name).toString());
+    depth++;
+  }
+
+  @Override public synchronized void endSection() {
+    if (depth == 0) {
+      throw new IllegalStateException("endSection() called without a matching beginSection()");
+    }
+    depth--;
+  }
+
+  /**
+   * Returns the name of each section in the order that they began, indented by two spaces for
+   * each enclosing section.
+   */
+  @NonNull public synchronized List<String> sections() {
+    return new ArrayList<>(sections);
+  }
+
+  /** Returns the number of sections that have begun but not ended. */
+  public synchronized int openSections() {
+    return depth;
+  }
+
+  public synchronized void clear() {
+    sections.clear();
+    depth = 0;
+  }
+}
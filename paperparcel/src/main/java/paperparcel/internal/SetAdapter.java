@@ -20,10 +20,11 @@ import android.os.Parcel;
 import android.support.annotation.NonNull;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class SetAdapter<T> implements TypeAdapter<Set<T>> {
+public final class SetAdapter<T> implements SizedTypeAdapter<Set<T>> {
   private final TypeAdapter<T> itemAdapter;
 
   public SetAdapter(TypeAdapter<T> itemAdapter) {
@@ -46,4 +47,12 @@ public final class SetAdapter<T> implements TypeAdapter<Set<T>> {
       itemAdapter.writeToParcel(item, dest, flags);
     }
   }
+
+  @Override public int sizeOf(@NonNull Set<T> value) {
+    int result = 4;
+    for (T item : value) {
+      result = Utils.addSizes(result, Utils.sizeOf(item, itemAdapter));
+    }
+    return result;
+  }
 }
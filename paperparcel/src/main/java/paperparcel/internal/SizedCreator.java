@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+
+/**
+ * A {@link Parcelable.Creator} that can also compute the number of bytes written by the
+ * {@code writeToParcel} method of the class it creates. Used as the {@code CREATOR} generated for
+ * classes that enable {@code PaperParcel.Options#presize()}, so that the adapters in this package
+ * can size nested values without writing them.
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public abstract class SizedCreator<T> implements Parcelable.Creator<T> {
+
+  /** Returns the number of bytes written by {@code value.writeToParcel}. */
+  public abstract int sizeOf(@NonNull T value);
+}
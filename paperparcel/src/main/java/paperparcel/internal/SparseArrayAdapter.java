@@ -19,10 +19,11 @@ package paperparcel.internal;
 import android.os.Parcel;
 import android.support.annotation.NonNull;
 import android.util.SparseArray;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
-public final class SparseArrayAdapter<T> implements TypeAdapter<SparseArray<T>> {
+public final class SparseArrayAdapter<T> implements SizedTypeAdapter<SparseArray<T>> {
   private final TypeAdapter<T> itemAdapter;
 
   public SparseArrayAdapter(TypeAdapter<T> itemAdapter) {
@@ -47,4 +48,13 @@ public final class SparseArrayAdapter<T> implements TypeAdapter<SparseArray<T>>
       itemAdapter.writeToParcel(value.get(key), dest, flags);
     }
   }
+
+  @Override public int sizeOf(@NonNull SparseArray<T> value) {
+    int size = value.size();
+    int result = 4 + 4 * size;
+    for (int i = 0; i < size; i++) {
+      result = Utils.addSizes(result, Utils.sizeOf(value.valueAt(i), itemAdapter));
+    }
+    return result;
+  }
 }
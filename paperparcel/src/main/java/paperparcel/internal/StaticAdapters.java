@@ -12,12 +12,21 @@ import android.text.TextUtils;
 import android.util.Size;
 import android.util.SizeF;
 import android.util.SparseBooleanArray;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.BitSet;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
 public final class StaticAdapters {
 
-  public static final TypeAdapter<Integer> INTEGER_ADAPTER = new TypeAdapter<Integer>() {
+  public static final TypeAdapter<Integer> INTEGER_ADAPTER = new SizedTypeAdapter<Integer>() {
     @NonNull @Override public Integer readFromParcel(@NonNull Parcel source) {
       return source.readInt();
     }
@@ -25,9 +34,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Integer value, @NonNull Parcel dest, int flags) {
       dest.writeInt(value);
     }
+
+    @Override public int sizeOf(@NonNull Integer value) {
+      return 4;
+    }
   };
 
-  public static final TypeAdapter<Boolean> BOOLEAN_ADAPTER = new TypeAdapter<Boolean>() {
+  public static final TypeAdapter<Boolean> BOOLEAN_ADAPTER = new SizedTypeAdapter<Boolean>() {
     @NonNull @Override public Boolean readFromParcel(@NonNull Parcel source) {
       return source.readInt() == 1;
     }
@@ -35,9 +48,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Boolean value, @NonNull Parcel dest, int flags) {
       dest.writeInt(value ? 1 : 0);
     }
+
+    @Override public int sizeOf(@NonNull Boolean value) {
+      return 4;
+    }
   };
 
-  public static final TypeAdapter<Double> DOUBLE_ADAPTER = new TypeAdapter<Double>() {
+  public static final TypeAdapter<Double> DOUBLE_ADAPTER = new SizedTypeAdapter<Double>() {
     @NonNull @Override public Double readFromParcel(@NonNull Parcel source) {
       return source.readDouble();
     }
@@ -45,9 +62,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Double value, @NonNull Parcel dest, int flags) {
       dest.writeDouble(value);
     }
+
+    @Override public int sizeOf(@NonNull Double value) {
+      return 8;
+    }
   };
 
-  public static final TypeAdapter<Float> FLOAT_ADAPTER = new TypeAdapter<Float>() {
+  public static final TypeAdapter<Float> FLOAT_ADAPTER = new SizedTypeAdapter<Float>() {
     @NonNull @Override public Float readFromParcel(@NonNull Parcel source) {
       return source.readFloat();
     }
@@ -55,9 +76,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Float value, @NonNull Parcel dest, int flags) {
       dest.writeFloat(value);
     }
+
+    @Override public int sizeOf(@NonNull Float value) {
+      return 4;
+    }
   };
 
-  public static final TypeAdapter<Long> LONG_ADAPTER = new TypeAdapter<Long>() {
+  public static final TypeAdapter<Long> LONG_ADAPTER = new SizedTypeAdapter<Long>() {
     @NonNull @Override public Long readFromParcel(@NonNull Parcel source) {
       return source.readLong();
     }
@@ -65,9 +90,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Long value, @NonNull Parcel dest, int flags) {
       dest.writeLong(value);
     }
+
+    @Override public int sizeOf(@NonNull Long value) {
+      return 8;
+    }
   };
 
-  public static final TypeAdapter<Byte> BYTE_ADAPTER = new TypeAdapter<Byte>() {
+  public static final TypeAdapter<Byte> BYTE_ADAPTER = new SizedTypeAdapter<Byte>() {
     @NonNull @Override public Byte readFromParcel(@NonNull Parcel source) {
       return source.readByte();
     }
@@ -75,9 +104,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Byte value, @NonNull Parcel dest, int flags) {
       dest.writeByte(value);
     }
+
+    @Override public int sizeOf(@NonNull Byte value) {
+      return 4;
+    }
   };
 
-  public static final TypeAdapter<Character> CHARACTER_ADAPTER = new TypeAdapter<Character>() {
+  public static final TypeAdapter<Character> CHARACTER_ADAPTER = new SizedTypeAdapter<Character>() {
     @NonNull @Override public Character readFromParcel(@NonNull Parcel source) {
       return (char) source.readInt();
     }
@@ -85,9 +118,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Character value, @NonNull Parcel dest, int flags) {
       dest.writeInt(value);
     }
+
+    @Override public int sizeOf(@NonNull Character value) {
+      return 4;
+    }
   };
 
-  public static final TypeAdapter<Short> SHORT_ADAPTER = new TypeAdapter<Short>() {
+  public static final TypeAdapter<Short> SHORT_ADAPTER = new SizedTypeAdapter<Short>() {
     @NonNull @Override public Short readFromParcel(@NonNull Parcel source) {
       return (short) source.readInt();
     }
@@ -95,10 +132,14 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Short value, @NonNull Parcel dest, int flags) {
       dest.writeInt(value.intValue());
     }
+
+    @Override public int sizeOf(@NonNull Short value) {
+      return 4;
+    }
   };
 
   public static final TypeAdapter<boolean[]> BOOLEAN_ARRAY_ADAPTER =
-      new TypeAdapter<boolean[]>() {
+      new SizedTypeAdapter<boolean[]>() {
         @Nullable @Override public boolean[] readFromParcel(@NonNull Parcel source) {
           return source.createBooleanArray();
         }
@@ -106,6 +147,10 @@ public final class StaticAdapters {
         @Override public void writeToParcel(@Nullable boolean[] value, @NonNull Parcel dest, int flags) {
           dest.writeBooleanArray(value);
         }
+
+        @Override public int sizeOf(@Nullable boolean[] value) {
+          return value == null ? 4 : 4 + 4 * value.length;
+        }
       };
 
   public static final TypeAdapter<Bundle> BUNDLE_ADAPTER = new TypeAdapter<Bundle>() {
@@ -118,7 +163,7 @@ public final class StaticAdapters {
     }
   };
 
-  public static final TypeAdapter<byte[]> BYTE_ARRAY_ADAPTER = new TypeAdapter<byte[]>() {
+  public static final TypeAdapter<byte[]> BYTE_ARRAY_ADAPTER = new SizedTypeAdapter<byte[]>() {
     @Nullable @Override public byte[] readFromParcel(@NonNull Parcel source) {
       return source.createByteArray();
     }
@@ -126,9 +171,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable byte[] value, @NonNull Parcel dest, int flags) {
       dest.writeByteArray(value);
     }
+
+    @Override public int sizeOf(@Nullable byte[] value) {
+      return value == null ? 4 : 4 + Utils.pad(value.length);
+    }
   };
 
-  public static final TypeAdapter<char[]> CHAR_ARRAY_ADAPTER = new TypeAdapter<char[]>() {
+  public static final TypeAdapter<char[]> CHAR_ARRAY_ADAPTER = new SizedTypeAdapter<char[]>() {
     @Nullable @Override public char[] readFromParcel(@NonNull Parcel source) {
       return source.createCharArray();
     }
@@ -136,6 +185,10 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable char[] value, @NonNull Parcel dest, int flags) {
       dest.writeCharArray(value);
     }
+
+    @Override public int sizeOf(@Nullable char[] value) {
+      return value == null ? 4 : 4 + 4 * value.length;
+    }
   };
 
   public static final TypeAdapter<CharSequence> CHAR_SEQUENCE_ADAPTER =
@@ -150,7 +203,7 @@ public final class StaticAdapters {
       };
 
   public static final TypeAdapter<double[]> DOUBLE_ARRAY_ADAPTER =
-      new TypeAdapter<double[]>() {
+      new SizedTypeAdapter<double[]>() {
         @Nullable @Override public double[] readFromParcel(@NonNull Parcel source) {
           return source.createDoubleArray();
         }
@@ -158,9 +211,13 @@ public final class StaticAdapters {
         @Override public void writeToParcel(@Nullable double[] value, @NonNull Parcel dest, int flags) {
           dest.writeDoubleArray(value);
         }
+
+        @Override public int sizeOf(@Nullable double[] value) {
+          return value == null ? 4 : 4 + 8 * value.length;
+        }
       };
 
-  public static final TypeAdapter<float[]> FLOAT_ARRAY_ADAPTER = new TypeAdapter<float[]>() {
+  public static final TypeAdapter<float[]> FLOAT_ARRAY_ADAPTER = new SizedTypeAdapter<float[]>() {
     @Nullable @Override public float[] readFromParcel(@NonNull Parcel source) {
       return source.createFloatArray();
     }
@@ -168,6 +225,10 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable float[] value, @NonNull Parcel dest, int flags) {
       dest.writeFloatArray(value);
     }
+
+    @Override public int sizeOf(@Nullable float[] value) {
+      return value == null ? 4 : 4 + 4 * value.length;
+    }
   };
 
   public static final TypeAdapter<IBinder> IBINDER_ADAPTER = new TypeAdapter<IBinder>() {
@@ -180,7 +241,7 @@ public final class StaticAdapters {
     }
   };
 
-  public static final TypeAdapter<int[]> INT_ARRAY_ADAPTER = new TypeAdapter<int[]>() {
+  public static final TypeAdapter<int[]> INT_ARRAY_ADAPTER = new SizedTypeAdapter<int[]>() {
     @Nullable @Override public int[] readFromParcel(@NonNull Parcel source) {
       return source.createIntArray();
     }
@@ -188,9 +249,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable int[] value, @NonNull Parcel dest, int flags) {
       dest.writeIntArray(value);
     }
+
+    @Override public int sizeOf(@Nullable int[] value) {
+      return value == null ? 4 : 4 + 4 * value.length;
+    }
   };
 
-  public static final TypeAdapter<long[]> LONG_ARRAY_ADAPTER = new TypeAdapter<long[]>() {
+  public static final TypeAdapter<long[]> LONG_ARRAY_ADAPTER = new SizedTypeAdapter<long[]>() {
     @Nullable @Override public long[] readFromParcel(@NonNull Parcel source) {
       return source.createLongArray();
     }
@@ -198,6 +263,10 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable long[] value, @NonNull Parcel dest, int flags) {
       dest.writeLongArray(value);
     }
+
+    @Override public int sizeOf(@Nullable long[] value) {
+      return value == null ? 4 : 4 + 8 * value.length;
+    }
   };
 
   public static final TypeAdapter<PersistableBundle> PERSISTABLE_BUNDLE_ADAPTER =
@@ -213,7 +282,7 @@ public final class StaticAdapters {
         }
       };
 
-  public static final TypeAdapter<short[]> SHORT_ARRAY_ADAPTER = new TypeAdapter<short[]>() {
+  public static final TypeAdapter<short[]> SHORT_ARRAY_ADAPTER = new SizedTypeAdapter<short[]>() {
     @NonNull @Override public short[] readFromParcel(@NonNull Parcel source) {
       int size = source.readInt();
       short[] value = new short[size];
@@ -229,9 +298,13 @@ public final class StaticAdapters {
         dest.writeInt((int) s);
       }
     }
+
+    @Override public int sizeOf(@NonNull short[] value) {
+      return 4 + 4 * value.length;
+    }
   };
 
-  public static final TypeAdapter<Size> SIZE_ADAPTER = new TypeAdapter<Size>() {
+  public static final TypeAdapter<Size> SIZE_ADAPTER = new SizedTypeAdapter<Size>() {
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     @NonNull @Override public Size readFromParcel(@NonNull Parcel source) {
       return source.readSize();
@@ -241,9 +314,13 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull Size value, @NonNull Parcel dest, int flags) {
       dest.writeSize(value);
     }
+
+    @Override public int sizeOf(@NonNull Size value) {
+      return 8;
+    }
   };
 
-  public static final TypeAdapter<SizeF> SIZE_F_ADAPTER = new TypeAdapter<SizeF>() {
+  public static final TypeAdapter<SizeF> SIZE_F_ADAPTER = new SizedTypeAdapter<SizeF>() {
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     @NonNull @Override public SizeF readFromParcel(@NonNull Parcel source) {
       return source.readSizeF();
@@ -253,10 +330,14 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@NonNull SizeF value, @NonNull Parcel dest, int flags) {
       dest.writeSizeF(value);
     }
+
+    @Override public int sizeOf(@NonNull SizeF value) {
+      return 8;
+    }
   };
 
   public static TypeAdapter<SparseBooleanArray> SPARSE_BOOLEAN_ARRAY_ADAPTER =
-      new TypeAdapter<SparseBooleanArray>() {
+      new SizedTypeAdapter<SparseBooleanArray>() {
         @Nullable @Override public SparseBooleanArray readFromParcel(@NonNull Parcel source) {
           return source.readSparseBooleanArray();
         }
@@ -265,9 +346,13 @@ public final class StaticAdapters {
         public void writeToParcel(@Nullable SparseBooleanArray value, @NonNull Parcel dest, int flags) {
           dest.writeSparseBooleanArray(value);
         }
+
+        @Override public int sizeOf(@Nullable SparseBooleanArray value) {
+          return value == null ? 4 : 4 + 8 * value.size();
+        }
       };
 
-  public static final TypeAdapter<String> STRING_ADAPTER = new TypeAdapter<String>() {
+  public static final TypeAdapter<String> STRING_ADAPTER = new SizedTypeAdapter<String>() {
     @Nullable @Override public String readFromParcel(@NonNull Parcel source) {
       return source.readString();
     }
@@ -275,8 +360,161 @@ public final class StaticAdapters {
     @Override public void writeToParcel(@Nullable String value, @NonNull Parcel dest, int flags) {
       dest.writeString(value);
     }
+
+    @Override public int sizeOf(@Nullable String value) {
+      return Utils.sizeOfString(value);
+    }
   };
 
+  public static final TypeAdapter<Date> DATE_ADAPTER = new SizedTypeAdapter<Date>() {
+    @NonNull @Override public Date readFromParcel(@NonNull Parcel source) {
+      return new Date(source.readLong());
+    }
+
+    @Override public void writeToParcel(@NonNull Date value, @NonNull Parcel dest, int flags) {
+      dest.writeLong(value.getTime());
+    }
+
+    @Override public int sizeOf(@NonNull Date value) {
+      return 8;
+    }
+  };
+
+  public static final TypeAdapter<UUID> UUID_ADAPTER = new SizedTypeAdapter<UUID>() {
+    @NonNull @Override public UUID readFromParcel(@NonNull Parcel source) {
+      return new UUID(source.readLong(), source.readLong());
+    }
+
+    @Override public void writeToParcel(@NonNull UUID value, @NonNull Parcel dest, int flags) {
+      dest.writeLong(value.getMostSignificantBits());
+      dest.writeLong(value.getLeastSignificantBits());
+    }
+
+    @Override public int sizeOf(@NonNull UUID value) {
+      return 16;
+    }
+  };
+
+  public static final TypeAdapter<BigInteger> BIG_INTEGER_ADAPTER =
+      new SizedTypeAdapter<BigInteger>() {
+        @NonNull @Override public BigInteger readFromParcel(@NonNull Parcel source) {
+          return new BigInteger(source.createByteArray());
+        }
+
+        @Override
+        public void writeToParcel(@NonNull BigInteger value, @NonNull Parcel dest, int flags) {
+          dest.writeByteArray(value.toByteArray());
+        }
+
+        @Override public int sizeOf(@NonNull BigInteger value) {
+          return sizeOfTwosComplement(value);
+        }
+      };
+
+  public static final TypeAdapter<BigDecimal> BIG_DECIMAL_ADAPTER =
+      new SizedTypeAdapter<BigDecimal>() {
+        @NonNull @Override public BigDecimal readFromParcel(@NonNull Parcel source) {
+          BigInteger unscaledValue = new BigInteger(source.createByteArray());
+          return new BigDecimal(unscaledValue, source.readInt());
+        }
+
+        @Override
+        public void writeToParcel(@NonNull BigDecimal value, @NonNull Parcel dest, int flags) {
+          dest.writeByteArray(value.unscaledValue().toByteArray());
+          dest.writeInt(value.scale());
+        }
+
+        @Override public int sizeOf(@NonNull BigDecimal value) {
+          return sizeOfTwosComplement(value.unscaledValue()) + 4;
+        }
+      };
+
+  public static final TypeAdapter<URI> URI_ADAPTER = new SizedTypeAdapter<URI>() {
+    @NonNull @Override public URI readFromParcel(@NonNull Parcel source) {
+      return URI.create(source.readString());
+    }
+
+    @Override public void writeToParcel(@NonNull URI value, @NonNull Parcel dest, int flags) {
+      dest.writeString(value.toString());
+    }
+
+    @Override public int sizeOf(@NonNull URI value) {
+      return Utils.sizeOfString(value.toString());
+    }
+  };
+
+  public static final TypeAdapter<Currency> CURRENCY_ADAPTER = new SizedTypeAdapter<Currency>() {
+    @NonNull @Override public Currency readFromParcel(@NonNull Parcel source) {
+      return Currency.getInstance(source.readString());
+    }
+
+    @Override public void writeToParcel(@NonNull Currency value, @NonNull Parcel dest, int flags) {
+      dest.writeString(value.getCurrencyCode());
+    }
+
+    @Override public int sizeOf(@NonNull Currency value) {
+      return Utils.sizeOfString(value.getCurrencyCode());
+    }
+  };
+
+  /**
+   * Writes the language, country and variant of a {@link Locale}. The script and extensions that
+   * were added in API 21 are not written.
+   */
+  public static final TypeAdapter<Locale> LOCALE_ADAPTER = new SizedTypeAdapter<Locale>() {
+    @NonNull @Override public Locale readFromParcel(@NonNull Parcel source) {
+      return new Locale(source.readString(), source.readString(), source.readString());
+    }
+
+    @Override public void writeToParcel(@NonNull Locale value, @NonNull Parcel dest, int flags) {
+      dest.writeString(value.getLanguage());
+      dest.writeString(value.getCountry());
+      dest.writeString(value.getVariant());
+    }
+
+    @Override public int sizeOf(@NonNull Locale value) {
+      return Utils.sizeOfString(value.getLanguage())
+          + Utils.sizeOfString(value.getCountry())
+          + Utils.sizeOfString(value.getVariant());
+    }
+  };
+
+  /**
+   * Writes a {@link BitSet} as an array of 64 bit words, without using
+   * {@code BitSet#toLongArray()} which was only added in API 19.
+   */
+  public static final TypeAdapter<BitSet> BIT_SET_ADAPTER = new SizedTypeAdapter<BitSet>() {
+    @NonNull @Override public BitSet readFromParcel(@NonNull Parcel source) {
+      long[] words = source.createLongArray();
+      BitSet result = new BitSet(words.length * Long.SIZE);
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          result.set(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return result;
+    }
+
+    @Override public void writeToParcel(@NonNull BitSet value, @NonNull Parcel dest, int flags) {
+      long[] words = new long[(value.length() + Long.SIZE - 1) / Long.SIZE];
+      for (int i = value.nextSetBit(0); i >= 0; i = value.nextSetBit(i + 1)) {
+        words[i / Long.SIZE] |= 1L << i;
+      }
+      dest.writeLongArray(words);
+    }
+
+    @Override public int sizeOf(@NonNull BitSet value) {
+      return 4 + 8 * ((value.length() + Long.SIZE - 1) / Long.SIZE);
+    }
+  };
+
+  /** Returns the number of bytes written for the two's-complement bytes of {@code value}. */
+  private static int sizeOfTwosComplement(BigInteger value) {
+    return 4 + Utils.pad(value.bitLength() / 8 + 1);
+  }
+
   private StaticAdapters() {
     throw new AssertionError("No instances.");
   }
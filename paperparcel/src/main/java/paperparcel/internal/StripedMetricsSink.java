@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default {@link ParcelMetrics.Sink}. For each model class it counts the calls, bytes and
+ * nanoseconds of reads and writes, and keeps a histogram of their durations in the fixed buckets
+ * of {@link #BUCKET_BOUNDS_NANOS}.
+ *
+ * <p>Recording a call never blocks. The counters of each class are striped by thread, so threads
+ * on different cores update different cache lines, and only {@link #snapshot()} sums the stripes.
+ * The counters are cumulative; exporters that want rates should subtract the previous
+ * snapshot.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StripedMetricsSink implements ParcelMetrics.Sink {
+  /**
+   * The exclusive upper bound in nanoseconds of each histogram bucket but the last, which counts
+   * every call that took at least 4 milliseconds.
+   */
+  public static final long[] BUCKET_BOUNDS_NANOS =
+      { 1000L, 4000L, 16000L, 64000L, 256000L, 1000000L, 4000000L };
+
+  private static final int BUCKETS = BUCKET_BOUNDS_NANOS.length + 1;
+
+  private static final int WRITES = 0;
+  private static final int BYTES_WRITTEN = 1;
+  private static final int WRITE_NANOS = 2;
+  private static final int READS = 3;
+  private static final int BYTES_READ = 4;
+  private static final int READ_NANOS = 5;
+  private static final int WRITE_HISTOGRAM = 6;
+  private static final int READ_HISTOGRAM = WRITE_HISTOGRAM + BUCKETS;
+  /** The slots used by each stripe, padded so that stripes don't share cache lines. */
+  private static final int STRIDE = 32;
+
+  private final ConcurrentMap<Class<?>, AtomicLongArray> counters = new ConcurrentHashMap<>();
+  private final int stripeMask;
+
+  /** Creates a sink with a stripe for each available processor. */
+  public StripedMetricsSink() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  StripedMetricsSink(int parallelism) {
+    int stripes = 1;
+    while (stripes < parallelism && stripes < 64) {
+      stripes <<= 1;
+    }
+    this.stripeMask = stripes - 1;
+  }
+
+  @Override public void onWrite(@NonNull Class<?> type, int bytes, long nanos) {
+    record(type, WRITES, bytes, nanos, WRITE_HISTOGRAM);
+  }
+
+  @Override public void onRead(@NonNull Class<?> type, int bytes, long nanos) {
+    record(type, READS, bytes, nanos, READ_HISTOGRAM);
+  }
+
+  /**
+   * Adds a call to the stripe of the current thread. {@code op} is the count slot, which is
+   * followed by the byte and nanosecond slots.
+   */
+  private void record(Class<?> type, int op, int bytes, long nanos, int histogram) {
+    AtomicLongArray counters = countersFor(type);
+    int base = ((int) Thread.currentThread().getId() & stripeMask) * STRIDE;
+    counters.incrementAndGet(base + op);
+    counters.addAndGet(base + op + 1, bytes);
+    counters.addAndGet(base + op + 2, nanos);
+    counters.incrementAndGet(base + histogram + bucket(nanos));
+  }
+
+  private AtomicLongArray countersFor(Class<?> type) {
+    AtomicLongArray result = counters.get(type);
+    if (result == null) {
+      AtomicLongArray created = new AtomicLongArray((stripeMask + 1) * STRIDE);
+      result = counters.putIfAbsent(type, created);
+      if (result == null) {
+        result = created;
+      }
+    }
+    return result;
+  }
+
+  /** Returns the index of the histogram bucket that counts a call taking {@code nanos}. */
+  static int bucket(long nanos) {
+    long[] bounds = BUCKET_BOUNDS_NANOS;
+    for (int i = 0; i < bounds.length; i++) {
+      if (nanos < bounds[i]) {
+        return i;
+      }
+    }
+    return bounds.length;
+  }
+
+  /**
+   * Returns the totals of every class that has been recorded so far. Calls that are recorded
+   * while the snapshot is taken may be partially included.
+   */
+  @NonNull public List<Snapshot> snapshot() {
+    List<Snapshot> result = new ArrayList<>(counters.size());
+    int stripes = stripeMask + 1;
+    for (Map.Entry<Class<?>, AtomicLongArray> entry : counters.entrySet()) {
+      AtomicLongArray counters = entry.getValue();
+      long[] totals = new long[STRIDE];
+      for (int stripe = 0; stripe < stripes; stripe++) {
+        int base = stripe * STRIDE;
+        for (int slot = 0; slot < READ_HISTOGRAM + BUCKETS; slot++) {
+          totals[slot] += counters.get(base + slot);
+        }
+      }
+      result.add(new Snapshot(entry.getKey(), totals));
+    }
+    return result;
+  }
+
+  /** The totals of a single model class. */
+  public static final class Snapshot {
+    @NonNull public final Class<?> type;
+    public final long writes;
+    public final long bytesWritten;
+    public final long writeNanos;
+    public final long reads;
+    public final long bytesRead;
+    public final long readNanos;
+    /** The number of writes in each bucket of {@link #BUCKET_BOUNDS_NANOS}. */
+    @NonNull public final long[] writeHistogram;
+    /** The number of reads in each bucket of {@link #BUCKET_BOUNDS_NANOS}. */
+    @NonNull public final long[] readHistogram;
+
+    Snapshot(Class<?> type, long[] totals) {
+      this.type = type;
+      this.writes = totals[WRITES];
+      this.bytesWritten = totals[BYTES_WRITTEN];
+      this.writeNanos = totals[WRITE_NANOS];
+      this.reads = totals[READS];
+      this.bytesRead = totals[BYTES_READ];
+      this.readNanos = totals[READ_NANOS];
+      this.writeHistogram =
+          Arrays.copyOfRange(totals, WRITE_HISTOGRAM, WRITE_HISTOGRAM + BUCKETS);
+      this.readHistogram = Arrays.copyOfRange(totals, READ_HISTOGRAM, READ_HISTOGRAM + BUCKETS);
+    }
+
+    @Override public String toString() {
+      return type.getName()
+          + "{writes=" + writes
+          + ", bytesWritten=" + bytesWritten
+          + ", writeNanos=" + writeNanos
+          + ", reads=" + reads
+          + ", bytesRead=" + bytesRead
+          + ", readNanos=" + readNanos
+          + ", writeHistogram=" + Arrays.toString(writeHistogram)
+          + ", readHistogram=" + Arrays.toString(readHistogram)
+          + "}";
+    }
+  }
+}
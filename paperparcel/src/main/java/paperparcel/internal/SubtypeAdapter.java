@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel.internal;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import paperparcel.SizedTypeAdapter;
+
+/**
+ * Reads and writes values of a polymorphic {@link Parcelable} type whose subtypes are known at
+ * compile time. Each value is written as a small tag identifying its subtype followed by the
+ * output of its {@code writeToParcel} method, and is read using the {@code CREATOR} of that
+ * subtype. This avoids the class name and the reflective {@code CREATOR} lookup used by
+ * {@link Parcel#writeParcelable(Parcelable, int)}.
+ *
+ * <p>Values of any other type (e.g. a subclass compiled in another module) are written using
+ * {@link Parcel#writeParcelable(Parcelable, int)} instead.</p>
+ */
+@SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
+public final class SubtypeAdapter<T extends Parcelable> implements SizedTypeAdapter<T> {
+  private static final int NULL_TAG = -1;
+  private static final int UNKNOWN_TAG = 0;
+
+  private final Class<?>[] subtypes;
+  private final Parcelable.Creator<?>[] creators;
+
+  public SubtypeAdapter(Class<?>[] subtypes, Parcelable.Creator<?>[] creators) {
+    this.subtypes = subtypes;
+    this.creators = creators;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable @Override public T readFromParcel(@NonNull Parcel source) {
+    int tag = source.readInt();
+    if (tag == NULL_TAG) {
+      return null;
+    } else if (tag == UNKNOWN_TAG) {
+      return source.readParcelable(SubtypeAdapter.class.getClassLoader());
+    }
+    return (T) creators[tag - 1].createFromParcel(source);
+  }
+
+  @Override public void writeToParcel(@Nullable T value, @NonNull Parcel dest, int flags) {
+    if (value == null) {
+      dest.writeInt(NULL_TAG);
+      return;
+    }
+    Class<?> type = value.getClass();
+    for (int i = 0; i < subtypes.length; i++) {
+      if (subtypes[i] == type) {
+        dest.writeInt(i + 1);
+        ParcelScope.handOff(dest, value);
+        value.writeToParcel(dest, flags);
+        return;
+      }
+    }
+    dest.writeInt(UNKNOWN_TAG);
+    ParcelScope.handOff(dest, value);
+    dest.writeParcelable(value, flags);
+  }
+
+  @Override public int sizeOf(@Nullable T value) {
+    if (value == null) {
+      return 4;
+    }
+    Class<?> type = value.getClass();
+    for (int i = 0; i < subtypes.length; i++) {
+      if (subtypes[i] == type) {
+        return Utils.addSizes(4, Utils.sizeOfParcelable(value, creators[i]));
+      }
+    }
+    return Utils.addSizes(4, Utils.sizeOfParcelableWithClass(value));
+  }
+}
@@ -17,43 +17,54 @@
 package paperparcel.internal;
 
 import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import paperparcel.SizedTypeAdapter;
 import paperparcel.TypeAdapter;
 
 @SuppressWarnings({ "WeakerAccess", "unused" }) // Used by generated code
 public final class Utils {
+  /**
+   * Returned by the {@code sizeOf} methods in this package when a value contains something that
+   * can't be sized without writing it, such as a {@code Bundle} or a {@link Parcelable} that wasn't
+   * generated with {@code PaperParcel.Options#presize()}.
+   */
+  public static final int UNKNOWN_SIZE = -1;
+
+  /** The {@link Parcel} that the value being written on this thread has been sized for. */
+  private static final ThreadLocal<Parcel> PRESIZED = new ThreadLocal<>();
+
+  private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Field>> FIELDS =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Class<?>, CachedConstructor[]> CONSTRUCTORS =
+      new ConcurrentHashMap<>();
 
   /** Reads a fields value via reflection. */
-  @SuppressWarnings({ "unchecked", "UnusedParameters", "TryWithIdenticalCatches" })
+  @SuppressWarnings({ "unchecked", "UnusedParameters" })
   public static <T> T readField(
       @NonNull Class<T> type, @NonNull Class<?> enclosingClass,
       @NonNull Object target, @NonNull String field) {
     try {
-      Field f = enclosingClass.getDeclaredField(field);
-      f.setAccessible(true);
-      return (T) f.get(target);
-    } catch (NoSuchFieldException e) {
-      throw new RuntimeException(e);
+      return (T) findField(enclosingClass, field).get(target);
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     }
   }
 
   /** Writes a value to a field via reflection. */
-  @SuppressWarnings({ "unchecked", "TryWithIdenticalCatches" })
+  @SuppressWarnings("unchecked")
   public static void writeField(
       @NonNull Object value, @NonNull Class<?> enclosingClass,
       @NonNull Object target, @NonNull String field) {
     try {
-      Field f = enclosingClass.getDeclaredField(field);
-      f.setAccessible(true);
-      f.set(target, value);
-    } catch (NoSuchFieldException e) {
-      throw new RuntimeException(e);
+      findField(enclosingClass, field).set(target, value);
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     }
@@ -64,11 +75,7 @@ public final class Utils {
   public static <T> T init(
       @NonNull Class<T> type, @NonNull Class[] argClasses, @NonNull Object[] args) {
     try {
-      Constructor<T> constructor = type.getDeclaredConstructor(argClasses);
-      constructor.setAccessible(true);
-      return constructor.newInstance(args);
-    } catch (NoSuchMethodException e) {
-      throw new RuntimeException(e);
+      return (T) findConstructor(type, argClasses).newInstance(args);
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     } catch (InstantiationException e) {
@@ -78,12 +85,74 @@ public final class Utils {
     }
   }
 
+  /**
+   * Returns the accessible {@link Field} named {@code name} declared in {@code enclosingClass}.
+   * Lookups are cached per class so that the {@code getDeclaredField} and {@code setAccessible}
+   * costs are only paid once.
+   */
+  private static Field findField(Class<?> enclosingClass, String name) {
+    ConcurrentMap<String, Field> fields = FIELDS.get(enclosingClass);
+    if (fields == null) {
+      fields = new ConcurrentHashMap<>();
+      ConcurrentMap<String, Field> existing = FIELDS.putIfAbsent(enclosingClass, fields);
+      if (existing != null) {
+        fields = existing;
+      }
+    }
+    Field field = fields.get(name);
+    if (field == null) {
+      try {
+        field = enclosingClass.getDeclaredField(name);
+      } catch (NoSuchFieldException e) {
+        throw new RuntimeException(e);
+      }
+      field.setAccessible(true);
+      fields.put(name, field);
+    }
+    return field;
+  }
+
+  /**
+   * Returns the accessible {@link Constructor} of {@code type} that accepts {@code argClasses}.
+   * Each class caches the constructors that have been looked up, which are compared with
+   * {@code argClasses} element by element so that a hit doesn't allocate anything. Classes
+   * constructed through more than one constructor don't evict each other's entries.
+   */
+  private static Constructor<?> findConstructor(Class<?> type, Class<?>[] argClasses) {
+    CachedConstructor[] cached = CONSTRUCTORS.get(type);
+    if (cached != null) {
+      for (CachedConstructor entry : cached) {
+        if (Arrays.equals(entry.argClasses, argClasses)) {
+          return entry.constructor;
+        }
+      }
+    }
+    Constructor<?> constructor;
+    try {
+      constructor = type.getDeclaredConstructor(argClasses);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+    constructor.setAccessible(true);
+    CachedConstructor entry = new CachedConstructor(argClasses.clone(), constructor);
+    if (cached == null) {
+      cached = new CachedConstructor[] { entry };
+    } else {
+      cached = Arrays.copyOf(cached, cached.length + 1);
+      cached[cached.length - 1] = entry;
+    }
+    // A concurrent miss for another constructor may replace this entry, which is then just
+    // looked up again.
+    CONSTRUCTORS.put(type, cached);
+    return constructor;
+  }
+
   /**
    * Returns a type adapter equal to this type adapter, but with support for reading and writing
    * {@code null} values.
    */
   public static <T> TypeAdapter<T> nullSafeClone(@NonNull final TypeAdapter<T> delegate) {
-    return new TypeAdapter<T>() {
+    return new SizedTypeAdapter<T>() {
       @Nullable @Override public T readFromParcel(@NonNull Parcel source) {
         return readNullable(source, delegate);
       }
@@ -91,6 +160,10 @@ public final class Utils {
       @Override public void writeToParcel(@Nullable T value, @NonNull Parcel dest, int flags) {
         writeNullable(value, dest, flags, delegate);
       }
+
+      @Override public int sizeOf(@Nullable T value) {
+        return sizeOfNullable(value, delegate);
+      }
     };
   }
 
@@ -123,6 +196,128 @@ public final class Utils {
     }
   }
 
+  /**
+   * Returns the number of bytes that {@code adapter} writes for {@code value}, or
+   * {@link #UNKNOWN_SIZE} if {@code adapter} doesn't implement {@link SizedTypeAdapter}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> int sizeOf(@Nullable T value, @NonNull TypeAdapter<T> adapter) {
+    if (adapter instanceof SizedTypeAdapter) {
+      return ((SizedTypeAdapter<T>) adapter).sizeOf(value);
+    }
+    return UNKNOWN_SIZE;
+  }
+
+  /**
+   * Returns the number of bytes written by
+   * {@link #writeNullable(Object, Parcel, int, TypeAdapter)} for {@code value}, or
+   * {@link #UNKNOWN_SIZE}.
+   */
+  public static <T> int sizeOfNullable(@Nullable T value, @NonNull TypeAdapter<T> adapter) {
+    return value == null ? 4 : addSizes(4, sizeOf(value, adapter));
+  }
+
+  /** Returns {@code a + b}, or {@link #UNKNOWN_SIZE} if either size is unknown. */
+  public static int addSizes(int a, int b) {
+    return a < 0 || b < 0 ? UNKNOWN_SIZE : a + b;
+  }
+
+  /** Returns the number of bytes written by {@link Parcel#writeString(String)}. */
+  public static int sizeOfString(@Nullable String value) {
+    return value == null ? 4 : 4 + pad((value.length() + 1) * 2);
+  }
+
+  /**
+   * Returns the number of bytes written by {@link Parcelable#writeToParcel(Parcel, int)} for
+   * {@code value}, or {@link #UNKNOWN_SIZE}. {@code creator} should be the {@code CREATOR} of
+   * {@code value}'s class, if it is known. Only a {@link SizedCreator} can compute the size
+   * without writing {@code value}.
+   */
+  @SuppressWarnings("unchecked")
+  static int sizeOfParcelable(
+      @NonNull Parcelable value, @Nullable Parcelable.Creator<?> creator) {
+    if (creator instanceof SizedCreator) {
+      return ((SizedCreator<Parcelable>) creator).sizeOf(value);
+    }
+    return UNKNOWN_SIZE;
+  }
+
+  /**
+   * Returns the number of bytes written by {@link Parcel#writeParcelable(Parcelable, int)} for
+   * {@code value}, or {@link #UNKNOWN_SIZE}.
+   */
+  static int sizeOfParcelableWithClass(@Nullable Parcelable value) {
+    if (value == null) {
+      return sizeOfString(null);
+    }
+    Class<?> type = value.getClass();
+    return addSizes(sizeOfString(type.getName()), sizeOfParcelable(value, findCreator(type)));
+  }
+
+  /** Returns the {@code CREATOR} declared in {@code type}, or {@code null} if there isn't one. */
+  @Nullable private static Parcelable.Creator<?> findCreator(Class<?> type) {
+    try {
+      return (Parcelable.Creator<?>) findField(type, "CREATOR").get(null);
+    } catch (RuntimeException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /** Rounds {@code size} up to the 4 byte alignment used by {@link Parcel}. */
+  static int pad(int size) {
+    return (size + 3) & ~3;
+  }
+
+  /**
+   * Grows {@code dest} so that {@code size} more bytes can be written at its current position
+   * without reallocating its buffer.
+   */
+  public static void ensureCapacity(@NonNull Parcel dest, int size) {
+    int required = dest.dataPosition() + size;
+    if (dest.dataCapacity() < required) {
+      dest.setDataCapacity(required);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the value being written to {@code dest} has already been sized, so
+   * that the values nested in it shouldn't size themselves again.
+   */
+  public static boolean isPresized(@NonNull Parcel dest) {
+    return PRESIZED.get() == dest;
+  }
+
+  /**
+   * Grows {@code dest} to fit {@code size} more bytes, unless {@code size} is
+   * {@link #UNKNOWN_SIZE}, and records that the value being written to it has been sized either
+   * way. Otherwise each nested value would size its own subtree again after an unknown size.
+   * Must be paired with a call to {@link #endPresize(Parcel)}.
+   */
+  public static void beginPresize(@NonNull Parcel dest, int size) {
+    if (size >= 0) {
+      ensureCapacity(dest, size);
+    }
+    PRESIZED.set(dest);
+  }
+
+  /** Undoes {@link #beginPresize(Parcel, int)} once {@code dest} has been written. */
+  public static void endPresize(@NonNull Parcel dest) {
+    if (PRESIZED.get() == dest) {
+      PRESIZED.set(null);
+    }
+  }
+
+  /** An accessible constructor and the argument classes that it was looked up with. */
+  private static final class CachedConstructor {
+    final Class<?>[] argClasses;
+    final Constructor<?> constructor;
+
+    CachedConstructor(Class<?>[] argClasses, Constructor<?> constructor) {
+      this.argClasses = argClasses;
+      this.constructor = constructor;
+    }
+  }
+
   private Utils() {
     throw new AssertionError("No instances.");
   }
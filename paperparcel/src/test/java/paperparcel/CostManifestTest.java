@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.File;
+import java.nio.charset.Charset;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class CostManifestTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final JavaFileObject HOT_SOURCE =
+      JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import java.util.Calendar;",
+          "import java.util.List;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "@PaperParcel.Options(hot = true)",
+          "public final class Test implements Parcelable {",
+          "  public int count;",
+          "  public String name;",
+          "  public Calendar when;",
+          "  private List<String> tags;",
+          "  public List<String> getTags() {",
+          "    return tags;",
+          "  }",
+          "  public void setTags(List<String> tags) {",
+          "    this.tags = tags;",
+          "  }",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  @Test public void writesManifestWhenEnabled() throws Exception {
+    File manifest = new File(temporaryFolder.getRoot(), "reports/manifest.json");
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.manifest=" + manifest.getAbsolutePath())
+        .compile(HOT_SOURCE);
+    assertThat(compilation).succeeded();
+
+    String json = Files.toString(manifest, Charset.forName("UTF-8"));
+    assertThat(json).contains("\"name\": \"test.Test\"");
+    assertThat(json).contains("\"generatedClass\": \"test.PaperParcelTest\"");
+    assertThat(json).contains("\"codec\": \"unrolled\"");
+    assertThat(json).contains("\"hot\": true");
+    assertThat(json).contains("\"construction\": \"constructor\"");
+    assertThat(json).contains("\"cost\": \"serializable\",");
+    assertThat(json).contains("{ \"name\": \"count\", \"type\": \"int\", \"adapter\": null, "
+        + "\"nullCheck\": \"none\", \"elementNullMarkers\": false, \"read\": \"direct\", "
+        + "\"write\": \"direct\", \"cost\": \"primitive\" }");
+    assertThat(json).contains("{ \"name\": \"name\", \"type\": \"java.lang.String\", "
+        + "\"adapter\": \"paperparcel.internal.StaticAdapters.STRING_ADAPTER\", "
+        + "\"nullCheck\": \"adapter\", \"elementNullMarkers\": false, \"read\": \"direct\", "
+        + "\"write\": \"direct\", \"cost\": \"static\" }");
+    assertThat(json).contains("{ \"name\": \"when\", \"type\": \"java.util.Calendar\", "
+        + "\"adapter\": \"paperparcel.internal.SerializableAdapter<java.util.Calendar>\", "
+        + "\"nullCheck\": \"marker\", \"elementNullMarkers\": false, \"read\": \"direct\", "
+        + "\"write\": \"direct\", \"cost\": \"serializable\" }");
+    assertThat(json).contains("{ \"name\": \"tags\", \"type\": \"java.util.List<java.lang.String>\", "
+        + "\"adapter\": \"paperparcel.internal.ListAdapter<java.lang.String>\", "
+        + "\"nullCheck\": \"marker\", \"elementNullMarkers\": false, \"read\": \"getter\", "
+        + "\"write\": \"setter\", \"cost\": \"adapter\" }");
+  }
+
+  @Test public void manifestIgnoredWhenIsolating() {
+    File manifest = new File(temporaryFolder.getRoot(), "manifest.json");
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.manifest=" + manifest.getAbsolutePath(),
+            "-Apaperparcel.isolating=true")
+        .compile(HOT_SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).hadWarningContaining(ErrorMessages.MANIFEST_WHEN_ISOLATING);
+    assertThat(manifest.exists()).isFalse();
+  }
+
+  @Test public void hotClassWarnsAboutSerializableFields() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .compile(HOT_SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .hadWarningContaining("Field when of a hot @PaperParcel class is written with "
+            + "Parcel#writeSerializable")
+        .inFile(HOT_SOURCE)
+        .onLine(12);
+  }
+
+  @Test public void hotClassFailsInStrictMode() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.strict=true")
+        .compile(HOT_SOURCE);
+    assertThat(compilation)
+        .hadErrorContaining("Field when of a hot @PaperParcel class is written with "
+            + "Parcel#writeSerializable")
+        .inFile(HOT_SOURCE)
+        .onLine(12);
+  }
+
+  @Test public void hotClassWarnsAboutReflection() throws Exception {
+    JavaFileObject reflectAnnotation =
+        JavaFileObjects.forSourceString("test.Reflect", Joiner.on('\n').join(
+            "package test;",
+            "public @interface Reflect {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(hot = true, reflectAnnotations = Reflect.class)",
+            "public final class Test implements Parcelable {",
+            "  @Reflect private final int count;",
+            "  @Reflect private Test() {",
+            "    this.count = 0;",
+            "  }",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .compile(source, reflectAnnotation);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .hadWarningContaining("Hot @PaperParcel class test.Test is created using reflection")
+        .inFile(source)
+        .onLine(7);
+    assertThat(compilation)
+        .hadWarningContaining("Field count of a hot @PaperParcel class is accessed using reflection")
+        .inFile(source)
+        .onLine(8);
+  }
+
+  @Test public void classesAreNotCheckedByDefault() throws Exception {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import java.util.Calendar;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public Calendar when;",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.strict=true")
+        .compile(source);
+    assertThat(compilation).succeededWithoutWarnings();
+  }
+}
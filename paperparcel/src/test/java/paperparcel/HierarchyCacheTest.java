@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.auto.common.MoreElements;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class HierarchyCacheTest {
+
+  @Test public void methodsMatchMoreElements() {
+    JavaFileObject base =
+        JavaFileObjects.forSourceString("test.a.Base", Joiner.on('\n').join(
+            "package test.a;",
+            "public abstract class Base<T> implements Comparable<Base<T>> {",
+            "  public T get() { return null; }",
+            "  public void set(T value) {}",
+            "  void hidden() {}",
+            "  public abstract String describe();",
+            "  public int compareTo(Base<T> other) { return 0; }",
+            "}"
+        ));
+
+    JavaFileObject named =
+        JavaFileObjects.forSourceString("test.b.Named", Joiner.on('\n').join(
+            "package test.b;",
+            "public interface Named {",
+            "  default String name() { return \"\"; }",
+            "  default String describe() { return name(); }",
+            "  String id();",
+            "}"
+        ));
+
+    JavaFileObject titled =
+        JavaFileObjects.forSourceString("test.b.Titled", Joiner.on('\n').join(
+            "package test.b;",
+            "public interface Titled extends Named {",
+            "  String name();",
+            "  default String title() { return name(); }",
+            "}"
+        ));
+
+    JavaFileObject middle =
+        JavaFileObjects.forSourceString("test.b.Middle", Joiner.on('\n').join(
+            "package test.b;",
+            "public abstract class Middle extends test.a.Base<String> implements Titled {",
+            "  @Override public String get() { return null; }",
+            "  @Override public void set(String value) {}",
+            "  void hidden() {}",
+            "  public <E extends Enum<E>> E pick(Class<E> type) { return null; }",
+            "}"
+        ));
+
+    JavaFileObject leaf =
+        JavaFileObjects.forSourceString("test.b.Leaf", Joiner.on('\n').join(
+            "package test.b;",
+            "public class Leaf extends Middle implements Named {",
+            "  @Override public String name() { return \"leaf\"; }",
+            "  @Override public String describe() { return title(); }",
+            "  @Override public String id() { return \"1\"; }",
+            "  @Override public <E extends Enum<E>> E pick(Class<E> type) { return null; }",
+            "  public String title(String prefix) { return prefix; }",
+            "}"
+        ));
+
+    JavaFileObject sibling =
+        JavaFileObjects.forSourceString("test.a.Sibling", Joiner.on('\n').join(
+            "package test.a;",
+            "public class Sibling extends test.b.Leaf {",
+            "  void hidden() {}",
+            "}"
+        ));
+
+    CompareProcessor processor = new CompareProcessor();
+    Compilation compilation = javac()
+        .withProcessors(processor)
+        .compile(base, named, titled, middle, leaf, sibling);
+    assertThat(compilation).succeeded();
+    assertThat(processor.compared).containsExactly(
+        "test.a.Base", "test.a.Sibling", "test.b.Leaf", "test.b.Middle", "test.b.Named",
+        "test.b.Titled");
+    assertThat(processor.mismatches).isEmpty();
+  }
+
+  /**
+   * Compares {@link HierarchyCache#getLocalAndInheritedMethods(TypeElement)} with
+   * {@link MoreElements#getLocalAndInheritedMethods(TypeElement, Elements)} for every type in the
+   * first round. Each type is looked up twice so that cached results are also compared.
+   */
+  @SupportedAnnotationTypes("*")
+  private static final class CompareProcessor extends AbstractProcessor {
+    final List<String> compared = new ArrayList<>();
+    final List<String> mismatches = new ArrayList<>();
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override public boolean process(
+        Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (roundEnv.processingOver()) {
+        return false;
+      }
+      Elements elements = processingEnv.getElementUtils();
+      HierarchyCache cache =
+          new HierarchyCache(elements, processingEnv.getTypeUtils(), true);
+      List<TypeElement> types = new ArrayList<>();
+      for (Element element : roundEnv.getRootElements()) {
+        types.addAll(ElementFilter.typesIn(ImmutableList.of(element)));
+      }
+      for (int pass = 0; pass < 2; pass++) {
+        for (TypeElement type : types) {
+          List<ExecutableElement> expected =
+              ImmutableList.copyOf(MoreElements.getLocalAndInheritedMethods(type, elements));
+          List<ExecutableElement> actual =
+              ImmutableList.copyOf(cache.getLocalAndInheritedMethods(type));
+          if (!expected.equals(actual)) {
+            mismatches.add(type + ": expected " + expected + " but was " + actual);
+          }
+          if (pass == 0) {
+            compared.add(type.getQualifiedName().toString());
+          }
+        }
+      }
+      Collections.sort(compared);
+      return false;
+    }
+  }
+}
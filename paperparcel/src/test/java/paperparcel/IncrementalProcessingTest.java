@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Checks the contract that Gradle's incremental annotation processing relies on: each generated
+ * file is attributed to the single {@code @PaperParcel} class it is derived from, and its contents
+ * don't depend on any other source file in the module.
+ */
+public class IncrementalProcessingTest {
+  private static final JavaFileObject FIRST =
+      JavaFileObjects.forSourceString("test.First", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class First implements Parcelable {",
+          "  public int value;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  private static final JavaFileObject SECOND =
+      JavaFileObjects.forSourceString("test.Second", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import paperparcel.PaperParcel;",
+          "public final class Second {",
+          "  @PaperParcel",
+          "  public static final class Nested implements Parcelable {",
+          "    public String value;",
+          "    @Override public int describeContents() {",
+          "      return 0;",
+          "    }",
+          "    @Override public void writeToParcel(Parcel dest, int flags) {",
+          "    }",
+          "  }",
+          "}"
+      ));
+
+  private static final JavaFileObject CONFIG =
+      JavaFileObjects.forSourceString("test.Config", Joiner.on('\n').join(
+          "package test;",
+          "import paperparcel.ProcessorConfig;",
+          "@ProcessorConfig",
+          "public final class Config {",
+          "}"
+      ));
+
+  @Test public void aggregatingByDefault() {
+    RecordingProcessor processor = new RecordingProcessor();
+    Compilation compilation = javac().withProcessors(processor).compile(FIRST);
+    assertThat(compilation).succeeded();
+    assertThat(processor.supportedOptions)
+        .contains("org.gradle.annotation.processing.aggregating");
+  }
+
+  @Test public void isolatingWhenEnabled() {
+    RecordingProcessor processor = new RecordingProcessor();
+    Compilation compilation = javac()
+        .withProcessors(processor)
+        .withOptions("-Apaperparcel.isolating=true")
+        .compile(FIRST);
+    assertThat(compilation).succeeded();
+    assertThat(processor.supportedOptions)
+        .contains("org.gradle.annotation.processing.isolating");
+  }
+
+  @Test public void processorConfigFailsWhenIsolating() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.isolating=true")
+        .compile(FIRST, CONFIG);
+    assertThat(compilation).hadErrorContaining(ErrorMessages.PROCESSOR_CONFIG_WHEN_ISOLATING)
+        .inFile(CONFIG)
+        .onLine(4);
+  }
+
+  @Test public void eachGeneratedFileOriginatesFromItsPaperParcelClass() {
+    RecordingProcessor processor = new RecordingProcessor();
+    Compilation compilation = javac()
+        .withProcessors(processor)
+        .withOptions("-Apaperparcel.isolating=true")
+        .compile(FIRST, SECOND);
+    assertThat(compilation).succeeded();
+    assertThat(processor.originatingElements).isEqualTo(ImmutableMap.of(
+        "test.PaperParcelFirst", ImmutableList.of("test.First"),
+        "test.PaperParcelSecond_Nested", ImmutableList.of("test.Second.Nested")));
+  }
+
+  @Test public void onlyChangedFileIsRegenerated() throws IOException {
+    Compilation fullBuild = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.isolating=true")
+        .compile(FIRST, SECOND);
+    assertThat(fullBuild).succeeded();
+
+    // An incremental build after changing First only passes First to the processor. Its output
+    // must be exactly what a full build would generate, and nothing else is regenerated.
+    RecordingProcessor processor = new RecordingProcessor();
+    Compilation incrementalBuild = javac()
+        .withProcessors(processor)
+        .withOptions("-Apaperparcel.isolating=true")
+        .compile(FIRST);
+    assertThat(incrementalBuild).succeeded();
+    assertThat(processor.originatingElements.keySet()).containsExactly("test.PaperParcelFirst");
+    assertThat(contents(incrementalBuild, "test/PaperParcelFirst.java"))
+        .isEqualTo(contents(fullBuild, "test/PaperParcelFirst.java"));
+  }
+
+  private static String contents(Compilation compilation, String path) throws IOException {
+    for (JavaFileObject file : compilation.generatedSourceFiles()) {
+      if (file.toUri().getPath().endsWith(path)) {
+        return file.getCharContent(true).toString();
+      }
+    }
+    throw new AssertionError("No generated file " + path);
+  }
+
+  /**
+   * Runs {@link PaperParcelProcessor} and records the options it reports, and the originating
+   * elements of every source file it creates.
+   */
+  private static final class RecordingProcessor implements Processor {
+    private final Processor delegate = new PaperParcelProcessor();
+    final Map<String, ImmutableList<String>> originatingElements = new LinkedHashMap<>();
+    Set<String> supportedOptions;
+
+    @Override public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override public void init(final ProcessingEnvironment processingEnv) {
+      delegate.init(new ForwardingProcessingEnvironment(processingEnv) {
+        @Override public Filer getFiler() {
+          return new ForwardingFiler(processingEnv.getFiler()) {
+            @Override public JavaFileObject createSourceFile(
+                CharSequence name, Element... elements) throws IOException {
+              ImmutableList.Builder<String> names = ImmutableList.builder();
+              for (Element element : elements) {
+                names.add(((TypeElement) element).getQualifiedName().toString());
+              }
+              originatingElements.put(name.toString(), names.build());
+              return super.createSourceFile(name, elements);
+            }
+          };
+        }
+      });
+      supportedOptions = delegate.getSupportedOptions();
+    }
+
+    @Override public boolean process(
+        Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override public Iterable<? extends Completion> getCompletions(
+        Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+  }
+
+  private static class ForwardingProcessingEnvironment implements ProcessingEnvironment {
+    private final ProcessingEnvironment delegate;
+
+    ForwardingProcessingEnvironment(ProcessingEnvironment delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public Map<String, String> getOptions() {
+      return delegate.getOptions();
+    }
+
+    @Override public Messager getMessager() {
+      return delegate.getMessager();
+    }
+
+    @Override public Filer getFiler() {
+      return delegate.getFiler();
+    }
+
+    @Override public Elements getElementUtils() {
+      return delegate.getElementUtils();
+    }
+
+    @Override public Types getTypeUtils() {
+      return delegate.getTypeUtils();
+    }
+
+    @Override public SourceVersion getSourceVersion() {
+      return delegate.getSourceVersion();
+    }
+
+    @Override public Locale getLocale() {
+      return delegate.getLocale();
+    }
+  }
+
+  private static class ForwardingFiler implements Filer {
+    private final Filer delegate;
+
+    ForwardingFiler(Filer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public JavaFileObject createSourceFile(
+        CharSequence name, Element... originatingElements) throws IOException {
+      return delegate.createSourceFile(name, originatingElements);
+    }
+
+    @Override public JavaFileObject createClassFile(
+        CharSequence name, Element... originatingElements) throws IOException {
+      return delegate.createClassFile(name, originatingElements);
+    }
+
+    @Override public FileObject createResource(JavaFileManager.Location location,
+        CharSequence pkg, CharSequence relativeName, Element... originatingElements)
+        throws IOException {
+      return delegate.createResource(location, pkg, relativeName, originatingElements);
+    }
+
+    @Override public FileObject getResource(JavaFileManager.Location location, CharSequence pkg,
+        CharSequence relativeName) throws IOException {
+      return delegate.getResource(location, pkg, relativeName);
+    }
+  }
+}
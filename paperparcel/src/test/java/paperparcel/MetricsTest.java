@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class MetricsTest {
+  private static final JavaFileObject SOURCE =
+      JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class Test implements Parcelable {",
+          "  public int count;",
+          "  public String name;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  @Test public void reportsReadsAndWrites() {
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.internal.ParcelMetrics;",
+            "import paperparcel.internal.StaticAdapters;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      long metricsStart = ParcelMetrics.start();",
+            "      int metricsPosition = in.dataPosition();",
+            "      try {",
+            "        int count = in.readInt();",
+            "        String name = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "        Test data = new Test();",
+            "        data.count = count;",
+            "        data.name = name;",
+            "        return data;",
+            "      } finally {",
+            "        ParcelMetrics.recordRead(Test.class, in.dataPosition() - metricsPosition, ",
+            "            metricsStart);",
+            "      }",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    long metricsStart = ParcelMetrics.start();",
+            "    int metricsPosition = dest.dataPosition();",
+            "    try {",
+            "      dest.writeInt(data.count);",
+            "      StaticAdapters.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "    } finally {",
+            "      ParcelMetrics.recordWrite(Test.class, dest.dataPosition() - metricsPosition, ",
+            "          metricsStart);",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.metrics=true")
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test/PaperParcelTest")
+        .hasSourceEquivalentTo(expected);
+  }
+
+  @Test public void tableDrivenClassesSetMetricsFlag() {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(tableDriven = true)",
+            "public final class Test implements Parcelable {",
+            "  public int count;",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.metrics=true")
+        .compile(source);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("FieldTable.METRICS");
+  }
+
+  @Test public void disabledByDefault() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().doesNotContain("ParcelMetrics");
+  }
+}
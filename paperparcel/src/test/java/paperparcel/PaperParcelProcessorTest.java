@@ -124,26 +124,21 @@ public class PaperParcelProcessorTest {
             "import java.util.Set;",
             "import paperparcel.TypeAdapter;",
             "import paperparcel.internal.ArrayAdapter;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.CollectionAdapter;",
             "import paperparcel.internal.EnumAdapter;",
-            "import paperparcel.internal.ListAdapter;",
             "import paperparcel.internal.MapAdapter;",
             "import paperparcel.internal.ParcelableAdapter;",
-            "import paperparcel.internal.SetAdapter;",
             "import paperparcel.internal.SparseArrayAdapter;",
             "import paperparcel.internal.StaticAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  static final TypeAdapter<Map<Integer, Integer>> INTEGER_INTEGER_MAP_ADAPTER = ",
             "      new MapAdapter<Integer, Integer>(",
             "          Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER), ",
             "          Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  static final TypeAdapter<TestParcelable> TEST_PARCELABLE_PARCELABLE_ADAPTER = ",
             "      new ParcelableAdapter<TestParcelable>(null);",
-            "  static final TypeAdapter<Set<Integer>> INTEGER_SET_ADAPTER = ",
-            "      new SetAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  static final TypeAdapter<SparseArray<Integer>> INTEGER_SPARSE_ARRAY_ADAPTER = ",
             "      new SparseArrayAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  static final TypeAdapter<String[]> STRING_ARRAY_ADAPTER = ",
@@ -161,7 +156,7 @@ public class PaperParcelProcessorTest {
             "      Byte ad = Utils.readNullable(in, StaticAdapters.BYTE_ADAPTER);",
             "      Bundle ae = StaticAdapters.BUNDLE_ADAPTER.readFromParcel(in);",
             "      CharSequence af = StaticAdapters.CHAR_SEQUENCE_ADAPTER.readFromParcel(in);",
-            "      List<Integer> ag = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> ag = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      char ah = (char) in.readInt();",
             "      Character ai = Utils.readNullable(in, StaticAdapters.CHARACTER_ADAPTER);",
             "      double aj = in.readDouble();",
@@ -175,7 +170,7 @@ public class PaperParcelProcessorTest {
             "      Map<Integer, Integer> ar = Utils.readNullable(in, PaperParcelTest.INTEGER_INTEGER_MAP_ADAPTER);",
             "      TestParcelable as = PaperParcelTest.TEST_PARCELABLE_PARCELABLE_ADAPTER.readFromParcel(in);",
             "      PersistableBundle at = StaticAdapters.PERSISTABLE_BUNDLE_ADAPTER.readFromParcel(in);",
-            "      Set<Integer> au = Utils.readNullable(in, PaperParcelTest.INTEGER_SET_ADAPTER);",
+            "      Set<Integer> au = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_SET_ADAPTER);",
             "      short av = (short) in.readInt();",
             "      Short aw = Utils.readNullable(in, StaticAdapters.SHORT_ADAPTER);",
             "      SizeF ax = Utils.readNullable(in, StaticAdapters.SIZE_F_ADAPTER);",
@@ -251,7 +246,7 @@ public class PaperParcelProcessorTest {
             "    Utils.writeNullable(data.ad, dest, flags, StaticAdapters.BYTE_ADAPTER);",
             "    StaticAdapters.BUNDLE_ADAPTER.writeToParcel(data.ae, dest, flags);",
             "    StaticAdapters.CHAR_SEQUENCE_ADAPTER.writeToParcel(data.af, dest, flags);",
-            "    Utils.writeNullable(data.ag, dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.ag, dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "    dest.writeInt(data.ah);",
             "    Utils.writeNullable(data.ai, dest, flags, StaticAdapters.CHARACTER_ADAPTER);",
             "    dest.writeDouble(data.aj);",
@@ -265,7 +260,7 @@ public class PaperParcelProcessorTest {
             "    Utils.writeNullable(data.ar, dest, flags, PaperParcelTest.INTEGER_INTEGER_MAP_ADAPTER);",
             "    PaperParcelTest.TEST_PARCELABLE_PARCELABLE_ADAPTER.writeToParcel(data.as, dest, flags);",
             "    StaticAdapters.PERSISTABLE_BUNDLE_ADAPTER.writeToParcel(data.at, dest, flags);",
-            "    Utils.writeNullable(data.au, dest, flags, PaperParcelTest.INTEGER_SET_ADAPTER);",
+            "    Utils.writeNullable(data.au, dest, flags, BoxedPrimitiveAdapters.INTEGER_SET_ADAPTER);",
             "    dest.writeInt(data.av);",
             "    Utils.writeNullable(data.aw, dest, flags, StaticAdapters.SHORT_ADAPTER);",
             "    Utils.writeNullable(data.ax, dest, flags, StaticAdapters.SIZE_F_ADAPTER);",
@@ -1184,6 +1179,229 @@ public class PaperParcelProcessorTest {
         .generatesSources(expected);
   }
 
+  @Test public void mostSpecificRegisteredAdapterIsChosenTest() {
+    JavaFileObject stringListAdapter =
+        JavaFileObjects.forSourceString("test.StringListAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "public class StringListAdapter implements TypeAdapter<List<String>> {",
+            "  public List<String> readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(List<String> value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject elementListAdapter =
+        JavaFileObjects.forSourceString("test.ElementListAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "public class ElementListAdapter<T> implements TypeAdapter<List<T>> {",
+            "  public List<T> readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(List<T> value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject numberListAdapter =
+        JavaFileObjects.forSourceString("test.NumberListAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "public class NumberListAdapter<T extends Number> implements TypeAdapter<List<T>> {",
+            "  public List<T> readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(List<T> value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject stringArrayAdapter =
+        JavaFileObjects.forSourceString("test.StringArrayAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import paperparcel.TypeAdapter;",
+            "public class StringArrayAdapter implements TypeAdapter<String[]> {",
+            "  public String[] readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(String[] value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject elementArrayAdapter =
+        JavaFileObjects.forSourceString("test.ElementArrayAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import paperparcel.TypeAdapter;",
+            "public class ElementArrayAdapter<T> implements TypeAdapter<T[]> {",
+            "  public T[] readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(T[] value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject comparableAdapter =
+        JavaFileObjects.forSourceString("test.ComparableAdapter", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import paperparcel.TypeAdapter;",
+            "public class ComparableAdapter<T extends Comparable<T>> implements TypeAdapter<T> {",
+            "  public T readFromParcel(Parcel in) {",
+            "    return null;",
+            "  }",
+            "  public void writeToParcel(T value, Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.Adapter;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "import java.util.Date;",
+            "import java.util.List;",
+            "@ProcessorConfig(adapters = {",
+            "    @Adapter(ComparableAdapter.class),",
+            "    @Adapter(ElementArrayAdapter.class),",
+            "    @Adapter(StringArrayAdapter.class),",
+            "    @Adapter(ElementListAdapter.class),",
+            "    @Adapter(NumberListAdapter.class),",
+            "    @Adapter(StringListAdapter.class)",
+            "})",
+            "@PaperParcel",
+            "public class Test<N extends Number> implements Parcelable {",
+            "  public List<String> strings;",
+            "  public List<Integer> integers;",
+            "  public List<Boolean> booleans;",
+            "  public List<N> numbers;",
+            "  public String[] stringArray;",
+            "  public Integer[] integerArray;",
+            "  public List<String>[] stringLists;",
+            "  public int[] ints;",
+            "  public Date date;",
+            "  public String name;",
+            "  public Integer count;",
+            "  @Override",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import java.util.Date;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<List<String>> STRING_LIST_ADAPTER = new StringListAdapter();",
+            "  static final TypeAdapter<List<Integer>> INTEGER_NUMBER_LIST_ADAPTER =",
+            "      new NumberListAdapter<Integer>();",
+            "  static final TypeAdapter<List<Boolean>> BOOLEAN_ELEMENT_LIST_ADAPTER =",
+            "      new ElementListAdapter<Boolean>();",
+            "  static final TypeAdapter<List<Number>> NUMBER_NUMBER_LIST_ADAPTER =",
+            "      new NumberListAdapter<Number>();",
+            "  static final TypeAdapter<String[]> STRING_ARRAY_ADAPTER = new StringArrayAdapter();",
+            "  static final TypeAdapter<Integer[]> INTEGER_ELEMENT_ARRAY_ADAPTER =",
+            "      new ElementArrayAdapter<Integer>();",
+            "  static final TypeAdapter<List<String>[]> STRING_LIST_ELEMENT_ARRAY_ADAPTER =",
+            "      new ElementArrayAdapter<List<String>>();",
+            "  static final TypeAdapter<Date> DATE_COMPARABLE_ADAPTER = new ComparableAdapter<Date>();",
+            "  static final TypeAdapter<String> STRING_COMPARABLE_ADAPTER = new ComparableAdapter<String>();",
+            "  static final TypeAdapter<Integer> INTEGER_COMPARABLE_ADAPTER = new ComparableAdapter<Integer>();",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR =",
+            "      new Parcelable.Creator<Test>() {",
+            "        @Override",
+            "        public Test createFromParcel(Parcel in) {",
+            "          List<String> strings = Utils.readNullable(in, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "          List<Integer> integers =",
+            "              Utils.readNullable(in, PaperParcelTest.INTEGER_NUMBER_LIST_ADAPTER);",
+            "          List<Boolean> booleans =",
+            "              Utils.readNullable(in, PaperParcelTest.BOOLEAN_ELEMENT_LIST_ADAPTER);",
+            "          List<Number> numbers = Utils.readNullable(in, PaperParcelTest.NUMBER_NUMBER_LIST_ADAPTER);",
+            "          String[] stringArray = Utils.readNullable(in, PaperParcelTest.STRING_ARRAY_ADAPTER);",
+            "          Integer[] integerArray =",
+            "              Utils.readNullable(in, PaperParcelTest.INTEGER_ELEMENT_ARRAY_ADAPTER);",
+            "          List<String>[] stringLists =",
+            "              Utils.readNullable(in, PaperParcelTest.STRING_LIST_ELEMENT_ARRAY_ADAPTER);",
+            "          int[] ints = StaticAdapters.INT_ARRAY_ADAPTER.readFromParcel(in);",
+            "          Date date = Utils.readNullable(in, PaperParcelTest.DATE_COMPARABLE_ADAPTER);",
+            "          String name = Utils.readNullable(in, PaperParcelTest.STRING_COMPARABLE_ADAPTER);",
+            "          Integer count = Utils.readNullable(in, PaperParcelTest.INTEGER_COMPARABLE_ADAPTER);",
+            "          Test data = new Test();",
+            "          data.strings = strings;",
+            "          data.integers = integers;",
+            "          data.booleans = booleans;",
+            "          data.numbers = numbers;",
+            "          data.stringArray = stringArray;",
+            "          data.integerArray = integerArray;",
+            "          data.stringLists = stringLists;",
+            "          data.ints = ints;",
+            "          data.date = date;",
+            "          data.name = name;",
+            "          data.count = count;",
+            "          return data;",
+            "        }",
+            "        @Override",
+            "        public Test[] newArray(int size) {",
+            "          return new Test[size];",
+            "        }",
+            "      };",
+            "  private PaperParcelTest() {}",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    Utils.writeNullable(data.strings, dest, flags, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.integers, dest, flags, PaperParcelTest.INTEGER_NUMBER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.booleans, dest, flags, PaperParcelTest.BOOLEAN_ELEMENT_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.numbers, dest, flags, PaperParcelTest.NUMBER_NUMBER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.stringArray, dest, flags, PaperParcelTest.STRING_ARRAY_ADAPTER);",
+            "    Utils.writeNullable(",
+            "        data.integerArray, dest, flags, PaperParcelTest.INTEGER_ELEMENT_ARRAY_ADAPTER);",
+            "    Utils.writeNullable(",
+            "        data.stringLists, dest, flags, PaperParcelTest.STRING_LIST_ELEMENT_ARRAY_ADAPTER);",
+            "    StaticAdapters.INT_ARRAY_ADAPTER.writeToParcel(data.ints, dest, flags);",
+            "    Utils.writeNullable(data.date, dest, flags, PaperParcelTest.DATE_COMPARABLE_ADAPTER);",
+            "    Utils.writeNullable(data.name, dest, flags, PaperParcelTest.STRING_COMPARABLE_ADAPTER);",
+            "    Utils.writeNullable(data.count, dest, flags, PaperParcelTest.INTEGER_COMPARABLE_ADAPTER);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(stringListAdapter, elementListAdapter, numberListAdapter,
+            stringArrayAdapter, elementArrayAdapter, comparableAdapter, source))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
   @Test public void failWhenTypeAdapterIsNotAvailableTest() {
     JavaFileObject unknownClass =
         JavaFileObjects.forSourceString("test.UnknownClass", Joiner.on('\n').join(
@@ -1594,25 +1812,824 @@ public class PaperParcelProcessorTest {
         .generatesSources(expected);
   }
 
-  @Test public void basicExcludeAnnotationsTest() {
-    JavaFileObject excludeAnnotation =
-        JavaFileObjects.forSourceString("test.Exclude", Joiner.on('\n').join(
-            "package test;",
-            "public @interface Exclude {}"
-        ));
-
+  @Test public void basicExcludeAnnotationsTest() {
+    JavaFileObject excludeAnnotation =
+        JavaFileObjects.forSourceString("test.Exclude", Joiner.on('\n').join(
+            "package test;",
+            "public @interface Exclude {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig(options = @PaperParcel.Options(excludeAnnotations = Exclude.class))",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public int value;",
+            "  @Exclude public int ignore;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int value = in.readInt();",
+            "      Test data = new Test();",
+            "      data.value = value;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.value);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, excludeAnnotation))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void basicExcludeNonExposedFieldsTest() {
+    JavaFileObject exposeAnnotation =
+        JavaFileObjects.forSourceString("test.Expose", Joiner.on('\n').join(
+            "package test;",
+            "public @interface Expose {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig(options = @PaperParcel.Options(",
+            "  excludeNonExposedFields = true,",
+            "  exposeAnnotations = Expose.class",
+            "))",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  @Expose public int value;",
+            "  public int ignore;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int value = in.readInt();",
+            "      Test data = new Test();",
+            "      data.value = value;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.value);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, exposeAnnotation))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void inheritanceExcludeNonExposedFieldsTest() {
+    JavaFileObject exposeAnnotation =
+        JavaFileObjects.forSourceString("test.Expose", Joiner.on('\n').join(
+            "package test;",
+            "public @interface Expose {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig(options = @PaperParcel.Options(",
+            "  excludeNonExposedFields = true,",
+            "  exposeAnnotations = Expose.class",
+            "))",
+            "@PaperParcel",
+            "public final class Test extends BaseTest implements Parcelable {",
+            "  @Expose public int value;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject baseClass =
+        JavaFileObjects.forSourceString("test.BaseTest", Joiner.on('\n').join(
+            "package test;",
+            "public class BaseTest {",
+            "  public int ignore;",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int value = in.readInt();",
+            "      Test data = new Test();",
+            "      data.value = value;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.value);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, exposeAnnotation, baseClass))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void inheritanceExcludeAnnotationsTest() {
+    JavaFileObject excludeAnnotation =
+        JavaFileObjects.forSourceString("test.Exclude", Joiner.on('\n').join(
+            "package test;",
+            "public @interface Exclude {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig(options = @PaperParcel.Options(excludeAnnotations = Exclude.class))",
+            "@PaperParcel",
+            "public final class Test extends BaseTest implements Parcelable {",
+            "  public int value;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject baseClass =
+        JavaFileObjects.forSourceString("test.BaseTest", Joiner.on('\n').join(
+            "package test;",
+            "public class BaseTest {",
+            "  @Exclude public int ignore;",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int value = in.readInt();",
+            "      Test data = new Test();",
+            "      data.value = value;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.value);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, baseClass, excludeAnnotation))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void localOptionsOverrideGlobalConfigTest() {
+    JavaFileObject sharedOptions =
+        JavaFileObjects.forSourceString("test.SharedOptions", Joiner.on('\n').join(
+            "package test;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig",
+            "public @interface SharedOptions {}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(excludeModifiers = {})",
+            "public final class Test implements Parcelable {",
+            "  public transient int value;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int value = in.readInt();",
+            "      Test data = new Test();",
+            "      data.value = value;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.value);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, sharedOptions))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void useEnumOrdinalsTest() {
+    JavaFileObject color =
+        JavaFileObjects.forSourceString("test.Color", Joiner.on('\n').join(
+            "package test;",
+            "public enum Color {",
+            "  RED, GREEN, BLUE",
+            "}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(useEnumOrdinals = true)",
+            "public final class Test implements Parcelable {",
+            "  public Color color;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.OrdinalEnumAdapter;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<Color> COLOR_ORDINAL_ENUM_ADAPTER = ",
+            "      new OrdinalEnumAdapter<Color>(Color.class, 3);",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      Color color = PaperParcelTest.COLOR_ORDINAL_ENUM_ADAPTER.readFromParcel(in);",
+            "      Test data = new Test();",
+            "      data.color = color;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    PaperParcelTest.COLOR_ORDINAL_ENUM_ADAPTER.writeToParcel(data.color, dest, flags);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(source, color))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void packFlagsTest() {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(packFlags = true)",
+            "public final class Test implements Parcelable {",
+            "  public boolean enabled;",
+            "  public Integer count;",
+            "  public String name;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.internal.StaticAdapters;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int header = in.readInt();",
+            "      boolean enabled = (header & 0x1) != 0;",
+            "      Integer count = (header & 0x2) != 0 ",
+            "          ? StaticAdapters.INTEGER_ADAPTER.readFromParcel(in) : null;",
+            "      String name = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "      Test data = new Test();",
+            "      data.enabled = enabled;",
+            "      data.count = count;",
+            "      data.name = name;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    int header = 0;",
+            "    if (data.enabled) {",
+            "      header |= 0x1;",
+            "    }",
+            "    Integer count = data.count;",
+            "    if (count != null) {",
+            "      header |= 0x2;",
+            "    }",
+            "    dest.writeInt(header);",
+            "    if (count != null) {",
+            "      StaticAdapters.INTEGER_ADAPTER.writeToParcel(count, dest, flags);",
+            "    }",
+            "    StaticAdapters.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSource()).that(source)
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void poolStringsTest() {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import java.util.List;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(poolStrings = true)",
+            "public final class Test implements Parcelable {",
+            "  public String name;",
+            "  public List<String> tags;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.ListAdapter;",
+            "import paperparcel.internal.ParcelScope;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<List<String>> STRING_LIST_ADAPTER = ",
+            "      new ListAdapter<String>(ParcelScope.STRING_ADAPTER);",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      ParcelScope.beginRead(in);",
+            "      try {",
+            "        String name = ParcelScope.STRING_ADAPTER.readFromParcel(in);",
+            "        List<String> tags = ",
+            "            Utils.readNullable(in, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "        Test data = new Test();",
+            "        data.name = name;",
+            "        data.tags = tags;",
+            "        return data;",
+            "      } finally {",
+            "        ParcelScope.endRead(in);",
+            "      }",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    ParcelScope.beginWrite(dest, data);",
+            "    try {",
+            "      ParcelScope.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "      Utils.writeNullable(",
+            "          data.tags, dest, flags, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "    } finally {",
+            "      ParcelScope.endWrite(dest);",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSource()).that(source)
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void trackReferencesTest() {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(trackReferences = true)",
+            "public final class Test implements Parcelable {",
+            "  public String reference;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.internal.ParcelScope;",
+            "import paperparcel.internal.StaticAdapters;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      ParcelScope.beginRead(in);",
+            "      try {",
+            "        Test reference = ParcelScope.readReference(in);",
+            "        if (reference != null) {",
+            "          return reference;",
+            "        }",
+            "        String reference1 = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "        Test data = new Test();",
+            "        data.reference = reference1;",
+            "        ParcelScope.registerRead(in, data);",
+            "        return data;",
+            "      } finally {",
+            "        ParcelScope.endRead(in);",
+            "      }",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    ParcelScope.beginWrite(dest, data);",
+            "    try {",
+            "      if (ParcelScope.writeReference(dest, data)) {",
+            "        return;",
+            "      }",
+            "      StaticAdapters.STRING_ADAPTER.writeToParcel(data.reference, dest, flags);",
+            "      ParcelScope.registerWritten(dest, data);",
+            "    } finally {",
+            "      ParcelScope.endWrite(dest);",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSource()).that(source)
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void closedHierarchiesAreWrittenWithSubtypeAdapterTest() {
+    JavaFileObject shape =
+        JavaFileObjects.forSourceString("test.Shape", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "public abstract class Shape implements Parcelable {",
+            "  private Shape() {",
+            "  }",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @PaperParcel",
+            "  public static final class Circle extends Shape {",
+            "    public static final Parcelable.Creator<Circle> CREATOR = PaperParcelShape_Circle.CREATOR;",
+            "    public int size;",
+            "    public void writeToParcel(Parcel dest, int flags) {",
+            "      PaperParcelShape_Circle.writeToParcel(this, dest, flags);",
+            "    }",
+            "  }",
+            "  @PaperParcel",
+            "  public static final class Square extends Shape {",
+            "    public static final Parcelable.Creator<Square> CREATOR = PaperParcelShape_Square.CREATOR;",
+            "    public int size;",
+            "    public void writeToParcel(Parcel dest, int flags) {",
+            "      PaperParcelShape_Square.writeToParcel(this, dest, flags);",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public Shape shape;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.SubtypeAdapter;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<Shape> SHAPE_SUBTYPE_ADAPTER = ",
+            "      new SubtypeAdapter<Shape>(",
+            "      new Class<?>[] { Shape.Circle.class, Shape.Square.class },",
+            "      new Parcelable.Creator<?>[] { Shape.Circle.CREATOR, Shape.Square.CREATOR });",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      Shape shape = ",
+            "          PaperParcelTest.SHAPE_SUBTYPE_ADAPTER.readFromParcel(in);",
+            "      Test data = new Test();",
+            "      data.shape = shape;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    PaperParcelTest.SHAPE_SUBTYPE_ADAPTER.writeToParcel(data.shape, dest, flags);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(shape, source))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void listsOfNonFinalParcelablesUseParcelableListAdapterTest() {
+    JavaFileObject item =
+        JavaFileObjects.forSourceString("test.Item", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "public class Item implements Parcelable {",
+            "  public static final Parcelable.Creator<Item> CREATOR = null;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import java.util.List;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public List<Item> items;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.ParcelableListAdapter;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<List<Item>> ITEM_PARCELABLE_LIST_ADAPTER = ",
+            "      new ParcelableListAdapter<Item>();",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      List<Item> items = ",
+            "          Utils.readNullable(in, PaperParcelTest.ITEM_PARCELABLE_LIST_ADAPTER);",
+            "      Test data = new Test();",
+            "      data.items = items;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    Utils.writeNullable(",
+            "        data.items, dest, flags, PaperParcelTest.ITEM_PARCELABLE_LIST_ADAPTER);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(item, source))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void presizeTest() {
     JavaFileObject source =
         JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
+            "import java.util.List;",
             "import paperparcel.PaperParcel;",
-            "import paperparcel.ProcessorConfig;",
-            "@ProcessorConfig(options = @PaperParcel.Options(excludeAnnotations = Exclude.class))",
             "@PaperParcel",
+            "@PaperParcel.Options(presize = true)",
             "public final class Test implements Parcelable {",
-            "  public int value;",
-            "  @Exclude public int ignore;",
+            "  public long id;",
+            "  public boolean flag;",
+            "  public String name;",
+            "  public List<String> tags;",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -1627,58 +2644,86 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.ListAdapter;",
+            "import paperparcel.internal.SizedCreator;",
+            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
+            "  static final TypeAdapter<List<String>> STRING_LIST_ADAPTER = ",
+            "      new ListAdapter<String>(StaticAdapters.STRING_ADAPTER);",
             "  @NonNull",
-            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "  static final Parcelable.Creator<Test> CREATOR = new SizedCreator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      int value = in.readInt();",
+            "      long id = in.readLong();",
+            "      boolean flag = in.readInt() == 1;",
+            "      String name = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "      List<String> tags = Utils.readNullable(in, PaperParcelTest.STRING_LIST_ADAPTER);",
             "      Test data = new Test();",
-            "      data.value = value;",
+            "      data.id = id;",
+            "      data.flag = flag;",
+            "      data.name = name;",
+            "      data.tags = tags;",
             "      return data;",
             "    }",
             "    @Override",
             "    public Test[] newArray(int size) {",
             "      return new Test[size];",
             "    }",
+            "    @Override",
+            "    public int sizeOf(@NonNull Test value) {",
+            "      return PaperParcelTest.sizeOf(value);",
+            "    }",
             "  };",
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    dest.writeInt(data.value);",
+            "    boolean presized = !Utils.isPresized(dest);",
+            "    if (presized) {",
+            "      Utils.beginPresize(dest, sizeOf(data));",
+            "    }",
+            "    try {",
+            "      dest.writeLong(data.id);",
+            "      dest.writeInt(data.flag ? 1 : 0);",
+            "      StaticAdapters.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "      Utils.writeNullable(data.tags, dest, flags, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "    } finally {",
+            "      if (presized) {",
+            "        Utils.endPresize(dest);",
+            "      }",
+            "    }",
+            "  }",
+            "  static int sizeOf(@NonNull Test data) {",
+            "    int size = 12;",
+            "    size = Utils.addSizes(size, Utils.sizeOf(data.name, StaticAdapters.STRING_ADAPTER));",
+            "    size = Utils.addSizes(size, Utils.sizeOfNullable(data.tags, PaperParcelTest.STRING_LIST_ADAPTER));",
+            "    return size;",
             "  }",
             "}"
         ));
 
-    assertAbout(javaSources()).that(Arrays.asList(source, excludeAnnotation))
+    assertAbout(javaSource()).that(source)
         .processedWith(new PaperParcelProcessor())
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void basicExcludeNonExposedFieldsTest() {
-    JavaFileObject exposeAnnotation =
-        JavaFileObjects.forSourceString("test.Expose", Joiner.on('\n').join(
-            "package test;",
-            "public @interface Expose {}"
-        ));
-
+  @Test public void inlineContainersTest() {
     JavaFileObject source =
         JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
+            "import java.util.List;",
+            "import java.util.Map;",
             "import paperparcel.PaperParcel;",
-            "import paperparcel.ProcessorConfig;",
-            "@ProcessorConfig(options = @PaperParcel.Options(",
-            "  excludeNonExposedFields = true,",
-            "  exposeAnnotations = Expose.class",
-            "))",
             "@PaperParcel",
+            "@PaperParcel.Options(inlineContainers = true)",
             "public final class Test implements Parcelable {",
-            "  @Expose public int value;",
-            "  public int ignore;",
+            "  public Map<String, List<String>> groups;",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -1693,14 +2738,19 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
+            "import java.util.ArrayList;",
+            "import java.util.LinkedHashMap;",
+            "import java.util.List;",
+            "import java.util.Map;",
+            "import paperparcel.internal.StaticAdapters;",
             "final class PaperParcelTest {",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      int value = in.readInt();",
+            "      Map<String, List<String>> groups = readNullableStringStringListMap(in);",
             "      Test data = new Test();",
-            "      data.value = value;",
+            "      data.groups = groups;",
             "      return data;",
             "    }",
             "    @Override",
@@ -1711,39 +2761,88 @@ public class PaperParcelProcessorTest {
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    dest.writeInt(data.value);",
+            "    writeNullableStringStringListMap(data.groups, dest, flags);",
+            "  }",
+            "  private static Map<String, List<String>> readNullableStringStringListMap(Parcel in) {",
+            "    Map<String, List<String>> result;",
+            "    if (in.readInt() == 1) {",
+            "      int size = in.readInt();",
+            "      result = new LinkedHashMap<String, List<String>>(size);",
+            "      for (int i = 0; i < size; i++) {",
+            "        String key = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "        List<String> value;",
+            "        if (in.readInt() == 1) {",
+            "          int size1 = in.readInt();",
+            "          value = new ArrayList<String>(size1);",
+            "          for (int i1 = 0; i1 < size1; i1++) {",
+            "            String item = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "            value.add(item);",
+            "          }",
+            "        } else {",
+            "          value = null;",
+            "        }",
+            "        result.put(key, value);",
+            "      }",
+            "    } else {",
+            "      result = null;",
+            "    }",
+            "    return result;",
+            "  }",
+            "  private static void writeNullableStringStringListMap(",
+            "      Map<String, List<String>> value, Parcel dest, int flags) {",
+            "    if (value == null) {",
+            "      dest.writeInt(0);",
+            "    } else {",
+            "      dest.writeInt(1);",
+            "      dest.writeInt(value.size());",
+            "      for (Map.Entry<String, List<String>> entry : value.entrySet()) {",
+            "        String key = entry.getKey();",
+            "        StaticAdapters.STRING_ADAPTER.writeToParcel(key, dest, flags);",
+            "        List<String> entryValue = entry.getValue();",
+            "        if (entryValue == null) {",
+            "          dest.writeInt(0);",
+            "        } else {",
+            "          dest.writeInt(1);",
+            "          int size = entryValue.size();",
+            "          dest.writeInt(size);",
+            "          for (int i = 0; i < size; i++) {",
+            "            String item = entryValue.get(i);",
+            "            StaticAdapters.STRING_ADAPTER.writeToParcel(item, dest, flags);",
+            "          }",
+            "        }",
+            "      }",
+            "    }",
             "  }",
             "}"
         ));
 
-    assertAbout(javaSources()).that(Arrays.asList(source, exposeAnnotation))
+    assertAbout(javaSource()).that(source)
         .processedWith(new PaperParcelProcessor())
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void inheritanceExcludeNonExposedFieldsTest() {
-    JavaFileObject exposeAnnotation =
-        JavaFileObjects.forSourceString("test.Expose", Joiner.on('\n').join(
-            "package test;",
-            "public @interface Expose {}"
-        ));
-
+  @Test public void tableDrivenTest() {
     JavaFileObject source =
         JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
+            "import java.util.List;",
             "import paperparcel.PaperParcel;",
-            "import paperparcel.ProcessorConfig;",
-            "@ProcessorConfig(options = @PaperParcel.Options(",
-            "  excludeNonExposedFields = true,",
-            "  exposeAnnotations = Expose.class",
-            "))",
             "@PaperParcel",
-            "public final class Test extends BaseTest implements Parcelable {",
-            "  @Expose public int value;",
+            "@PaperParcel.Options(tableDriven = true)",
+            "public final class Test implements Parcelable {",
+            "  public boolean flag;",
+            "  public List<String> tags;",
+            "  private final String name;",
+            "  public Test(String name) {",
+            "    this.name = name;",
+            "  }",
+            "  public String getName() {",
+            "    return name;",
+            "  }",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -1752,68 +2851,85 @@ public class PaperParcelProcessorTest {
             "}"
         ));
 
-    JavaFileObject baseClass =
-        JavaFileObjects.forSourceString("test.BaseTest", Joiner.on('\n').join(
-            "package test;",
-            "public class BaseTest {",
-            "  public int ignore;",
-            "}"
-        ));
-
     JavaFileObject expected =
         JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
-            "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
-            "final class PaperParcelTest {",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.FieldTable;",
+            "import paperparcel.internal.ListAdapter;",
+            "import paperparcel.internal.StaticAdapters;",
+            "final class PaperParcelTest implements FieldTable.Accessor {",
+            "  static final TypeAdapter<List<String>> STRING_LIST_ADAPTER =",
+            "      new ListAdapter<String>(StaticAdapters.STRING_ADAPTER);",
             "  @NonNull",
-            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
-            "    @Override",
-            "    public Test createFromParcel(Parcel in) {",
-            "      int value = in.readInt();",
-            "      Test data = new Test();",
-            "      data.value = value;",
-            "      return data;",
-            "    }",
-            "    @Override",
-            "    public Test[] newArray(int size) {",
-            "      return new Test[size];",
+            "  static final FieldTable<Test> CREATOR =",
+            "      new FieldTable<Test>(",
+            "          Test.class,",
+            "          new PaperParcelTest(),",
+            "          \"ZNA\",",
+            "          new TypeAdapter<?>[] {",
+            "            null, PaperParcelTest.STRING_LIST_ADAPTER, StaticAdapters.STRING_ADAPTER",
+            "          },",
+            "          0);",
+            "  private PaperParcelTest() {}",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    CREATOR.write(data, dest, flags);",
+            "  }",
+            "  @Override",
+            "  public Object get(@NonNull Object object, int index) {",
+            "    Test data = (Test) object;",
+            "    switch (index) {",
+            "      case 0:",
+            "        return data.flag;",
+            "      case 1:",
+            "        return data.tags;",
+            "      case 2:",
+            "        return data.getName();",
+            "      default:",
+            "        throw new IllegalArgumentException(\"Unknown field: \" + index);",
             "    }",
-            "  };",
-            "  private PaperParcelTest() {",
             "  }",
-            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    dest.writeInt(data.value);",
+            "  @Override",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  public Object create(@NonNull Object[] values) {",
+            "    boolean flag = (Boolean) values[0];",
+            "    List<String> tags = (List<String>) values[1];",
+            "    String name = (String) values[2];",
+            "    Test data = new Test(name);",
+            "    data.flag = flag;",
+            "    data.tags = tags;",
+            "    return data;",
             "  }",
             "}"
         ));
 
-    assertAbout(javaSources()).that(Arrays.asList(source, exposeAnnotation, baseClass))
+    assertAbout(javaSource()).that(source)
         .processedWith(new PaperParcelProcessor())
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void inheritanceExcludeAnnotationsTest() {
-    JavaFileObject excludeAnnotation =
-        JavaFileObjects.forSourceString("test.Exclude", Joiner.on('\n').join(
-            "package test;",
-            "public @interface Exclude {}"
-        ));
-
+  @Test public void jdkValueTypesTest() {
     JavaFileObject source =
         JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
+            "import java.math.BigDecimal;",
+            "import java.time.Instant;",
+            "import java.util.Date;",
+            "import java.util.UUID;",
             "import paperparcel.PaperParcel;",
-            "import paperparcel.ProcessorConfig;",
-            "@ProcessorConfig(options = @PaperParcel.Options(excludeAnnotations = Exclude.class))",
             "@PaperParcel",
-            "public final class Test extends BaseTest implements Parcelable {",
-            "  public int value;",
+            "public final class Test implements Parcelable {",
+            "  public Date date;",
+            "  public UUID id;",
+            "  public BigDecimal amount;",
+            "  public Instant instant;",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -1822,57 +2938,76 @@ public class PaperParcelProcessorTest {
             "}"
         ));
 
-    JavaFileObject baseClass =
-        JavaFileObjects.forSourceString("test.BaseTest", Joiner.on('\n').join(
-            "package test;",
-            "public class BaseTest {",
-            "  @Exclude public int ignore;",
-            "}"
-        ));
-
     JavaFileObject expected =
         JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
             "package test;",
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
+            "import java.math.BigDecimal;",
+            "import java.time.Instant;",
+            "import java.util.Date;",
+            "import java.util.UUID;",
+            "import paperparcel.internal.JavaTimeAdapters;",
+            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
             "  @NonNull",
-            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
-            "    @Override",
-            "    public Test createFromParcel(Parcel in) {",
-            "      int value = in.readInt();",
-            "      Test data = new Test();",
-            "      data.value = value;",
-            "      return data;",
-            "    }",
-            "    @Override",
-            "    public Test[] newArray(int size) {",
-            "      return new Test[size];",
-            "    }",
-            "  };",
-            "  private PaperParcelTest() {",
-            "  }",
+            "  static final Parcelable.Creator<Test> CREATOR =",
+            "      new Parcelable.Creator<Test>() {",
+            "        @Override",
+            "        public Test createFromParcel(Parcel in) {",
+            "          Date date = Utils.readNullable(in, StaticAdapters.DATE_ADAPTER);",
+            "          UUID id = Utils.readNullable(in, StaticAdapters.UUID_ADAPTER);",
+            "          BigDecimal amount = Utils.readNullable(in, StaticAdapters.BIG_DECIMAL_ADAPTER);",
+            "          Instant instant = Utils.readNullable(in, JavaTimeAdapters.INSTANT_ADAPTER);",
+            "          Test data = new Test();",
+            "          data.date = date;",
+            "          data.id = id;",
+            "          data.amount = amount;",
+            "          data.instant = instant;",
+            "          return data;",
+            "        }",
+            "        @Override",
+            "        public Test[] newArray(int size) {",
+            "          return new Test[size];",
+            "        }",
+            "      };",
+            "  private PaperParcelTest() {}",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    dest.writeInt(data.value);",
+            "    Utils.writeNullable(data.date, dest, flags, StaticAdapters.DATE_ADAPTER);",
+            "    Utils.writeNullable(data.id, dest, flags, StaticAdapters.UUID_ADAPTER);",
+            "    Utils.writeNullable(data.amount, dest, flags, StaticAdapters.BIG_DECIMAL_ADAPTER);",
+            "    Utils.writeNullable(data.instant, dest, flags, JavaTimeAdapters.INSTANT_ADAPTER);",
             "  }",
             "}"
         ));
 
-    assertAbout(javaSources()).that(Arrays.asList(source, baseClass, excludeAnnotation))
+    assertAbout(javaSource()).that(source)
         .processedWith(new PaperParcelProcessor())
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void localOptionsOverrideGlobalConfigTest() {
-    JavaFileObject sharedOptions =
-        JavaFileObjects.forSourceString("test.SharedOptions", Joiner.on('\n').join(
+  @Test public void linkedPaperParcelFieldTest() {
+    JavaFileObject child =
+        JavaFileObjects.forSourceString("test.Child", Joiner.on('\n').join(
             "package test;",
-            "import paperparcel.ProcessorConfig;",
-            "@ProcessorConfig",
-            "public @interface SharedOptions {}"
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "public final class Child implements Parcelable {",
+            "  public static final Parcelable.Creator<Child> CREATOR = PaperParcelChild.CREATOR;",
+            "  public int value;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "    PaperParcelChild.writeToParcel(this, dest, flags);",
+            "  }",
+            "}"
         ));
 
     JavaFileObject source =
@@ -1882,9 +3017,9 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import paperparcel.PaperParcel;",
             "@PaperParcel",
-            "@PaperParcel.Options(excludeModifiers = {})",
+            "@PaperParcel.Options(linkNested = true)",
             "public final class Test implements Parcelable {",
-            "  public transient int value;",
+            "  public Child child;",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -1904,9 +3039,9 @@ public class PaperParcelProcessorTest {
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      int value = in.readInt();",
+            "      Child child = in.readInt() == 1 ? PaperParcelChild.CREATOR.createFromParcel(in) : null;",
             "      Test data = new Test();",
-            "      data.value = value;",
+            "      data.child = child;",
             "      return data;",
             "    }",
             "    @Override",
@@ -1917,12 +3052,18 @@ public class PaperParcelProcessorTest {
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    dest.writeInt(data.value);",
+            "    Child child = data.child;",
+            "    if (child == null) {",
+            "      dest.writeInt(0);",
+            "    } else {",
+            "      dest.writeInt(1);",
+            "      PaperParcelChild.writeToParcel(child, dest, flags);",
+            "    }",
             "  }",
             "}"
         ));
 
-    assertAbout(javaSources()).that(Arrays.asList(source, sharedOptions))
+    assertAbout(javaSources()).that(Arrays.asList(child, source))
         .processedWith(new PaperParcelProcessor())
         .compilesWithoutError()
         .and()
@@ -2411,18 +3552,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> reflectIt = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> reflectIt = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = new Test();",
             "      Utils.writeField(reflectIt, Test.class, data, \"reflectIt\");",
             "      return data;",
@@ -2437,7 +3574,7 @@ public class PaperParcelProcessorTest {
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
             "    Utils.writeNullable(",
             "        Utils.readField(List.class, Test.class, data, \"reflectIt\"),",
-            "        dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "        dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -2486,18 +3623,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> reflectIt = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> reflectIt = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = new Test();",
             "      Utils.writeField(reflectIt, Test.class, data, \"reflectIt\");",
             "      return data;",
@@ -2510,7 +3643,7 @@ public class PaperParcelProcessorTest {
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    Utils.writeNullable(data.reflectIt(), dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.reflectIt(), dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -2559,18 +3692,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> reflectIt = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> reflectIt = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = new Test(reflectIt);",
             "      return data;",
             "    }",
@@ -2584,7 +3713,7 @@ public class PaperParcelProcessorTest {
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
             "    Utils.writeNullable(",
             "        Utils.readField(List.class, Test.class, data, \"reflectIt\"),",
-            "        dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "        dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -2633,18 +3762,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> reflectIt = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> reflectIt = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = new Test();",
             "      data.reflectIt(reflectIt);",
             "      return data;",
@@ -2659,7 +3784,7 @@ public class PaperParcelProcessorTest {
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
             "    Utils.writeNullable(",
             "        Utils.readField(List.class, Test.class, data, \"reflectIt\"),",
-            "        dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "        dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -2705,18 +3830,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> value = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> value = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = new Test();",
             "      data.value = value;",
             "      return data;",
@@ -2729,7 +3850,7 @@ public class PaperParcelProcessorTest {
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    Utils.writeNullable(data.value, dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.value, dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -2780,18 +3901,14 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcelable;",
             "import android.support.annotation.NonNull;",
             "import java.util.List;",
-            "import paperparcel.TypeAdapter;",
-            "import paperparcel.internal.ListAdapter;",
-            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.BoxedPrimitiveAdapters;",
             "import paperparcel.internal.Utils;",
             "final class PaperParcelTest {",
-            "  static final TypeAdapter<List<Integer>> INTEGER_LIST_ADAPTER = ",
-            "      new ListAdapter<Integer>(Utils.nullSafeClone(StaticAdapters.INTEGER_ADAPTER));",
             "  @NonNull",
             "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
             "    @Override",
             "    public Test createFromParcel(Parcel in) {",
-            "      List<Integer> value = Utils.readNullable(in, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "      List<Integer> value = Utils.readNullable(in, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "      Test data = Utils.init(Test.class, new Class[] { List.class }, new Object[] { value });",
             "      return data;",
             "    }",
@@ -2803,7 +3920,7 @@ public class PaperParcelProcessorTest {
             "  private PaperParcelTest() {",
             "  }",
             "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
-            "    Utils.writeNullable(data.value(), dest, flags, PaperParcelTest.INTEGER_LIST_ADAPTER);",
+            "    Utils.writeNullable(data.value(), dest, flags, BoxedPrimitiveAdapters.INTEGER_LIST_ADAPTER);",
             "  }",
             "}"
         ));
@@ -4227,13 +5344,13 @@ public class PaperParcelProcessorTest {
             "import android.os.Parcel;",
             "import android.os.Parcelable;",
             "import paperparcel.PaperParcel;",
-            "import java.util.Date;",
+            "import java.util.Calendar;",
             "@PaperParcel.Options(",
             "  allowSerializable = false",
             ")",
             "@PaperParcel",
             "public final class Test implements Parcelable {",
-            "  Date field;",
+            "  Calendar field;",
             "  public int describeContents() {",
             "    return 0;",
             "  }",
@@ -4245,7 +5362,7 @@ public class PaperParcelProcessorTest {
     assertAbout(javaSource()).that(source)
         .processedWith(new PaperParcelProcessor())
         .failsToCompile()
-        .withErrorContaining(String.format(ErrorMessages.FIELD_MISSING_TYPE_ADAPTER, "java.util.Date"))
+        .withErrorContaining(String.format(ErrorMessages.FIELD_MISSING_TYPE_ADAPTER, "java.util.Calendar"))
         .in(source)
         .onLine(11);
   }
@@ -4333,4 +5450,89 @@ public class PaperParcelProcessorTest {
         .and()
         .generatesSources(expectedSource);
   }
+
+  @Test public void paperParcelableRegistersWriterTest() {
+    JavaFileObject paperParcelable =
+        JavaFileObjects.forSourceString("paperparcel.PaperParcelable", Joiner.on('\n').join(
+            "package paperparcel;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "public interface PaperParcelable extends Parcelable {",
+            "  interface Writer<T> {",
+            "    void writeToParcel(T data, Parcel dest, int flags);",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject paperParcelWriters =
+        JavaFileObjects.forSourceString("paperparcel.PaperParcelWriters", Joiner.on('\n').join(
+            "package paperparcel;",
+            "public final class PaperParcelWriters {",
+            "  public static <T> void register(Class<T> type, PaperParcelable.Writer<T> writer) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.PaperParcelable;",
+            "@PaperParcel",
+            "public final class Test implements PaperParcelable {",
+            "  public int count;",
+            "  public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expectedSource =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.PaperParcelWriters;",
+            "import paperparcel.PaperParcelable;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int count = in.readInt();",
+            "      Test data = new Test();",
+            "      data.count = count;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  static {",
+            "    PaperParcelWriters.register(Test.class, new PaperParcelable.Writer<Test>() {",
+            "      @Override",
+            "      public void writeToParcel(Test data, Parcel dest, int flags) {",
+            "        PaperParcelTest.writeToParcel(data, dest, flags);",
+            "      }",
+            "    });",
+            "  }",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    dest.writeInt(data.count);",
+            "  }",
+            "}"
+        ));
+
+    assertAbout(javaSources()).that(Arrays.asList(paperParcelable, paperParcelWriters, source))
+        .processedWith(new PaperParcelProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expectedSource);
+  }
 }
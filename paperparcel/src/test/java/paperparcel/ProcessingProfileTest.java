@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class ProcessingProfileTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void writesReportWhenEnabled() throws Exception {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import java.util.List;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public List<String> first;",
+            "  public List<String> second;",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    File report = new File(temporaryFolder.getRoot(), "reports/profile.json");
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.profile=" + report.getAbsolutePath())
+        .compile(source);
+    assertThat(compilation).succeeded();
+
+    String json = Files.toString(report, Charset.forName("UTF-8"));
+    assertThat(json).contains("\"round\": 1");
+    assertThat(json).contains("\"PaperParcelProcessingStep\": ");
+    assertThat(json).contains("\"descriptorsBuilt\": 1");
+    // The second List<String> is found in the cache, the first and its String argument are not.
+    assertThat(json).contains("\"adapterCacheHits\": 1");
+    assertThat(json).contains("\"adapterCacheMisses\": 2");
+    assertThat(json).contains("\"filesWritten\": 1");
+    assertThat(json).containsMatch(
+        "\\{ \"name\": \"test.Test\", \"round\": 1, \"validateMillis\": [0-9.]+, "
+            + "\"describeMillis\": [0-9.]+, \"resolveAdaptersMillis\": [0-9.]+, "
+            + "\"emitMillis\": [0-9.]+, \"fileMillis\": [0-9.]+ \\}");
+  }
+
+  @Test public void roundTimeIncludesTheTimeOfItsSteps() throws Exception {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "import paperparcel.ProcessorConfig;",
+            "@ProcessorConfig(options = @PaperParcel.Options(useEnumOrdinals = true))",
+            "@PaperParcel",
+            "public final class Test implements Parcelable {",
+            "  public String name;",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    File report = new File(temporaryFolder.getRoot(), "profile.json");
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.profile=" + report.getAbsolutePath())
+        .compile(source);
+    assertThat(compilation).succeeded();
+
+    String json = Files.toString(report, Charset.forName("UTF-8"));
+    Matcher round = Pattern.compile("\"millis\": ([0-9.]+),\\s+\"steps\": \\{([^}]*)\\}")
+        .matcher(json);
+    int rounds = 0;
+    while (round.find()) {
+      double stepMillis = 0;
+      Matcher step = Pattern.compile(": ([0-9.]+)").matcher(round.group(2));
+      while (step.find()) {
+        stepMillis += Double.parseDouble(step.group(1));
+      }
+      // Each time is rounded to the nearest microsecond.
+      assertThat(Double.parseDouble(round.group(1))).isAtLeast(stepMillis - 0.002);
+      rounds++;
+    }
+    assertThat(rounds).isGreaterThan(0);
+    // OptionsProcessingStep runs before PaperParcelProcessingStep in the first round.
+    assertThat(json).contains("\"OptionsProcessingStep\": ");
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class SharedAdaptersTest {
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceString("test.Foo", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import java.util.List;",
+          "import java.util.Map;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class Foo implements Parcelable {",
+          "  public List<String> tags;",
+          "  public Map<String, List<String>> groups;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  private static final JavaFileObject BAR =
+      JavaFileObjects.forSourceString("test.Bar", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import java.util.List;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class Bar implements Parcelable {",
+          "  public List<String> names;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  @Test public void adaptersAreSharedWithinPackage() {
+    JavaFileObject expectedAdapters =
+        JavaFileObjects.forSourceString("test/PaperParcelAdapters", Joiner.on('\n').join(
+            "package test;",
+            "import java.util.List;",
+            "import java.util.Map;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.ListAdapter;",
+            "import paperparcel.internal.MapAdapter;",
+            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelAdapters {",
+            "  private PaperParcelAdapters() {",
+            "  }",
+            "  static final class StringListAdapterHolder {",
+            "    static final TypeAdapter<List<String>> INSTANCE = ",
+            "        new ListAdapter<String>(StaticAdapters.STRING_ADAPTER);",
+            "    private StringListAdapterHolder() {",
+            "    }",
+            "  }",
+            "  static final class StringStringListMapAdapterHolder {",
+            "    static final TypeAdapter<Map<String, List<String>>> INSTANCE = ",
+            "        new MapAdapter<String, List<String>>(StaticAdapters.STRING_ADAPTER, ",
+            "            Utils.nullSafeClone(StringListAdapterHolder.INSTANCE));",
+            "    private StringStringListMapAdapterHolder() {",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    JavaFileObject expectedBar =
+        JavaFileObjects.forSourceString("test/PaperParcelBar", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import java.util.List;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelBar {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Bar> CREATOR = new Parcelable.Creator<Bar>() {",
+            "    @Override",
+            "    public Bar createFromParcel(Parcel in) {",
+            "      List<String> names = ",
+            "          Utils.readNullable(in, PaperParcelAdapters.StringListAdapterHolder.INSTANCE);",
+            "      Bar data = new Bar();",
+            "      data.names = names;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Bar[] newArray(int size) {",
+            "      return new Bar[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelBar() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Bar data, @NonNull Parcel dest, int flags) {",
+            "    Utils.writeNullable(data.names, dest, flags, ",
+            "        PaperParcelAdapters.StringListAdapterHolder.INSTANCE);",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.sharedAdapters=true")
+        .compile(FOO, BAR);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test/PaperParcelAdapters")
+        .hasSourceEquivalentTo(expectedAdapters);
+    assertThat(compilation)
+        .generatedSourceFile("test/PaperParcelBar")
+        .hasSourceEquivalentTo(expectedBar);
+  }
+
+  @Test public void ignoredWhenIsolating() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.sharedAdapters=true", "-Apaperparcel.isolating=true")
+        .compile(BAR);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).hadWarningContaining(ErrorMessages.SHARED_ADAPTERS_WHEN_ISOLATING);
+    assertThat(compilation).generatedSourceFile("test/PaperParcelBar")
+        .contentsAsUtf8String().contains("STRING_LIST_ADAPTER");
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class SizeBudgetTest {
+  private static final JavaFileObject SOURCE =
+      JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import java.util.List;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class Test implements Parcelable {",
+          "  public int count;",
+          "  public String name;",
+          "  public List<String> tags;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  @Test public void attributesFieldBytes() {
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import java.util.List;",
+            "import paperparcel.TypeAdapter;",
+            "import paperparcel.internal.ListAdapter;",
+            "import paperparcel.internal.ParcelBudget;",
+            "import paperparcel.internal.StaticAdapters;",
+            "import paperparcel.internal.Utils;",
+            "final class PaperParcelTest {",
+            "  static final TypeAdapter<List<String>> STRING_LIST_ADAPTER = ",
+            "      new ListAdapter<String>(StaticAdapters.STRING_ADAPTER);",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      int count = in.readInt();",
+            "      String name = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "      List<String> tags = Utils.readNullable(in, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "      Test data = new Test();",
+            "      data.count = count;",
+            "      data.name = name;",
+            "      data.tags = tags;",
+            "      return data;",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    ParcelBudget.Recorder budget = ParcelBudget.begin(dest, \"Test\");",
+            "    try {",
+            "      dest.writeInt(data.count);",
+            "      if (budget != null) {",
+            "        budget.enterField(dest, \"name\");",
+            "      }",
+            "      StaticAdapters.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "      if (budget != null) {",
+            "        budget.exitField(dest);",
+            "      }",
+            "      if (budget != null) {",
+            "        budget.enterField(dest, \"tags[]\");",
+            "      }",
+            "      Utils.writeNullable(data.tags, dest, flags, PaperParcelTest.STRING_LIST_ADAPTER);",
+            "      if (budget != null) {",
+            "        budget.exitField(dest);",
+            "      }",
+            "    } finally {",
+            "      if (budget != null) {",
+            "        budget.end(dest);",
+            "      }",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.budget=true")
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test/PaperParcelTest")
+        .hasSourceEquivalentTo(expected);
+  }
+
+  @Test public void tableDrivenClassesPassBudgetPaths() {
+    JavaFileObject source =
+        JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import paperparcel.PaperParcel;",
+            "@PaperParcel",
+            "@PaperParcel.Options(tableDriven = true)",
+            "public final class Test implements Parcelable {",
+            "  public int count;",
+            "  public java.util.List<String> tags;",
+            "  @Override public int describeContents() {",
+            "    return 0;",
+            "  }",
+            "  @Override public void writeToParcel(Parcel dest, int flags) {",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.budget=true")
+        .compile(source);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("FieldTable.BUDGET");
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("new String[] {\"count\", \"tags[]\"}");
+  }
+
+  @Test public void disabledByDefault() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().doesNotContain("ParcelBudget");
+  }
+}
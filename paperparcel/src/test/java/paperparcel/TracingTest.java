@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2016 Bradley Campbell.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package paperparcel;
+
+import com.google.common.base.Joiner;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public class TracingTest {
+  private static final JavaFileObject SOURCE =
+      JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "public final class Test implements Parcelable {",
+          "  public int count;",
+          "  public String name;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  private static final JavaFileObject TABLE_DRIVEN_SOURCE =
+      JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+          "package test;",
+          "import android.os.Parcel;",
+          "import android.os.Parcelable;",
+          "import paperparcel.PaperParcel;",
+          "@PaperParcel",
+          "@PaperParcel.Options(tableDriven = true)",
+          "public final class Test implements Parcelable {",
+          "  public int count;",
+          "  public String name;",
+          "  @Override public int describeContents() {",
+          "    return 0;",
+          "  }",
+          "  @Override public void writeToParcel(Parcel dest, int flags) {",
+          "  }",
+          "}"
+      ));
+
+  @Test public void tracesClassesAndAdapterFields() {
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test/PaperParcelTest", Joiner.on('\n').join(
+            "package test;",
+            "import android.os.Parcel;",
+            "import android.os.Parcelable;",
+            "import android.support.annotation.NonNull;",
+            "import paperparcel.internal.ParcelTrace;",
+            "import paperparcel.internal.StaticAdapters;",
+            "final class PaperParcelTest {",
+            "  @NonNull",
+            "  static final Parcelable.Creator<Test> CREATOR = new Parcelable.Creator<Test>() {",
+            "    @Override",
+            "    public Test createFromParcel(Parcel in) {",
+            "      ParcelTrace.Tracer tracer = ParcelTrace.getTracer();",
+            "      if (tracer != null) {",
+            "        tracer.beginSection(\"test.Test.createFromParcel\");",
+            "      }",
+            "      try {",
+            "        int count = in.readInt();",
+            "        String name;",
+            "        if (tracer != null) {",
+            "          tracer.beginSection(\"test.Test.name.read\");",
+            "        }",
+            "        try {",
+            "          name = StaticAdapters.STRING_ADAPTER.readFromParcel(in);",
+            "        } finally {",
+            "          if (tracer != null) {",
+            "            tracer.endSection();",
+            "          }",
+            "        }",
+            "        Test data = new Test();",
+            "        data.count = count;",
+            "        data.name = name;",
+            "        return data;",
+            "      } finally {",
+            "        if (tracer != null) {",
+            "          tracer.endSection();",
+            "        }",
+            "      }",
+            "    }",
+            "    @Override",
+            "    public Test[] newArray(int size) {",
+            "      return new Test[size];",
+            "    }",
+            "  };",
+            "  private PaperParcelTest() {",
+            "  }",
+            "  static void writeToParcel(@NonNull Test data, @NonNull Parcel dest, int flags) {",
+            "    ParcelTrace.Tracer tracer = ParcelTrace.getTracer();",
+            "    if (tracer != null) {",
+            "      tracer.beginSection(\"test.Test.writeToParcel\");",
+            "    }",
+            "    try {",
+            "      dest.writeInt(data.count);",
+            "      if (tracer != null) {",
+            "        tracer.beginSection(\"test.Test.name.write\");",
+            "      }",
+            "      try {",
+            "        StaticAdapters.STRING_ADAPTER.writeToParcel(data.name, dest, flags);",
+            "      } finally {",
+            "        if (tracer != null) {",
+            "          tracer.endSection();",
+            "        }",
+            "      }",
+            "    } finally {",
+            "      if (tracer != null) {",
+            "        tracer.endSection();",
+            "      }",
+            "    }",
+            "  }",
+            "}"
+        ));
+
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.traceFields=true")
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test/PaperParcelTest")
+        .hasSourceEquivalentTo(expected);
+  }
+
+  @Test public void traceOptionOnlyTracesClasses() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.trace=true")
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("tracer.beginSection(\"test.Test.writeToParcel\")");
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().doesNotContain("test.Test.name.write");
+  }
+
+  @Test public void tableDrivenClassesSetTraceFlag() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.trace=true")
+        .compile(TABLE_DRIVEN_SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("FieldTable.TRACE");
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().doesNotContain("new String[]");
+  }
+
+  @Test public void tableDrivenClassesPassFieldNamesToTrace() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .withOptions("-Apaperparcel.traceFields=true")
+        .compile(TABLE_DRIVEN_SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("FieldTable.TRACE | FieldTable.TRACE_FIELDS");
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().contains("new String[] {\"count\", \"name\"}");
+  }
+
+  @Test public void disabledByDefault() {
+    Compilation compilation = javac()
+        .withProcessors(new PaperParcelProcessor())
+        .compile(SOURCE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test/PaperParcelTest")
+        .contentsAsUtf8String().doesNotContain("ParcelTrace");
+  }
+}